@@ -0,0 +1,182 @@
+package file_manager.benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import file_manager.session.SessionContext;
+import file_manager.utils.ByteCountUtils;
+import file_manager.utils.FileSystemUtils;
+
+/**
+ * Generates the synthetic files and folders the benchmarks run against.
+ * <p>
+ * Contents are derived from a fixed seed, so every run works on the same bytes. Files are
+ * written in large chunks, so multi-gigabyte fixtures are created at disk speed. A
+ * {@link Workspace} lives either in a temporary folder on disk or on an in-memory file system,
+ * chosen with the {@code fileSystem} parameter of the benchmarks.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class BenchmarkFixtures {
+
+    /**
+     * Runs the benchmark in a temporary folder on the default file system.
+     */
+    public static final String DISK_FILE_SYSTEM = "disk";
+
+    /**
+     * Runs the benchmark on an in-memory file system; only suitable for fixtures that fit in the heap.
+     */
+    public static final String MEMORY_FILE_SYSTEM = "memory";
+
+    private static final int WRITE_CHUNK_SIZE = 1 << 20;
+    private static final long FIXTURE_SEED = 0x5EED_F11EL;
+
+    private BenchmarkFixtures() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A folder the fixtures of one benchmark are created in, removed again when it is closed.
+     */
+    public static final class Workspace implements Closeable {
+        private final Path rootPath;
+        private final FileSystem inMemoryFileSystem;
+
+        private Workspace(Path rootPath, FileSystem inMemoryFileSystem) {
+            this.rootPath = rootPath;
+            this.inMemoryFileSystem = inMemoryFileSystem;
+        }
+
+        /**
+         * @return the folder the fixtures are created in
+         */
+        public Path getRootPath() {
+            return rootPath;
+        }
+
+        /**
+         * Creates a non-interactive session in the given folder that discards its output,
+         * so the benchmarks measure the operations rather than the console.
+         *
+         * @param workingDirectoryPath the working directory of the session
+         * @return the session
+         */
+        public SessionContext newSilentSession(Path workingDirectoryPath) {
+            return new SessionContext(workingDirectoryPath, new PrintStream(OutputStream.nullOutputStream()), false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inMemoryFileSystem != null) {
+                inMemoryFileSystem.close();
+            } else {
+                deleteTree(rootPath);
+            }
+        }
+    }
+
+    /**
+     * Creates an empty workspace.
+     *
+     * @param fileSystemName {@link #DISK_FILE_SYSTEM} or {@link #MEMORY_FILE_SYSTEM}
+     * @return the workspace
+     * @throws IOException if the temporary folder cannot be created
+     */
+    public static Workspace createWorkspace(String fileSystemName) throws IOException {
+        if (MEMORY_FILE_SYSTEM.equals(fileSystemName)) {
+            FileSystem inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+            return new Workspace(inMemoryFileSystem.getPath("").toAbsolutePath(), inMemoryFileSystem);
+        }
+        return new Workspace(Files.createTempDirectory("file-manager-benchmark"), null);
+    }
+
+    /**
+     * Writes a file of pseudo-random bytes.
+     *
+     * @param filePath the file to create or replace
+     * @param fileSize the size, such as {@code 64M} (see {@link ByteCountUtils#parseByteCount(String)})
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeBinaryFile(Path filePath, String fileSize) throws IOException {
+        Random contentRandom = new Random(FIXTURE_SEED);
+        byte[] chunk = new byte[WRITE_CHUNK_SIZE];
+        long remainingBytes = ByteCountUtils.parseByteCount(fileSize);
+        try (SeekableByteChannel fileChannel = Files.newByteChannel(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (remainingBytes > 0) {
+                contentRandom.nextBytes(chunk);
+                ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk, 0, (int) Math.min(chunk.length, remainingBytes));
+                while (chunkBuffer.hasRemaining()) {
+                    remainingBytes -= fileChannel.write(chunkBuffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a text file of 80-character lines.
+     *
+     * @param filePath the file to create or replace
+     * @param fileSize the approximate size, such as {@code 1M}
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeTextFile(Path filePath, String fileSize) throws IOException {
+        byte[] line = (("The quick brown fox jumps over the lazy dog. ").repeat(2).substring(0, 79) + "\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        long lineCount = Math.max(1, ByteCountUtils.parseByteCount(fileSize) / line.length);
+        try (OutputStream fileOutput = Files.newOutputStream(filePath)) {
+            for (long lineIndex = 0; lineIndex < lineCount; lineIndex++) {
+                fileOutput.write(line);
+            }
+        }
+    }
+
+    /**
+     * Creates a folder holding the given number of small files.
+     *
+     * @param directoryPath the folder to create
+     * @param entryCount    the number of files in it
+     * @param fileSizeBytes the size of each file
+     * @throws IOException if a file cannot be written
+     */
+    public static void createFlatDirectory(Path directoryPath, int entryCount, int fileSizeBytes) throws IOException {
+        Files.createDirectories(directoryPath);
+        byte[] fileContents = new byte[fileSizeBytes];
+        new Random(FIXTURE_SEED).nextBytes(fileContents);
+        for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+            Files.write(directoryPath.resolve(String.format("entry-%07d.dat", entryIndex)), fileContents);
+        }
+    }
+
+    /**
+     * Deletes a folder and everything in it, if it exists.
+     *
+     * @param directoryPath the folder to delete
+     * @throws IOException if something cannot be deleted
+     */
+    public static void deleteTree(Path directoryPath) throws IOException {
+        if (!Files.exists(directoryPath)) {
+            return;
+        }
+        try (Stream<Path> treeEntries = Files.walk(directoryPath)) {
+            for (Path treeEntry : (Iterable<Path>) treeEntries.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(treeEntry);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package file_manager.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import file_manager.operations.FileOperations;
+import file_manager.session.SessionContext;
+
+/**
+ * Measures {@code copy file} to a new destination and onto an existing, unchanged destination,
+ * which takes the in-place update path.
+ * Sizes of several gigabytes can be added with, for example, {@code -p fileSize=4G}.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopyBenchmark {
+
+    private static final String SOURCE_FILE_NAME = "source.bin";
+    private static final String NEW_COPY_FILE_NAME = "new-copy.bin";
+    private static final String EXISTING_COPY_FILE_NAME = "existing-copy.bin";
+
+    @Param({"1K", "1M", "64M", "1G"})
+    public String fileSize;
+
+    @Param({BenchmarkFixtures.DISK_FILE_SYSTEM})
+    public String fileSystem;
+
+    private BenchmarkFixtures.Workspace workspace;
+    private SessionContext session;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws IOException {
+        workspace = BenchmarkFixtures.createWorkspace(fileSystem);
+        session = workspace.newSilentSession(workspace.getRootPath());
+        Path sourceFilePath = workspace.getRootPath().resolve(SOURCE_FILE_NAME);
+        BenchmarkFixtures.writeBinaryFile(sourceFilePath, fileSize);
+        Files.copy(sourceFilePath, workspace.getRootPath().resolve(EXISTING_COPY_FILE_NAME));
+    }
+
+    @Setup(Level.Invocation)
+    public void removeNewCopy() throws IOException {
+        Files.deleteIfExists(workspace.getRootPath().resolve(NEW_COPY_FILE_NAME));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixtures() throws IOException {
+        workspace.close();
+    }
+
+    @Benchmark
+    public String copyToNewFile() {
+        return FileOperations.copy(session, SOURCE_FILE_NAME, NEW_COPY_FILE_NAME);
+    }
+
+    @Benchmark
+    public String copyOntoUnchangedFile() {
+        return FileOperations.copy(session, SOURCE_FILE_NAME, EXISTING_COPY_FILE_NAME);
+    }
+}
@@ -0,0 +1,87 @@
+package file_manager.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import file_manager.operations.DirectoryOperations;
+import file_manager.session.SessionContext;
+
+/**
+ * Measures {@code list} and recursive {@code delete dir} on flat folders of small files.
+ * Every measured deletion gets a freshly generated folder, so each iteration times a single call.
+ * A fan-out of a million entries can be added with {@code -p entryCount=1000000}.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class DirectoryBenchmark {
+
+    private static final String LISTED_DIRECTORY_NAME = "listed";
+    private static final String DELETED_DIRECTORY_NAME = "deleted";
+    private static final int ENTRY_SIZE_BYTES = 512;
+
+    @Param({"10", "1000", "100000"})
+    public int entryCount;
+
+    @Param({BenchmarkFixtures.DISK_FILE_SYSTEM})
+    public String fileSystem;
+
+    private BenchmarkFixtures.Workspace workspace;
+    private SessionContext listingSession;
+    private SessionContext deletingSession;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws IOException {
+        workspace = BenchmarkFixtures.createWorkspace(fileSystem);
+        Path listedDirectoryPath = workspace.getRootPath().resolve(LISTED_DIRECTORY_NAME);
+        BenchmarkFixtures.createFlatDirectory(listedDirectoryPath, entryCount, ENTRY_SIZE_BYTES);
+        listingSession = workspace.newSilentSession(listedDirectoryPath);
+        deletingSession = workspace.newSilentSession(workspace.getRootPath());
+    }
+
+    @Setup(Level.Iteration)
+    public void createDirectoryToDelete() throws IOException {
+        Path deletedDirectoryPath = workspace.getRootPath().resolve(DELETED_DIRECTORY_NAME);
+        BenchmarkFixtures.deleteTree(deletedDirectoryPath);
+        BenchmarkFixtures.createFlatDirectory(deletedDirectoryPath, entryCount, ENTRY_SIZE_BYTES);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixtures() throws IOException {
+        workspace.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void listDir() {
+        DirectoryOperations.listDir(listingSession);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public boolean delDir() {
+        return DirectoryOperations.delDir(deletingSession, DELETED_DIRECTORY_NAME, "y");
+    }
+}
@@ -0,0 +1,79 @@
+package file_manager.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import file_manager.operations.FileOperations;
+import file_manager.session.SessionContext;
+
+/**
+ * Measures {@code read file}, which prints every line, and {@code write file}, which appends a line.
+ * {@code read file} keeps the whole file in memory, so sizes stay well below the heap size.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadWriteBenchmark {
+
+    private static final String TEXT_FILE_NAME = "text.txt";
+    private static final String APPENDED_FILE_NAME = "appended.txt";
+    private static final String APPENDED_LINE = "A line appended by the benchmark";
+
+    @Param({"1K", "1M", "64M"})
+    public String fileSize;
+
+    @Param({BenchmarkFixtures.DISK_FILE_SYSTEM})
+    public String fileSystem;
+
+    private BenchmarkFixtures.Workspace workspace;
+    private SessionContext session;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws IOException {
+        workspace = BenchmarkFixtures.createWorkspace(fileSystem);
+        session = workspace.newSilentSession(workspace.getRootPath());
+        BenchmarkFixtures.writeTextFile(workspace.getRootPath().resolve(TEXT_FILE_NAME), fileSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetAppendedFile() throws IOException {
+        BenchmarkFixtures.writeTextFile(workspace.getRootPath().resolve(APPENDED_FILE_NAME), fileSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixtures() throws IOException {
+        workspace.close();
+    }
+
+    @Benchmark
+    public String readFile() {
+        return FileOperations.readFile(session, TEXT_FILE_NAME);
+    }
+
+    @Benchmark
+    public long writeFile() throws IOException {
+        FileOperations.writeFile(session, APPENDED_FILE_NAME, APPENDED_LINE);
+        return Files.size(workspace.getRootPath().resolve(APPENDED_FILE_NAME));
+    }
+}
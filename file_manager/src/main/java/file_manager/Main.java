@@ -1,12 +1,26 @@
 package file_manager;
 
+import file_manager.batch.BatchRunner;
+import file_manager.commands.CommandExecutor;
+import file_manager.operations.ArchiveOperations;
 import file_manager.operations.DirectoryOperations;
 import file_manager.operations.FileOperations;
+import file_manager.server.CommandServer;
+import file_manager.session.OutputFormat;
+import file_manager.session.SessionContext;
+import file_manager.throttle.IoThrottle;
+import file_manager.utils.ByteCountUtils;
+import file_manager.utils.FileSystemUtils;
 import file_manager.utils.InputUtils;
 import file_manager.utils.PathUtils;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * The {@code Main} class is the entry point for the File Manager application.
@@ -15,10 +29,15 @@ import java.util.Map;
  * files and directories.
  *
  * <p>The application utilizes other classes for specific functionalities:
+ *   - {@link CommandExecutor}: Parses and dispatches commands.
+ *   - {@link BatchRunner}: Runs command scripts without user interaction.
+ *   - {@link CommandServer}: Serves commands over a local socket.
  *   - {@link DirectoryOperations}: Handles directory-related operations.
  *   - {@link FileOperations}: Handles file-related operations.
+ *   - {@link ArchiveOperations}: Handles creating and extracting ZIP archives.
  *   - {@link InputUtils}: Provides utility methods for handling user input.
  *   - {@link PathUtils}: Provides utility methods for handling file paths.
+ *   - {@link SessionContext}: Holds the working directory and directory history of the session.
  *
  * @author Nikolaos Marvakis
  * @version 1.0
@@ -30,197 +49,248 @@ public class Main {
 	private static final String EXIT_COMMAND = "exit";
 
 	/**
-	 * A map of command codes to their corresponding string representations.
-	 * This map is used to validate user input and dispatch commands.
+	 * The command-line option that runs the application on an in-memory file system.
 	 */
-	private static final Map<String, String> COMMAND_CODE_TO_STRING_MAP = createCommandMap();
+	private static final String IN_MEMORY_OPTION = "--in-memory";
+
+	/**
+	 * The command-line option that runs a command script instead of the interactive prompt.
+	 * It is followed by the script file, or {@code -} to read the script from standard input.
+	 */
+	private static final String BATCH_OPTION = "--batch";
+
+	/**
+	 * The command-line option that sets how many batch commands may run at once.
+	 * {@code --jobs 1} runs the script strictly sequentially.
+	 */
+	private static final String JOBS_OPTION = "--jobs";
+
+	/**
+	 * The command-line option that keeps the application running as a server for {@code CommandClient}.
+	 */
+	private static final String SERVER_OPTION = "--server";
+
+	/**
+	 * The command-line option that sets the port of the server.
+	 */
+	private static final String PORT_OPTION = "--port";
+
+	/**
+	 * The command-line option that limits the bytes per second read or written by all commands, such as {@code 50M}.
+	 */
+	private static final String MAX_IO_RATE_OPTION = "--max-io-rate";
+
+	/**
+	 * The command-line option that limits the file operations per second done by all commands.
+	 */
+	private static final String MAX_OPS_RATE_OPTION = "--max-ops-rate";
+
+	/**
+	 * The command-line option that selects how results are printed: {@code text} or {@code json}.
+	 */
+	private static final String OUTPUT_OPTION = "--output";
+
+	/**
+	 * The size of the buffer standard output is written through; it is flushed after each command.
+	 */
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The session the interactive commands run in.
+	 */
+	private static final SessionContext INTERACTIVE_SESSION = SessionContext.getDefaultSession();
 
 	/**
 	 * The main method that serves as the application's entry point.
 	 * It displays available commands, then enters a loop to process user input until
 	 * the user enters the "exit" command.
+	 * <p>
+	 * With {@code --batch <script>}, the commands of the script are run without prompting and
+	 * the application exits with the status reported by {@link BatchRunner}.
+	 * </p>
 	 *
-	 * @param args Command-line arguments (not used).
+	 * @param args Command-line arguments; {@code --in-memory} runs on an in-memory file system,
+	 *             {@code --batch <script>} runs a command script, {@code --jobs <n>} limits how many
+	 *             of its commands run at once, {@code --server [--port <n>]} serves commands over a local socket,
+	 *             {@code --max-io-rate <bytes>} and {@code --max-ops-rate <n>} limit the I/O of all commands per second,
+	 *             {@code --output json} prints one JSON record per command instead of text.
 	 */
 	public static void main(String[] args) {
-		System.out.println("Welcome to the File Manager!");
-		System.out.println("Type 'info' to see the list of available commands.");
-		System.out.println("Type 'exit' at any time to close the application.");
-		System.out.println();
-		InputUtils.displayAvailableCommands();
-		System.out.println();
-
-		String[] parsedUserInputArguments = new String[4];
-		
+		List<String> commandLineOptions = Arrays.asList(args);
+		int batchOptionIndex = commandLineOptions.indexOf(BATCH_OPTION);
+		boolean inMemory = commandLineOptions.contains(IN_MEMORY_OPTION);
+		if (inMemory) {
+			PathUtils.useFileSystem(INTERACTIVE_SESSION, FileSystemUtils.newInMemoryFileSystem());
+		}
+		configureGlobalThrottle(args);
+		OutputFormat outputFormat = readOutputFormatOption(args);
+
+		if (batchOptionIndex >= 0) {
+			boolean hasScriptLocation = batchOptionIndex + 1 < args.length && !args[batchOptionIndex + 1].startsWith("--");
+			String scriptLocation = hasScriptLocation ? args[batchOptionIndex + 1] : BatchRunner.STANDARD_INPUT_SCRIPT;
+			System.exit(BatchRunner.runScript(scriptLocation, INTERACTIVE_SESSION.getCurrentWorkingDirectoryPath(),
+					readIntegerOption(args, JOBS_OPTION, BatchRunner.DEFAULT_PARALLELISM), outputFormat));
+		}
+
+		if (commandLineOptions.contains(SERVER_OPTION)) {
+			runServer(readIntegerOption(args, PORT_OPTION, CommandServer.DEFAULT_PORT));
+			return;
+		}
+
+		// Output is written through a large buffer and flushed after each command and before each prompt
+		System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false));
+		INTERACTIVE_SESSION.setOutputFormat(outputFormat);
+		if (outputFormat == OutputFormat.TEXT) {
+			System.out.println("Welcome to the File Manager!");
+			if (inMemory) {
+				System.out.println("Running on an in-memory file system. Nothing will be written to disk.");
+			}
+			System.out.println("Type 'info' to see the list of available commands.");
+			System.out.println("Type 'exit' at any time to close the application.");
+			System.out.println();
+			InputUtils.displayAvailableCommands();
+			System.out.println();
+		}
+
 		// System.out.print("Enter a command (use '>' for multiple input): ");
 		String rawUserInput = promptAndValidateUserInput();
 		
 		while (!rawUserInput.equals(EXIT_COMMAND)) {
-			processUserInput(rawUserInput, parsedUserInputArguments);
+			CommandExecutor.executeCommandLine(INTERACTIVE_SESSION, rawUserInput);
 			// System.out.print("Enter a command (use '>' for multiple input): ");
 			rawUserInput = promptAndValidateUserInput();
 		}
-		System.out.println("Thank you for using the File Manager. Goodbye!");
+		INTERACTIVE_SESSION.close();
+		if (INTERACTIVE_SESSION.getOutputFormat() == OutputFormat.TEXT) {
+			System.out.println("Thank you for using the File Manager. Goodbye!");
+		}
+		System.out.flush();
 	}
 
 	/**
-	 * Creates and returns a map of command codes to their string representations.
+	 * Serves commands on the given port until the process is stopped.
 	 *
-	 * @return A map containing command codes as keys and their corresponding command strings as values.
-	 */
-	private static Map<String, String> createCommandMap() {
-		Map<String, String> commandMap = new HashMap<>();
-		commandMap.put("LIST", "list");
-		commandMap.put("PATH", "path");
-		commandMap.put("INFO", "info");
-		commandMap.put("CHDIR", "chdir");
-		commandMap.put("PREVDIR", "prevdir");
-		commandMap.put("MAKE_FILE", "make file");
-		commandMap.put("DELETE_FILE", "delete file");
-		commandMap.put("RENAME_FILE", "rename file");
-		commandMap.put("READ_FILE", "read file");
-		commandMap.put("WRITE_FILE", "write file");
-		commandMap.put("CLEAR_FILE", "clear file");
-		commandMap.put("COPY_FILE", "copy file");
-		commandMap.put("MOVE_FILE", "move file");
-		commandMap.put("MAKE_DIR", "make dir");
-		commandMap.put("DELETE_DIR", "delete dir");
-		commandMap.put("RENAME_DIR", "rename dir");
-		commandMap.put("MOVE_DIR", "move dir");
-		return commandMap;
+	 * @param port The port to listen on.
+	 */
+	private static void runServer(int port) {
+		try (CommandServer commandServer = new CommandServer(INTERACTIVE_SESSION.getCurrentWorkingDirectoryPath(), port,
+				CommandServer.DEFAULT_WORKER_COUNT)) {
+			System.out.println("File Manager server listening on 127.0.0.1:" + commandServer.getPort()
+					+ " in " + PathUtils.getCurrentWorkingDirectory(INTERACTIVE_SESSION)
+					+ " (token in " + commandServer.getTokenFilePath() + ")");
+			commandServer.acceptConnections();
+		} catch (IOException ioException) {
+			System.out.println("Unable to start the server on port " + port + ": " + ioException.getMessage());
+			System.exit(2);
+		}
 	}
 
 	/**
-	 * Prompts the user for input and validates the entered command.
-	 * The method continues to prompt until a valid command or the exit command is entered.
+	 * Applies the I/O limits given with {@code --max-io-rate} and {@code --max-ops-rate} to all commands.
 	 *
-	 * @return The validated user input string.
+	 * @param args Command-line arguments.
 	 */
-	private static String promptAndValidateUserInput() {
-		while (true) {
-			String userInput = InputUtils.readUserInput("Enter a command (use '>' for multiple input): ");
-			String userCommand = userInput.split(">")[0].trim();
-			if (COMMAND_CODE_TO_STRING_MAP.containsValue(userCommand) || userCommand.equals(EXIT_COMMAND)) {
-				return userInput;
+	private static void configureGlobalThrottle(String[] args) {
+		List<String> commandLineOptions = Arrays.asList(args);
+		long bytesPerSecond = IoThrottle.UNLIMITED;
+		long operationsPerSecond = IoThrottle.UNLIMITED;
+		int ioRateOptionIndex = commandLineOptions.indexOf(MAX_IO_RATE_OPTION);
+		if (ioRateOptionIndex >= 0 && ioRateOptionIndex + 1 < args.length) {
+			try {
+				bytesPerSecond = ByteCountUtils.parseByteCount(args[ioRateOptionIndex + 1]);
+			} catch (NumberFormatException numberFormatException) {
+				exitWithInvalidRate(MAX_IO_RATE_OPTION, args[ioRateOptionIndex + 1]);
+			}
+		}
+		int opsRateOptionIndex = commandLineOptions.indexOf(MAX_OPS_RATE_OPTION);
+		if (opsRateOptionIndex >= 0 && opsRateOptionIndex + 1 < args.length) {
+			try {
+				operationsPerSecond = Long.parseLong(args[opsRateOptionIndex + 1].trim());
+			} catch (NumberFormatException numberFormatException) {
+				exitWithInvalidRate(MAX_OPS_RATE_OPTION, args[opsRateOptionIndex + 1]);
+			}
+			if (operationsPerSecond < 0) {
+				exitWithInvalidRate(MAX_OPS_RATE_OPTION, args[opsRateOptionIndex + 1]);
 			}
-			System.out.println("⚠️  Unrecognized command. Please enter a valid command or type 'info' for help.");
-			// userInput = InputUtils.readUserInput("Enter a command (use '>' for multiple input): ");
 		}
+		IoThrottle.getGlobalThrottle().setLimits(bytesPerSecond, operationsPerSecond);
+	}
+
+	/**
+	 * Reports an I/O limit that is not a rate and stops, rather than running without the limit.
+	 *
+	 * @param optionName The option with the invalid value.
+	 * @param optionValue The invalid value.
+	 */
+	private static void exitWithInvalidRate(String optionName, String optionValue) {
+		System.out.println("Invalid value for " + optionName + ": " + optionValue
+				+ ". Use a positive rate, or 0 for no limit.");
+		System.exit(2);
 	}
 
 	/**
-	 * Processes the user input by splitting it into command and arguments.
-	 * The arguments array is padded with null values if the input contains fewer arguments
-	 * than expected.
+	 * Reads the output format given with {@code --output}.
 	 *
-	 * @param rawUserInput The raw user input string.
-	 * @param parsedUserInputArguments An array to store the split and padded input values.
+	 * @param args Command-line arguments.
+	 * @return The output format, {@link OutputFormat#TEXT} if the option is missing or invalid.
 	 */
-	private static void processUserInput(String rawUserInput, String[] parsedUserInputArguments) {
-		String[] splitInputArguments = rawUserInput.split(">");
-		for (int i = 0; i < splitInputArguments.length; i++) {
-			parsedUserInputArguments[i] = splitInputArguments[i].trim();
+	private static OutputFormat readOutputFormatOption(String[] args) {
+		int optionIndex = Arrays.asList(args).indexOf(OUTPUT_OPTION);
+		if (optionIndex < 0 || optionIndex + 1 >= args.length) {
+			return OutputFormat.TEXT;
 		}
-		for (int i = splitInputArguments.length; i < parsedUserInputArguments.length; i++) {
-			parsedUserInputArguments[i] = null;
+		OutputFormat outputFormat = OutputFormat.fromFormatName(args[optionIndex + 1]);
+		if (outputFormat == null) {
+			System.out.println("Invalid value for " + OUTPUT_OPTION + ": " + args[optionIndex + 1] + ". Using text.");
+			return OutputFormat.TEXT;
 		}
-		executeParsedCommand(parsedUserInputArguments);
+		return outputFormat;
 	}
 
 	/**
-	 * Executes the command specified in the {@code parsedUserInputArguments} array.
-	 * This method dispatches the command to the appropriate operation based on the command code.
+	 * Reads a positive number given after a command-line option, such as {@code --jobs 4}.
 	 *
-	 * @param parsedUserInputArguments An array containing the command and its arguments.
-	 */
-	private static void executeParsedCommand(String[] parsedUserInputArguments) {
-		String userCommandString = parsedUserInputArguments[0];
-		String resolvedCommandCode = resolveCommandCodeFromString(userCommandString);
-
-		if (resolvedCommandCode == null) return;
-
-		switch (resolvedCommandCode) {
-			case "LIST":
-				DirectoryOperations.listDir();
-				break;
-			case "PATH":
-				System.out.println("Current working directory: " + PathUtils.getCurrentWorkingDirectory());
-				break;
-			case "INFO":
-				InputUtils.displayAvailableCommands();
-				System.out.println();
-				break;
-			case "CHDIR":
-				System.out.println("Changing directory...");
-				PathUtils.changeWorkingDirectory(parsedUserInputArguments[1]);
-				break;
-			case "PREVDIR":
-				System.out.println("Moving to parent directory...");
-				PathUtils.changeToParentDirectory();
-				break;
-			case "MAKE_FILE":
-				System.out.println("Creating new file...");
-				FileOperations.newFile(parsedUserInputArguments[1]);
-				break;
-			case "DELETE_FILE":
-				System.out.println("Deleting file...");
-				FileOperations.delFile(parsedUserInputArguments[1]);
-				break;
-			case "RENAME_FILE":
-				System.out.println("Renaming file...");
-				FileOperations.renameFile(parsedUserInputArguments[1], parsedUserInputArguments[2]);
-				break;
-			case "READ_FILE":
-				System.out.println("Reading file...");
-				FileOperations.readFile(parsedUserInputArguments[1]);
-				break;
-			case "WRITE_FILE":
-				System.out.println("Writing to file...");
-				FileOperations.writeFile(parsedUserInputArguments[1], parsedUserInputArguments[2]);
-				break;
-			case "CLEAR_FILE":
-				System.out.println("Clearing file contents...");
-				FileOperations.clearFile(parsedUserInputArguments[1]);
-				break;
-			case "COPY_FILE":
-				System.out.println("Copying file...");
-				FileOperations.copy(parsedUserInputArguments[1], parsedUserInputArguments[2]);
-				break;
-			case "MOVE_FILE":
-				System.out.println("Moving file...");
-				FileOperations.moveFile(parsedUserInputArguments[1], parsedUserInputArguments[2]);
-				break;
-			case "MAKE_DIR":
-				System.out.println("Creating new directory...");
-				DirectoryOperations.newDir(parsedUserInputArguments[1]);
-				break;
-			case "DELETE_DIR":
-				System.out.println("Deleting directory...");
-				DirectoryOperations.delDir(parsedUserInputArguments[1], "n");
-				break;
-			case "RENAME_DIR":
-				System.out.println("Renaming directory...");
-				DirectoryOperations.renameDir(parsedUserInputArguments[1], parsedUserInputArguments[2]);
-				break;
-			case "MOVE_DIR":
-				System.out.println("Moving directory...");
-				DirectoryOperations.moveDir(parsedUserInputArguments[1], parsedUserInputArguments[2]);
-				break;
+	 * @param args Command-line arguments.
+	 * @param optionName The option to read.
+	 * @param defaultValue The value to use if the option is missing or invalid.
+	 * @return The number given after the option, or {@code defaultValue}.
+	 */
+	private static int readIntegerOption(String[] args, String optionName, int defaultValue) {
+		int optionIndex = Arrays.asList(args).indexOf(optionName);
+		if (optionIndex < 0 || optionIndex + 1 >= args.length) {
+			return defaultValue;
+		}
+		try {
+			return Math.max(1, Integer.parseInt(args[optionIndex + 1]));
+		} catch (NumberFormatException numberFormatException) {
+			System.out.println("Invalid value for " + optionName + ": " + args[optionIndex + 1] + ". Using " + defaultValue + ".");
+			return defaultValue;
 		}
 	}
 
 	/**
-	 * Retrieves the command code associated with the given command string.
+	 * Prompts the user for input and validates the entered command.
+	 * The method continues to prompt until a valid command or the exit command is entered.
+	 * A command may end with {@code &} to run it in the background.
+	 * In the JSON output format no prompt is printed and unrecognized commands are reported as error records.
 	 *
-	 * @param userCommandString The command string entered by the user.
-	 * @return The command code if found in the {@link #COMMAND_CODE_TO_STRING_MAP} map; otherwise, {@code null}.
+	 * @return The validated user input string.
 	 */
-	private static String resolveCommandCodeFromString(String userCommandString) {
-		for (Map.Entry<String, String> entry : COMMAND_CODE_TO_STRING_MAP.entrySet()) {
-			if (entry.getValue().equals(userCommandString)) {
-				return entry.getKey();
+	private static String promptAndValidateUserInput() {
+		boolean printsText = INTERACTIVE_SESSION.getOutputFormat() == OutputFormat.TEXT;
+		while (true) {
+			String userInput = InputUtils.readUserInput(printsText ? "Enter a command (use '>' for multiple input): " : "");
+			String userCommand = CommandExecutor.parseCommandLine(CommandExecutor.removeBackgroundSuffix(userInput))[0];
+			if (CommandExecutor.resolveCommandCode(userCommand) != null || userCommand.equals(EXIT_COMMAND)) {
+				return userInput;
 			}
+			if (printsText) {
+				System.out.println("⚠️  Unrecognized command. Please enter a valid command or type 'info' for help.");
+			} else {
+				INTERACTIVE_SESSION.reportFailure("Unrecognized command: " + userCommand);
+				System.out.flush();
+			}
+			// userInput = InputUtils.readUserInput("Enter a command (use '>' for multiple input): ");
 		}
-		return null;
 	}
 }
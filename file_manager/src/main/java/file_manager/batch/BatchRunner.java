@@ -0,0 +1,297 @@
+package file_manager.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.MissingArgumentException;
+import file_manager.session.OutputFormat;
+import file_manager.session.SessionContext;
+
+/**
+ * Runs File Manager command scripts without user interaction.
+ * <p>
+ * A script holds one command per line, in the same {@code >}-separated grammar as the interactive
+ * prompt. Blank lines and lines starting with {@code #} are skipped, and {@code exit} ends the script.
+ * The whole script is read and parsed before anything runs, so an unknown command or a missing
+ * required argument anywhere in the script fails it without touching any file. Commands then run
+ * in a non-interactive {@link SessionContext}: anything that would have prompted the user fails the
+ * command instead of blocking. Commands on disjoint paths run concurrently and commands on
+ * overlapping paths keep the script order (see {@link BatchScheduler}). All output goes through a
+ * single buffered stream, in script order, that is flushed when the script ends.
+ * </p>
+ * <p>
+ * In the {@link OutputFormat#JSON JSON} output format every command prints one JSON record (see
+ * {@link CommandExecutor#execute(SessionContext, String[])}), invalid lines print error records
+ * and the script ends with a {@code summary} record.
+ * </p>
+ * <p>
+ * The exit status is {@link #EXIT_SUCCESS} if every command succeeded, {@link #EXIT_COMMAND_FAILED}
+ * if at least one command failed, and {@link #EXIT_INVALID_SCRIPT} if the script could not be read
+ * or parsed.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class BatchRunner {
+
+    /**
+     * Exit status when every command of the script succeeded.
+     */
+    public static final int EXIT_SUCCESS = 0;
+
+    /**
+     * Exit status when at least one command of the script failed.
+     */
+    public static final int EXIT_COMMAND_FAILED = 1;
+
+    /**
+     * Exit status when the script could not be read or contains invalid commands.
+     */
+    public static final int EXIT_INVALID_SCRIPT = 2;
+
+    /**
+     * The script location that reads the script from standard input.
+     */
+    public static final String STANDARD_INPUT_SCRIPT = "-";
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String EXIT_COMMAND = "exit";
+    private static final int SCRIPT_BUFFER_SIZE = 1 << 16;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The maximum number of failed line numbers listed in the summary.
+     */
+    private static final int MAX_LISTED_FAILED_LINES = 10;
+
+    /**
+     * The number of commands run at once unless the caller asks for a different number.
+     */
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private BatchRunner() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A command of a script together with the line it was read from.
+     */
+    public static final class ScriptCommand {
+        private final int lineNumber;
+        private final String[] parsedCommandArguments;
+
+        ScriptCommand(int lineNumber, String[] parsedCommandArguments) {
+            this.lineNumber = lineNumber;
+            this.parsedCommandArguments = parsedCommandArguments;
+        }
+
+        /**
+         * @return the line of the script the command was read from, starting at 1
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return the command and its arguments, as parsed by {@link CommandExecutor#parseCommandLine(String)}
+         */
+        public String[] getParsedCommandArguments() {
+            return parsedCommandArguments;
+        }
+    }
+
+    /**
+     * Runs a script file, or standard input if the location is {@link #STANDARD_INPUT_SCRIPT},
+     * printing all output to standard output.
+     *
+     * @param scriptLocation              the path of the script file on the default file system, or {@code -}
+     * @param initialWorkingDirectoryPath the working directory the script starts in
+     * @param parallelism                 the maximum number of commands running at once; 1 runs the script sequentially
+     * @return the exit status of the script
+     */
+    public static int runScript(String scriptLocation, Path initialWorkingDirectoryPath, int parallelism) {
+        return runScript(scriptLocation, initialWorkingDirectoryPath, parallelism, OutputFormat.TEXT);
+    }
+
+    /**
+     * Runs a script file, or standard input, like {@link #runScript(String, Path, int)},
+     * printing the results in the given format.
+     *
+     * @param scriptLocation              the path of the script file on the default file system, or {@code -}
+     * @param initialWorkingDirectoryPath the working directory the script starts in
+     * @param parallelism                 the maximum number of commands running at once; 1 runs the script sequentially
+     * @param outputFormat                the format the results are printed in
+     * @return the exit status of the script
+     */
+    public static int runScript(String scriptLocation, Path initialWorkingDirectoryPath, int parallelism, OutputFormat outputFormat) {
+        PrintStream batchOutput = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+        try (SessionContext batchSession = new SessionContext(initialWorkingDirectoryPath, batchOutput, false)) {
+            batchSession.setOutputFormat(outputFormat);
+            try (BufferedReader scriptReader = openScript(scriptLocation)) {
+                return run(scriptReader, batchSession, parallelism);
+            } catch (IOException | InvalidPathException | SecurityException exception) {
+                batchSession.reportFailure("Unable to read the script: " + scriptLocation + " (" + exception.getMessage() + ")");
+                return EXIT_INVALID_SCRIPT;
+            }
+        } finally {
+            batchOutput.flush();
+        }
+    }
+
+    /**
+     * Reads, parses and runs a script in the given session with the {@linkplain #DEFAULT_PARALLELISM default parallelism}.
+     *
+     * @param scriptReader the script to run
+     * @param batchSession the session to run the commands in, normally a non-interactive one
+     * @return the exit status of the script
+     * @throws IOException if the script cannot be read
+     */
+    public static int run(BufferedReader scriptReader, SessionContext batchSession) throws IOException {
+        return run(scriptReader, batchSession, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Reads, parses and runs a script in the given session.
+     *
+     * @param scriptReader the script to run
+     * @param batchSession the session to run the commands in, normally a non-interactive one
+     * @param parallelism  the maximum number of commands running at once; 1 runs the script sequentially
+     * @return the exit status of the script
+     * @throws IOException if the script cannot be read
+     */
+    public static int run(BufferedReader scriptReader, SessionContext batchSession, int parallelism) throws IOException {
+        List<String> parseErrors = new ArrayList<>();
+        List<ScriptCommand> scriptCommands = parseScript(scriptReader, parseErrors);
+        PrintStream batchOutput = batchSession.getOutput();
+        if (!parseErrors.isEmpty()) {
+            for (String parseError : parseErrors) {
+                batchSession.reportFailure(parseError);
+            }
+            batchSession.reportFailure("The script was not run: " + parseErrors.size() + " invalid line(s).");
+            return EXIT_INVALID_SCRIPT;
+        }
+
+        List<Integer> failedLineNumbers = new ArrayList<>();
+        if (parallelism <= 1) {
+            for (ScriptCommand scriptCommand : scriptCommands) {
+                if (!runCommand(batchSession, scriptCommand)) {
+                    failedLineNumbers.add(scriptCommand.getLineNumber());
+                }
+            }
+        } else {
+            failedLineNumbers = BatchScheduler.run(scriptCommands, batchSession, parallelism);
+        }
+        if (batchSession.getOutputFormat() == OutputFormat.JSON) {
+            printJsonSummary(batchOutput, scriptCommands.size(), failedLineNumbers);
+        } else {
+            printSummary(batchOutput, scriptCommands.size(), failedLineNumbers);
+        }
+        return failedLineNumbers.isEmpty() ? EXIT_SUCCESS : EXIT_COMMAND_FAILED;
+    }
+
+    /**
+     * Parses every line of a script up front.
+     *
+     * @param scriptReader the script to parse
+     * @param parseErrors  receives a message for each invalid line
+     * @return the commands of the script in order
+     * @throws IOException if the script cannot be read
+     */
+    public static List<ScriptCommand> parseScript(BufferedReader scriptReader, List<String> parseErrors) throws IOException {
+        List<ScriptCommand> scriptCommands = new ArrayList<>();
+        String scriptLine;
+        int lineNumber = 0;
+        while ((scriptLine = scriptReader.readLine()) != null) {
+            lineNumber++;
+            String trimmedLine = scriptLine.trim();
+            if (trimmedLine.isEmpty() || trimmedLine.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            String[] parsedCommandArguments = CommandExecutor.parseCommandLine(trimmedLine);
+            if (parsedCommandArguments[0].equals(EXIT_COMMAND)) {
+                break;
+            }
+            String commandCode = CommandExecutor.resolveCommandCode(parsedCommandArguments[0]);
+            if (commandCode == null) {
+                parseErrors.add("Line " + lineNumber + ": Unrecognized command: " + parsedCommandArguments[0]);
+                continue;
+            }
+            int requiredArgumentCount = CommandExecutor.getRequiredArgumentCount(commandCode);
+            for (int argumentIndex = 1; argumentIndex <= requiredArgumentCount; argumentIndex++) {
+                if (parsedCommandArguments[argumentIndex] == null) {
+                    parseErrors.add("Line " + lineNumber + ": '" + parsedCommandArguments[0] + "' needs "
+                            + requiredArgumentCount + " argument(s): " + trimmedLine);
+                    break;
+                }
+            }
+            scriptCommands.add(new ScriptCommand(lineNumber, parsedCommandArguments));
+        }
+        return scriptCommands;
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Runs one command and reports whether it succeeded, that is, whether it reported no failure.
+     */
+    static boolean runCommand(SessionContext batchSession, ScriptCommand scriptCommand) {
+        int failureCountBefore = batchSession.getReportedFailureCount();
+        try {
+            CommandExecutor.execute(batchSession, scriptCommand.getParsedCommandArguments());
+        } catch (MissingArgumentException missingArgumentException) {
+            batchSession.reportFailure("Line " + scriptCommand.getLineNumber() + ": " + missingArgumentException.getMessage());
+        } catch (RuntimeException runtimeException) {
+            batchSession.reportFailure("Line " + scriptCommand.getLineNumber() + ": An error occurred: " + runtimeException);
+        }
+        return batchSession.getReportedFailureCount() == failureCountBefore;
+    }
+
+    private static void printSummary(PrintStream batchOutput, int commandCount, List<Integer> failedLineNumbers) {
+        StringBuilder summaryBuilder = new StringBuilder("Batch finished: ")
+                .append(commandCount).append(" command(s), ")
+                .append(commandCount - failedLineNumbers.size()).append(" succeeded, ")
+                .append(failedLineNumbers.size()).append(" failed");
+        if (!failedLineNumbers.isEmpty()) {
+            List<Integer> listedLineNumbers = failedLineNumbers.subList(0, Math.min(MAX_LISTED_FAILED_LINES, failedLineNumbers.size()));
+            summaryBuilder.append(" (line(s) ").append(listedLineNumbers.toString().replaceAll("[\\[\\]]", ""));
+            if (failedLineNumbers.size() > listedLineNumbers.size()) {
+                summaryBuilder.append(", ...");
+            }
+            summaryBuilder.append(")");
+        }
+        batchOutput.println(summaryBuilder);
+    }
+
+    private static void printJsonSummary(PrintStream batchOutput, int commandCount, List<Integer> failedLineNumbers) {
+        batchOutput.println("{\"type\":\"summary\",\"commands\":" + commandCount
+                + ",\"succeeded\":" + (commandCount - failedLineNumbers.size())
+                + ",\"failed\":" + failedLineNumbers.size()
+                + ",\"failedLines\":" + failedLineNumbers.toString().replace(" ", "") + "}");
+    }
+
+    private static BufferedReader openScript(String scriptLocation) throws IOException {
+        if (scriptLocation.equals(STANDARD_INPUT_SCRIPT)) {
+            return new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()), SCRIPT_BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(Paths.get(scriptLocation)), Charset.defaultCharset()),
+                SCRIPT_BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,263 @@
+package file_manager.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import file_manager.batch.BatchRunner.ScriptCommand;
+import file_manager.commands.CommandExecutor;
+import file_manager.operations.BulkOperations;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Runs the commands of a batch script concurrently where their paths allow it.
+ * <p>
+ * Each command is analyzed for the paths it reads and writes, resolved against the working
+ * directory it would run in. A command depends on every earlier command whose paths overlap
+ * its own, where one path overlaps another if it is the same path, inside it or contains it,
+ * and at least one of the two commands writes. These dependencies form a DAG that is executed
+ * on a bounded thread pool: commands on disjoint paths run concurrently, while commands on
+ * overlapping paths keep the order of the script.
+ * </p>
+ * <p>
+ * Commands that change the working directory ({@code chdir}, {@code prevdir}) and commands whose
+ * paths cannot be analyzed act as barriers: every earlier command finishes first, the barrier runs
+ * on its own, and the analysis continues from the new working directory. Each command prints into
+ * its own buffer, and the buffers are copied to the batch output in script order, so the output
+ * reads exactly as if the script had run sequentially.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class BatchScheduler {
+
+    private BatchScheduler() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * The paths a command reads and writes.
+     */
+    private static final class CommandAccess {
+        private final List<Path> readPaths = new ArrayList<>();
+        private final List<Path> writtenPaths = new ArrayList<>();
+        private boolean barrier;
+
+        /**
+         * Two commands conflict if one of them writes a path that overlaps a path the other reads or writes.
+         */
+        boolean conflictsWith(CommandAccess earlierAccess) {
+            return anyOverlap(writtenPaths, earlierAccess.writtenPaths)
+                    || anyOverlap(writtenPaths, earlierAccess.readPaths)
+                    || anyOverlap(readPaths, earlierAccess.writtenPaths);
+        }
+
+        private static boolean anyOverlap(List<Path> firstPaths, List<Path> secondPaths) {
+            for (Path firstPath : firstPaths) {
+                for (Path secondPath : secondPaths) {
+                    if (firstPath.startsWith(secondPath) || secondPath.startsWith(firstPath)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A scheduled command: its access, the future that completes when it has run,
+     * and the buffer holding its output.
+     */
+    private static final class ScheduledCommand {
+        private final ScriptCommand scriptCommand;
+        private final CommandAccess commandAccess;
+        private final ByteArrayOutputStream commandOutputBuffer = new ByteArrayOutputStream();
+        private CompletableFuture<Boolean> completion;
+
+        ScheduledCommand(ScriptCommand scriptCommand, CommandAccess commandAccess) {
+            this.scriptCommand = scriptCommand;
+            this.commandAccess = commandAccess;
+        }
+    }
+
+    /**
+     * Runs the commands of a script in the given session, concurrently where their paths are disjoint.
+     *
+     * @param scriptCommands the commands to run, in script order
+     * @param batchSession   the session the script runs in; barrier commands change its working directory
+     * @param parallelism    the maximum number of commands running at once
+     * @return the line numbers of the commands that failed, in script order
+     */
+    public static List<Integer> run(List<ScriptCommand> scriptCommands, SessionContext batchSession, int parallelism) {
+        List<Integer> failedLineNumbers = new ArrayList<>();
+        ExecutorService commandWorkers = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<ScheduledCommand> scheduledSegment = new ArrayList<>();
+            for (ScriptCommand scriptCommand : scriptCommands) {
+                CommandAccess commandAccess = analyzeAccess(batchSession, scriptCommand.getParsedCommandArguments());
+                if (commandAccess.barrier) {
+                    awaitSegment(batchSession, scheduledSegment, failedLineNumbers);
+                    scheduledSegment.clear();
+                    if (!BatchRunner.runCommand(batchSession, scriptCommand)) {
+                        failedLineNumbers.add(scriptCommand.getLineNumber());
+                    }
+                    continue;
+                }
+                scheduledSegment.add(schedule(batchSession, scriptCommand, commandAccess, scheduledSegment, commandWorkers));
+            }
+            awaitSegment(batchSession, scheduledSegment, failedLineNumbers);
+        } finally {
+            commandWorkers.shutdownNow();
+        }
+        return failedLineNumbers;
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Starts a command once every earlier command of the segment that it conflicts with has finished.
+     */
+    private static ScheduledCommand schedule(SessionContext batchSession, ScriptCommand scriptCommand, CommandAccess commandAccess,
+                                             List<ScheduledCommand> earlierCommands, ExecutorService commandWorkers) {
+        ScheduledCommand scheduledCommand = new ScheduledCommand(scriptCommand, commandAccess);
+        List<CompletableFuture<Boolean>> dependencies = new ArrayList<>();
+        for (ScheduledCommand earlierCommand : earlierCommands) {
+            if (commandAccess.conflictsWith(earlierCommand.commandAccess)) {
+                dependencies.add(earlierCommand.completion);
+            }
+        }
+        SessionContext commandSession = batchSession.fork(new PrintStream(scheduledCommand.commandOutputBuffer, false));
+        scheduledCommand.completion = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                .handleAsync((ignoredResult, ignoredFailure) -> {
+                    try {
+                        return BatchRunner.runCommand(commandSession, scriptCommand);
+                    } finally {
+                        commandSession.close();
+                    }
+                }, commandWorkers);
+        return scheduledCommand;
+    }
+
+    /**
+     * Waits for the commands of a segment in script order, copying their output to the batch output as they finish.
+     */
+    private static void awaitSegment(SessionContext batchSession, List<ScheduledCommand> scheduledSegment, List<Integer> failedLineNumbers) {
+        PrintStream batchOutput = batchSession.getOutput();
+        for (ScheduledCommand scheduledCommand : scheduledSegment) {
+            boolean succeeded = scheduledCommand.completion.join();
+            byte[] commandOutput = scheduledCommand.commandOutputBuffer.toByteArray();
+            batchOutput.write(commandOutput, 0, commandOutput.length);
+            if (!succeeded) {
+                failedLineNumbers.add(scheduledCommand.scriptCommand.getLineNumber());
+            }
+        }
+    }
+
+    /**
+     * Works out which paths a command reads and writes, resolved against the session's working directory.
+     */
+    private static CommandAccess analyzeAccess(SessionContext batchSession, String[] parsedCommandArguments) {
+        CommandAccess commandAccess = new CommandAccess();
+        String commandCode = CommandExecutor.resolveCommandCode(parsedCommandArguments[0]);
+        if (commandCode == null) {
+            commandAccess.barrier = true;
+            return commandAccess;
+        }
+        Path currentWorkingDirectoryPath = batchSession.getCurrentWorkingDirectoryPath();
+        try {
+            switch (commandCode) {
+                case "LIST":
+                    commandAccess.readPaths.add(currentWorkingDirectoryPath);
+                    break;
+                case "PATH":
+                case "INFO":
+                    break;
+                case "READ_FILE":
+                    commandAccess.readPaths.add(resolvePath(batchSession, parsedCommandArguments[1]));
+                    break;
+                case "DELETE_FILE":
+                    commandAccess.writtenPaths.add(resolveSourcePath(batchSession, parsedCommandArguments[1]));
+                    break;
+                case "MAKE_FILE":
+                case "WRITE_FILE":
+                case "REPLACE_IN_FILE":
+                case "CLEAR_FILE":
+                case "MAKE_DIR":
+                case "DELETE_DIR":
+                    commandAccess.writtenPaths.add(resolvePath(batchSession, parsedCommandArguments[1]));
+                    break;
+                case "MOVE_FILE":
+                    commandAccess.writtenPaths.add(resolveSourcePath(batchSession, parsedCommandArguments[1]));
+                    commandAccess.writtenPaths.add(resolvePath(batchSession, parsedCommandArguments[2]));
+                    break;
+                case "RENAME_FILE":
+                case "RENAME_DIR":
+                case "MOVE_DIR":
+                    commandAccess.writtenPaths.add(resolvePath(batchSession, parsedCommandArguments[1]));
+                    commandAccess.writtenPaths.add(resolvePath(batchSession, parsedCommandArguments[2]));
+                    break;
+                case "COPY_FILE":
+                    commandAccess.readPaths.add(resolveSourcePath(batchSession, parsedCommandArguments[1]));
+                    // Without a destination, a free name is picked from the working directory
+                    commandAccess.writtenPaths.add(parsedCommandArguments[2] != null
+                            ? resolvePath(batchSession, parsedCommandArguments[2]) : currentWorkingDirectoryPath);
+                    break;
+                case "COUNT":
+                    for (int argumentIndex = 1; argumentIndex < parsedCommandArguments.length; argumentIndex++) {
+                        if (parsedCommandArguments[argumentIndex] != null) {
+                            commandAccess.readPaths.add(resolveSourcePath(batchSession, parsedCommandArguments[argumentIndex]));
+                        }
+                    }
+                    break;
+                case "COMPARE_FILE":
+                case "COMPARE_DIR":
+                    commandAccess.readPaths.add(resolvePath(batchSession, parsedCommandArguments[1]));
+                    commandAccess.readPaths.add(resolvePath(batchSession, parsedCommandArguments[2]));
+                    break;
+                case "SORT_FILE":
+                    commandAccess.readPaths.add(resolvePath(batchSession, parsedCommandArguments[1]));
+                    commandAccess.writtenPaths.add(resolvePath(batchSession, parsedCommandArguments[2]));
+                    break;
+                case "ZIP_DIR":
+                case "UNZIP_FILE":
+                    commandAccess.readPaths.add(resolvePath(batchSession, parsedCommandArguments[1]));
+                    // Without a destination, it is derived from the source name inside the working directory
+                    commandAccess.writtenPaths.add(parsedCommandArguments[2] != null
+                            ? resolvePath(batchSession, parsedCommandArguments[2]) : currentWorkingDirectoryPath);
+                    break;
+                default:
+                    commandAccess.barrier = true;
+                    break;
+            }
+        } catch (InvalidPathException invalidPathException) {
+            commandAccess.barrier = true;
+        }
+        if (commandAccess.barrier) {
+            commandAccess.readPaths.clear();
+            commandAccess.writtenPaths.clear();
+        }
+        return commandAccess;
+    }
+
+    /**
+     * Resolves the source of a file command; a pattern accesses the whole folder it is matched in.
+     */
+    private static Path resolveSourcePath(SessionContext batchSession, String fileNameOrPattern) {
+        if (BulkOperations.isFilePattern(fileNameOrPattern)) {
+            return BulkOperations.resolvePatternDirectory(batchSession, fileNameOrPattern);
+        }
+        return resolvePath(batchSession, fileNameOrPattern);
+    }
+}
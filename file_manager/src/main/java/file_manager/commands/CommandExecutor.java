@@ -0,0 +1,620 @@
+package file_manager.commands;
+
+import java.io.PrintStream;
+import java.nio.file.InvalidPathException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import file_manager.jobs.JobOperations;
+import file_manager.metrics.CommandMetrics;
+import file_manager.metrics.MetricsOperations;
+import file_manager.metrics.MetricsRegistry;
+import file_manager.operations.ArchiveOperations;
+import file_manager.operations.BulkOperations;
+import file_manager.operations.CompareOperations;
+import file_manager.operations.CountOperations;
+import file_manager.operations.DirectoryOperations;
+import file_manager.operations.FileOperations;
+import file_manager.operations.ReplaceOperations;
+import file_manager.operations.SplitOperations;
+import file_manager.operations.TailOperations;
+import file_manager.recording.FileOperationEvent;
+import file_manager.recording.RecordingOperations;
+import file_manager.rename.RenameOperations;
+import file_manager.session.CommandTranscript;
+import file_manager.session.MissingArgumentException;
+import file_manager.session.OperationCancelledException;
+import file_manager.session.OutputFormat;
+import file_manager.session.SessionContext;
+import file_manager.sort.SortOperations;
+import file_manager.throttle.IoThrottle;
+import file_manager.throttle.ThrottleOperations;
+import file_manager.trash.TrashOperations;
+import file_manager.utils.InputUtils;
+import file_manager.utils.JsonUtils;
+import file_manager.utils.PathUtils;
+
+/**
+ * Parses and executes File Manager commands.
+ * <p>
+ * A command line consists of the command followed by its arguments, separated by {@code >},
+ * for example {@code copy file > notes.txt > backup.txt}. The line is parsed into an array
+ * holding the command in the first slot and up to three arguments in the following slots;
+ * missing arguments are {@code null}. Commands run in the {@link SessionContext} they are
+ * given, so the interactive application, batch scripts and other sessions share the same
+ * command grammar.
+ * </p>
+ * <p>
+ * The file argument of {@code delete file}, {@code copy file} and {@code move file} may be a
+ * pattern, such as {@code glob:*.tmp}, that applies the command to every matching file
+ * (see {@link BulkOperations}). {@code rename files} renames every file whose name matches a
+ * regular expression after a template (see {@link RenameOperations}). While the trash is on,
+ * deletions move files and folders to the trash (see {@link TrashOperations}).
+ * </p>
+ * <p>
+ * A command line that ends with {@code &} is started as a background job of the session
+ * (see {@link file_manager.jobs.JobManager}) and the prompt returns immediately.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CommandExecutor {
+
+    /**
+     * The number of slots in a parsed command: the command and up to three arguments.
+     */
+    public static final int PARSED_COMMAND_LENGTH = 4;
+
+    /**
+     * The separator between the command and its arguments.
+     */
+    private static final String ARGUMENT_SEPARATOR = ">";
+
+    /**
+     * The suffix that starts a command as a background job.
+     */
+    private static final String BACKGROUND_SUFFIX = "&";
+
+    /**
+     * A map of command codes to their corresponding string representations.
+     * This map is used to validate user input and dispatch commands.
+     */
+    private static final Map<String, String> COMMAND_CODE_TO_STRING_MAP = createCommandMap();
+
+    /**
+     * The number of arguments each command needs before it can run without prompting.
+     */
+    private static final Map<String, Integer> COMMAND_CODE_TO_REQUIRED_ARGUMENT_COUNT_MAP = createRequiredArgumentCountMap();
+
+    private CommandExecutor() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Splits a command line into the command and its arguments.
+     * The result is padded with {@code null} values if the line contains fewer arguments
+     * than the maximum, and any separators past the last argument are kept as part of it.
+     *
+     * @param rawCommandLine the command line as entered by the user
+     * @return an array of {@link #PARSED_COMMAND_LENGTH} slots holding the command and its arguments
+     */
+    public static String[] parseCommandLine(String rawCommandLine) {
+        String[] parsedCommandArguments = new String[PARSED_COMMAND_LENGTH];
+        String[] splitCommandArguments = rawCommandLine.split(ARGUMENT_SEPARATOR, PARSED_COMMAND_LENGTH);
+        for (int argumentIndex = 0; argumentIndex < splitCommandArguments.length; argumentIndex++) {
+            String trimmedArgument = splitCommandArguments[argumentIndex].trim();
+            parsedCommandArguments[argumentIndex] = argumentIndex > 0 && trimmedArgument.isEmpty() ? null : trimmedArgument;
+        }
+        return parsedCommandArguments;
+    }
+
+    /**
+     * Checks whether a command line asks to run in the background.
+     *
+     * @param rawCommandLine the command line as entered by the user
+     * @return {@code true} if the line ends with {@code &}
+     */
+    public static boolean isBackgroundCommandLine(String rawCommandLine) {
+        return rawCommandLine.trim().endsWith(BACKGROUND_SUFFIX);
+    }
+
+    /**
+     * Removes the trailing {@code &} that starts a command as a background job.
+     *
+     * @param rawCommandLine the command line as entered by the user
+     * @return the command line without the background suffix
+     */
+    public static String removeBackgroundSuffix(String rawCommandLine) {
+        String trimmedCommandLine = rawCommandLine.trim();
+        if (!trimmedCommandLine.endsWith(BACKGROUND_SUFFIX)) {
+            return trimmedCommandLine;
+        }
+        return trimmedCommandLine.substring(0, trimmedCommandLine.length() - BACKGROUND_SUFFIX.length()).trim();
+    }
+
+    /**
+     * Retrieves the command code associated with the given command string.
+     *
+     * @param userCommandString the command string entered by the user
+     * @return the command code if the command is known; otherwise, {@code null}
+     */
+    public static String resolveCommandCode(String userCommandString) {
+        for (Map.Entry<String, String> entry : COMMAND_CODE_TO_STRING_MAP.entrySet()) {
+            if (entry.getValue().equals(userCommandString)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the command string of a command code, the reverse of {@link #resolveCommandCode(String)}.
+     *
+     * @param commandCode the command code
+     * @return the command as the user types it, or {@code null} if the code is unknown
+     */
+    public static String getCommandName(String commandCode) {
+        return COMMAND_CODE_TO_STRING_MAP.get(commandCode);
+    }
+
+    /**
+     * Returns the number of arguments a command needs to run without prompting for more.
+     *
+     * @param commandCode the command code, as returned by {@link #resolveCommandCode(String)}
+     * @return the number of required arguments
+     */
+    public static int getRequiredArgumentCount(String commandCode) {
+        return COMMAND_CODE_TO_REQUIRED_ARGUMENT_COUNT_MAP.getOrDefault(commandCode, 0);
+    }
+
+    /**
+     * Executes a command line in the given session, or starts it as a background job
+     * if it ends with {@code &}. Commands that change the working directory or manage
+     * jobs cannot run in the background.
+     *
+     * @param session        the session to run the command in
+     * @param rawCommandLine the command line as entered by the user
+     */
+    public static void executeCommandLine(SessionContext session, String rawCommandLine) {
+        if (!isBackgroundCommandLine(rawCommandLine)) {
+            execute(session, parseCommandLine(rawCommandLine));
+            return;
+        }
+        String foregroundCommandLine = removeBackgroundSuffix(rawCommandLine);
+        String resolvedCommandCode = resolveCommandCode(parseCommandLine(foregroundCommandLine)[0]);
+        if (resolvedCommandCode == null) {
+            session.reportFailure("Unrecognized command: " + foregroundCommandLine);
+        } else if (resolvedCommandCode.equals("CHDIR") || resolvedCommandCode.equals("PREVDIR")
+                || resolvedCommandCode.endsWith("JOB") || resolvedCommandCode.equals("JOBS")) {
+            session.reportFailure("This command cannot run in the background: " + foregroundCommandLine);
+        } else {
+            JobOperations.startJob(session, foregroundCommandLine);
+        }
+    }
+
+    /**
+     * Executes a parsed command in the given session.
+     * This method dispatches the command to the appropriate operation based on the command code.
+     * While it runs, the I/O of the command is charged to its {@link IoThrottle} if it has one,
+     * its latency, outcome and I/O are recorded in the {@link MetricsRegistry}, and a
+     * {@link FileOperationEvent} is emitted for Java Flight Recorder. The output of the session
+     * is flushed when the command ends, so buffered output appears once per command.
+     * <p>
+     * In the {@link OutputFormat#JSON JSON} output format, the output and failures of the command
+     * are collected and printed as one JSON record (see {@link #formatCommandRecord}), and a
+     * missing argument or unexpected error is reported in that record instead of being thrown.
+     * </p>
+     * Unknown commands are ignored.
+     *
+     * @param session                the session to run the command in
+     * @param parsedCommandArguments an array containing the command and its arguments
+     */
+    public static void execute(SessionContext session, String[] parsedCommandArguments) {
+        String resolvedCommandCode = resolveCommandCode(parsedCommandArguments[0]);
+        if (resolvedCommandCode == null) return;
+
+        String commandName = getCommandName(resolvedCommandCode);
+        CommandMetrics commandMetrics = MetricsRegistry.getCommandMetrics(commandName);
+        CommandRun commandRun = new CommandRun(commandMetrics);
+        FileOperationEvent fileOperationEvent = new FileOperationEvent();
+        PrintStream sessionOutput = session.getOutput();
+        CommandTranscript commandTranscript = session.getOutputFormat() == OutputFormat.JSON ? new CommandTranscript() : null;
+        session.setCommandThrottle(IoThrottle.findCommandThrottle(resolvedCommandCode));
+        session.setCommandProgressListener(commandRun);
+        session.setCommandTranscript(commandTranscript);
+        int failureCountBefore = session.getReportedFailureCount();
+        String commandOutcome = FileOperationEvent.OUTCOME_FAILED;
+        fileOperationEvent.begin();
+        long startNanos = System.nanoTime();
+        try {
+            dispatch(session, resolvedCommandCode, parsedCommandArguments);
+            if (session.getReportedFailureCount() == failureCountBefore) {
+                commandOutcome = FileOperationEvent.OUTCOME_SUCCEEDED;
+            }
+        } catch (OperationCancelledException operationCancelledException) {
+            commandOutcome = FileOperationEvent.OUTCOME_CANCELLED;
+            throw operationCancelledException;
+        } catch (MissingArgumentException missingArgumentException) {
+            if (commandTranscript == null) {
+                throw missingArgumentException;
+            }
+            session.reportFailure(missingArgumentException.getMessage());
+        } catch (RuntimeException runtimeException) {
+            if (commandTranscript == null) {
+                throw runtimeException;
+            }
+            session.reportFailure("An error occurred: " + runtimeException);
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            commandMetrics.recordRun(elapsedNanos, !commandOutcome.equals(FileOperationEvent.OUTCOME_SUCCEEDED));
+            fileOperationEvent.end();
+            if (fileOperationEvent.shouldCommit()) {
+                fileOperationEvent.set(commandName, describeArgumentPath(session, resolvedCommandCode, parsedCommandArguments[1]),
+                        parsedCommandArguments[2], commandRun.getDoneByteCount(), commandRun.getDoneFileCount(), commandOutcome);
+                fileOperationEvent.commit();
+            }
+            session.setCommandTranscript(null);
+            session.setCommandProgressListener(null);
+            session.setCommandThrottle(null);
+            if (commandTranscript != null) {
+                sessionOutput.println(formatCommandRecord(commandName, parsedCommandArguments, commandOutcome, commandTranscript,
+                        elapsedNanos, commandRun.getDoneFileCount(), commandRun.getDoneByteCount()));
+            }
+            sessionOutput.flush();
+        }
+    }
+
+    /**
+     * Formats the JSON record of a command, for example
+     * {@code {"type":"command","command":"read file","arguments":["notes.txt"],"status":"succeeded",
+     * "output":["Reading file...", ...],"outputTruncated":false,"errors":[],"durationMicros":412,"files":0,"bytes":1024}}.
+     *
+     * @param commandName            the command as the user types it
+     * @param parsedCommandArguments the command and its arguments
+     * @param commandOutcome         one of the {@link FileOperationEvent} outcomes
+     * @param commandTranscript      the output and failures of the command
+     * @param elapsedNanos           the time the command took
+     * @param doneFileCount          the number of files and folders the command processed
+     * @param doneByteCount          the number of bytes the command read or written
+     * @return the record, on one line
+     */
+    public static String formatCommandRecord(String commandName, String[] parsedCommandArguments, String commandOutcome,
+                                             CommandTranscript commandTranscript, long elapsedNanos,
+                                             long doneFileCount, long doneByteCount) {
+        List<String> commandArguments = new ArrayList<>();
+        for (int argumentIndex = 1; argumentIndex < parsedCommandArguments.length && parsedCommandArguments[argumentIndex] != null; argumentIndex++) {
+            commandArguments.add(parsedCommandArguments[argumentIndex]);
+        }
+        StringBuilder recordBuilder = new StringBuilder("{\"type\":\"command\",\"command\":");
+        JsonUtils.appendString(recordBuilder, commandName).append(",\"arguments\":");
+        JsonUtils.appendStringArray(recordBuilder, commandArguments).append(",\"status\":");
+        JsonUtils.appendString(recordBuilder, commandOutcome.toLowerCase(Locale.ROOT)).append(",\"output\":");
+        JsonUtils.appendStringArray(recordBuilder, commandTranscript.getOutputLines())
+                .append(",\"outputTruncated\":").append(commandTranscript.isOutputTruncated()).append(",\"errors\":");
+        JsonUtils.appendStringArray(recordBuilder, commandTranscript.getErrors());
+        return recordBuilder.append(",\"durationMicros\":").append(TimeUnit.NANOSECONDS.toMicros(elapsedNanos))
+                .append(",\"files\":").append(doneFileCount)
+                .append(",\"bytes\":").append(doneByteCount)
+                .append('}').toString();
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Resolves the first argument of a command that takes a path, so that recordings show where the command worked.
+     * Other arguments, such as a job number, are returned unchanged.
+     */
+    private static String describeArgumentPath(SessionContext session, String resolvedCommandCode, String firstArgument) {
+        boolean takesPath = resolvedCommandCode.endsWith("_FILE") || resolvedCommandCode.endsWith("_DIR") || resolvedCommandCode.equals("CHDIR");
+        if (firstArgument == null || !takesPath) {
+            return firstArgument;
+        }
+        try {
+            return PathUtils.resolvePath(session, firstArgument).toString();
+        } catch (InvalidPathException invalidPathException) {
+            return firstArgument;
+        }
+    }
+
+    /**
+     * Shows the output format of the session, or switches it for the following commands.
+     */
+    private static void changeOutputFormat(SessionContext session, String formatName) {
+        if (formatName == null) {
+            session.getOutput().println("Output format: " + session.getOutputFormat().getFormatName());
+            return;
+        }
+        OutputFormat newOutputFormat = OutputFormat.fromFormatName(formatName);
+        if (newOutputFormat == null) {
+            session.reportFailure("Unknown output format: " + formatName + ". Use text or json.");
+            return;
+        }
+        session.setOutputFormat(newOutputFormat);
+        session.getOutput().println("Output format set to " + newOutputFormat.getFormatName() + ".");
+    }
+
+    /**
+     * Runs the operation of a resolved command.
+     *
+     * @param session                the session to run the command in
+     * @param resolvedCommandCode    the code of the command
+     * @param parsedCommandArguments an array containing the command and its arguments
+     */
+    private static void dispatch(SessionContext session, String resolvedCommandCode, String[] parsedCommandArguments) {
+        PrintStream commandOutput = session.getOutput();
+        switch (resolvedCommandCode) {
+            case "LIST":
+                DirectoryOperations.listDir(session);
+                break;
+            case "PATH":
+                commandOutput.println("Current working directory: " + PathUtils.getCurrentWorkingDirectory(session));
+                break;
+            case "INFO":
+                InputUtils.displayAvailableCommands(commandOutput);
+                commandOutput.println();
+                break;
+            case "CHDIR":
+                commandOutput.println("Changing directory...");
+                PathUtils.changeWorkingDirectory(session, parsedCommandArguments[1]);
+                break;
+            case "PREVDIR":
+                commandOutput.println("Moving to parent directory...");
+                PathUtils.changeToParentDirectory(session);
+                break;
+            case "MAKE_FILE":
+                commandOutput.println("Creating new file...");
+                FileOperations.newFile(session, parsedCommandArguments[1]);
+                break;
+            case "DELETE_FILE":
+                commandOutput.println("Deleting file...");
+                if (BulkOperations.isFilePattern(parsedCommandArguments[1])) {
+                    BulkOperations.deleteMatching(session, parsedCommandArguments[1], BulkOperations.isDryRun(parsedCommandArguments[2]));
+                } else if (!BulkOperations.reportMissingGlobPrefix(session, parsedCommandArguments[1])) {
+                    FileOperations.delFile(session, parsedCommandArguments[1]);
+                }
+                break;
+            case "RENAME_FILE":
+                commandOutput.println("Renaming file...");
+                FileOperations.renameFile(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "READ_FILE":
+                commandOutput.println("Reading file...");
+                if (TailOperations.isTailOption(parsedCommandArguments[2])) {
+                    TailOperations.tail(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                } else {
+                    FileOperations.readFile(session, parsedCommandArguments[1]);
+                }
+                break;
+            case "WRITE_FILE":
+                commandOutput.println("Writing to file...");
+                FileOperations.writeFile(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "CLEAR_FILE":
+                commandOutput.println("Clearing file contents...");
+                FileOperations.clearFile(session, parsedCommandArguments[1]);
+                break;
+            case "COPY_FILE":
+                commandOutput.println("Copying file...");
+                if (BulkOperations.isFilePattern(parsedCommandArguments[1])) {
+                    BulkOperations.copyMatching(session, parsedCommandArguments[1], parsedCommandArguments[2],
+                            BulkOperations.isDryRun(parsedCommandArguments[3]));
+                } else if (!BulkOperations.reportMissingGlobPrefix(session, parsedCommandArguments[1])) {
+                    FileOperations.copy(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                }
+                break;
+            case "MOVE_FILE":
+                commandOutput.println("Moving file...");
+                if (BulkOperations.isFilePattern(parsedCommandArguments[1])) {
+                    BulkOperations.moveMatching(session, parsedCommandArguments[1], parsedCommandArguments[2],
+                            BulkOperations.isDryRun(parsedCommandArguments[3]));
+                } else if (!BulkOperations.reportMissingGlobPrefix(session, parsedCommandArguments[1])) {
+                    FileOperations.moveFile(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                }
+                break;
+            case "RENAME_FILES":
+                commandOutput.println("Renaming files...");
+                RenameOperations.renameFiles(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "FINISH_RENAME":
+                commandOutput.println("Finishing rename...");
+                RenameOperations.finishRename(session, parsedCommandArguments[1]);
+                break;
+            case "UNDO_RENAME":
+                commandOutput.println("Undoing rename...");
+                RenameOperations.undoRename(session, parsedCommandArguments[1]);
+                break;
+            case "REPLACE_IN_FILE":
+                commandOutput.println("Replacing in file...");
+                ReplaceOperations.replaceInFile(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "COMPARE_FILE":
+                commandOutput.println("Comparing files...");
+                CompareOperations.compareFile(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "COMPARE_DIR":
+                commandOutput.println("Comparing directories...");
+                CompareOperations.compareDir(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "SPLIT_FILE":
+                commandOutput.println("Splitting file...");
+                SplitOperations.splitFile(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "JOIN_FILE":
+                commandOutput.println("Joining file...");
+                SplitOperations.joinFile(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "COUNT":
+                CountOperations.count(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "SORT_FILE":
+                commandOutput.println("Sorting file...");
+                SortOperations.sortFile(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "MAKE_DIR":
+                commandOutput.println("Creating new directory...");
+                DirectoryOperations.newDir(session, parsedCommandArguments[1]);
+                break;
+            case "DELETE_DIR":
+                commandOutput.println("Deleting directory...");
+                DirectoryOperations.delDir(session, parsedCommandArguments[1],
+                        "y".equalsIgnoreCase(parsedCommandArguments[2]) ? "y" : "n");
+                break;
+            case "RENAME_DIR":
+                commandOutput.println("Renaming directory...");
+                DirectoryOperations.renameDir(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "MOVE_DIR":
+                commandOutput.println("Moving directory...");
+                DirectoryOperations.moveDir(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "ZIP_DIR":
+                commandOutput.println("Archiving directory...");
+                ArchiveOperations.zipDir(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "UNZIP_FILE":
+                commandOutput.println("Extracting archive...");
+                ArchiveOperations.unzipFile(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "JOBS":
+                JobOperations.listJobs(session);
+                break;
+            case "SHOW_JOB":
+                JobOperations.showJob(session, parsedCommandArguments[1]);
+                break;
+            case "PAUSE_JOB":
+                JobOperations.pauseJob(session, parsedCommandArguments[1]);
+                break;
+            case "RESUME_JOB":
+                JobOperations.resumeJob(session, parsedCommandArguments[1]);
+                break;
+            case "CANCEL_JOB":
+                JobOperations.cancelJob(session, parsedCommandArguments[1]);
+                break;
+            case "STATS":
+                MetricsOperations.stats(session, parsedCommandArguments[1], parsedCommandArguments[2]);
+                break;
+            case "START_RECORDING":
+                RecordingOperations.startRecording(session, parsedCommandArguments[1]);
+                break;
+            case "STOP_RECORDING":
+                RecordingOperations.stopRecording(session, parsedCommandArguments[1]);
+                break;
+            case "OUTPUT":
+                changeOutputFormat(session, parsedCommandArguments[1]);
+                break;
+            case "TRASH":
+                TrashOperations.trash(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+            case "RESTORE":
+                commandOutput.println("Restoring from the trash...");
+                TrashOperations.restore(session, parsedCommandArguments[1]);
+                break;
+            case "EMPTY_TRASH":
+                TrashOperations.emptyTrash(session);
+                break;
+            case "THROTTLE":
+                ThrottleOperations.throttle(session, parsedCommandArguments[1], parsedCommandArguments[2], parsedCommandArguments[3]);
+                break;
+        }
+    }
+
+    /**
+     * Creates and returns a map of command codes to their string representations.
+     *
+     * @return a map containing command codes as keys and their corresponding command strings as values
+     */
+    private static Map<String, String> createCommandMap() {
+        Map<String, String> commandMap = new HashMap<>();
+        commandMap.put("LIST", "list");
+        commandMap.put("PATH", "path");
+        commandMap.put("INFO", "info");
+        commandMap.put("CHDIR", "chdir");
+        commandMap.put("PREVDIR", "prevdir");
+        commandMap.put("MAKE_FILE", "make file");
+        commandMap.put("DELETE_FILE", "delete file");
+        commandMap.put("RENAME_FILE", "rename file");
+        commandMap.put("READ_FILE", "read file");
+        commandMap.put("WRITE_FILE", "write file");
+        commandMap.put("CLEAR_FILE", "clear file");
+        commandMap.put("COPY_FILE", "copy file");
+        commandMap.put("MOVE_FILE", "move file");
+        commandMap.put("RENAME_FILES", "rename files");
+        commandMap.put("FINISH_RENAME", "finish rename");
+        commandMap.put("UNDO_RENAME", "undo rename");
+        commandMap.put("SORT_FILE", "sort file");
+        commandMap.put("COUNT", "count");
+        commandMap.put("REPLACE_IN_FILE", "replace in file");
+        commandMap.put("COMPARE_FILE", "compare file");
+        commandMap.put("COMPARE_DIR", "compare dir");
+        commandMap.put("SPLIT_FILE", "split file");
+        commandMap.put("JOIN_FILE", "join file");
+        commandMap.put("MAKE_DIR", "make dir");
+        commandMap.put("DELETE_DIR", "delete dir");
+        commandMap.put("RENAME_DIR", "rename dir");
+        commandMap.put("MOVE_DIR", "move dir");
+        commandMap.put("ZIP_DIR", "zip dir");
+        commandMap.put("UNZIP_FILE", "unzip file");
+        commandMap.put("JOBS", "jobs");
+        commandMap.put("SHOW_JOB", "show job");
+        commandMap.put("PAUSE_JOB", "pause job");
+        commandMap.put("RESUME_JOB", "resume job");
+        commandMap.put("CANCEL_JOB", "cancel job");
+        commandMap.put("THROTTLE", "throttle");
+        commandMap.put("STATS", "stats");
+        commandMap.put("START_RECORDING", "start recording");
+        commandMap.put("STOP_RECORDING", "stop recording");
+        commandMap.put("OUTPUT", "output");
+        commandMap.put("TRASH", "trash");
+        commandMap.put("RESTORE", "restore");
+        commandMap.put("EMPTY_TRASH", "empty trash");
+        return commandMap;
+    }
+
+    /**
+     * Creates and returns a map of command codes to the number of arguments they require.
+     * Commands that are not listed take no arguments or only optional ones.
+     *
+     * @return a map containing command codes as keys and their required argument counts as values
+     */
+    private static Map<String, Integer> createRequiredArgumentCountMap() {
+        Map<String, Integer> requiredArgumentCountMap = new HashMap<>();
+        requiredArgumentCountMap.put("CHDIR", 1);
+        requiredArgumentCountMap.put("MAKE_FILE", 1);
+        requiredArgumentCountMap.put("DELETE_FILE", 1);
+        requiredArgumentCountMap.put("RENAME_FILE", 2);
+        requiredArgumentCountMap.put("READ_FILE", 1);
+        requiredArgumentCountMap.put("WRITE_FILE", 2);
+        requiredArgumentCountMap.put("CLEAR_FILE", 1);
+        requiredArgumentCountMap.put("COPY_FILE", 1);
+        requiredArgumentCountMap.put("MOVE_FILE", 2);
+        requiredArgumentCountMap.put("RENAME_FILES", 2);
+        requiredArgumentCountMap.put("SORT_FILE", 2);
+        requiredArgumentCountMap.put("COUNT", 1);
+        requiredArgumentCountMap.put("REPLACE_IN_FILE", 2);
+        requiredArgumentCountMap.put("COMPARE_FILE", 2);
+        requiredArgumentCountMap.put("COMPARE_DIR", 2);
+        requiredArgumentCountMap.put("SPLIT_FILE", 2);
+        requiredArgumentCountMap.put("JOIN_FILE", 1);
+        requiredArgumentCountMap.put("MAKE_DIR", 1);
+        requiredArgumentCountMap.put("DELETE_DIR", 1);
+        requiredArgumentCountMap.put("RENAME_DIR", 2);
+        requiredArgumentCountMap.put("MOVE_DIR", 2);
+        requiredArgumentCountMap.put("ZIP_DIR", 1);
+        requiredArgumentCountMap.put("UNZIP_FILE", 1);
+        requiredArgumentCountMap.put("SHOW_JOB", 1);
+        requiredArgumentCountMap.put("PAUSE_JOB", 1);
+        requiredArgumentCountMap.put("RESUME_JOB", 1);
+        requiredArgumentCountMap.put("CANCEL_JOB", 1);
+        requiredArgumentCountMap.put("STOP_RECORDING", 1);
+        requiredArgumentCountMap.put("RESTORE", 1);
+        return requiredArgumentCountMap;
+    }
+}
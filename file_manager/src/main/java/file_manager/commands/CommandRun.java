@@ -0,0 +1,54 @@
+package file_manager.commands;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import file_manager.metrics.CommandMetrics;
+import file_manager.session.ProgressListener;
+
+/**
+ * Counts the I/O of one run of a command and adds it to the metrics of the command.
+ * <p>
+ * {@link CommandExecutor} installs a run as the command progress listener of the session for
+ * the duration of the command. Reports may come from several threads, for example the block
+ * workers of an in-place update, so the counters are {@link LongAdder}s.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+final class CommandRun implements ProgressListener {
+
+    private final CommandMetrics commandMetrics;
+    private final LongAdder doneFileCount = new LongAdder();
+    private final LongAdder doneByteCount = new LongAdder();
+
+    CommandRun(CommandMetrics commandMetrics) {
+        this.commandMetrics = commandMetrics;
+    }
+
+    @Override
+    public void workPlanned(long fileCount, long byteCount) {
+        // Only the work done is counted
+    }
+
+    @Override
+    public void workDone(long fileCount, long byteCount) {
+        doneFileCount.add(fileCount);
+        doneByteCount.add(byteCount);
+        commandMetrics.recordIo(fileCount, byteCount);
+    }
+
+    /**
+     * @return the number of files and folders processed by this run
+     */
+    long getDoneFileCount() {
+        return doneFileCount.sum();
+    }
+
+    /**
+     * @return the number of bytes read or written by this run
+     */
+    long getDoneByteCount() {
+        return doneByteCount.sum();
+    }
+}
@@ -0,0 +1,285 @@
+package file_manager.jobs;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.ProgressListener;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+
+/**
+ * A command running in the background, started by a {@link JobManager}.
+ * <p>
+ * A job receives the progress its command reports and keeps count of the files and bytes done,
+ * from which it derives the rate and, once the command has announced its total work, the time
+ * left. Pausing and cancelling are cooperative: the command is stopped at its next progress
+ * report, where {@link #workDone(long, long)} blocks while the job is paused and throws an
+ * {@link OperationCancelledException} once it is cancelled. The most recent
+ * {@value #OUTPUT_BUFFER_SIZE} bytes of the output of the command are kept so they can be shown
+ * at any time; earlier output is dropped, so a long-running command cannot exhaust the heap.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class Job implements ProgressListener {
+
+    /**
+     * The number of bytes of output kept per job.
+     */
+    public static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int jobId;
+    private final String commandLine;
+    private final JobOutputBuffer outputBuffer = new JobOutputBuffer(OUTPUT_BUFFER_SIZE);
+    private final PrintStream output = new PrintStream(outputBuffer, true);
+
+    private final AtomicLong plannedFileCount = new AtomicLong();
+    private final AtomicLong plannedByteCount = new AtomicLong();
+    private final AtomicLong doneFileCount = new AtomicLong();
+    private final AtomicLong doneByteCount = new AtomicLong();
+
+    private JobState state = JobState.QUEUED;
+    private boolean pauseRequested;
+    private boolean cancelRequested;
+    private long startNanos;
+    private long finishNanos;
+    private long pausedNanos;
+    private long pauseStartNanos;
+    private Future<?> execution;
+
+    Job(int jobId, String commandLine) {
+        this.jobId = jobId;
+        this.commandLine = commandLine;
+    }
+
+    /**
+     * @return the number that identifies the job in its session
+     */
+    public int getJobId() {
+        return jobId;
+    }
+
+    /**
+     * @return the command the job runs
+     */
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    /**
+     * @return the current state of the job
+     */
+    public synchronized JobState getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of files and folders processed so far
+     */
+    public long getDoneFileCount() {
+        return doneFileCount.get();
+    }
+
+    /**
+     * @return the number of bytes read or written so far
+     */
+    public long getDoneByteCount() {
+        return doneByteCount.get();
+    }
+
+    /**
+     * @return the most recent output the command has printed, preceded by a note if earlier output was dropped
+     */
+    public String getOutput() {
+        return outputBuffer.toString();
+    }
+
+    /**
+     * Asks the job to stop at its next progress report until it is resumed.
+     *
+     * @return {@code true} if the job was queued or running and is now paused
+     */
+    public synchronized boolean pause() {
+        if (state != JobState.QUEUED && state != JobState.RUNNING) {
+            return false;
+        }
+        pauseRequested = true;
+        if (state == JobState.RUNNING) {
+            state = JobState.PAUSED;
+            pauseStartNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    /**
+     * Lets a paused job continue.
+     *
+     * @return {@code true} if the job was paused
+     */
+    public synchronized boolean resume() {
+        if (!pauseRequested || state.isFinished()) {
+            return false;
+        }
+        pauseRequested = false;
+        if (state == JobState.PAUSED) {
+            state = JobState.RUNNING;
+            pausedNanos += System.nanoTime() - pauseStartNanos;
+        }
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Asks the job to stop at its next progress report. A queued job does not start at all.
+     *
+     * @return {@code true} if the job had not finished yet
+     */
+    public synchronized boolean cancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (state == JobState.QUEUED && execution != null && execution.cancel(false)) {
+            finish(JobState.CANCELLED);
+        }
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Waits until the job has finished.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public synchronized void awaitFinish() throws InterruptedException {
+        while (!state.isFinished()) {
+            wait();
+        }
+    }
+
+    @Override
+    public void workPlanned(long fileCount, long byteCount) {
+        plannedFileCount.addAndGet(fileCount);
+        plannedByteCount.addAndGet(byteCount);
+    }
+
+    @Override
+    public void workDone(long fileCount, long byteCount) {
+        doneFileCount.addAndGet(fileCount);
+        doneByteCount.addAndGet(byteCount);
+        awaitPermissionToContinue();
+    }
+
+    /**
+     * Describes the job on one line: its number, state, command, progress, rate and time left.
+     *
+     * @return a summary of the job
+     */
+    public synchronized String describe() {
+        StringBuilder descriptionBuilder = new StringBuilder()
+                .append('[').append(jobId).append("] ")
+                .append(String.format(Locale.ROOT, "%-9s ", state))
+                .append(commandLine)
+                .append(" - ").append(getDoneFileCount()).append(" file(s), ").append(formatByteCount(getDoneByteCount()));
+        long activeNanos = getActiveNanos();
+        if (activeNanos > 0 && state != JobState.QUEUED) {
+            double activeSeconds = (double) activeNanos / NANOS_PER_SECOND;
+            descriptionBuilder.append(String.format(Locale.ROOT, ", %.1f file(s)/s, %s/s",
+                    getDoneFileCount() / activeSeconds, formatByteCount((long) (getDoneByteCount() / activeSeconds))));
+            if (!state.isFinished()) {
+                appendTimeLeft(descriptionBuilder, activeSeconds);
+            } else {
+                descriptionBuilder.append(String.format(Locale.ROOT, ", took %.1f s", activeSeconds));
+            }
+        }
+        return descriptionBuilder.toString();
+    }
+
+    // --- Package-private methods used by JobManager ---
+
+    PrintStream getOutputStream() {
+        return output;
+    }
+
+    synchronized void setExecution(Future<?> execution) {
+        this.execution = execution;
+    }
+
+    /**
+     * Moves the job to running, unless it was cancelled while queued.
+     *
+     * @return {@code true} if the job should run
+     */
+    synchronized boolean start() {
+        if (cancelRequested) {
+            finish(JobState.CANCELLED);
+            return false;
+        }
+        startNanos = System.nanoTime();
+        if (pauseRequested) {
+            state = JobState.PAUSED;
+            pauseStartNanos = startNanos;
+        } else {
+            state = JobState.RUNNING;
+        }
+        return true;
+    }
+
+    synchronized void finish(JobState finalState) {
+        if (state == JobState.PAUSED) {
+            pausedNanos += System.nanoTime() - pauseStartNanos;
+        }
+        state = finalState;
+        finishNanos = System.nanoTime();
+        notifyAll();
+    }
+
+    // --- Helper Methods ---
+
+    private synchronized void awaitPermissionToContinue() {
+        while (pauseRequested && !cancelRequested) {
+            try {
+                wait();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new OperationCancelledException();
+            }
+        }
+        if (cancelRequested) {
+            throw new OperationCancelledException();
+        }
+    }
+
+    private long getActiveNanos() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        long endNanos = state.isFinished() ? finishNanos : System.nanoTime();
+        long currentPauseNanos = state == JobState.PAUSED ? endNanos - pauseStartNanos : 0;
+        return endNanos - startNanos - pausedNanos - currentPauseNanos;
+    }
+
+    /**
+     * Estimates the time left from the bytes left, or from the files left if no bytes were announced.
+     */
+    private void appendTimeLeft(StringBuilder descriptionBuilder, double activeSeconds) {
+        double remainingSeconds = -1;
+        if (plannedByteCount.get() > 0 && getDoneByteCount() > 0) {
+            remainingSeconds = (plannedByteCount.get() - getDoneByteCount()) * activeSeconds / getDoneByteCount();
+        } else if (plannedFileCount.get() > 0 && getDoneFileCount() > 0) {
+            remainingSeconds = (plannedFileCount.get() - getDoneFileCount()) * activeSeconds / getDoneFileCount();
+        }
+        if (remainingSeconds >= 0) {
+            long remainingWholeSeconds = (long) Math.ceil(remainingSeconds);
+            descriptionBuilder.append(String.format(Locale.ROOT, ", ETA %02d:%02d:%02d",
+                    remainingWholeSeconds / 3600, remainingWholeSeconds / 60 % 60, remainingWholeSeconds % 60));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package file_manager.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.MissingArgumentException;
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+
+/**
+ * Runs commands as background jobs for one session.
+ * <p>
+ * Jobs run on a bounded pool of daemon worker threads, so the prompt stays responsive and
+ * extra jobs wait in a queue until a worker is free. Each job runs in a session forked from
+ * the one that started it: it works in the directory that was current when it started, never
+ * prompts, and keeps its output to itself (see {@link Job}).
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class JobManager {
+
+    /**
+     * The number of jobs that run at once; further jobs are queued.
+     */
+    public static final int MAX_RUNNING_JOBS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final AtomicInteger nextJobId = new AtomicInteger(1);
+    private final Map<Integer, Job> jobsById = new ConcurrentSkipListMap<>();
+    private final ExecutorService jobWorkers = Executors.newFixedThreadPool(MAX_RUNNING_JOBS, jobRunnable -> {
+        Thread jobThread = new Thread(jobRunnable, "file-manager-job");
+        jobThread.setDaemon(true);
+        return jobThread;
+    });
+
+    /**
+     * Starts a command as a background job.
+     *
+     * @param session     the session that starts the job
+     * @param commandLine the command to run, in the {@code >}-separated grammar of the prompt
+     * @return the job
+     */
+    public Job submit(SessionContext session, String commandLine) {
+        Job job = new Job(nextJobId.getAndIncrement(), commandLine);
+        SessionContext jobSession = session.fork(job.getOutputStream(), job);
+        jobsById.put(job.getJobId(), job);
+        synchronized (job) {
+            job.setExecution(jobWorkers.submit(() -> runJob(job, jobSession)));
+        }
+        return job;
+    }
+
+    /**
+     * @param jobId the number of the job
+     * @return the job, or {@code null} if this session has no job with that number
+     */
+    public Job getJob(int jobId) {
+        return jobsById.get(jobId);
+    }
+
+    /**
+     * @return the jobs of this session, oldest first
+     */
+    public List<Job> getJobs() {
+        return new ArrayList<>(jobsById.values());
+    }
+
+    /**
+     * Forgets the jobs that have finished.
+     *
+     * @return the number of jobs forgotten
+     */
+    public int removeFinishedJobs() {
+        int removedJobCount = 0;
+        for (Job job : getJobs()) {
+            if (job.getState().isFinished() && jobsById.remove(job.getJobId()) != null) {
+                removedJobCount++;
+            }
+        }
+        return removedJobCount;
+    }
+
+    /**
+     * Cancels every unfinished job and stops the workers.
+     */
+    public void shutdown() {
+        for (Job job : getJobs()) {
+            job.cancel();
+        }
+        jobWorkers.shutdown();
+    }
+
+    // --- Helper Methods ---
+
+    private static void runJob(Job job, SessionContext jobSession) {
+        if (!job.start()) {
+            jobSession.close();
+            return;
+        }
+        JobState finalState = JobState.FAILED;
+        try {
+            CommandExecutor.execute(jobSession, CommandExecutor.parseCommandLine(job.getCommandLine()));
+            finalState = jobSession.getReportedFailureCount() == 0 ? JobState.SUCCEEDED : JobState.FAILED;
+        } catch (OperationCancelledException operationCancelledException) {
+            jobSession.getOutput().println("Job cancelled.");
+            finalState = JobState.CANCELLED;
+        } catch (MissingArgumentException missingArgumentException) {
+            jobSession.reportFailure(missingArgumentException.getMessage());
+        } catch (RuntimeException runtimeException) {
+            jobSession.reportFailure("An error occurred: " + runtimeException);
+        } finally {
+            jobSession.close();
+            job.finish(finalState);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package file_manager.jobs;
+
+import java.util.List;
+
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.InputUtils.readUserInput;
+
+/**
+ * Utility class for the commands that manage background jobs: listing them, showing their
+ * output, and pausing, resuming or cancelling them.
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class JobOperations {
+
+    private JobOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Starts a command as a background job and prints its number.
+     *
+     * @param session     the session that starts the job
+     * @param commandLine the command to run in the background
+     * @return the job
+     */
+    public static Job startJob(SessionContext session, String commandLine) {
+        Job job = session.getJobManager().submit(session, commandLine);
+        session.getOutput().println("[" + job.getJobId() + "] Started in the background: " + commandLine);
+        return job;
+    }
+
+    /**
+     * Prints every job of the session with its state, progress, rate and time left,
+     * then forgets the jobs that have finished.
+     *
+     * @param session the session whose jobs are listed
+     */
+    public static void listJobs(SessionContext session) {
+        List<Job> jobs = session.getJobManager().getJobs();
+        if (jobs.isEmpty()) {
+            session.getOutput().println("There are no background jobs.");
+            return;
+        }
+        for (Job job : jobs) {
+            session.getOutput().println(job.describe());
+        }
+        session.getJobManager().removeFinishedJobs();
+    }
+
+    /**
+     * Prints the progress and the output of a job so far.
+     *
+     * @param session  the session the job belongs to
+     * @param jobIdText the number of the job, or null to prompt the user
+     */
+    public static void showJob(SessionContext session, String jobIdText) {
+        Job job = findJob(session, jobIdText, "Please enter the number of the job to show: ");
+        if (job != null) {
+            session.getOutput().println(job.describe());
+            session.getOutput().print(job.getOutput());
+        }
+    }
+
+    /**
+     * Pauses a job at its next progress report.
+     *
+     * @param session  the session the job belongs to
+     * @param jobIdText the number of the job, or null to prompt the user
+     */
+    public static void pauseJob(SessionContext session, String jobIdText) {
+        Job job = findJob(session, jobIdText, "Please enter the number of the job to pause: ");
+        if (job == null) {
+            return;
+        }
+        if (job.pause()) {
+            session.getOutput().println("Job paused: [" + job.getJobId() + "] " + job.getCommandLine());
+        } else {
+            session.reportFailure("The job cannot be paused in its current state: " + job.getState());
+        }
+    }
+
+    /**
+     * Lets a paused job continue.
+     *
+     * @param session  the session the job belongs to
+     * @param jobIdText the number of the job, or null to prompt the user
+     */
+    public static void resumeJob(SessionContext session, String jobIdText) {
+        Job job = findJob(session, jobIdText, "Please enter the number of the job to resume: ");
+        if (job == null) {
+            return;
+        }
+        if (job.resume()) {
+            session.getOutput().println("Job resumed: [" + job.getJobId() + "] " + job.getCommandLine());
+        } else {
+            session.reportFailure("The job is not paused: [" + job.getJobId() + "] " + job.getState());
+        }
+    }
+
+    /**
+     * Cancels a job; a running job stops at its next progress report.
+     *
+     * @param session  the session the job belongs to
+     * @param jobIdText the number of the job, or null to prompt the user
+     */
+    public static void cancelJob(SessionContext session, String jobIdText) {
+        Job job = findJob(session, jobIdText, "Please enter the number of the job to cancel: ");
+        if (job == null) {
+            return;
+        }
+        if (job.cancel()) {
+            session.getOutput().println("Job cancellation requested: [" + job.getJobId() + "] " + job.getCommandLine());
+        } else {
+            session.reportFailure("The job has already finished: [" + job.getJobId() + "] " + job.getState());
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private static Job findJob(SessionContext session, String jobIdText, String promptText) {
+        if (jobIdText == null) {
+            jobIdText = readUserInput(session, promptText);
+        }
+        try {
+            Job job = session.getJobManager().getJob(Integer.parseInt(jobIdText.trim().replace("[", "").replace("]", "")));
+            if (job != null) {
+                return job;
+            }
+        } catch (NumberFormatException numberFormatException) {
+            // Reported like a job that does not exist
+        }
+        session.reportFailure("There is no job with the number: " + jobIdText);
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package file_manager.jobs;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Output stream that keeps only the most recent output of a background job.
+ * <p>
+ * The bytes are written into a fixed-size ring, so a job that prints without end, such as
+ * {@code read file > app.log > follow}, or a large {@code read file}, holds a bounded amount
+ * of memory. When earlier output has been overwritten, {@link #toString()} starts with a note
+ * saying how much was dropped, followed by the output from the first complete line kept.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+class JobOutputBuffer extends OutputStream {
+
+    private final byte[] ringBuffer;
+    private long writtenByteCount;
+
+    /**
+     * @param capacity the maximum number of bytes of output kept
+     */
+    JobOutputBuffer(int capacity) {
+        this.ringBuffer = new byte[capacity];
+    }
+
+    @Override
+    public synchronized void write(int singleByte) {
+        ringBuffer[(int) (writtenByteCount % ringBuffer.length)] = (byte) singleByte;
+        writtenByteCount++;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        if (length > ringBuffer.length) {
+            // Only the tail of the write can be kept
+            writtenByteCount += length - ringBuffer.length;
+            offset += length - ringBuffer.length;
+            length = ringBuffer.length;
+        }
+        int ringPosition = (int) (writtenByteCount % ringBuffer.length);
+        int firstPartLength = Math.min(length, ringBuffer.length - ringPosition);
+        System.arraycopy(bytes, offset, ringBuffer, ringPosition, firstPartLength);
+        System.arraycopy(bytes, offset + firstPartLength, ringBuffer, 0, length - firstPartLength);
+        writtenByteCount += length;
+    }
+
+    /**
+     * @return the number of bytes of output that no longer fit and were dropped
+     */
+    synchronized long getDroppedByteCount() {
+        return Math.max(0, writtenByteCount - ringBuffer.length);
+    }
+
+    /**
+     * Returns the kept output, decoded with the default charset like the {@code PrintStream} that writes it.
+     *
+     * @return the most recent output, preceded by a note if earlier output was dropped
+     */
+    @Override
+    public synchronized String toString() {
+        if (writtenByteCount <= ringBuffer.length) {
+            return new String(ringBuffer, 0, (int) writtenByteCount, Charset.defaultCharset());
+        }
+        byte[] keptBytes = new byte[ringBuffer.length];
+        int oldestPosition = (int) (writtenByteCount % ringBuffer.length);
+        System.arraycopy(ringBuffer, oldestPosition, keptBytes, 0, ringBuffer.length - oldestPosition);
+        System.arraycopy(ringBuffer, 0, keptBytes, ringBuffer.length - oldestPosition, oldestPosition);
+
+        // Skip the partial line (and possibly partial character) left at the start of the ring
+        int firstLineStart = 0;
+        while (firstLineStart < keptBytes.length && keptBytes[firstLineStart] != '\n') {
+            firstLineStart++;
+        }
+        firstLineStart = firstLineStart < keptBytes.length ? firstLineStart + 1 : 0;
+        long droppedByteCount = writtenByteCount - keptBytes.length + firstLineStart;
+        return "[" + droppedByteCount + " earlier bytes of output dropped]" + System.lineSeparator()
+                + new String(keptBytes, firstLineStart, keptBytes.length - firstLineStart, Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,29 @@
+package file_manager.jobs;
+
+/**
+ * The states a background {@link Job} moves through.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public enum JobState {
+    /** Waiting for a free worker. */
+    QUEUED,
+    /** Running on a worker. */
+    RUNNING,
+    /** Stopped at its next progress report until it is resumed. */
+    PAUSED,
+    /** Finished without reporting a failure. */
+    SUCCEEDED,
+    /** Finished after reporting a failure. */
+    FAILED,
+    /** Stopped before finishing because it was cancelled. */
+    CANCELLED;
+
+    /**
+     * @return {@code true} if the job has finished, one way or another
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,98 @@
+package file_manager.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and latency histogram of one command, shared by every run of the command.
+ * <p>
+ * All counters are {@link LongAdder}s, so concurrent commands update them without contention.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CommandMetrics {
+
+    private final String commandName;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder transferredByteCount = new LongAdder();
+    private final LongAdder fileOperationCount = new LongAdder();
+    private final LongAdder ioCallCount = new LongAdder();
+
+    CommandMetrics(String commandName) {
+        this.commandName = commandName;
+    }
+
+    /**
+     * @return the command as the user types it, for example {@code copy file}
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * Records one run of the command.
+     *
+     * @param durationNanos how long the command took
+     * @param failed        {@code true} if the command reported a failure or threw
+     */
+    public void recordRun(long durationNanos, boolean failed) {
+        latencyHistogram.record(durationNanos);
+        if (failed) {
+            failureCount.increment();
+        }
+    }
+
+    /**
+     * Records I/O done by the command, as reported at one progress checkpoint.
+     *
+     * @param fileCount the number of files and folders created, copied, moved or deleted
+     * @param byteCount the number of bytes read or written
+     */
+    public void recordIo(long fileCount, long byteCount) {
+        if (fileCount > 0) {
+            fileOperationCount.add(fileCount);
+        }
+        if (byteCount > 0) {
+            transferredByteCount.add(byteCount);
+            ioCallCount.increment();
+        }
+    }
+
+    /**
+     * @return the latency histogram of the command
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * @return the number of runs that failed
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * @return the number of bytes read or written
+     */
+    public long getTransferredByteCount() {
+        return transferredByteCount.sum();
+    }
+
+    /**
+     * @return the number of files and folders created, copied, moved or deleted
+     */
+    public long getFileOperationCount() {
+        return fileOperationCount.sum();
+    }
+
+    /**
+     * @return the number of progress reports that carried bytes, about one per chunk of I/O: 256 KiB
+     *         for a streamed or delta copy, 1 MiB for a sparse copy, a whole file for an archive entry
+     */
+    public long getIoCallCount() {
+        return ioCallCount.sum();
+    }
+}
@@ -0,0 +1,130 @@
+package file_manager.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds with a bounded relative error.
+ * <p>
+ * Like an HDR histogram, values are grouped by their power of two and each power of two is
+ * split into {@value #SUB_BUCKET_COUNT} linear sub-buckets, so every recorded value is
+ * reported within about 3% of its true value, from nanoseconds to centuries, in a fixed array
+ * of counters. Recording is a few arithmetic operations and an atomic increment, and may happen
+ * from any number of threads at once.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of linear sub-buckets in each power of two.
+     */
+    private static final int SUB_BUCKET_COUNT = 32;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT);
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one duration. Negative durations are recorded as zero.
+     *
+     * @param durationNanos the duration in nanoseconds
+     */
+    public void record(long durationNanos) {
+        long recordedNanos = Math.max(0, durationNanos);
+        bucketCounts.incrementAndGet(bucketIndex(recordedNanos));
+        totalCount.increment();
+        totalNanos.add(recordedNanos);
+        if (recordedNanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(recordedNanos, Math::max);
+        }
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * @return the sum of the recorded durations in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return the longest recorded duration in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the duration below which the given fraction of the recorded durations fall.
+     *
+     * @param quantile the fraction, between 0 and 1, for example {@code 0.99}
+     * @return the duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        long recordedCount = 0;
+        long[] countSnapshot = new long[BUCKET_COUNT];
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            countSnapshot[bucketIndex] = bucketCounts.get(bucketIndex);
+            recordedCount += countSnapshot[bucketIndex];
+        }
+        if (recordedCount == 0) {
+            return 0;
+        }
+        long targetRank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * recordedCount));
+        long cumulativeCount = 0;
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            cumulativeCount += countSnapshot[bucketIndex];
+            if (cumulativeCount >= targetRank) {
+                return Math.min(bucketUpperBound(bucketIndex), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Forgets every recorded duration.
+     */
+    public void reset() {
+        for (int bucketIndex = 0; bucketIndex < BUCKET_COUNT; bucketIndex++) {
+            bucketCounts.set(bucketIndex, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    // --- Helper Methods ---
+
+    private static int bucketIndex(long valueNanos) {
+        if (valueNanos < SUB_BUCKET_COUNT) {
+            return (int) valueNanos;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(valueNanos);
+        int subBucket = (int) (valueNanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long bucketUpperBound(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int magnitude = bucketIndex / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = bucketIndex % SUB_BUCKET_COUNT;
+        long bucketWidth = 1L << (magnitude - SUB_BUCKET_BITS);
+        long lowerBound = (SUB_BUCKET_COUNT + subBucket) << (magnitude - SUB_BUCKET_BITS);
+        return lowerBound + bucketWidth - 1;
+    }
+}
@@ -0,0 +1,235 @@
+package file_manager.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.JsonUtils.escapeJson;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code stats} command, which shows the metrics collected by
+ * {@link MetricsRegistry} as a table, as JSON or in the Prometheus text format, and
+ * writes them to a file for a local agent to scrape.
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class MetricsOperations {
+
+    /**
+     * The format that prints a table for people to read.
+     */
+    public static final String TEXT_FORMAT = "text";
+
+    /**
+     * The format that prints a JSON document.
+     */
+    public static final String JSON_FORMAT = "json";
+
+    /**
+     * The Prometheus text exposition format, suitable for the node exporter's textfile collector.
+     */
+    public static final String PROMETHEUS_FORMAT = "prometheus";
+
+    private static final String RESET_ARGUMENT = "reset";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private MetricsOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Prints the metrics in the given format, writes them to a file, or resets them.
+     *
+     * @param session        the session to print to
+     * @param formatOrReset  {@code text}, {@code json}, {@code prometheus} or {@code reset}; null means {@code text}
+     * @param outputFileName the file to write the metrics to, or null to print them
+     */
+    public static void stats(SessionContext session, String formatOrReset, String outputFileName) {
+        String requestedFormat = formatOrReset == null ? TEXT_FORMAT : formatOrReset.trim().toLowerCase(Locale.ROOT);
+        if (requestedFormat.equals(RESET_ARGUMENT)) {
+            MetricsRegistry.reset();
+            session.getOutput().println("Metrics reset.");
+            return;
+        }
+        String formattedMetrics;
+        switch (requestedFormat) {
+            case TEXT_FORMAT:
+                formattedMetrics = formatText(MetricsRegistry.getAllCommandMetrics());
+                break;
+            case JSON_FORMAT:
+                formattedMetrics = formatJson(MetricsRegistry.getAllCommandMetrics());
+                break;
+            case PROMETHEUS_FORMAT:
+                formattedMetrics = formatPrometheus(MetricsRegistry.getAllCommandMetrics());
+                break;
+            default:
+                session.reportFailure("Unknown metrics format: " + formatOrReset + ". Use text, json, prometheus or reset.");
+                return;
+        }
+        if (outputFileName == null) {
+            session.getOutput().print(formattedMetrics);
+            return;
+        }
+        try {
+            writeAtomically(resolvePath(session, outputFileName), formattedMetrics);
+            session.getOutput().println("Metrics written to: " + outputFileName);
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Error writing metrics: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Formats the metrics as a table with one row per command.
+     *
+     * @param allCommandMetrics the metrics to format
+     * @return the table, ending with a line separator
+     */
+    public static String formatText(List<CommandMetrics> allCommandMetrics) {
+        if (allCommandMetrics.isEmpty()) {
+            return "No commands have run yet." + System.lineSeparator();
+        }
+        StringBuilder tableBuilder = new StringBuilder(String.format(Locale.ROOT, "%-14s %7s %6s %10s %10s %10s %11s %9s %9s%n",
+                "command", "count", "failed", "p50 ms", "p99 ms", "max ms", "bytes", "file ops", "io calls"));
+        for (CommandMetrics commandMetrics : allCommandMetrics) {
+            LatencyHistogram latencyHistogram = commandMetrics.getLatencyHistogram();
+            tableBuilder.append(String.format(Locale.ROOT, "%-14s %7d %6d %10.3f %10.3f %10.3f %11s %9d %9d%n",
+                    commandMetrics.getCommandName(), latencyHistogram.getCount(), commandMetrics.getFailureCount(),
+                    latencyHistogram.getValueAtQuantile(0.5) / NANOS_PER_MILLI,
+                    latencyHistogram.getValueAtQuantile(0.99) / NANOS_PER_MILLI,
+                    latencyHistogram.getMaxNanos() / NANOS_PER_MILLI,
+                    formatByteCount(commandMetrics.getTransferredByteCount()),
+                    commandMetrics.getFileOperationCount(), commandMetrics.getIoCallCount()));
+        }
+        return tableBuilder.toString();
+    }
+
+    /**
+     * Formats the metrics as a JSON document.
+     *
+     * @param allCommandMetrics the metrics to format
+     * @return the JSON document, ending with a line separator
+     */
+    public static String formatJson(List<CommandMetrics> allCommandMetrics) {
+        StringBuilder jsonBuilder = new StringBuilder("{\"startMillis\":").append(MetricsRegistry.getStartMillis())
+                .append(",\"commands\":[");
+        for (int metricsIndex = 0; metricsIndex < allCommandMetrics.size(); metricsIndex++) {
+            CommandMetrics commandMetrics = allCommandMetrics.get(metricsIndex);
+            LatencyHistogram latencyHistogram = commandMetrics.getLatencyHistogram();
+            if (metricsIndex > 0) {
+                jsonBuilder.append(',');
+            }
+            jsonBuilder.append("{\"command\":\"").append(escapeJson(commandMetrics.getCommandName())).append('"')
+                    .append(",\"count\":").append(latencyHistogram.getCount())
+                    .append(",\"failures\":").append(commandMetrics.getFailureCount())
+                    .append(",\"latencyNanos\":{\"p50\":").append(latencyHistogram.getValueAtQuantile(0.5))
+                    .append(",\"p99\":").append(latencyHistogram.getValueAtQuantile(0.99))
+                    .append(",\"max\":").append(latencyHistogram.getMaxNanos())
+                    .append(",\"sum\":").append(latencyHistogram.getTotalNanos()).append('}')
+                    .append(",\"bytes\":").append(commandMetrics.getTransferredByteCount())
+                    .append(",\"fileOperations\":").append(commandMetrics.getFileOperationCount())
+                    .append(",\"ioCalls\":").append(commandMetrics.getIoCallCount())
+                    .append('}');
+        }
+        return jsonBuilder.append("]}").append(System.lineSeparator()).toString();
+    }
+
+    /**
+     * Formats the metrics in the Prometheus text exposition format, with the command as a label.
+     *
+     * @param allCommandMetrics the metrics to format
+     * @return the metrics, one sample per line
+     */
+    public static String formatPrometheus(List<CommandMetrics> allCommandMetrics) {
+        StringBuilder prometheusBuilder = new StringBuilder();
+        appendPrometheusHeader(prometheusBuilder, "file_manager_command_duration_seconds", "summary", "Time taken by each command.");
+        for (CommandMetrics commandMetrics : allCommandMetrics) {
+            LatencyHistogram latencyHistogram = commandMetrics.getLatencyHistogram();
+            String commandLabel = "command=\"" + escapePrometheusLabel(commandMetrics.getCommandName()) + "\"";
+            appendPrometheusSample(prometheusBuilder, "file_manager_command_duration_seconds", commandLabel + ",quantile=\"0.5\"",
+                    latencyHistogram.getValueAtQuantile(0.5) / NANOS_PER_SECOND);
+            appendPrometheusSample(prometheusBuilder, "file_manager_command_duration_seconds", commandLabel + ",quantile=\"0.99\"",
+                    latencyHistogram.getValueAtQuantile(0.99) / NANOS_PER_SECOND);
+            appendPrometheusSample(prometheusBuilder, "file_manager_command_duration_seconds_sum", commandLabel,
+                    latencyHistogram.getTotalNanos() / NANOS_PER_SECOND);
+            appendPrometheusSample(prometheusBuilder, "file_manager_command_duration_seconds_count", commandLabel,
+                    latencyHistogram.getCount());
+        }
+        appendPrometheusMetric(prometheusBuilder, allCommandMetrics, "file_manager_command_duration_seconds_max", "gauge",
+                "Longest time taken by each command.", commandMetrics -> commandMetrics.getLatencyHistogram().getMaxNanos() / NANOS_PER_SECOND);
+        appendPrometheusMetric(prometheusBuilder, allCommandMetrics, "file_manager_command_failures_total", "counter",
+                "Commands that failed.", CommandMetrics::getFailureCount);
+        appendPrometheusMetric(prometheusBuilder, allCommandMetrics, "file_manager_command_bytes_total", "counter",
+                "Bytes read or written by each command.", CommandMetrics::getTransferredByteCount);
+        appendPrometheusMetric(prometheusBuilder, allCommandMetrics, "file_manager_command_file_operations_total", "counter",
+                "Files and folders created, copied, moved or deleted by each command.", CommandMetrics::getFileOperationCount);
+        appendPrometheusMetric(prometheusBuilder, allCommandMetrics, "file_manager_command_io_calls_total", "counter",
+                "Chunked reads and writes done by each command.", CommandMetrics::getIoCallCount);
+        return prometheusBuilder.toString();
+    }
+
+    // --- Helper Methods ---
+
+    private static void appendPrometheusMetric(StringBuilder prometheusBuilder, List<CommandMetrics> allCommandMetrics,
+                                               String metricName, String metricType, String metricHelp,
+                                               ToDoubleFunction<CommandMetrics> metricValue) {
+        appendPrometheusHeader(prometheusBuilder, metricName, metricType, metricHelp);
+        for (CommandMetrics commandMetrics : allCommandMetrics) {
+            appendPrometheusSample(prometheusBuilder, metricName,
+                    "command=\"" + escapePrometheusLabel(commandMetrics.getCommandName()) + "\"", metricValue.applyAsDouble(commandMetrics));
+        }
+    }
+
+    private static void appendPrometheusHeader(StringBuilder prometheusBuilder, String metricName, String metricType, String metricHelp) {
+        prometheusBuilder.append("# HELP ").append(metricName).append(' ').append(metricHelp).append('\n')
+                .append("# TYPE ").append(metricName).append(' ').append(metricType).append('\n');
+    }
+
+    private static void appendPrometheusSample(StringBuilder prometheusBuilder, String metricName, String labels, double value) {
+        prometheusBuilder.append(metricName).append('{').append(labels).append("} ");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            prometheusBuilder.append((long) value);
+        } else {
+            prometheusBuilder.append(String.format(Locale.ROOT, "%.9f", value));
+        }
+        prometheusBuilder.append('\n');
+    }
+
+    private static String escapePrometheusLabel(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Writes the file through a temporary file in the same folder, so a scraper never reads a partial file.
+     */
+    private static void writeAtomically(Path outputFilePath, String fileContents) throws IOException {
+        Path absoluteOutputPath = outputFilePath.toAbsolutePath();
+        Path temporaryFilePath = Files.createTempFile(absoluteOutputPath.getParent(), ".metrics", ".tmp");
+        try {
+            Files.write(temporaryFilePath, fileContents.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temporaryFilePath, absoluteOutputPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException atomicMoveNotSupportedException) {
+                Files.move(temporaryFilePath, absoluteOutputPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFilePath);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package file_manager.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link CommandMetrics} of every command run in the JVM, across all sessions.
+ * <p>
+ * {@code CommandExecutor} records the latency and outcome of each command here, and the
+ * progress reports of the operations add their bytes and file operations to the command
+ * that is running (see {@link file_manager.session.SessionContext#recordWork(long, long)}).
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class MetricsRegistry {
+
+    private static final Map<String, CommandMetrics> COMMAND_METRICS = new ConcurrentHashMap<>();
+    private static volatile long startMillis = System.currentTimeMillis();
+
+    private MetricsRegistry() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Returns the metrics of a command, creating them on first use.
+     *
+     * @param commandName the command as the user types it, for example {@code copy file}
+     * @return the metrics of the command
+     */
+    public static CommandMetrics getCommandMetrics(String commandName) {
+        return COMMAND_METRICS.computeIfAbsent(commandName, CommandMetrics::new);
+    }
+
+    /**
+     * @return the metrics of every command that has run, ordered by command name
+     */
+    public static List<CommandMetrics> getAllCommandMetrics() {
+        List<CommandMetrics> allCommandMetrics = new ArrayList<>(COMMAND_METRICS.values());
+        allCommandMetrics.sort(Comparator.comparing(CommandMetrics::getCommandName));
+        return allCommandMetrics;
+    }
+
+    /**
+     * @return the time the metrics started being collected, in milliseconds since the epoch
+     */
+    public static long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Forgets the metrics of every command and starts collecting them anew.
+     */
+    public static void reset() {
+        COMMAND_METRICS.clear();
+        startMillis = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,421 @@
+package file_manager.operations;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for creating and extracting ZIP archives in the File Manager application.
+ * <p>
+ * Archiving streams the folder tree straight into the archive without staging copies.
+ * Files are compressed in parallel by worker threads into independent buffers and written
+ * to the archive in walk order, so throughput scales with the number of cores. Extraction
+ * streams the archive through a {@link ZipInputStream} and hands each decompressed entry
+ * to worker threads that write the files in parallel. Entries are extracted into a hidden
+ * staging folder next to the destination and moved into place only once the whole archive
+ * has been read, so a failed or cancelled extraction leaves nothing behind.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class ArchiveOperations {
+
+    /**
+     * Entries up to this size are compressed or written by worker threads from memory;
+     * larger entries are streamed directly so memory use stays bounded.
+     */
+    private static final int BUFFERED_ENTRY_LIMIT = 8 * 1024 * 1024;
+
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The maximum number of buffered entries in flight at once.
+     */
+    private static final int MAX_ENTRIES_IN_FLIGHT = WORKER_COUNT * 2;
+
+    private static final String STAGING_DIRECTORY_PREFIX = ".file-manager-unzip-";
+
+    private ArchiveOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Compresses a folder in the working directory of the default session into a ZIP archive.
+     *
+     * @param sourceDirectoryName the name or path of the folder to archive, or null to prompt the user
+     * @param archiveFileName the name or path of the archive to create, or null to derive it from the folder name
+     * @return the path of the created archive, or null if the operation failed
+     * @see #zipDir(SessionContext, String, String)
+     */
+    public static String zipDir(String sourceDirectoryName, String archiveFileName) {
+        return zipDir(SessionContext.getDefaultSession(), sourceDirectoryName, archiveFileName);
+    }
+
+    /**
+     * Compresses a folder in the current working directory into a ZIP archive.
+     * If the folder name is null, prompts the user to enter it.
+     * If the archive name is null, the archive is named after the folder with a {@code .zip} extension.
+     * Prints a message indicating success or failure.
+     *
+     * @param session the session whose working directory is used
+     * @param sourceDirectoryName the name or path of the folder to archive, or null to prompt the user
+     * @param archiveFileName     the name or path of the archive to create, or null to derive it from the folder name
+     * @return the path of the created archive, or null if the operation failed
+     */
+    public static String zipDir(SessionContext session, String sourceDirectoryName, String archiveFileName) {
+        if (sourceDirectoryName == null) {
+            sourceDirectoryName = readUserInput(session, "Please enter the name of the folder to archive: ");
+        }
+        Path sourceDirectoryPath = resolvePath(session, sourceDirectoryName);
+        if (!Files.isDirectory(sourceDirectoryPath)) {
+            session.reportFailure("Error: The specified folder does not exist or is not a directory.");
+            return null;
+        }
+        if (archiveFileName == null) {
+            archiveFileName = sourceDirectoryPath.getFileName() + ".zip";
+        }
+        Path archivePath = resolvePath(session, archiveFileName);
+        if (Files.exists(archivePath)) {
+            session.reportFailure("Error: An archive with this name already exists: " + archiveFileName);
+            return null;
+        }
+
+        ExecutorService compressionWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        try {
+            int archivedEntryCount = writeArchive(session, sourceDirectoryPath, archivePath, compressionWorkers);
+            session.getOutput().println("Folder '" + sourceDirectoryName + "' archived successfully to: " + archiveFileName
+                    + " (" + archivedEntryCount + " entries)");
+            return archivePath.toString();
+        } catch (OperationCancelledException operationCancelledException) {
+            deletePartialArchive(archivePath);
+            throw operationCancelledException;
+        } catch (IOException | SecurityException exception) {
+            deletePartialArchive(archivePath);
+            session.reportFailure("Error creating archive: " + exception.getMessage());
+        } finally {
+            compressionWorkers.shutdownNow();
+        }
+        return null;
+    }
+
+    /**
+     * Extracts a ZIP archive from the working directory of the default session.
+     *
+     * @param archiveFileName the name or path of the archive to extract, or null to prompt the user
+     * @param destinationDirectoryName the folder to extract into, or null to derive it from the archive name
+     * @return the path of the destination folder, or null if the operation failed
+     * @see #unzipFile(SessionContext, String, String)
+     */
+    public static String unzipFile(String archiveFileName, String destinationDirectoryName) {
+        return unzipFile(SessionContext.getDefaultSession(), archiveFileName, destinationDirectoryName);
+    }
+
+    /**
+     * Extracts a ZIP archive from the current working directory into a folder.
+     * If the archive name is null, prompts the user to enter it.
+     * If the destination folder is null, the archive is extracted into a folder named after it.
+     * If the destination folder already exists, the extracted entries are merged into it and
+     * replace files with the same names.
+     * Prints a message indicating success or failure.
+     *
+     * @param session the session whose working directory is used
+     * @param archiveFileName          the name or path of the archive to extract, or null to prompt the user
+     * @param destinationDirectoryName the folder to extract into, or null to derive it from the archive name
+     * @return the path of the destination folder, or null if the operation failed
+     */
+    public static String unzipFile(SessionContext session, String archiveFileName, String destinationDirectoryName) {
+        if (archiveFileName == null) {
+            archiveFileName = readUserInput(session, "Please enter the name of the archive to extract: ");
+        }
+        Path archivePath = resolvePath(session, archiveFileName);
+        if (!Files.isRegularFile(archivePath)) {
+            session.reportFailure("The specified archive does not exist: " + archiveFileName);
+            return null;
+        }
+        if (destinationDirectoryName == null) {
+            String archiveBaseName = archivePath.getFileName().toString();
+            int extensionIndex = archiveBaseName.lastIndexOf('.');
+            destinationDirectoryName = extensionIndex > 0 ? archiveBaseName.substring(0, extensionIndex) : archiveBaseName + "_extracted";
+        }
+        Path destinationDirectoryPath = resolvePath(session, destinationDirectoryName).toAbsolutePath().normalize();
+
+        ExecutorService extractionWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        Path stagingDirectoryPath = null;
+        try {
+            if (Files.exists(destinationDirectoryPath) && !Files.isDirectory(destinationDirectoryPath)) {
+                throw new FileAlreadyExistsException(destinationDirectoryPath.toString());
+            }
+            Files.createDirectories(destinationDirectoryPath.getParent());
+            stagingDirectoryPath = Files.createTempDirectory(destinationDirectoryPath.getParent(), STAGING_DIRECTORY_PREFIX);
+            int extractedEntryCount = extractArchive(session, archivePath, stagingDirectoryPath, extractionWorkers);
+            moveIntoPlace(stagingDirectoryPath, destinationDirectoryPath);
+            session.getOutput().println("Archive '" + archiveFileName + "' extracted successfully to: " + destinationDirectoryName
+                    + " (" + extractedEntryCount + " entries)");
+            return destinationDirectoryPath.toString();
+        } catch (OperationCancelledException operationCancelledException) {
+            deleteStagingDirectory(stagingDirectoryPath);
+            throw operationCancelledException;
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.reportFailure("Error: A file with the same name already exists at the destination: " + fileAlreadyExistsException.getFile());
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Error extracting archive: " + exception.getMessage());
+        } finally {
+            extractionWorkers.shutdownNow();
+            deleteStagingDirectory(stagingDirectoryPath);
+        }
+        return null;
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Walks the folder and writes every entry to the archive in walk order.
+     * Small files are compressed ahead by the workers within a bounded window of in-flight entries;
+     * large files are compressed while being streamed once all earlier entries have been written.
+     * Progress is reported to the session as each path is walked.
+     */
+    private static int writeArchive(SessionContext session, Path sourceDirectoryPath, Path archivePath, ExecutorService compressionWorkers) throws IOException {
+        Path archiveRootPath = sourceDirectoryPath.getParent() != null ? sourceDirectoryPath.getParent() : sourceDirectoryPath;
+        Deque<Future<ZipArchiveWriter.CompressedEntry>> pendingEntries = new ArrayDeque<>();
+
+        try (ZipArchiveWriter archiveWriter = new ZipArchiveWriter(archivePath);
+             Stream<Path> directoryWalk = Files.walk(sourceDirectoryPath)) {
+            Iterator<Path> walkedPaths = directoryWalk.iterator();
+            while (walkedPaths.hasNext()) {
+                Path walkedPath = walkedPaths.next();
+                if (walkedPath.equals(archivePath)) {
+                    continue;
+                }
+                String entryName = toEntryName(archiveRootPath.relativize(walkedPath));
+                session.recordWork(1, Files.isRegularFile(walkedPath) ? Files.size(walkedPath) : 0);
+
+                if (Files.isDirectory(walkedPath)) {
+                    pendingEntries.add(CompletableFuture.completedFuture(
+                            ZipArchiveWriter.directoryEntry(entryName, Files.getLastModifiedTime(walkedPath))));
+                } else if (Files.isRegularFile(walkedPath) && Files.size(walkedPath) <= BUFFERED_ENTRY_LIMIT) {
+                    pendingEntries.add(compressionWorkers.submit(
+                            () -> ZipArchiveWriter.compressFile(entryName, walkedPath, Deflater.DEFAULT_COMPRESSION)));
+                } else if (Files.isRegularFile(walkedPath)) {
+                    while (!pendingEntries.isEmpty()) {
+                        archiveWriter.writeCompressedEntry(awaitEntry(pendingEntries.poll()));
+                    }
+                    archiveWriter.writeStreamedEntry(entryName, walkedPath, Deflater.DEFAULT_COMPRESSION);
+                }
+
+                while (pendingEntries.size() >= MAX_ENTRIES_IN_FLIGHT) {
+                    archiveWriter.writeCompressedEntry(awaitEntry(pendingEntries.poll()));
+                }
+            }
+            while (!pendingEntries.isEmpty()) {
+                archiveWriter.writeCompressedEntry(awaitEntry(pendingEntries.poll()));
+            }
+            return archiveWriter.getEntryCount();
+        } finally {
+            for (Future<ZipArchiveWriter.CompressedEntry> abandonedEntry : pendingEntries) {
+                abandonedEntry.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Streams the archive entry by entry. Entries that fit in memory are written to disk by the
+     * workers while the next entry is being decompressed; larger entries are written directly.
+     * Progress is reported to the session as each entry is read. Entries that would land outside
+     * the destination, and files that appear twice in the archive, fail the extraction rather than
+     * letting two workers race on the same file.
+     */
+    private static int extractArchive(SessionContext session, Path archivePath, Path destinationDirectoryPath, ExecutorService extractionWorkers) throws IOException {
+        Semaphore entriesInFlight = new Semaphore(MAX_ENTRIES_IN_FLIGHT);
+        AtomicReference<IOException> firstWriteFailure = new AtomicReference<>();
+        Path extractionRootPath = destinationDirectoryPath.toAbsolutePath().normalize();
+        Set<Path> extractedFilePaths = new HashSet<>();
+        int extractedEntryCount = 0;
+
+        try (ZipInputStream zipInput = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archivePath), 1 << 16))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zipInput.getNextEntry()) != null && firstWriteFailure.get() == null) {
+                Path entryTargetPath = extractionRootPath.resolve(zipEntry.getName()).normalize();
+                if (!entryTargetPath.startsWith(extractionRootPath) || entryTargetPath.equals(extractionRootPath)) {
+                    throw new IOException("Archive entry is outside of the destination folder: " + zipEntry.getName());
+                }
+                extractedEntryCount++;
+                session.recordWork(1, Math.max(0, zipEntry.getSize()));
+
+                if (zipEntry.isDirectory()) {
+                    Files.createDirectories(entryTargetPath);
+                    continue;
+                }
+                if (!extractedFilePaths.add(entryTargetPath)) {
+                    throw new IOException("Archive contains more than one entry named: " + zipEntry.getName());
+                }
+
+                byte[] entryData = zipInput.readNBytes(BUFFERED_ENTRY_LIMIT + 1);
+                ZipEntry extractedEntry = zipEntry;
+                if (entryData.length <= BUFFERED_ENTRY_LIMIT) {
+                    acquirePermit(entriesInFlight);
+                    extractionWorkers.execute(() -> {
+                        try {
+                            writeExtractedFile(entryTargetPath, entryData, extractedEntry);
+                        } catch (IOException ioException) {
+                            firstWriteFailure.compareAndSet(null, ioException);
+                        } finally {
+                            entriesInFlight.release();
+                        }
+                    });
+                } else {
+                    Files.createDirectories(entryTargetPath.getParent());
+                    try (OutputStream entryOutput = Files.newOutputStream(entryTargetPath)) {
+                        entryOutput.write(entryData);
+                        zipInput.transferTo(entryOutput);
+                    }
+                    applyLastModifiedTime(entryTargetPath, zipEntry);
+                }
+            }
+        } finally {
+            acquirePermits(entriesInFlight, MAX_ENTRIES_IN_FLIGHT);
+        }
+
+        if (firstWriteFailure.get() != null) {
+            throw firstWriteFailure.get();
+        }
+        return extractedEntryCount;
+    }
+
+    /**
+     * Moves the extracted entries from the staging folder into the destination, creating it if needed.
+     * The staging folder is a sibling of the destination, so every move is a rename; folders that
+     * already exist at the destination are merged. Symbolic links at the destination are never
+     * followed: a file replaces the link itself, and a folder is refused.
+     */
+    private static void moveIntoPlace(Path stagingDirectoryPath, Path destinationDirectoryPath) throws IOException {
+        Files.createDirectories(destinationDirectoryPath);
+        mergeDirectory(stagingDirectoryPath, destinationDirectoryPath);
+    }
+
+    private static void mergeDirectory(Path sourceDirectoryPath, Path targetDirectoryPath) throws IOException {
+        try (Stream<Path> children = Files.list(sourceDirectoryPath)) {
+            Iterator<Path> childIterator = children.iterator();
+            while (childIterator.hasNext()) {
+                Path childPath = childIterator.next();
+                Path targetPath = targetDirectoryPath.resolve(childPath.getFileName().toString());
+                boolean childIsDirectory = Files.isDirectory(childPath, LinkOption.NOFOLLOW_LINKS);
+                boolean targetIsDirectory = Files.isDirectory(targetPath, LinkOption.NOFOLLOW_LINKS);
+                if (childIsDirectory && targetIsDirectory) {
+                    mergeDirectory(childPath, targetPath);
+                } else if ((childIsDirectory || targetIsDirectory) && Files.exists(targetPath, LinkOption.NOFOLLOW_LINKS)) {
+                    throw new FileAlreadyExistsException(targetPath.toString());
+                } else {
+                    Files.move(childPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private static void writeExtractedFile(Path entryTargetPath, byte[] entryData, ZipEntry zipEntry) throws IOException {
+        Files.createDirectories(entryTargetPath.getParent());
+        Files.write(entryTargetPath, entryData);
+        applyLastModifiedTime(entryTargetPath, zipEntry);
+    }
+
+    private static void applyLastModifiedTime(Path entryTargetPath, ZipEntry zipEntry) throws IOException {
+        if (zipEntry.getLastModifiedTime() != null) {
+            Files.setLastModifiedTime(entryTargetPath, zipEntry.getLastModifiedTime());
+        }
+    }
+
+    /**
+     * Builds a ZIP entry name, which always uses {@code /} as separator regardless of the OS.
+     */
+    private static String toEntryName(Path relativePath) {
+        StringBuilder entryNameBuilder = new StringBuilder();
+        for (Path namePart : relativePath) {
+            if (entryNameBuilder.length() > 0) {
+                entryNameBuilder.append('/');
+            }
+            entryNameBuilder.append(namePart);
+        }
+        return entryNameBuilder.toString();
+    }
+
+    private static ZipArchiveWriter.CompressedEntry awaitEntry(Future<ZipArchiveWriter.CompressedEntry> pendingEntry) throws IOException {
+        try {
+            return pendingEntry.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable compressionFailure = executionException.getCause();
+            if (compressionFailure instanceof IOException) {
+                throw (IOException) compressionFailure;
+            }
+            throw new IOException("Compression worker failed: " + compressionFailure, compressionFailure);
+        }
+    }
+
+    private static void acquirePermit(Semaphore entriesInFlight) throws IOException {
+        acquirePermits(entriesInFlight, 1);
+    }
+
+    private static void acquirePermits(Semaphore entriesInFlight, int permitCount) throws IOException {
+        try {
+            entriesInFlight.acquire(permitCount);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting", interruptedException);
+        }
+    }
+
+    /**
+     * Removes whatever is left of the staging folder, if it was created and not moved into place.
+     */
+    private static void deleteStagingDirectory(Path stagingDirectoryPath) {
+        if (stagingDirectoryPath == null || Files.notExists(stagingDirectoryPath)) {
+            return;
+        }
+        try (Stream<Path> stagedPaths = Files.walk(stagingDirectoryPath)) {
+            stagedPaths.sorted(Comparator.reverseOrder()).forEach(stagedPath -> {
+                try {
+                    Files.deleteIfExists(stagedPath);
+                } catch (IOException | SecurityException ignored) {}
+            });
+        } catch (IOException | SecurityException ignored) {}
+    }
+
+    private static void deletePartialArchive(Path archivePath) {
+        try {
+            Files.deleteIfExists(archivePath);
+        } catch (IOException | SecurityException ignored) {}
+    }
+}
@@ -0,0 +1,390 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.PatternSyntaxException;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+import file_manager.trash.TrashBin;
+import file_manager.trash.TrashPurger;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for applying {@code delete file}, {@code copy file} and {@code move file} to every
+ * file whose name matches a pattern.
+ * <p>
+ * A pattern is a glob such as {@code glob:logs/*.tmp}, whose folder part is taken literally and
+ * whose last part is matched against file names, or a regular expression such as
+ * {@code regex:report-\d+\.csv}, which is matched against the names of the files in the working
+ * directory. Only the prefix makes an argument a pattern, so a file name that happens to contain
+ * wildcards, such as {@code report[1].txt}, always names that one file. Folders never match. The matches are streamed from a filtered {@link DirectoryStream}
+ * and handed to worker threads in batches by a {@link ParallelBatchExecutor}, so the full list of
+ * matches is never held in memory however large the folder is. A dry run only
+ * counts and lists what would be affected. Each run ends with one summary line instead of a
+ * message per file; individual failures are counted and the first few are shown.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class BulkOperations {
+
+    /**
+     * The prefix of a pattern given as a regular expression.
+     */
+    public static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * The prefix of a pattern given as a glob.
+     */
+    public static final String GLOB_PREFIX = "glob:";
+
+    /**
+     * The option that lists the matches without changing anything.
+     */
+    public static final String DRY_RUN_OPTION = "dry-run";
+
+    private static final String GLOB_WILDCARDS = "*?[{";
+    private static final int MAX_LISTED_FAILURES = 10;
+    private static final int MAX_LISTED_DRY_RUN_MATCHES = 20;
+
+    private BulkOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Something done to one matching file.
+     */
+    @FunctionalInterface
+    private interface FileAction {
+        /**
+         * @param matchPath the matching file
+         * @return the number of bytes read or written
+         * @throws IOException if the file cannot be processed
+         */
+        long apply(Path matchPath) throws IOException;
+    }
+
+    /**
+     * Checks whether a command argument is a pattern rather than a single file name.
+     *
+     * @param fileNameOrPattern the argument
+     * @return {@code true} if it has a {@code regex:} or {@code glob:} prefix
+     */
+    public static boolean isFilePattern(String fileNameOrPattern) {
+        return fileNameOrPattern != null
+                && (fileNameOrPattern.startsWith(REGEX_PREFIX) || fileNameOrPattern.startsWith(GLOB_PREFIX));
+    }
+
+    /**
+     * Reports a file name that does not exist but has wildcards in its last part, which is most
+     * likely a glob written without its {@code glob:} prefix. Nothing is matched against it.
+     *
+     * @param session  the session whose working directory is used
+     * @param fileName the file name argument, which is not a pattern
+     * @return {@code true} if the failure was reported and the command should stop
+     */
+    public static boolean reportMissingGlobPrefix(SessionContext session, String fileName) {
+        if (fileName == null || !hasGlobWildcards(fileName.substring(findLastSeparator(fileName) + 1))) {
+            return false;
+        }
+        try {
+            if (Files.exists(resolvePath(session, fileName))) {
+                return false;
+            }
+        } catch (InvalidPathException invalidPathException) {
+            // Not a valid name either, so it can only have been meant as a pattern
+        }
+        session.reportFailure("No file is named '" + fileName + "'. To apply the command to every matching file, write "
+                + GLOB_PREFIX + fileName);
+        return true;
+    }
+
+    /**
+     * @param option an optional command argument
+     * @return {@code true} if it asks for a dry run
+     */
+    public static boolean isDryRun(String option) {
+        return option != null && option.trim().equalsIgnoreCase(DRY_RUN_OPTION);
+    }
+
+    /**
+     * Returns the folder whose files a pattern is matched against.
+     *
+     * @param session the session whose working directory is used
+     * @param pattern the pattern
+     * @return the folder searched for matches
+     * @throws InvalidPathException if the folder part is not a valid path
+     */
+    public static Path resolvePatternDirectory(SessionContext session, String pattern) {
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            return session.getCurrentWorkingDirectoryPath();
+        }
+        String globPattern = pattern.startsWith(GLOB_PREFIX) ? pattern.substring(GLOB_PREFIX.length()) : pattern;
+        int lastSeparatorIndex = findLastSeparator(globPattern);
+        if (lastSeparatorIndex < 0) {
+            return session.getCurrentWorkingDirectoryPath();
+        }
+        return resolvePath(session, lastSeparatorIndex == 0 ? globPattern.substring(0, 1) : globPattern.substring(0, lastSeparatorIndex));
+    }
+
+    /**
+     * Deletes every file matching a pattern, or moves them to the trash if the trash is on in the session.
+     *
+     * @param session the session whose working directory is used
+     * @param pattern the pattern the files must match
+     * @param dryRun  {@code true} to only list the files that would be deleted
+     */
+    public static void deleteMatching(SessionContext session, String pattern, boolean dryRun) {
+        if (session.isTrashEnabled()) {
+            // Every match is in the same folder, so they share one bin
+            AtomicReference<TrashBin> matchTrashBin = new AtomicReference<>();
+            applyToMatches(session, pattern, "trashed", dryRun, matchPath -> {
+                TrashBin trashBin = matchTrashBin.get();
+                if (trashBin == null) {
+                    trashBin = TrashBin.forDirectory(matchPath.getParent());
+                    matchTrashBin.set(trashBin);
+                }
+                long fileSize = Files.size(matchPath);
+                trashBin.moveToTrash(matchPath);
+                session.recordWork(1, 0);
+                return fileSize;
+            });
+            if (matchTrashBin.get() != null) {
+                TrashPurger.requestPurge(matchTrashBin.get(), false);
+            }
+            return;
+        }
+        applyToMatches(session, pattern, "deleted", dryRun, matchPath -> {
+            long fileSize = Files.size(matchPath);
+            Files.delete(matchPath);
+            session.recordWork(1, 0);
+            return fileSize;
+        });
+    }
+
+    /**
+     * Copies every file matching a pattern into a folder, replacing files of the same name.
+     *
+     * @param session                  the session whose working directory is used
+     * @param pattern                  the pattern the files must match
+     * @param destinationDirectoryName the folder to copy into
+     * @param dryRun                   {@code true} to only list the files that would be copied
+     */
+    public static void copyMatching(SessionContext session, String pattern, String destinationDirectoryName, boolean dryRun) {
+        Path destinationDirectoryPath = resolveDestinationDirectory(session, pattern, destinationDirectoryName);
+        if (destinationDirectoryPath == null) {
+            return;
+        }
+        applyToMatches(session, pattern, "copied", dryRun, matchPath -> {
+            Path destinationFilePath = destinationDirectoryPath.resolve(matchPath.getFileName().toString());
+            try {
+                SparseCopyOperations.copyFile(session, matchPath, destinationFilePath);
+            } catch (OperationCancelledException operationCancelledException) {
+                Files.deleteIfExists(destinationFilePath);
+                throw operationCancelledException;
+            }
+            session.recordWork(1, 0);
+            return Files.size(destinationFilePath);
+        });
+    }
+
+    /**
+     * Moves every file matching a pattern into a folder. Files whose name is already taken there are left in place.
+     *
+     * @param session                  the session whose working directory is used
+     * @param pattern                  the pattern the files must match
+     * @param destinationDirectoryName the folder to move into
+     * @param dryRun                   {@code true} to only list the files that would be moved
+     */
+    public static void moveMatching(SessionContext session, String pattern, String destinationDirectoryName, boolean dryRun) {
+        Path destinationDirectoryPath = resolveDestinationDirectory(session, pattern, destinationDirectoryName);
+        if (destinationDirectoryPath == null) {
+            return;
+        }
+        applyToMatches(session, pattern, "moved", dryRun, matchPath -> {
+            Path destinationFilePath = destinationDirectoryPath.resolve(matchPath.getFileName().toString());
+            long fileSize = Files.size(matchPath);
+            long copiedByteCount = FileOperations.countBytesCopiedByMove(matchPath, destinationFilePath);
+            Files.move(matchPath, destinationFilePath);
+            session.recordWork(1, copiedByteCount);
+            return fileSize;
+        });
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Streams the matches of a pattern to the workers in batches and prints the summary.
+     */
+    private static void applyToMatches(SessionContext session, String pattern, String pastTenseVerb, boolean dryRun, FileAction fileAction) {
+        Path searchDirectoryPath;
+        PathMatcher nameMatcher;
+        try {
+            searchDirectoryPath = resolvePatternDirectory(session, pattern);
+            nameMatcher = createNameMatcher(searchDirectoryPath, pattern);
+        } catch (InvalidPathException | PatternSyntaxException | UnsupportedOperationException exception) {
+            session.reportFailure("Invalid pattern: " + pattern + " (" + exception.getMessage() + ")");
+            return;
+        }
+        if (!Files.isDirectory(searchDirectoryPath)) {
+            session.reportFailure("The folder to search does not exist: " + searchDirectoryPath);
+            return;
+        }
+
+        DirectoryStream.Filter<Path> matchFilter = entryPath -> {
+            Path entryName = entryPath.getFileName();
+            return entryName != null && nameMatcher.matches(entryName) && Files.isRegularFile(entryPath);
+        };
+        long startNanos = System.nanoTime();
+        try (DirectoryStream<Path> matchingFiles = Files.newDirectoryStream(searchDirectoryPath, matchFilter)) {
+            if (dryRun) {
+                listMatches(session, pattern, pastTenseVerb, matchingFiles);
+            } else {
+                processMatches(session, pattern, pastTenseVerb, matchingFiles, fileAction, startNanos);
+            }
+        } catch (IOException | DirectoryIteratorException | SecurityException exception) {
+            session.reportFailure("Unable to search " + searchDirectoryPath + ": " + exception.getMessage());
+        }
+    }
+
+    private static void listMatches(SessionContext session, String pattern, String pastTenseVerb,
+                                    DirectoryStream<Path> matchingFiles) throws IOException {
+        long matchCount = 0;
+        long matchByteCount = 0;
+        for (Path matchPath : matchingFiles) {
+            matchCount++;
+            matchByteCount += Files.size(matchPath);
+            if (matchCount <= MAX_LISTED_DRY_RUN_MATCHES) {
+                session.getOutput().println(" - " + matchPath.getFileName());
+            }
+        }
+        if (matchCount > MAX_LISTED_DRY_RUN_MATCHES) {
+            session.getOutput().println(" - ... and " + (matchCount - MAX_LISTED_DRY_RUN_MATCHES) + " more");
+        }
+        session.getOutput().println("Dry run: " + matchCount + " file(s) (" + formatByteCount(matchByteCount)
+                + ") match '" + pattern + "' and would be " + pastTenseVerb + ".");
+    }
+
+    private static void processMatches(SessionContext session, String pattern, String pastTenseVerb, DirectoryStream<Path> matchingFiles,
+                                       FileAction fileAction, long startNanos) {
+        AtomicLong processedFileCount = new AtomicLong();
+        AtomicLong processedByteCount = new AtomicLong();
+        AtomicLong failedFileCount = new AtomicLong();
+        Queue<String> listedFailures = new ConcurrentLinkedQueue<>();
+        long matchCount = 0;
+        try (ParallelBatchExecutor<Path> bulkWorkers = new ParallelBatchExecutor<>(matchPath -> {
+            processedByteCount.addAndGet(fileAction.apply(matchPath));
+            processedFileCount.incrementAndGet();
+        }, (matchPath, exception) -> {
+            // A failed file is counted and the others go on
+            if (failedFileCount.incrementAndGet() <= MAX_LISTED_FAILURES) {
+                listedFailures.add(matchPath.getFileName() + ": " + describeFailure(exception));
+            }
+            return true;
+        })) {
+            for (Path matchPath : matchingFiles) {
+                if (bulkWorkers.isStopped()) {
+                    break;
+                }
+                matchCount++;
+                bulkWorkers.submit(matchPath);
+            }
+            bulkWorkers.finish();
+        }
+
+        if (matchCount == 0) {
+            session.getOutput().println("No files match '" + pattern + "'.");
+            return;
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        String summary = String.format(Locale.ROOT, "%s %d of %d file(s) matching '%s' (%s) in %.1f s.",
+                Character.toUpperCase(pastTenseVerb.charAt(0)) + pastTenseVerb.substring(1),
+                processedFileCount.get(), matchCount, pattern, formatByteCount(processedByteCount.get()), elapsedSeconds);
+        session.getOutput().println(summary);
+        if (failedFileCount.get() > 0) {
+            session.reportFailure(failedFileCount.get() + " file(s) could not be " + pastTenseVerb + ":");
+            for (String listedFailure : listedFailures) {
+                session.getOutput().println(" - " + listedFailure);
+            }
+            if (failedFileCount.get() > listedFailures.size()) {
+                session.getOutput().println(" - ... and " + (failedFileCount.get() - listedFailures.size()) + " more");
+            }
+        }
+    }
+
+    /**
+     * Creates the matcher a pattern applies to the file names of the folder it searches.
+     */
+    static PathMatcher createNameMatcher(Path searchDirectoryPath, String pattern) {
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            return searchDirectoryPath.getFileSystem().getPathMatcher(pattern);
+        }
+        String globPattern = pattern.startsWith(GLOB_PREFIX) ? pattern.substring(GLOB_PREFIX.length()) : pattern;
+        return searchDirectoryPath.getFileSystem().getPathMatcher(GLOB_PREFIX + globPattern.substring(findLastSeparator(globPattern) + 1));
+    }
+
+    /**
+     * Resolves the folder matches are copied or moved into, which must exist and differ from the folder searched.
+     */
+    private static Path resolveDestinationDirectory(SessionContext session, String pattern, String destinationDirectoryName) {
+        if (destinationDirectoryName == null) {
+            session.reportFailure("A destination folder is needed when the source is a pattern.");
+            return null;
+        }
+        try {
+            Path destinationDirectoryPath = resolvePath(session, destinationDirectoryName);
+            if (Files.isDirectory(destinationDirectoryPath)) {
+                if (destinationDirectoryPath.toAbsolutePath().normalize()
+                        .equals(resolvePatternDirectory(session, pattern).toAbsolutePath().normalize())) {
+                    session.reportFailure("The destination folder is the folder the files are matched in: " + destinationDirectoryName);
+                    return null;
+                }
+                return destinationDirectoryPath;
+            }
+        } catch (InvalidPathException invalidPathException) {
+            // Reported below
+        }
+        session.reportFailure("The destination folder does not exist: " + destinationDirectoryName);
+        return null;
+    }
+
+    private static String describeFailure(Exception exception) {
+        if (exception instanceof FileAlreadyExistsException) {
+            return "already exists at the destination";
+        }
+        return exception.getClass().getSimpleName() + (exception.getMessage() != null ? " (" + exception.getMessage() + ")" : "");
+    }
+
+    private static boolean hasGlobWildcards(String namePattern) {
+        for (char wildcard : GLOB_WILDCARDS.toCharArray()) {
+            if (namePattern.indexOf(wildcard) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int findLastSeparator(String path) {
+        // A backslash escapes a wildcard in a glob, so only '/' separates folders in a pattern
+        return path.lastIndexOf('/');
+    }
+}
@@ -0,0 +1,446 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code compare file} and {@code compare dir} commands, which check that
+ * two files or two folder trees are identical, for example after a transfer.
+ * <p>
+ * Files are compared in large blocks, memory-mapped where the file system supports it, and the
+ * comparison stops at the first byte that differs, whose offset is reported. Folders are walked
+ * concurrently, their entries are matched by relative path, and files are first compared by size
+ * and modification time: files of different sizes differ, files with the same size and time are
+ * taken to be identical, and only the rest are compared by content, on worker threads. The
+ * {@value #CONTENT_OPTION} option compares every pair of files of the same size by content.
+ * </p>
+ * <p>
+ * As with {@code cmp} and {@code diff}, a comparison that finds differences counts as a failed
+ * command, so a batch script can check the result.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CompareOperations {
+
+    /**
+     * The option of {@code compare dir} that compares files by content even if their times match.
+     */
+    public static final String CONTENT_OPTION = "content";
+
+    /**
+     * The offset returned when two files are identical.
+     */
+    public static final long IDENTICAL = -1;
+
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_COMPARISONS_IN_FLIGHT = WORKER_COUNT * 2;
+    private static final int BLOCK_SIZE = 8 * 1024 * 1024;
+    private static final int READ_BLOCK_SIZE = 256 * 1024;
+    private static final int MAX_LISTED_DIFFERENCES = 50;
+
+    private CompareOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * An entry of a walked tree.
+     */
+    private static final class TreeEntry {
+        private final Path path;
+        private final boolean directory;
+        private final long size;
+        private final FileTime lastModifiedTime;
+
+        TreeEntry(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.directory = attributes.isDirectory();
+            this.size = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+        }
+    }
+
+    /**
+     * The entries of a walked tree by relative path, and the failures met while walking it.
+     */
+    private static final class TreeListing {
+        private final Map<String, TreeEntry> entriesByRelativePath = new TreeMap<>();
+        private final List<String> walkFailures = new ArrayList<>();
+    }
+
+    /**
+     * Compares two files byte by byte.
+     *
+     * @param session         the session whose working directory is used
+     * @param firstFileName   the first file, or null to prompt the user
+     * @param secondFileName  the second file, or null to prompt the user
+     */
+    public static void compareFile(SessionContext session, String firstFileName, String secondFileName) {
+        if (firstFileName == null) {
+            firstFileName = readUserInput(session, "Please enter the name of the first file to compare: ");
+        }
+        if (secondFileName == null) {
+            secondFileName = readUserInput(session, "Please enter the name of the file to compare it with: ");
+        }
+        Path firstFilePath;
+        Path secondFilePath;
+        try {
+            firstFilePath = resolvePath(session, firstFileName);
+            secondFilePath = resolvePath(session, secondFileName);
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Unable to compare. File not found: " + invalidPathException.getInput());
+            return;
+        }
+        for (Path comparedPath : new Path[] {firstFilePath, secondFilePath}) {
+            if (!Files.isRegularFile(comparedPath)) {
+                session.reportFailure("Unable to compare. File not found: " + (comparedPath == firstFilePath ? firstFileName : secondFileName));
+                return;
+            }
+        }
+        long startNanos = System.nanoTime();
+        try {
+            long firstFileSize = Files.size(firstFilePath);
+            long secondFileSize = Files.size(secondFilePath);
+            session.planWork(2, firstFileSize + secondFileSize);
+            long differenceOffset = findFirstDifference(session, firstFilePath, secondFilePath);
+            if (differenceOffset == IDENTICAL) {
+                session.getOutput().println(String.format(Locale.ROOT, "The files are identical (%s, compared in %.1f s).",
+                        formatByteCount(firstFileSize), elapsedSeconds(startNanos)));
+            } else if (differenceOffset == Math.min(firstFileSize, secondFileSize)) {
+                session.reportFailure("The files differ: " + (firstFileSize < secondFileSize ? firstFileName : secondFileName)
+                        + " ends at byte offset " + differenceOffset + ", where the other file goes on (sizes " + firstFileSize + " and " + secondFileSize + ").");
+            } else {
+                session.reportFailure("The files differ at byte offset " + differenceOffset + " (sizes " + firstFileSize + " and " + secondFileSize + ").");
+            }
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("Unable to compare. File not found: " + noSuchFileException.getFile());
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to compare the files: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Compares two folder trees and prints the entries that differ or exist on one side only.
+     *
+     * @param session             the session whose working directory is used
+     * @param firstDirectoryName  the first folder, or null to prompt the user
+     * @param secondDirectoryName the second folder, or null to prompt the user
+     * @param option              {@value #CONTENT_OPTION} to compare every pair of files of the same size by content, or {@code null}
+     */
+    public static void compareDir(SessionContext session, String firstDirectoryName, String secondDirectoryName, String option) {
+        if (firstDirectoryName == null) {
+            firstDirectoryName = readUserInput(session, "Please enter the name of the first folder to compare: ");
+        }
+        if (secondDirectoryName == null) {
+            secondDirectoryName = readUserInput(session, "Please enter the name of the folder to compare it with: ");
+        }
+        boolean compareAllContent = option != null && option.trim().equalsIgnoreCase(CONTENT_OPTION);
+        if (option != null && !compareAllContent) {
+            session.reportFailure("Unknown option: " + option + " (expected '" + CONTENT_OPTION + "')");
+            return;
+        }
+        Path firstDirectoryPath;
+        Path secondDirectoryPath;
+        try {
+            firstDirectoryPath = resolvePath(session, firstDirectoryName);
+            secondDirectoryPath = resolvePath(session, secondDirectoryName);
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Unable to compare. Folder not found: " + invalidPathException.getInput());
+            return;
+        }
+        for (Path comparedPath : new Path[] {firstDirectoryPath, secondDirectoryPath}) {
+            if (!Files.isDirectory(comparedPath)) {
+                session.reportFailure("Unable to compare. Folder not found: " + (comparedPath == firstDirectoryPath ? firstDirectoryName : secondDirectoryName));
+                return;
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        ExecutorService compareWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        try {
+            Future<TreeListing> firstListing = compareWorkers.submit(() -> listTree(firstDirectoryPath));
+            Future<TreeListing> secondListing = compareWorkers.submit(() -> listTree(secondDirectoryPath));
+            compareListings(session, awaitResult(firstListing), awaitResult(secondListing), firstDirectoryName, secondDirectoryName,
+                    compareAllContent, compareWorkers, startNanos);
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to compare the folders: " + exception.getMessage());
+        } finally {
+            compareWorkers.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds the first byte at which two files differ.
+     *
+     * @param session        the session progress is reported to
+     * @param firstFilePath  the first file
+     * @param secondFilePath the second file
+     * @return the offset of the first differing byte, the size of the shorter file if it is a
+     *         prefix of the other, or {@value #IDENTICAL} if the files are identical
+     * @throws IOException if a file cannot be read
+     */
+    public static long findFirstDifference(SessionContext session, Path firstFilePath, Path secondFilePath) throws IOException {
+        try (SeekableByteChannel firstChannel = Files.newByteChannel(firstFilePath);
+             SeekableByteChannel secondChannel = Files.newByteChannel(secondFilePath)) {
+            long commonSize = Math.min(firstChannel.size(), secondChannel.size());
+            boolean mappable = firstChannel instanceof FileChannel && secondChannel instanceof FileChannel;
+            ByteBuffer firstReadBuffer = null;
+            ByteBuffer secondReadBuffer = null;
+            for (long blockStart = 0; blockStart < commonSize; ) {
+                ByteBuffer firstBlock = null;
+                ByteBuffer secondBlock = null;
+                int blockLength = (int) Math.min(mappable ? BLOCK_SIZE : READ_BLOCK_SIZE, commonSize - blockStart);
+                if (mappable) {
+                    try {
+                        firstBlock = ((FileChannel) firstChannel).map(FileChannel.MapMode.READ_ONLY, blockStart, blockLength);
+                        secondBlock = ((FileChannel) secondChannel).map(FileChannel.MapMode.READ_ONLY, blockStart, blockLength);
+                    } catch (UnsupportedOperationException unsupportedOperationException) {
+                        mappable = false;
+                        continue;
+                    }
+                } else {
+                    if (firstReadBuffer == null) {
+                        firstReadBuffer = ByteBuffer.allocate(READ_BLOCK_SIZE);
+                        secondReadBuffer = ByteBuffer.allocate(READ_BLOCK_SIZE);
+                        firstChannel.position(blockStart);
+                        secondChannel.position(blockStart);
+                    }
+                    firstBlock = readBlock(firstChannel, firstReadBuffer, blockLength);
+                    secondBlock = readBlock(secondChannel, secondReadBuffer, blockLength);
+                }
+                int mismatchIndex = firstBlock.mismatch(secondBlock);
+                if (mismatchIndex >= 0) {
+                    return blockStart + mismatchIndex;
+                }
+                session.recordWork(0, 2L * blockLength);
+                blockStart += blockLength;
+            }
+            return firstChannel.size() == secondChannel.size() ? IDENTICAL : commonSize;
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Matches the entries of two trees, compares the files that need it by content, and prints the differences.
+     */
+    private static void compareListings(SessionContext session, TreeListing firstListing, TreeListing secondListing,
+                                        String firstDirectoryName, String secondDirectoryName, boolean compareAllContent,
+                                        ExecutorService compareWorkers, long startNanos) throws IOException {
+        for (String walkFailure : firstListing.walkFailures) {
+            session.reportFailure(walkFailure);
+        }
+        for (String walkFailure : secondListing.walkFailures) {
+            session.reportFailure(walkFailure);
+        }
+        TreeSet<String> relativePaths = new TreeSet<>(firstListing.entriesByRelativePath.keySet());
+        relativePaths.addAll(secondListing.entriesByRelativePath.keySet());
+        long plannedByteCount = 0;
+        for (String relativePath : relativePaths) {
+            TreeEntry firstEntry = firstListing.entriesByRelativePath.get(relativePath);
+            TreeEntry secondEntry = secondListing.entriesByRelativePath.get(relativePath);
+            if (needsContentComparison(firstEntry, secondEntry, compareAllContent)) {
+                plannedByteCount += 2 * firstEntry.size;
+            }
+        }
+        session.planWork(relativePaths.size(), plannedByteCount);
+
+        // Content comparisons run while the differences found from the listings alone are collected
+        Semaphore comparisonsInFlight = new Semaphore(MAX_COMPARISONS_IN_FLIGHT);
+        List<String> comparedRelativePaths = new ArrayList<>();
+        List<Future<String>> pendingComparisons = new ArrayList<>();
+        Map<String, String> differencesByRelativePath = new TreeMap<>();
+        long onlyInFirstCount = 0;
+        long onlyInSecondCount = 0;
+        long differentCount = 0;
+        long identicalCount = 0;
+        long contentComparisonCount = 0;
+        for (String relativePath : relativePaths) {
+            TreeEntry firstEntry = firstListing.entriesByRelativePath.get(relativePath);
+            TreeEntry secondEntry = secondListing.entriesByRelativePath.get(relativePath);
+            if (secondEntry == null) {
+                onlyInFirstCount++;
+                differencesByRelativePath.put(relativePath, "only in " + firstDirectoryName + ": " + relativePath + (firstEntry.directory ? "/" : ""));
+            } else if (firstEntry == null) {
+                onlyInSecondCount++;
+                differencesByRelativePath.put(relativePath, "only in " + secondDirectoryName + ": " + relativePath + (secondEntry.directory ? "/" : ""));
+            } else if (firstEntry.directory != secondEntry.directory) {
+                differentCount++;
+                differencesByRelativePath.put(relativePath, "differs: " + relativePath + " (a folder on one side and a file on the other)");
+            } else if (!firstEntry.directory && firstEntry.size != secondEntry.size) {
+                differentCount++;
+                differencesByRelativePath.put(relativePath, "differs: " + relativePath + " (sizes " + firstEntry.size + " and " + secondEntry.size + ")");
+            } else if (needsContentComparison(firstEntry, secondEntry, compareAllContent)) {
+                contentComparisonCount++;
+                acquirePermit(comparisonsInFlight);
+                comparedRelativePaths.add(relativePath);
+                pendingComparisons.add(compareWorkers.submit(() -> {
+                    try {
+                        long differenceOffset = findFirstDifference(session, firstEntry.path, secondEntry.path);
+                        return differenceOffset == IDENTICAL ? null : "at byte offset " + differenceOffset;
+                    } catch (IOException ioException) {
+                        return "unable to compare: " + ioException.getMessage();
+                    } finally {
+                        comparisonsInFlight.release();
+                    }
+                }));
+            } else {
+                identicalCount++;
+            }
+            session.recordWork(1, 0);
+        }
+        for (int comparisonIndex = 0; comparisonIndex < pendingComparisons.size(); comparisonIndex++) {
+            String contentDifference = awaitResult(pendingComparisons.get(comparisonIndex));
+            if (contentDifference == null) {
+                identicalCount++;
+            } else {
+                differentCount++;
+                String relativePath = comparedRelativePaths.get(comparisonIndex);
+                differencesByRelativePath.put(relativePath, "differs: " + relativePath + " (" + contentDifference + ")");
+            }
+        }
+
+        List<String> differences = new ArrayList<>(differencesByRelativePath.values());
+        for (int differenceIndex = 0; differenceIndex < Math.min(differences.size(), MAX_LISTED_DIFFERENCES); differenceIndex++) {
+            session.getOutput().println(" - " + differences.get(differenceIndex));
+        }
+        if (differences.size() > MAX_LISTED_DIFFERENCES) {
+            session.getOutput().println(" - ... and " + (differences.size() - MAX_LISTED_DIFFERENCES) + " more");
+        }
+        String summary = String.format(Locale.ROOT,
+                "%d identical, %d different, %d only in %s, %d only in %s (%d compared by content, in %.1f s).",
+                identicalCount, differentCount, onlyInFirstCount, firstDirectoryName, onlyInSecondCount, secondDirectoryName,
+                contentComparisonCount, elapsedSeconds(startNanos));
+        if (differences.isEmpty()) {
+            session.getOutput().println("The folders are identical: " + summary);
+        } else {
+            session.reportFailure("The folders differ: " + summary);
+        }
+    }
+
+    /**
+     * Files of the same size are compared by content if their modification times differ, or always if asked to.
+     */
+    private static boolean needsContentComparison(TreeEntry firstEntry, TreeEntry secondEntry, boolean compareAllContent) {
+        return firstEntry != null && secondEntry != null && !firstEntry.directory && !secondEntry.directory
+                && firstEntry.size == secondEntry.size
+                && (compareAllContent || !firstEntry.lastModifiedTime.equals(secondEntry.lastModifiedTime));
+    }
+
+    /**
+     * Walks a tree, recording its entries by their path relative to its root, with {@code /} as separator.
+     */
+    private static TreeListing listTree(Path rootDirectoryPath) throws IOException {
+        TreeListing treeListing = new TreeListing();
+        Files.walkFileTree(rootDirectoryPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directoryPath, BasicFileAttributes attributes) {
+                if (!directoryPath.equals(rootDirectoryPath)) {
+                    treeListing.entriesByRelativePath.put(toRelativeName(rootDirectoryPath, directoryPath), new TreeEntry(directoryPath, attributes));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path filePath, BasicFileAttributes attributes) {
+                treeListing.entriesByRelativePath.put(toRelativeName(rootDirectoryPath, filePath), new TreeEntry(filePath, attributes));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path filePath, IOException visitException) {
+                treeListing.walkFailures.add("Unable to read " + filePath + ": " + visitException.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return treeListing;
+    }
+
+    /**
+     * Builds a relative name that is the same on every file system, so a folder can be compared with an archive.
+     */
+    private static String toRelativeName(Path rootDirectoryPath, Path entryPath) {
+        StringBuilder relativeNameBuilder = new StringBuilder();
+        for (Path namePart : rootDirectoryPath.relativize(entryPath)) {
+            if (relativeNameBuilder.length() > 0) {
+                relativeNameBuilder.append('/');
+            }
+            relativeNameBuilder.append(namePart);
+        }
+        return relativeNameBuilder.toString();
+    }
+
+    private static ByteBuffer readBlock(SeekableByteChannel fileChannel, ByteBuffer readBuffer, int blockLength) throws IOException {
+        readBuffer.clear().limit(blockLength);
+        while (readBuffer.hasRemaining()) {
+            if (fileChannel.read(readBuffer) < 0) {
+                throw new IOException("A file shrank while it was being compared");
+            }
+        }
+        return readBuffer.flip();
+    }
+
+    private static void acquirePermit(Semaphore comparisonsInFlight) {
+        try {
+            comparisonsInFlight.acquire();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        }
+    }
+
+    private static <T> T awaitResult(Future<T> pendingResult) throws IOException {
+        try {
+            return pendingResult.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        } catch (ExecutionException executionException) {
+            Throwable workerFailure = executionException.getCause();
+            if (workerFailure instanceof IOException) {
+                throw (IOException) workerFailure;
+            }
+            if (workerFailure instanceof RuntimeException) {
+                throw (RuntimeException) workerFailure;
+            }
+            throw new IOException("Compare worker failed: " + workerFailure, workerFailure);
+        }
+    }
+
+    private static double elapsedSeconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,427 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code count} command, which counts the lines, words and bytes of files,
+ * for example {@code count > app.log}, {@code count > src > glob:*.md} or {@code count > glob:logs/*.log}.
+ * <p>
+ * Each argument is a file, a folder whose files are all counted as one, or a pattern (see
+ * {@link BulkOperations}). Files are counted on their raw bytes without decoding characters: a
+ * line is a {@code \n} byte and a word is a run of bytes other than ASCII white space, as
+ * {@code wc} counts them in the C locale. Every file is cut into segments that are counted on
+ * worker threads, large segments through memory-mapped buffers where the file system supports
+ * them; a segment records whether it starts and ends inside a word, so that a word cut by a
+ * segment boundary is counted once when the segments are added up. The segments of the files
+ * that come next are counted while earlier files are added up and printed, with a bounded number
+ * of segments in flight.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CountOperations {
+
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_SEGMENTS_IN_FLIGHT = WORKER_COUNT * 2;
+    private static final long SEGMENT_SIZE = 16L * 1024 * 1024;
+    private static final long MAPPING_THRESHOLD = 1024 * 1024;
+    private static final int SCAN_CHUNK_SIZE = 64 * 1024;
+    private static final ThreadLocal<byte[]> SCAN_CHUNKS = ThreadLocal.withInitial(() -> new byte[SCAN_CHUNK_SIZE]);
+
+    private CountOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * The counts of a segment of a file, or of several consecutive segments once added up.
+     */
+    private static final class SegmentCount {
+        private long lineCount;
+        private long wordCount;
+        private long byteCount;
+        private boolean startsInWord;
+        private boolean endsInWord;
+
+        /**
+         * Adds the counts of the segment that follows this one; a word running across the
+         * boundary between the two is counted once.
+         */
+        void append(SegmentCount nextSegmentCount) {
+            if (nextSegmentCount.byteCount == 0) {
+                return;
+            }
+            if (byteCount == 0) {
+                startsInWord = nextSegmentCount.startsInWord;
+            }
+            long joinedWordCount = endsInWord && nextSegmentCount.startsInWord ? 1 : 0;
+            lineCount += nextSegmentCount.lineCount;
+            wordCount += nextSegmentCount.wordCount - joinedWordCount;
+            byteCount += nextSegmentCount.byteCount;
+            endsInWord = nextSegmentCount.endsInWord;
+        }
+
+        /**
+         * Adds the counts of another file, which shares no word with this one.
+         */
+        void add(SegmentCount otherFileCount) {
+            lineCount += otherFileCount.lineCount;
+            wordCount += otherFileCount.wordCount;
+            byteCount += otherFileCount.byteCount;
+        }
+    }
+
+    /**
+     * A row of the output: a file given by name or matched by a pattern, or a whole folder.
+     */
+    private static final class CountRow {
+        private final String label;
+        private final boolean folder;
+        private final SegmentCount totalCount = new SegmentCount();
+        private long fileCount;
+        private long pendingFileCount;
+        private boolean complete;
+
+        CountRow(String label, boolean folder) {
+            this.label = label;
+            this.folder = folder;
+        }
+    }
+
+    /**
+     * A file whose segments are being counted.
+     */
+    private static final class PendingFile {
+        private final CountRow countRow;
+        private final Path filePath;
+        private final List<Future<SegmentCount>> segmentCounts = new ArrayList<>();
+
+        PendingFile(CountRow countRow, Path filePath) {
+            this.countRow = countRow;
+            this.filePath = filePath;
+        }
+    }
+
+    /**
+     * Counts the lines, words and bytes of files, folders and pattern matches, printing a row for
+     * each and, if there are several rows, their total.
+     *
+     * @param session      the session whose working directory is used
+     * @param countedNames the files, folders and patterns to count; {@code null} entries are skipped
+     */
+    public static void count(SessionContext session, String... countedNames) {
+        long startNanos = System.nanoTime();
+        Deque<CountRow> pendingRows = new ArrayDeque<>();
+        Deque<PendingFile> pendingFiles = new ArrayDeque<>();
+        SegmentCount grandTotal = new SegmentCount();
+        long grandTotalFileCount = 0;
+        int rowCount = 0;
+        ExecutorService countWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        try {
+            session.getOutput().println(String.format(Locale.ROOT, "%10s %10s %14s  %s", "lines", "words", "bytes", "name"));
+            for (String countedName : countedNames) {
+                if (countedName == null || countedName.trim().isEmpty()) {
+                    continue;
+                }
+                for (CountRow countRow : submitCountedName(session, countedName.trim(), pendingRows, pendingFiles, countWorkers)) {
+                    rowCount++;
+                    grandTotal.add(countRow.totalCount);
+                    grandTotalFileCount += countRow.fileCount;
+                }
+            }
+            for (CountRow countRow : drainPendingFiles(session, pendingRows, pendingFiles, 0)) {
+                rowCount++;
+                grandTotal.add(countRow.totalCount);
+                grandTotalFileCount += countRow.fileCount;
+            }
+        } finally {
+            for (PendingFile abandonedFile : pendingFiles) {
+                for (Future<SegmentCount> abandonedSegment : abandonedFile.segmentCounts) {
+                    abandonedSegment.cancel(true);
+                }
+            }
+            countWorkers.shutdownNow();
+        }
+        if (rowCount > 1) {
+            printRow(session, grandTotal, "total");
+        }
+        session.getOutput().println(String.format(Locale.ROOT, "Counted %d file(s) in %.1f s.",
+                grandTotalFileCount, (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Submits the segments of the files an argument names, printing the rows that complete meanwhile.
+     *
+     * @return the rows printed
+     */
+    private static List<CountRow> submitCountedName(SessionContext session, String countedName, Deque<CountRow> pendingRows,
+                                                    Deque<PendingFile> pendingFiles, ExecutorService countWorkers) {
+        List<CountRow> printedRows = new ArrayList<>();
+        if (BulkOperations.isFilePattern(countedName)) {
+            Path searchDirectoryPath;
+            PathMatcher nameMatcher;
+            try {
+                searchDirectoryPath = BulkOperations.resolvePatternDirectory(session, countedName);
+                nameMatcher = BulkOperations.createNameMatcher(searchDirectoryPath, countedName);
+            } catch (InvalidPathException | PatternSyntaxException | UnsupportedOperationException exception) {
+                session.reportFailure("Invalid pattern: " + countedName + " (" + exception.getMessage() + ")");
+                return printedRows;
+            }
+            DirectoryStream.Filter<Path> matchFilter = entryPath -> {
+                Path entryName = entryPath.getFileName();
+                return entryName != null && nameMatcher.matches(entryName) && Files.isRegularFile(entryPath);
+            };
+            boolean matched = false;
+            try (DirectoryStream<Path> matchingFiles = Files.newDirectoryStream(searchDirectoryPath, matchFilter)) {
+                for (Path matchPath : matchingFiles) {
+                    matched = true;
+                    CountRow countRow = new CountRow(describePath(session, matchPath), false);
+                    pendingRows.add(countRow);
+                    submitFile(session, countRow, matchPath, pendingFiles, countWorkers);
+                    countRow.complete = true;
+                    printedRows.addAll(drainPendingFiles(session, pendingRows, pendingFiles, MAX_SEGMENTS_IN_FLIGHT));
+                }
+            } catch (IOException | DirectoryIteratorException | SecurityException exception) {
+                session.reportFailure("Unable to search " + searchDirectoryPath + ": " + exception.getMessage());
+                return printedRows;
+            }
+            if (!matched) {
+                session.reportFailure("No file matches '" + countedName + "'.");
+            }
+            return printedRows;
+        }
+
+        if (BulkOperations.reportMissingGlobPrefix(session, countedName)) {
+            return printedRows;
+        }
+        Path countedPath;
+        try {
+            countedPath = resolvePath(session, countedName);
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Unable to count. File not found: " + countedName);
+            return printedRows;
+        }
+        if (Files.isRegularFile(countedPath)) {
+            CountRow countRow = new CountRow(countedName, false);
+            pendingRows.add(countRow);
+            submitFile(session, countRow, countedPath, pendingFiles, countWorkers);
+            countRow.complete = true;
+        } else if (Files.isDirectory(countedPath)) {
+            CountRow countRow = new CountRow(countedName, true);
+            pendingRows.add(countRow);
+            try (Stream<Path> directoryWalk = Files.walk(countedPath)) {
+                Iterator<Path> walkedPaths = directoryWalk.iterator();
+                while (walkedPaths.hasNext()) {
+                    Path walkedPath = walkedPaths.next();
+                    if (Files.isRegularFile(walkedPath)) {
+                        submitFile(session, countRow, walkedPath, pendingFiles, countWorkers);
+                        printedRows.addAll(drainPendingFiles(session, pendingRows, pendingFiles, MAX_SEGMENTS_IN_FLIGHT));
+                    }
+                }
+            } catch (IOException | UncheckedIOException | SecurityException exception) {
+                session.reportFailure("Unable to walk " + countedName + ": " + exception.getMessage());
+            } finally {
+                countRow.complete = true;
+            }
+        } else {
+            session.reportFailure("Unable to count. File not found: " + countedName);
+        }
+        printedRows.addAll(drainPendingFiles(session, pendingRows, pendingFiles, MAX_SEGMENTS_IN_FLIGHT));
+        return printedRows;
+    }
+
+    /**
+     * Cuts a file into segments and hands them to the workers.
+     */
+    private static void submitFile(SessionContext session, CountRow countRow, Path filePath, Deque<PendingFile> pendingFiles,
+                                   ExecutorService countWorkers) {
+        PendingFile pendingFile = new PendingFile(countRow, filePath);
+        countRow.pendingFileCount++;
+        pendingFiles.add(pendingFile);
+        long fileSize;
+        try {
+            fileSize = Files.size(filePath);
+        } catch (IOException ioException) {
+            // Reported when the file is added up
+            pendingFile.segmentCounts.add(CompletableFuture.failedFuture(ioException));
+            return;
+        }
+        for (long segmentStart = 0; segmentStart < fileSize; segmentStart += SEGMENT_SIZE) {
+            long segmentStartPosition = segmentStart;
+            long segmentLength = Math.min(SEGMENT_SIZE, fileSize - segmentStart);
+            pendingFile.segmentCounts.add(countWorkers.submit(() -> countSegment(session, filePath, segmentStartPosition, segmentLength)));
+        }
+    }
+
+    /**
+     * Adds up the oldest pending files until at most the given number of segments are in flight,
+     * or every pending file if that number is 0, and prints the rows all of whose files have been added up.
+     *
+     * @return the rows printed
+     */
+    private static List<CountRow> drainPendingFiles(SessionContext session, Deque<CountRow> pendingRows, Deque<PendingFile> pendingFiles,
+                                                    int maxSegmentsInFlight) {
+        int segmentsInFlight = 0;
+        for (PendingFile pendingFile : pendingFiles) {
+            segmentsInFlight += pendingFile.segmentCounts.size();
+        }
+        while (!pendingFiles.isEmpty() && (segmentsInFlight > maxSegmentsInFlight || maxSegmentsInFlight == 0)) {
+            PendingFile pendingFile = pendingFiles.poll();
+            segmentsInFlight -= pendingFile.segmentCounts.size();
+            SegmentCount fileCount = new SegmentCount();
+            try {
+                for (Future<SegmentCount> segmentCount : pendingFile.segmentCounts) {
+                    fileCount.append(awaitSegment(segmentCount));
+                }
+                pendingFile.countRow.totalCount.add(fileCount);
+                pendingFile.countRow.fileCount++;
+                session.recordWork(1, 0);
+            } catch (IOException ioException) {
+                session.reportFailure("Unable to count " + describePath(session, pendingFile.filePath) + ": " + ioException.getMessage());
+            }
+            pendingFile.countRow.pendingFileCount--;
+        }
+        List<CountRow> printedRows = new ArrayList<>();
+        while (!pendingRows.isEmpty() && pendingRows.peek().complete && pendingRows.peek().pendingFileCount == 0) {
+            CountRow countRow = pendingRows.poll();
+            if (countRow.fileCount > 0 || countRow.folder) {
+                printRow(session, countRow.totalCount, countRow.label);
+                printedRows.add(countRow);
+            }
+        }
+        return printedRows;
+    }
+
+    /**
+     * Counts the lines, words and bytes of one segment of a file, scanning it in chunks.
+     */
+    private static SegmentCount countSegment(SessionContext session, Path filePath, long segmentStart, long segmentLength) throws IOException {
+        SegmentCount segmentCount = new SegmentCount();
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer mappedSegment = mapSegment(fileChannel, segmentStart, segmentLength);
+            byte[] scanChunk = SCAN_CHUNKS.get();
+            boolean inWord = false;
+            long lineCount = 0;
+            long wordCount = 0;
+            for (long chunkStart = 0; chunkStart < segmentLength; chunkStart += scanChunk.length) {
+                int chunkLength = (int) Math.min(scanChunk.length, segmentLength - chunkStart);
+                if (mappedSegment != null) {
+                    mappedSegment.get(scanChunk, 0, chunkLength);
+                } else {
+                    readFully(fileChannel, ByteBuffer.wrap(scanChunk, 0, chunkLength), segmentStart + chunkStart);
+                }
+                if (chunkStart == 0) {
+                    segmentCount.startsInWord = !isWhiteSpace(scanChunk[0]);
+                }
+                for (int byteIndex = 0; byteIndex < chunkLength; byteIndex++) {
+                    byte scannedByte = scanChunk[byteIndex];
+                    if (scannedByte == '\n') {
+                        lineCount++;
+                    }
+                    boolean whiteSpace = isWhiteSpace(scannedByte);
+                    if (!whiteSpace && !inWord) {
+                        wordCount++;
+                    }
+                    inWord = !whiteSpace;
+                }
+            }
+            segmentCount.lineCount = lineCount;
+            segmentCount.wordCount = wordCount;
+            segmentCount.byteCount = segmentLength;
+            segmentCount.endsInWord = inWord;
+        }
+        session.recordWork(0, segmentLength);
+        return segmentCount;
+    }
+
+    /**
+     * Maps a large segment into memory.
+     *
+     * @return the mapped segment, or {@code null} if the segment is small or the file system cannot map files
+     */
+    private static ByteBuffer mapSegment(FileChannel fileChannel, long segmentStart, long segmentLength) throws IOException {
+        if (segmentLength < MAPPING_THRESHOLD) {
+            return null;
+        }
+        try {
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentLength);
+        } catch (UnsupportedOperationException unsupportedOperationException) {
+            return null;
+        }
+    }
+
+    private static void readFully(FileChannel fileChannel, ByteBuffer chunkBuffer, long chunkPosition) throws IOException {
+        while (chunkBuffer.hasRemaining()) {
+            if (fileChannel.read(chunkBuffer, chunkPosition + chunkBuffer.position()) < 0) {
+                throw new IOException("The file shrank while it was being counted");
+            }
+        }
+    }
+
+    private static boolean isWhiteSpace(byte scannedByte) {
+        // Space, tab, line feed, vertical tab, form feed and carriage return
+        return scannedByte == ' ' || (scannedByte >= '\t' && scannedByte <= '\r');
+    }
+
+    private static SegmentCount awaitSegment(Future<SegmentCount> segmentCount) throws IOException {
+        try {
+            return segmentCount.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        } catch (ExecutionException executionException) {
+            Throwable countFailure = executionException.getCause();
+            if (countFailure instanceof IOException) {
+                throw (IOException) countFailure;
+            }
+            if (countFailure instanceof RuntimeException) {
+                throw (RuntimeException) countFailure;
+            }
+            throw new IOException("Count worker failed: " + countFailure, countFailure);
+        }
+    }
+
+    private static void printRow(SessionContext session, SegmentCount rowCount, String label) {
+        session.getOutput().println(String.format(Locale.ROOT, "%10d %10d %14d  %s",
+                rowCount.lineCount, rowCount.wordCount, rowCount.byteCount, label));
+    }
+
+    private static String describePath(SessionContext session, Path filePath) {
+        Path workingDirectoryPath = session.getCurrentWorkingDirectoryPath();
+        return filePath.startsWith(workingDirectoryPath) ? workingDirectoryPath.relativize(filePath).toString() : filePath.toString();
+    }
+}
@@ -0,0 +1,244 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Utility class for updating an existing file in place from a changed source file.
+ * <p>
+ * Both files are split into fixed-size blocks. Worker threads claim blocks, compare the
+ * source and destination contents of each block, and rewrite only the blocks that differ
+ * using positional {@link FileChannel} writes. Unchanged regions of the destination are
+ * never written, which keeps resyncs of large, slightly changed files (VM images,
+ * database dumps) proportional to the size of the change rather than the size of the file.
+ * A destination shorter than the source is grown to the final size before any block is
+ * written, so zero-filled source blocks beyond its old end are left as holes.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class DeltaCopyOperations {
+
+    /**
+     * The default block size used when comparing and rewriting files.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+    private DeltaCopyOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Summary of a delta update: how many blocks were examined and how many were rewritten.
+     */
+    public static final class DeltaCopySummary {
+        private final long totalBlockCount;
+        private final long rewrittenBlockCount;
+        private final long rewrittenByteCount;
+
+        DeltaCopySummary(long totalBlockCount, long rewrittenBlockCount, long rewrittenByteCount) {
+            this.totalBlockCount = totalBlockCount;
+            this.rewrittenBlockCount = rewrittenBlockCount;
+            this.rewrittenByteCount = rewrittenByteCount;
+        }
+
+        /**
+         * @return the number of blocks the source file was split into
+         */
+        public long getTotalBlockCount() {
+            return totalBlockCount;
+        }
+
+        /**
+         * @return the number of blocks that differed and were rewritten
+         */
+        public long getRewrittenBlockCount() {
+            return rewrittenBlockCount;
+        }
+
+        /**
+         * @return the number of bytes written to the destination file
+         */
+        public long getRewrittenByteCount() {
+            return rewrittenByteCount;
+        }
+    }
+
+    /**
+     * Updates the destination file in place so that its contents match the source file,
+     * using the {@link #DEFAULT_BLOCK_SIZE}.
+     *
+     * @param sourceFilePath      the file to copy from
+     * @param destinationFilePath the existing file to update
+     * @return a summary of the blocks that were examined and rewritten
+     * @throws IOException if either file cannot be read or the destination cannot be written
+     */
+    public static DeltaCopySummary updateInPlace(Path sourceFilePath, Path destinationFilePath) throws IOException {
+        return updateInPlace(sourceFilePath, destinationFilePath, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Updates the destination file in place so that its contents match the source file.
+     * <p>
+     * Blocks are compared in parallel on up to one worker per available processor. A block
+     * is rewritten when its contents differ or when the destination is shorter than the
+     * source at that block. If the destination is longer than the source it is truncated
+     * once all blocks have been processed.
+     * </p>
+     *
+     * @param sourceFilePath      the file to copy from
+     * @param destinationFilePath the existing file to update
+     * @param blockSize           the size in bytes of each compared block
+     * @return a summary of the blocks that were examined and rewritten
+     * @throws IOException if either file cannot be read or the destination cannot be written
+     */
+    public static DeltaCopySummary updateInPlace(Path sourceFilePath, Path destinationFilePath, int blockSize) throws IOException {
+        return updateInPlace(sourceFilePath, destinationFilePath, blockSize, processedByteCount -> { });
+    }
+
+    /**
+     * Updates the destination file in place like {@link #updateInPlace(Path, Path, int)},
+     * reporting the length of each block once it has been compared and, if needed, rewritten.
+     * <p>
+     * The listener is called from the worker threads. An unchecked exception it throws stops
+     * the update and is rethrown to the caller; blocks already rewritten stay rewritten.
+     * </p>
+     *
+     * @param sourceFilePath      the file to copy from
+     * @param destinationFilePath the existing file to update
+     * @param blockSize           the size in bytes of each compared block
+     * @param blockListener       receives the number of source bytes in each processed block
+     * @return a summary of the blocks that were examined and rewritten
+     * @throws IOException if either file cannot be read or the destination cannot be written
+     */
+    public static DeltaCopySummary updateInPlace(Path sourceFilePath, Path destinationFilePath, int blockSize,
+                                                 LongConsumer blockListener) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        try (FileChannel sourceChannel = FileChannel.open(sourceFilePath, StandardOpenOption.READ);
+             FileChannel destinationChannel = FileChannel.open(destinationFilePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long sourceSize = sourceChannel.size();
+            long totalBlockCount = (sourceSize + blockSize - 1) / blockSize;
+            if (destinationChannel.size() < sourceSize) {
+                // Grow the destination to its final size up front; the new tail reads back as zeros,
+                // so zero-filled source blocks past the old end compare equal and stay unallocated
+                destinationChannel.write(ByteBuffer.allocate(1), sourceSize - 1);
+            }
+            AtomicLong nextBlockIndex = new AtomicLong();
+            AtomicLong rewrittenBlockCount = new AtomicLong();
+            AtomicLong rewrittenByteCount = new AtomicLong();
+
+            int workerCount = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), totalBlockCount));
+            ExecutorService blockWorkers = Executors.newFixedThreadPool(workerCount);
+            try {
+                List<Future<Void>> workerResults = new ArrayList<>();
+                for (int workerIndex = 0; workerIndex < workerCount; workerIndex++) {
+                    workerResults.add(blockWorkers.submit(() -> {
+                        compareAndRewriteBlocks(sourceChannel, destinationChannel, sourceSize, blockSize, totalBlockCount,
+                                nextBlockIndex, rewrittenBlockCount, rewrittenByteCount, blockListener);
+                        return null;
+                    }));
+                }
+                for (Future<Void> workerResult : workerResults) {
+                    awaitWorker(workerResult);
+                }
+            } finally {
+                blockWorkers.shutdownNow();
+            }
+
+            if (destinationChannel.size() > sourceSize) {
+                destinationChannel.truncate(sourceSize);
+            }
+            return new DeltaCopySummary(totalBlockCount, rewrittenBlockCount.get(), rewrittenByteCount.get());
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Repeatedly claims the next unprocessed block and rewrites it in the destination if it differs.
+     * Positional reads and writes are used, so all workers can share the same channels.
+     */
+    private static void compareAndRewriteBlocks(FileChannel sourceChannel, FileChannel destinationChannel,
+                                                long sourceSize, int blockSize, long totalBlockCount,
+                                                AtomicLong nextBlockIndex, AtomicLong rewrittenBlockCount,
+                                                AtomicLong rewrittenByteCount, LongConsumer blockListener) throws IOException {
+        ByteBuffer sourceBlockBuffer = ByteBuffer.allocateDirect(blockSize);
+        ByteBuffer destinationBlockBuffer = ByteBuffer.allocateDirect(blockSize);
+        long blockIndex;
+        while ((blockIndex = nextBlockIndex.getAndIncrement()) < totalBlockCount) {
+            long blockPosition = blockIndex * blockSize;
+            int blockLength = (int) Math.min(blockSize, sourceSize - blockPosition);
+
+            sourceBlockBuffer.clear().limit(blockLength);
+            readFully(sourceChannel, sourceBlockBuffer, blockPosition);
+            destinationBlockBuffer.clear().limit(blockLength);
+            readFully(destinationChannel, destinationBlockBuffer, blockPosition);
+
+            sourceBlockBuffer.flip();
+            destinationBlockBuffer.flip();
+            if (sourceBlockBuffer.equals(destinationBlockBuffer)) {
+                blockListener.accept(blockLength);
+                continue;
+            }
+
+            long writePosition = blockPosition;
+            while (sourceBlockBuffer.hasRemaining()) {
+                writePosition += destinationChannel.write(sourceBlockBuffer, writePosition);
+            }
+            rewrittenBlockCount.incrementAndGet();
+            rewrittenByteCount.addAndGet(blockLength);
+            blockListener.accept(blockLength);
+        }
+    }
+
+    /**
+     * Reads from the channel at the given position until the buffer is full or the end of the file is reached.
+     */
+    private static void readFully(FileChannel fileChannel, ByteBuffer targetBuffer, long readPosition) throws IOException {
+        while (targetBuffer.hasRemaining()) {
+            int bytesRead = fileChannel.read(targetBuffer, readPosition);
+            if (bytesRead < 0) {
+                return;
+            }
+            readPosition += bytesRead;
+        }
+    }
+
+    /**
+     * Waits for a worker to finish, unwrapping any {@link IOException} or unchecked exception it failed with.
+     */
+    private static void awaitWorker(Future<Void> workerResult) throws IOException {
+        try {
+            workerResult.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while updating file", interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable workerFailure = executionException.getCause();
+            if (workerFailure instanceof IOException) {
+                throw (IOException) workerFailure;
+            }
+            if (workerFailure instanceof RuntimeException) {
+                throw (RuntimeException) workerFailure;
+            }
+            throw new IOException("Block worker failed: " + workerFailure, workerFailure);
+        }
+    }
+}
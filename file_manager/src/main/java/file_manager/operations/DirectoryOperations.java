@@ -1,58 +1,79 @@
 package file_manager.operations;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+import file_manager.trash.TrashOperations;
 
 import static file_manager.utils.InputUtils.readUserInput;
-import static file_manager.utils.PathUtils.getCurrentWorkingDirectory;
+import static file_manager.utils.PathUtils.resolvePath;
 
 /**
  * Utility class for handling directory operations in the File Manager application.
  * Provides methods for managing directories: listing, creating, deleting, renaming, and moving.
+ * Directories are resolved against the current working directory, which may be inside a mounted archive.
  *
  * @author Nikolaos Marvakis
  * @version 1.0
  */
 public class DirectoryOperations {
 
-    private final String osPathDelimiter;
-
-    /**
-     * Initializes the DirectoryOperations with the correct path delimiter for the OS.
-     */
-    public DirectoryOperations() {
-        String operatingSystemName = System.getProperty("os.name").toLowerCase();
-        osPathDelimiter = operatingSystemName.contains("win") ? "\\\\" : "/";
+    private DirectoryOperations() {
+        // Private constructor to prevent instantiation
     }
 
     /**
-     * Returns the path delimiter for the current OS.
-     * @return the path delimiter
+     * Lists the working directory of the default session.
+     *
+     * @see #listDir(SessionContext)
      */
-    public String getCurrentWorkingDirectoryDelimiter() {
-        return osPathDelimiter;
+    public static void listDir() {
+        listDir(SessionContext.getDefaultSession());
     }
 
     /**
      * Lists all files and directories in the current working directory.
+     *
+     * @param session the session whose working directory is used
      */
-    public static void listDir() {
-        File currentWorkingDirectoryFile = new File(System.getProperty("user.dir"));
-        String[] directoryContents = currentWorkingDirectoryFile.list();
-        if (directoryContents != null) {
-            System.out.println("Contents of the current directory:");
-            for (String fileNameOrDirName : directoryContents) {
-                System.out.println(" - " + fileNameOrDirName);
+    public static void listDir(SessionContext session) {
+        try (DirectoryStream<Path> directoryContents = Files.newDirectoryStream(session.getCurrentWorkingDirectoryPath())) {
+            session.getOutput().println("Contents of the current directory:");
+            for (Path fileOrDirPath : directoryContents) {
+                session.getOutput().println(" - " + fileOrDirPath.getFileName());
             }
-        } else {
-            System.out.println("Unable to list directory contents.");
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to list directory contents.");
         }
     }
 
+    /**
+     * Creates a new directory in the working directory of the default session.
+     *
+     * @param directoryName the name of the new directory to create, or {@code null} to prompt the user for input
+     * @return {@code true} if the directory was created successfully, {@code false} if a directory with the same name already exists
+     * @see #newDir(SessionContext, String)
+     */
+    public static boolean newDir(String directoryName) {
+        return newDir(SessionContext.getDefaultSession(), directoryName);
+    }
+
     /**
      * Creates a new directory with the specified name in the current working directory.
      * <p>
@@ -60,201 +81,310 @@ public class DirectoryOperations {
      * The method checks if a directory with the given name already exists; if not, it creates the directory.
      * </p>
      *
+     * @param session the session whose working directory is used
      * @param directoryName the name of the new directory to create, or {@code null} to prompt the user for input
      * @return {@code true} if the directory was created successfully, {@code false} if a directory with the same name already exists
      */
-    public static boolean newDir(String directoryName) {
-        DirectoryOperations directoryOperationsInstance = new DirectoryOperations();
-        String currentWorkingDirectoryPath = getCurrentWorkingDirectory();
-
+    public static boolean newDir(SessionContext session, String directoryName) {
         if (directoryName == null) {
-            directoryName = readUserInput("Please enter the name for the new folder: ");
-        }
-
-        if (!currentWorkingDirectoryPath.endsWith(directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter())) {
-            currentWorkingDirectoryPath += directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter();
+            directoryName = readUserInput(session, "Please enter the name for the new folder: ");
         }
 
-        File newDirectoryFile = new File(currentWorkingDirectoryPath, directoryName);
-
-        if (!newDirectoryFile.exists()) {
-            newDirectoryFile.mkdir();
-            System.out.println("Folder '" + directoryName + "' created successfully.");
+        try {
+            Files.createDirectory(resolvePath(session, directoryName));
+            session.getOutput().println("Folder '" + directoryName + "' created successfully.");
             return true;
-        } else {
-            System.out.println("A folder with this name already exists. Please choose a different name.");
-            return false;
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.reportFailure("A folder with this name already exists. Please choose a different name.");
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Error creating folder: " + exception.getMessage());
         }
+        return false;
     }
 
     /**
-     * Deletes a directory and all its contents recursively.
+     * Deletes a directory resolved against the working directory of the default session.
+     *
      * @param directoryPath The path of the directory to delete. If null, prompts user for input.
      * @return true if the directory was deleted successfully, false otherwise
+     * @see #delDir(SessionContext, String, String)
      */
     public static boolean delDir(String directoryPath, String autoConfirmString) {
+        return delDir(SessionContext.getDefaultSession(), directoryPath, autoConfirmString);
+    }
+
+    /**
+     * Deletes a directory and all its contents recursively, or moves it to the trash if the trash is on in the session.
+     * @param session the session whose working directory is used
+     * @param directoryPath The path of the directory to delete. If null, prompts user for input.
+     * @return true if the directory was deleted successfully, false otherwise
+     */
+    public static boolean delDir(SessionContext session, String directoryPath, String autoConfirmString) {
         if (directoryPath == null) {
-            directoryPath = readUserInput("Please enter the path of the folder you want to delete: ");
+            directoryPath = readUserInput(session, "Please enter the path of the folder you want to delete: ");
         }
 
-        DirectoryOperations directoryOperationsInstance = new DirectoryOperations();
-        String pathDelimiter = directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter();
-        File directoryToDelete = resolveFolder(directoryPath, pathDelimiter);
+        Path directoryToDelete = resolveFolder(session, directoryPath);
 
         if (directoryToDelete == null) {
-            System.out.println("Error: The specified folder does not exist or is not a directory.");
+            session.reportFailure("Error: The specified folder does not exist or is not a directory.");
             return false;
         }
-
-        try {
-            if (!directoryToDelete.exists()) {
-                System.out.println("Error: The specified folder does not exist.");
-                return false;
-            }
-            if (!directoryToDelete.isDirectory()) {
-                System.out.println("Error: The specified path is not a folder.");
-                return false;
-            }
-
-            String[] directoryContents = directoryToDelete.list();
-            if (directoryContents != null && directoryContents.length > 0) {
-                if(autoConfirmString.equals("n")){
-                    String userConfirmation = readUserInput("Warning: The folder is not empty. Do you want to delete it and all its contents? (Y/N): ");
-                    if (!userConfirmation.equalsIgnoreCase("y")) {
-                        System.out.println("Folder deletion cancelled by user.");
-                        return false;
-                    }
-                }
-                else{
-                    for (File fileOrSubdirectory : directoryToDelete.listFiles()) {
-                        if (fileOrSubdirectory.isDirectory()) {
-                            delDir(fileOrSubdirectory.getAbsolutePath(), autoConfirmString);
-                        } else {
-                            fileOrSubdirectory.delete();
-                        }
-                    }
-                }
-            }
-            if (!directoryToDelete.delete()) {
-                System.out.println("Error: Unable to delete the folder: " + directoryToDelete.getAbsolutePath());
-                return false;
-            }
-            System.out.println("Folder deleted successfully.");
-            return true;
-        } catch (NullPointerException npe) {
-            System.out.println("Error: Please provide a valid folder path.");
-        } catch (Exception e) {
-            System.out.println("An error occurred: " + e);
+        if (session.isTrashEnabled()) {
+            // Reversible, so a non-empty folder is not confirmed
+            return TrashOperations.moveToTrash(session, directoryToDelete);
         }
-        return false;
+        if (session.isTrackingProgress()) {
+            session.planWork(countTreeEntries(directoryToDelete), 0);
+        }
+        return deleteResolvedDirectory(session, directoryToDelete, autoConfirmString);
     }
 
     /**
-     * Renames a directory to a new name.
+     * Renames a directory resolved against the working directory of the default session.
+     *
      * @param sourceDirectoryNameOrPath The current name/path of the directory. If null, prompts user for input.
      * @param targetDirectoryNameOrPath The new name/path for the directory. If null, prompts user for input.
+     * @see #renameDir(SessionContext, String, String)
      */
     public static void renameDir(String sourceDirectoryNameOrPath, String targetDirectoryNameOrPath) {
-        DirectoryOperations directoryOperationsInstance = new DirectoryOperations();
+        renameDir(SessionContext.getDefaultSession(), sourceDirectoryNameOrPath, targetDirectoryNameOrPath);
+    }
 
+    /**
+     * Renames a directory to a new name.
+     * @param session the session whose working directory is used
+     * @param sourceDirectoryNameOrPath The current name/path of the directory. If null, prompts user for input.
+     * @param targetDirectoryNameOrPath The new name/path for the directory. If null, prompts user for input.
+     */
+    public static void renameDir(SessionContext session, String sourceDirectoryNameOrPath, String targetDirectoryNameOrPath) {
         if (sourceDirectoryNameOrPath == null) {
-            sourceDirectoryNameOrPath = readUserInput("Enter the current name of the folder you want to rename: ");
+            sourceDirectoryNameOrPath = readUserInput(session, "Enter the current name of the folder you want to rename: ");
         }
 
-        File sourceDirectoryFile = new File(getCurrentWorkingDirectory() + directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter() + sourceDirectoryNameOrPath);
-        if (!sourceDirectoryFile.exists() || !sourceDirectoryFile.isDirectory()) {
-            System.out.println("Error: The folder you want to rename does not exist or is not a directory.");
+        Path sourceDirectoryPath = resolveFolder(session, sourceDirectoryNameOrPath);
+        if (sourceDirectoryPath == null) {
+            session.reportFailure("Error: The folder you want to rename does not exist or is not a directory.");
             return;
         }
 
         if (targetDirectoryNameOrPath == null) {
-            targetDirectoryNameOrPath = readUserInput("Enter the new name for the folder: ");
-        }
-
-        File targetDirectoryFile = new File(getCurrentWorkingDirectory() + directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter() + targetDirectoryNameOrPath);
-        if (targetDirectoryFile.exists()) {
-            System.out.println("Error: A folder with the new name already exists. Please choose a different name.");
-            return;
+            targetDirectoryNameOrPath = readUserInput(session, "Enter the new name for the folder: ");
         }
 
         try {
-            Files.move(sourceDirectoryFile.toPath(), targetDirectoryFile.toPath());
-            System.out.println("Folder renamed successfully.");
+            Path targetDirectoryPath = resolvePath(session, targetDirectoryNameOrPath);
+            if (Files.exists(targetDirectoryPath)) {
+                session.reportFailure("Error: A folder with the new name already exists. Please choose a different name.");
+                return;
+            }
+            Files.move(sourceDirectoryPath, targetDirectoryPath);
+            session.recordWork(1, 0);
+            session.getOutput().println("Folder renamed successfully.");
         } catch (NoSuchFileException nsfe) {
-            System.out.println("Error: Source or destination path not found.");
+            session.reportFailure("Error: Source or destination path not found.");
         } catch (FileAlreadyExistsException faee) {
-            System.out.println("Error: A folder with the new name already exists.");
+            session.reportFailure("Error: A folder with the new name already exists.");
+        } catch (InvalidPathException ipe) {
+            session.reportFailure("Error: The new folder name is invalid: " + targetDirectoryNameOrPath);
         } catch (SecurityException se) {
-            System.out.println("Error: Permission denied while renaming the folder.");
+            session.reportFailure("Error: Permission denied while renaming the folder.");
         } catch (java.io.IOException ioe) {
-            System.out.println("An I/O error occurred while renaming the folder: " + ioe);
+            session.reportFailure("An I/O error occurred while renaming the folder: " + ioe);
         }
     }
 
     /**
-     * Moves a directory from one location to another.
+     * Moves a directory resolved against the working directory of the default session.
+     *
      * @param sourceDirectoryPath The current path of the directory. If null, prompts user for input.
      * @param targetParentDirectoryPath The destination path where the directory should be moved. If null, prompts user for input.
+     * @see #moveDir(SessionContext, String, String)
      */
     public static void moveDir(String sourceDirectoryPath, String targetParentDirectoryPath) {
-        DirectoryOperations directoryOperationsInstance = new DirectoryOperations();
-        String pathDelimiter = directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter();
+        moveDir(SessionContext.getDefaultSession(), sourceDirectoryPath, targetParentDirectoryPath);
+    }
 
+    /**
+     * Moves a directory from one location to another.
+     * @param session the session whose working directory is used
+     * @param sourceDirectoryPath The current path of the directory. If null, prompts user for input.
+     * @param targetParentDirectoryPath The destination path where the directory should be moved. If null, prompts user for input.
+     */
+    public static void moveDir(SessionContext session, String sourceDirectoryPath, String targetParentDirectoryPath) {
         if (sourceDirectoryPath == null) {
-            sourceDirectoryPath = readUserInput("Enter the path of the folder you want to move: ");
+            sourceDirectoryPath = readUserInput(session, "Enter the path of the folder you want to move: ");
         }
 
-        File sourceDirectoryFile = resolveFolder(sourceDirectoryPath, pathDelimiter);
+        Path sourceDirectoryPathObj = resolveFolder(session, sourceDirectoryPath);
 
-        if (sourceDirectoryFile == null || !sourceDirectoryFile.exists() || !sourceDirectoryFile.isDirectory()) {
-            System.out.println("Error: The folder you want to move does not exist or is not a directory.");
+        if (sourceDirectoryPathObj == null) {
+            session.reportFailure("Error: The folder you want to move does not exist or is not a directory.");
             return;
         }
 
         if (targetParentDirectoryPath == null) {
-            targetParentDirectoryPath = readUserInput("Enter the destination path where you want to move the folder: ");
+            targetParentDirectoryPath = readUserInput(session, "Enter the destination path where you want to move the folder: ");
         }
 
-        String targetFullDirectoryPath = targetParentDirectoryPath + pathDelimiter + sourceDirectoryFile.getName();
-        Path sourceDirectoryPathObj = sourceDirectoryFile.toPath();
-        Path targetDirectoryPathObj = Paths.get(targetFullDirectoryPath);
-
         try {
+            Path targetDirectoryPathObj = resolvePath(session, targetParentDirectoryPath).resolve(sourceDirectoryPathObj.getFileName().toString());
             Files.move(sourceDirectoryPathObj, targetDirectoryPathObj);
-            System.out.println("Folder moved successfully.");
+            session.recordWork(1, 0);
+            session.getOutput().println("Folder moved successfully.");
         } catch (NoSuchFileException nsfe) {
-            System.out.println("Error: Destination path not found.");
+            session.reportFailure("Error: Destination path not found.");
         } catch (FileAlreadyExistsException faee) {
-            System.out.println("Error: A folder with the same name already exists at the destination.");
+            session.reportFailure("Error: A folder with the same name already exists at the destination.");
+        } catch (InvalidPathException ipe) {
+            session.reportFailure("Error: The destination path is invalid: " + targetParentDirectoryPath);
         } catch (SecurityException se) {
-            System.out.println("Error: Permission denied while moving the folder.");
+            session.reportFailure("Error: Permission denied while moving the folder.");
         } catch (java.io.IOException ioe) {
-            System.out.println("An I/O error occurred while moving the folder: " + ioe);
+            session.reportFailure("An I/O error occurred while moving the folder: " + ioe);
         }
     }
 
     /**
-     * Resolves a folder File object from a given path or folder name.
-     * @param folderPathOrName The path or folder name.
-     * @param pathDelimiter The OS-specific path delimiter.
-     * @return The File object representing the folder, or null if not found.
+     * Deletes a file or a whole tree with a pool of workers: the files are deleted in batches by a
+     * {@link ParallelBatchExecutor} while the tree is walked, and the folders deepest first once
+     * their files are gone. Every file and folder deleted is charged to the session, so the
+     * deletion keeps to its I/O limits and can be cancelled part way.
+     * @param session The session the work is charged to.
+     * @param rootPath The file or folder to delete.
+     * @return The number of bytes of the files deleted.
+     * @throws IOException if the tree cannot be walked or an entry cannot be deleted.
+     */
+    public static long deleteTree(SessionContext session, Path rootPath) throws IOException {
+        AtomicReference<IOException> firstFailure = new AtomicReference<>();
+        AtomicLong deletedByteCount = new AtomicLong();
+        List<Path> directoriesDeepestFirst = new ArrayList<>();
+        try (ParallelBatchExecutor<Path> deletionWorkers = new ParallelBatchExecutor<>(filePath -> {
+            Files.deleteIfExists(filePath);
+            session.recordWork(1, 0);
+        }, (filePath, exception) -> {
+            firstFailure.compareAndSet(null, exception instanceof IOException ? (IOException) exception
+                    : new IOException("Unable to delete " + filePath, exception));
+            return false;
+        })) {
+            Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path filePath, BasicFileAttributes fileAttributes) {
+                    if (deletionWorkers.isStopped()) {
+                        return FileVisitResult.TERMINATE;
+                    }
+                    deletedByteCount.addAndGet(fileAttributes.size());
+                    deletionWorkers.submit(filePath);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directoryPath, IOException directoryException) throws IOException {
+                    if (directoryException != null) {
+                        throw directoryException;
+                    }
+                    directoriesDeepestFirst.add(directoryPath);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            deletionWorkers.finish();
+        }
+        if (firstFailure.get() != null) {
+            throw firstFailure.get();
+        }
+        for (Path directoryPath : directoriesDeepestFirst) {
+            Files.deleteIfExists(directoryPath);
+            session.recordWork(1, 0);
+        }
+        return deletedByteCount.get();
+    }
+
+    /**
+     * Deletes an already resolved directory, asking for confirmation if it is not empty
+     * unless {@code autoConfirmString} allows deleting its contents recursively.
+     * @param session The session to report to.
+     * @param directoryToDelete The directory to delete.
+     * @param autoConfirmString "n" to ask the user before deleting a non-empty directory.
+     * @return true if the directory was deleted successfully, false otherwise
      */
-    private static File resolveFolder(String folderPathOrName, String pathDelimiter) {
-        if (folderPathOrName.contains(pathDelimiter)) {
-            File folderFile = new File(folderPathOrName);
-            if (folderFile.exists() && folderFile.isDirectory()) {
-                return folderFile;
+    private static boolean deleteResolvedDirectory(SessionContext session, Path directoryToDelete, String autoConfirmString) {
+        try {
+            if (!Files.exists(directoryToDelete)) {
+                session.reportFailure("Error: The specified folder does not exist.");
+                return false;
+            }
+            if (!Files.isDirectory(directoryToDelete)) {
+                session.reportFailure("Error: The specified path is not a folder.");
+                return false;
             }
-        } else {
-            File currentWorkingDirectoryFile = new File(getCurrentWorkingDirectory());
-            File[] filesInCurrentDirectory = currentWorkingDirectoryFile.listFiles();
-            if (filesInCurrentDirectory != null) {
-                for (File directoryFile : filesInCurrentDirectory) {
-                    if (directoryFile.isDirectory() && directoryFile.getName().equals(folderPathOrName)) {
-                        return directoryFile;
+
+            if (!isEmptyDirectory(directoryToDelete)) {
+                if(autoConfirmString.equals("n") && !session.isInteractive()){
+                    session.reportFailure("Error: The folder is not empty. Confirm with 'y' to delete it and all its contents.");
+                    return false;
+                }
+                if(autoConfirmString.equals("n")){
+                    String userConfirmation = readUserInput(session, "Warning: The folder is not empty. Do you want to delete it and all its contents? (Y/N): ");
+                    if (!userConfirmation.equalsIgnoreCase("y")) {
+                        session.reportFailure("Folder deletion cancelled by user.");
+                        return false;
                     }
                 }
+                else{
+                    deleteTree(session, directoryToDelete);
+                    session.getOutput().println("Folder deleted successfully.");
+                    return true;
+                }
+            }
+            Files.delete(directoryToDelete);
+            session.recordWork(1, 0);
+            session.getOutput().println("Folder deleted successfully.");
+            return true;
+        } catch (OperationCancelledException operationCancelledException) {
+            throw operationCancelledException;
+        } catch (NullPointerException npe) {
+            session.reportFailure("Error: Please provide a valid folder path.");
+        } catch (IOException ioe) {
+            session.reportFailure("Error: Unable to delete the folder: " + directoryToDelete);
+        } catch (Exception e) {
+            session.reportFailure("An error occurred: " + e);
+        }
+        return false;
+    }
+
+    /**
+     * Counts a folder and everything below it, so that a tracked deletion can report its time left.
+     * @param directoryPath The folder to count.
+     * @return The number of files and folders, or 0 if the folder cannot be walked.
+     */
+    private static long countTreeEntries(Path directoryPath) {
+        try (Stream<Path> treeEntries = Files.walk(directoryPath)) {
+            return treeEntries.count();
+        } catch (IOException | UncheckedIOException | SecurityException exception) {
+            return 0;
+        }
+    }
+
+    private static boolean isEmptyDirectory(Path directoryPath) throws IOException {
+        try (DirectoryStream<Path> directoryContents = Files.newDirectoryStream(directoryPath)) {
+            return !directoryContents.iterator().hasNext();
+        }
+    }
+
+    /**
+     * Resolves a folder path from a given path or folder name.
+     * @param session The session whose working directory is used.
+     * @param folderPathOrName The path or folder name, relative to the current working directory or absolute.
+     * @return The path of the folder, or null if not found.
+     */
+    private static Path resolveFolder(SessionContext session, String folderPathOrName) {
+        try {
+            Path folderPath = resolvePath(session, folderPathOrName);
+            if (Files.isDirectory(folderPath)) {
+                return folderPath;
             }
+        } catch (InvalidPathException invalidPathException) {
+            // Treated like a folder that does not exist
         }
         return null;
     }
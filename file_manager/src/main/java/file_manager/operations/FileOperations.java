@@ -2,19 +2,26 @@ package file_manager.operations;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
-import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+import file_manager.trash.TrashOperations;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
 import static file_manager.utils.InputUtils.readUserInput;
-import static file_manager.utils.PathUtils.getCurrentWorkingDirectory;
+import static file_manager.utils.PathUtils.resolvePath;
 
 /**
  * Utility class for performing file operations such as creation, deletion,
@@ -32,72 +39,127 @@ import static file_manager.utils.PathUtils.getCurrentWorkingDirectory;
  */
 public class FileOperations {
 
+    /**
+     * The size of the chunks a copy is done in; progress is reported after each chunk.
+     */
+    private static final int COPY_CHUNK_SIZE = 256 * 1024;
+
     private FileOperations() {
         // Private constructor to prevent instantiation
     }
 
-    private static final DirectoryOperations directoryOperationsInstance = new DirectoryOperations();
+    /**
+     * Creates a new file in the working directory of the default session.
+     *
+     * @param fileNameToCreate the name of the file to create, or null to prompt the user
+     * @see #newFile(SessionContext, String)
+     */
+    public static void newFile(String fileNameToCreate) {
+        newFile(SessionContext.getDefaultSession(), fileNameToCreate);
+    }
 
     /**
      * Creates a new file with the specified name in the current working directory.
      * If the name is null, prompts the user to enter a file name.
      * Prints a message indicating whether the file was created or if it already exists.
      *
+     * @param session the session whose working directory is used
      * @param fileNameToCreate the name of the file to create, or null to prompt the user
      */
-    public static void newFile(String fileNameToCreate) {
-        fileNameToCreate = promptIfNull(fileNameToCreate, "Please enter the name for the new file: ");
-        File fileToCreate = new File(getCurrentWorkingDirectory(), fileNameToCreate);
+    public static void newFile(SessionContext session, String fileNameToCreate) {
+        fileNameToCreate = promptIfNull(session, fileNameToCreate, "Please enter the name for the new file: ");
         try {
-            if (fileToCreate.createNewFile()) {
-                System.out.println("File created successfully: " + fileNameToCreate);
-            } else {
-                System.out.println("A file with this name already exists: " + fileNameToCreate);
-            }
-        } catch (IOException | SecurityException exception) {
-            System.out.println("Error creating file: " + exception.getMessage());
+            Files.createFile(resolvePath(session, fileNameToCreate));
+            session.getOutput().println("File created successfully: " + fileNameToCreate);
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.reportFailure("A file with this name already exists: " + fileNameToCreate);
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Error creating file: " + exception.getMessage());
         }
     }
 
+    /**
+     * Clears a file resolved against the working directory of the default session.
+     *
+     * @param fileNameToClear the name of the file to clear, or null to prompt the user
+     * @see #clearFile(SessionContext, String)
+     */
+    public static void clearFile(String fileNameToClear) {
+        clearFile(SessionContext.getDefaultSession(), fileNameToClear);
+    }
+
     /**
      * Removes all contents from the specified file, effectively clearing it.
      * If the file name is null, prompts the user to enter a file name.
      * Prints a message if the file does not exist.
      *
+     * @param session the session whose working directory is used
      * @param fileNameToClear the name of the file to clear, or null to prompt the user
      */
-    public static void clearFile(String fileNameToClear) {
-        fileNameToClear = promptIfNull(fileNameToClear, "Please enter the name of the file to clear: ");
-        File fileToClear = new File(getCurrentWorkingDirectory(), fileNameToClear);
-        if (!fileToClear.exists()) {
-            System.out.println("The specified file does not exist: " + fileNameToClear);
+    public static void clearFile(SessionContext session, String fileNameToClear) {
+        fileNameToClear = promptIfNull(session, fileNameToClear, "Please enter the name of the file to clear: ");
+        Path fileToClearPath = resolvePath(session, fileNameToClear);
+        if (!Files.exists(fileToClearPath)) {
+            session.reportFailure("The specified file does not exist: " + fileNameToClear);
             return;
         }
-        try (FileWriter fileWriter = new FileWriter(fileToClear)) {
-            fileWriter.write("");
-            System.out.println("File cleared successfully: " + fileNameToClear);
+        try {
+            Files.newOutputStream(fileToClearPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).close();
+            session.getOutput().println("File cleared successfully: " + fileNameToClear);
         } catch (IOException | SecurityException exception) {
-            System.out.println("Error clearing file: " + exception.getMessage());
+            session.reportFailure("Error clearing file: " + exception.getMessage());
         }
     }
 
     /**
-     * Deletes the specified file from the current working directory.
+     * Deletes a file resolved against the working directory of the default session.
+     *
+     * @param fileNameToDelete the name of the file to delete, or null to prompt the user
+     * @see #delFile(SessionContext, String)
+     */
+    public static void delFile(String fileNameToDelete) {
+        delFile(SessionContext.getDefaultSession(), fileNameToDelete);
+    }
+
+    /**
+     * Deletes the specified file from the current working directory, or moves it to the trash
+     * if the trash is on in the session.
      * If the file name is null, prompts the user to enter a file name.
      * Prints a message indicating whether the file was deleted or if it does not exist.
      *
+     * @param session the session whose working directory is used
      * @param fileNameToDelete the name of the file to delete, or null to prompt the user
      */
-    public static void delFile(String fileNameToDelete) {
-        fileNameToDelete = promptIfNull(fileNameToDelete, "Please enter the name of the file to delete: ");
-        File fileToDelete = new File(getCurrentWorkingDirectory(), fileNameToDelete);
-        if (!fileToDelete.exists()) {
-            System.out.println("The specified file does not exist: " + fileNameToDelete);
+    public static void delFile(SessionContext session, String fileNameToDelete) {
+        fileNameToDelete = promptIfNull(session, fileNameToDelete, "Please enter the name of the file to delete: ");
+        Path fileToDeletePath = resolvePath(session, fileNameToDelete);
+        if (!Files.exists(fileToDeletePath)) {
+            session.reportFailure("The specified file does not exist: " + fileNameToDelete);
+            return;
+        }
+        if (session.isTrashEnabled()) {
+            TrashOperations.moveToTrash(session, fileToDeletePath);
             return;
         }
-        clearFile(fileNameToDelete);
-        fileToDelete.delete();
-        System.out.println("File deleted successfully: " + fileNameToDelete);
+        clearFile(session, fileNameToDelete);
+        try {
+            Files.delete(fileToDeletePath);
+            session.recordWork(1, 0);
+            session.getOutput().println("File deleted successfully: " + fileNameToDelete);
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Error deleting file: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Renames a file within the working directory of the default session.
+     *
+     * @param originalFileName the current name of the file, or null to prompt the user
+     * @param newFileName the new name for the file, or null to prompt the user
+     * @see #renameFile(SessionContext, String, String)
+     */
+    public static void renameFile(String originalFileName, String newFileName) {
+        renameFile(SessionContext.getDefaultSession(), originalFileName, newFileName);
     }
 
     /**
@@ -105,157 +167,230 @@ public class FileOperations {
      * If either parameter is null, prompts the user for the missing value(s).
      * Prints a message indicating success or failure.
      *
+     * @param session the session whose working directory is used
      * @param originalFileName the current name of the file, or null to prompt the user
      * @param newFileName      the new name for the file, or null to prompt the user
      */
-    public static void renameFile(String originalFileName, String newFileName) {
-        originalFileName = promptIfNull(originalFileName, "Please enter the current file name: ");
-        File sourceFile = new File(getCurrentWorkingDirectory(), originalFileName);
-        if (!sourceFile.exists() || !sourceFile.isFile()) {
-            System.out.println("The specified file does not exist: " + originalFileName);
+    public static void renameFile(SessionContext session, String originalFileName, String newFileName) {
+        originalFileName = promptIfNull(session, originalFileName, "Please enter the current file name: ");
+        Path sourceFilePath = resolvePath(session, originalFileName);
+        if (!Files.isRegularFile(sourceFilePath)) {
+            session.reportFailure("The specified file does not exist: " + originalFileName);
             return;
         }
-        newFileName = promptIfNull(newFileName, "Please enter the new name for the file: ");
-        File destinationFile = new File(getCurrentWorkingDirectory(), newFileName);
-        if (sourceFile.renameTo(destinationFile)) {
-            System.out.println("File renamed successfully to: " + newFileName);
-        } else {
-            System.out.println("Failed to rename file: " + originalFileName);
+        newFileName = promptIfNull(session, newFileName, "Please enter the new name for the file: ");
+        try {
+            Files.move(sourceFilePath, resolvePath(session, newFileName));
+            session.getOutput().println("File renamed successfully to: " + newFileName);
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Failed to rename file: " + originalFileName);
         }
     }
 
+    /**
+     * Reads and prints a file resolved against the working directory of the default session.
+     *
+     * @param fileNameToRead the name of the file to read, or null to prompt the user
+     * @return the contents of the file as a String (empty if file not found)
+     * @see #readFile(SessionContext, String)
+     */
+    public static String readFile(String fileNameToRead) {
+        return readFile(SessionContext.getDefaultSession(), fileNameToRead);
+    }
+
     /**
      * Reads and prints the contents of the specified file to the console.
      * If the file name is null, prompts the user to enter a file name.
      * Returns the file contents as a String.
      *
+     * @param session the session whose working directory is used
      * @param fileNameToRead the name of the file to read, or null to prompt the user
      * @return the contents of the file as a String (empty if file not found)
      */
-    public static String readFile(String fileNameToRead) {
-        fileNameToRead = promptIfNull(fileNameToRead, "Please enter the name of the file to read: ");
-        File fileToRead = new File(getCurrentWorkingDirectory(), fileNameToRead);
+    public static String readFile(SessionContext session, String fileNameToRead) {
+        fileNameToRead = promptIfNull(session, fileNameToRead, "Please enter the name of the file to read: ");
         StringBuilder fileContentsBuilder = new StringBuilder();
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(fileToRead))) {
-            String currentLine;
-            System.out.println("Contents of " + fileNameToRead + ":");
-            while ((currentLine = bufferedReader.readLine()) != null) {
-                System.out.println(currentLine);
-                fileContentsBuilder.append(currentLine);
+        try {
+            Path fileToReadPath = resolvePath(session, fileNameToRead);
+            try (BufferedReader bufferedReader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(fileToReadPath), Charset.defaultCharset()))) {
+                String currentLine;
+                session.getOutput().println("Contents of " + fileNameToRead + ":");
+                while ((currentLine = bufferedReader.readLine()) != null) {
+                    session.getOutput().println(currentLine);
+                    fileContentsBuilder.append(currentLine);
+                }
             }
-        } catch (IOException | SecurityException exception) {
-            System.out.println("Unable to read file. File not found: " + fileNameToRead);
+            session.recordWork(0, Files.size(fileToReadPath));
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Unable to read file. File not found: " + fileNameToRead);
         }
         return fileContentsBuilder.toString();
     }
 
+    /**
+     * Appends text to a file resolved against the working directory of the default session.
+     *
+     * @param fileNameToWrite the name of the file to write to, or null to prompt the user
+     * @param textToAppend the text to append, or null to prompt the user
+     * @see #writeFile(SessionContext, String, String)
+     */
+    public static void writeFile(String fileNameToWrite, String textToAppend) {
+        writeFile(SessionContext.getDefaultSession(), fileNameToWrite, textToAppend);
+    }
+
     /**
      * Appends the specified text to the end of the given file.
      * If the file name or text is null, prompts the user for the missing value(s).
      * Prints a message if the file does not exist.
      *
+     * @param session the session whose working directory is used
      * @param fileNameToWrite the name of the file to write to, or null to prompt the user
      * @param textToAppend    the text to append, or null to prompt the user
      */
-    public static void writeFile(String fileNameToWrite, String textToAppend) {
-        fileNameToWrite = promptIfNull(fileNameToWrite, "Please enter the name of the file to write to: ");
-        File fileToWrite = new File(getCurrentWorkingDirectory(), fileNameToWrite);
-        if (!fileToWrite.exists()) {
-            System.out.println("The specified file does not exist: " + fileNameToWrite);
+    public static void writeFile(SessionContext session, String fileNameToWrite, String textToAppend) {
+        fileNameToWrite = promptIfNull(session, fileNameToWrite, "Please enter the name of the file to write to: ");
+        Path fileToWritePath = resolvePath(session, fileNameToWrite);
+        if (!Files.exists(fileToWritePath)) {
+            session.reportFailure("The specified file does not exist: " + fileNameToWrite);
             return;
         }
-        textToAppend = promptIfNull(textToAppend, "Please enter the text to append: ");
-        int existingLineCount = countLines(fileToWrite);
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(fileToWrite, true))) {
-            if (existingLineCount != 0) bufferedWriter.newLine();
+        textToAppend = promptIfNull(session, textToAppend, "Please enter the text to append: ");
+        boolean existingContent = hasContent(fileToWritePath);
+        try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(fileToWritePath, StandardOpenOption.APPEND), Charset.defaultCharset()))) {
+            if (existingContent) bufferedWriter.newLine();
             bufferedWriter.write(textToAppend);
-            System.out.println("Text appended successfully to file: " + fileNameToWrite);
+            bufferedWriter.flush();
+            session.recordWork(0, textToAppend.getBytes(Charset.defaultCharset()).length);
+            session.getOutput().println("Text appended successfully to file: " + fileNameToWrite);
         } catch (IOException ioException) {
-            System.out.println("Error writing to file: " + ioException.getMessage());
+            session.reportFailure("Error writing to file: " + ioException.getMessage());
         }
     }
 
+    /**
+     * Copies a file within the working directory of the default session.
+     *
+     * @param sourceFileName the name of the source file to copy, or null to prompt the user
+     * @param destinationFileName the desired name for the new file, or null to auto-generate
+     * @return the name of the newly created file, or null if the operation failed
+     * @see #copy(SessionContext, String, String)
+     */
+    public static String copy(String sourceFileName, String destinationFileName) {
+        return copy(SessionContext.getDefaultSession(), sourceFileName, destinationFileName);
+    }
+
     /**
      * Copies the contents of the source file to a new file.
      * If the target file name is null, generates a unique name based on the source file.
+     * If the target file already exists and is not empty, it is updated in place and only
+     * the blocks that differ from the source are rewritten (see {@link DeltaCopyOperations}).
+     * Otherwise the blocks of the source that hold only zeros are left as holes in the new file
+     * (see {@link SparseCopyOperations}).
      * Prompts the user for missing parameters if necessary.
      * Prints error messages for invalid paths or existing files.
+     * <p>
+     * Inside a mounted archive, an absolute destination path copies the entry out of the archive.
+     * </p>
      *
+     * @param session the session whose working directory is used
      * @param sourceFileName      the name of the source file to copy, or null to prompt the user
      * @param destinationFileName the desired name for the new file, or null to auto-generate
      * @return the name of the newly created file, or null if the operation failed
      */
-    public static String copy(String sourceFileName, String destinationFileName) {
-        sourceFileName = promptIfNull(sourceFileName, "Please enter the name of the file to copy: ");
+    public static String copy(SessionContext session, String sourceFileName, String destinationFileName) {
+        sourceFileName = promptIfNull(session, sourceFileName, "Please enter the name of the file to copy: ");
         String generatedDestinationName = destinationFileName;
-        if (destinationFileName == null) {
-            generatedDestinationName = generateUniqueFileName(sourceFileName);
-        } else {
-            File destinationFile = new File(getCurrentWorkingDirectory(), destinationFileName);
-            try {
-                destinationFile.createNewFile();
-            } catch (InvalidPathException invalidPathException) {
-                System.out.println("Invalid path specified for the destination file.");
-            } catch (IOException | SecurityException exception) {
-                System.out.println("A file with the destination name already exists: " + destinationFileName);
-            }
-        }
         try {
-            File destinationFile = new File(getCurrentWorkingDirectory(), generatedDestinationName);
+            if (destinationFileName == null) {
+                generatedDestinationName = generateUniqueFileName(session, sourceFileName);
+            } else {
+                Path existingDestinationPath = resolvePath(session, destinationFileName);
+                if (Files.isRegularFile(existingDestinationPath) && Files.size(existingDestinationPath) > 0) {
+                    updateExistingFile(session, sourceFileName, existingDestinationPath);
+                    return destinationFileName;
+                }
+            }
+            Path sourceFilePath = resolvePath(session, sourceFileName);
+            Path destinationFilePath = resolvePath(session, generatedDestinationName);
             try {
-                destinationFile.createNewFile();
-            } catch (IOException | SecurityException exception) {
-                System.out.println("A file with the generated name already exists: " + generatedDestinationName);
+                Files.createFile(destinationFilePath);
+            } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+                // An existing empty destination is simply overwritten
             }
-            try (FileInputStream fileInputStream = new FileInputStream(new File(getCurrentWorkingDirectory(), sourceFileName));
-                 FileOutputStream fileOutputStream = new FileOutputStream(destinationFile)) {
-                int byteRead;
-                while ((byteRead = fileInputStream.read()) != -1) fileOutputStream.write(byteRead);
+            long holeByteCount;
+            try {
+                session.planWork(1, Files.size(sourceFilePath));
+                holeByteCount = SparseCopyOperations.copyFile(session, sourceFilePath, destinationFilePath);
+            } catch (OperationCancelledException operationCancelledException) {
+                Files.deleteIfExists(destinationFilePath);
+                throw operationCancelledException;
             }
+            session.recordWork(1, 0);
             if (destinationFileName != null) {
-                renameFile(generatedDestinationName, destinationFileName);
+                renameFile(session, generatedDestinationName, destinationFileName);
+            }
+            session.getOutput().println("File copied successfully to: " + generatedDestinationName
+                    + (holeByteCount > 0 ? " (" + formatByteCount(holeByteCount) + " of zeros left as holes)" : ""));
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Invalid path specified for the destination file.");
+        } catch (NoSuchFileException noSuchFileException) {
+            if (noSuchFileException.getFile() != null && noSuchFileException.getFile().equals(resolvePath(session, sourceFileName).toString())) {
+                session.reportFailure("Source file not found: " + sourceFileName);
+            } else {
+                session.reportFailure("Destination path not found: " + generatedDestinationName);
             }
-            System.out.println("File copied successfully to: " + generatedDestinationName);
-        } catch (FileNotFoundException | NullPointerException exception) {
-            System.out.println("Source file not found: " + sourceFileName);
         } catch (IOException | SecurityException exception) {
-            System.out.println("Error copying file: " + exception.getMessage());
+            session.reportFailure("Error copying file: " + exception.getMessage());
         }
         return generatedDestinationName;
     }
 
+    /**
+     * Moves a file resolved against the working directory of the default session.
+     *
+     * @param sourceFileNameToMove the name of the file to move, or null to prompt the user
+     * @param destinationDirectoryPath the destination directory path, or null to prompt the user
+     * @see #moveFile(SessionContext, String, String)
+     */
+    public static void moveFile(String sourceFileNameToMove, String destinationDirectoryPath) {
+        moveFile(SessionContext.getDefaultSession(), sourceFileNameToMove, destinationDirectoryPath);
+    }
+
     /**
      * Moves the specified file to a new directory.
      * If the source file name or target path is null, prompts the user for the missing value(s).
      * Handles file overwriting by copying and deleting if the target already exists.
      * Prints error messages for missing files or invalid paths.
      *
+     * @param session the session whose working directory is used
      * @param sourceFileNameToMove         the name of the file to move, or null to prompt the user
      * @param destinationDirectoryPath the destination directory path, or null to prompt the user
      */
-    public static void moveFile(String sourceFileNameToMove, String destinationDirectoryPath) {
-        sourceFileNameToMove = promptIfNull(sourceFileNameToMove, "Please enter the name of the file to move: ");
-        File sourceFileToMove = new File(getCurrentWorkingDirectory(), sourceFileNameToMove);
-        if (!sourceFileToMove.exists()) {
-            System.out.println("The specified source file does not exist: " + sourceFileNameToMove);
+    public static void moveFile(SessionContext session, String sourceFileNameToMove, String destinationDirectoryPath) {
+        sourceFileNameToMove = promptIfNull(session, sourceFileNameToMove, "Please enter the name of the file to move: ");
+        Path sourceFilePath = resolvePath(session, sourceFileNameToMove);
+        if (!Files.exists(sourceFilePath)) {
+            session.reportFailure("The specified source file does not exist: " + sourceFileNameToMove);
             return;
         }
-        destinationDirectoryPath = promptIfNull(destinationDirectoryPath, "Please enter the destination directory path: ");
-        String pathDelimiter = directoryOperationsInstance.getCurrentWorkingDirectoryDelimiter();
-        String sourceFilePath = getCurrentWorkingDirectory() + pathDelimiter + sourceFileNameToMove;
-        String destinationFilePath = destinationDirectoryPath + pathDelimiter + sourceFileNameToMove;
+        destinationDirectoryPath = promptIfNull(session, destinationDirectoryPath, "Please enter the destination directory path: ");
         try {
-            Files.move(Paths.get(sourceFilePath), Paths.get(destinationFilePath));
-            System.out.println("File moved successfully to: " + destinationDirectoryPath);
-        } catch (java.nio.file.NoSuchFileException noSuchFileException) {
-            System.out.println("File or destination path not found.");
-        } catch (java.nio.file.FileAlreadyExistsException fileAlreadyExistsException) {
-            System.out.println("A file with the same name already exists at the destination. Overwriting...");
-            String copiedFileName = copy(sourceFileNameToMove, null);
-            moveFile(copiedFileName, destinationDirectoryPath);
-            delFile(sourceFileNameToMove);
-        } catch (IOException | SecurityException exception) {
-            System.out.println("Error moving file: " + exception.getMessage());
+            Path destinationFilePath = resolvePath(session, destinationDirectoryPath).resolve(sourceFilePath.getFileName().toString());
+            long copiedByteCount = countBytesCopiedByMove(sourceFilePath, destinationFilePath);
+            Files.move(sourceFilePath, destinationFilePath);
+            session.recordWork(1, copiedByteCount);
+            session.getOutput().println("File moved successfully to: " + destinationDirectoryPath);
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("File or destination path not found.");
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.getOutput().println("A file with the same name already exists at the destination. Overwriting...");
+            String copiedFileName = copy(session, sourceFileNameToMove, null);
+            moveFile(session, copiedFileName, destinationDirectoryPath);
+            delFile(session, sourceFileNameToMove);
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Error moving file: " + exception.getMessage());
         }
     }
 
@@ -264,47 +399,118 @@ public class FileOperations {
     /**
      * Prompts the user for input if the provided value is null.
      *
+     * @param session      the session to prompt in
      * @param valueToCheck the value to check
      * @param promptText   the prompt to display if value is null
      * @return the original value or user input if value was null
      */
-    private static String promptIfNull(String valueToCheck, String promptText) {
+    private static String promptIfNull(SessionContext session, String valueToCheck, String promptText) {
         if (valueToCheck == null) {
-            return readUserInput(promptText);
+            return readUserInput(session, promptText);
         }
         return valueToCheck;
     }
 
     /**
-     * Counts the number of lines in a file.
+     * Copies a stream in chunks, reporting the progress to the session after each chunk
+     * so that a background copy can be paused or cancelled part way.
+     *
+     * @param session                 the session to report progress to
+     * @param sourceInputStream       the stream to copy from
+     * @param destinationOutputStream the stream to copy to
+     * @throws IOException if reading or writing fails
+     */
+    static void copyWithProgress(SessionContext session, InputStream sourceInputStream,
+                                 OutputStream destinationOutputStream) throws IOException {
+        byte[] copyBuffer = new byte[COPY_CHUNK_SIZE];
+        int readByteCount;
+        while ((readByteCount = sourceInputStream.read(copyBuffer)) >= 0) {
+            destinationOutputStream.write(copyBuffer, 0, readByteCount);
+            session.recordWork(0, readByteCount);
+        }
+    }
+
+    /**
+     * Returns the number of bytes a move will copy: none for a rename within one file store,
+     * the size of the file when it has to be copied to another file store.
+     *
+     * @param sourceFilePath      the file to move
+     * @param destinationFilePath the path it is moved to
+     * @return the number of bytes the move will copy
+     * @throws IOException if the file or the destination folder cannot be examined
+     */
+    static long countBytesCopiedByMove(Path sourceFilePath, Path destinationFilePath) throws IOException {
+        Path destinationDirectoryPath = destinationFilePath.toAbsolutePath().getParent();
+        if (sourceFilePath.getFileSystem() == destinationFilePath.getFileSystem() && destinationDirectoryPath != null
+                && Files.getFileStore(sourceFilePath).equals(Files.getFileStore(destinationDirectoryPath))) {
+            return 0;
+        }
+        return Files.size(sourceFilePath);
+    }
+
+    /**
+     * Brings an existing destination file up to date with the source file,
+     * rewriting only the blocks that differ.
+     *
+     * @param session                 the session whose working directory is used
+     * @param sourceFileName          the name of the source file
+     * @param existingDestinationPath the existing, non-empty destination file
+     */
+    private static void updateExistingFile(SessionContext session, String sourceFileName, Path existingDestinationPath) {
+        Path sourceFilePath = resolvePath(session, sourceFileName);
+        if (!Files.isRegularFile(sourceFilePath)) {
+            session.reportFailure("Source file not found: " + sourceFileName);
+            return;
+        }
+        try {
+            if (Files.isSameFile(sourceFilePath, existingDestinationPath)) {
+                session.getOutput().println("Source and destination are the same file: " + sourceFileName);
+                return;
+            }
+            session.planWork(1, Files.size(sourceFilePath));
+            DeltaCopyOperations.DeltaCopySummary deltaCopySummary = DeltaCopyOperations.updateInPlace(sourceFilePath,
+                    existingDestinationPath, DeltaCopyOperations.DEFAULT_BLOCK_SIZE, blockLength -> session.recordWork(0, blockLength));
+            session.recordWork(1, 0);
+            session.getOutput().println("Destination already exists, updated in place: " + existingDestinationPath.getFileName()
+                    + " (" + deltaCopySummary.getRewrittenBlockCount() + " of " + deltaCopySummary.getTotalBlockCount()
+                    + " blocks rewritten, " + deltaCopySummary.getRewrittenByteCount() + " bytes)");
+        } catch (IOException | UnsupportedOperationException | SecurityException exception) {
+            session.reportFailure("Error updating file: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a file has any content, from its size rather than by reading it.
+     * Use {@link CountOperations} to count the lines of a file.
      *
-     * @param fileToCountLines the file to count lines in
-     * @return the number of lines
+     * @param fileToCheck the file to check
+     * @return {@code true} if the file is not empty
      */
-    private static int countLines(File fileToCountLines) {
-        int lineCount = 0;
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(fileToCountLines))) {
-            while (bufferedReader.readLine() != null) lineCount++;
-        } catch (Exception ignored) {}
-        return lineCount;
+    private static boolean hasContent(Path fileToCheck) {
+        try {
+            return Files.size(fileToCheck) > 0;
+        } catch (IOException | SecurityException ignored) {
+            return false;
+        }
     }
 
     /**
      * Generates a unique file name based on the source file name.
      *
+     * @param session                 the session whose working directory is used
      * @param sourceFileNameForUnique the source file name
      * @return a unique file name
      */
-    private static String generateUniqueFileName(String sourceFileNameForUnique) {
+    private static String generateUniqueFileName(SessionContext session, String sourceFileNameForUnique) {
         String[] fileNameParts = sourceFileNameForUnique.split("\\.", 2);
         String baseFileName = fileNameParts[0];
         String fileExtension = fileNameParts.length > 1 ? "." + fileNameParts[1] : "";
         int duplicateIndex = 1;
-        File candidateFile = new File(getCurrentWorkingDirectory(), baseFileName + fileExtension);
-        while (candidateFile.exists()) {
-            candidateFile = new File(getCurrentWorkingDirectory(), baseFileName + " (" + duplicateIndex + ")" + fileExtension);
+        Path candidateFilePath = session.getCurrentWorkingDirectoryPath().resolve(baseFileName + fileExtension);
+        while (Files.exists(candidateFilePath)) {
+            candidateFilePath = session.getCurrentWorkingDirectoryPath().resolve(baseFileName + " (" + duplicateIndex + ")" + fileExtension);
             duplicateIndex++;
         }
-        return candidateFile.getName();
+        return candidateFilePath.getFileName().toString();
     }
 }
@@ -0,0 +1,176 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import file_manager.session.OperationCancelledException;
+
+/**
+ * Applies an action to a stream of items, such as files or rename steps, on a pool of worker
+ * threads.
+ * <p>
+ * Items are submitted one at a time and handed to the workers in batches of {@value #BATCH_SIZE}.
+ * At most two batches per worker are waiting or running at once, so the submitter blocks rather
+ * than queueing an unbounded number of items, and the full list of items is never held in memory.
+ * An item that fails is passed to the failure handler, which decides whether the run goes on; an
+ * {@link OperationCancelledException} stops the run and is thrown again by {@link #finish()} once
+ * every running batch has stopped. A run is used once and must be {@linkplain #close() closed},
+ * which waits for the workers, so no item is ever abandoned half done.
+ * </p>
+ *
+ * @param <T> the type of the items
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class ParallelBatchExecutor<T> implements AutoCloseable {
+
+    /**
+     * The number of items handed to a worker at a time.
+     */
+    public static final int BATCH_SIZE = 256;
+
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_BATCHES_IN_FLIGHT = WORKER_COUNT * 2;
+
+    /**
+     * Something done to one item.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface ItemAction<T> {
+        /**
+         * @param item the item
+         * @throws IOException if the item cannot be processed
+         */
+        void apply(T item) throws IOException;
+    }
+
+    /**
+     * Handles the failure of one item. It is called on the worker threads.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface FailureHandler<T> {
+        /**
+         * @param item      the item that failed
+         * @param exception the {@link IOException} or {@link RuntimeException} it failed with
+         * @return {@code true} to go on with the other items, {@code false} to stop the run
+         */
+        boolean handleFailure(T item, Exception exception);
+    }
+
+    private final ItemAction<T> itemAction;
+    private final FailureHandler<T> failureHandler;
+    private final ExecutorService batchWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+    private final Semaphore batchesInFlight = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private List<T> currentBatch = new ArrayList<>(BATCH_SIZE);
+    private boolean closed;
+
+    /**
+     * @param itemAction     the action applied to every item
+     * @param failureHandler the handler of the items whose action fails
+     */
+    public ParallelBatchExecutor(ItemAction<T> itemAction, FailureHandler<T> failureHandler) {
+        this.itemAction = itemAction;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Adds an item, handing the current batch to a worker once it is full. Items submitted after the run stopped are ignored.
+     *
+     * @param item the item
+     * @throws OperationCancelledException if the thread is interrupted while it waits for a worker
+     */
+    public void submit(T item) {
+        if (stopped.get()) {
+            return;
+        }
+        currentBatch.add(item);
+        if (currentBatch.size() == BATCH_SIZE) {
+            submitCurrentBatch();
+        }
+    }
+
+    /**
+     * @return {@code true} if a failure or a cancellation stopped the run, so further items are ignored
+     */
+    public boolean isStopped() {
+        return stopped.get();
+    }
+
+    /**
+     * Hands the last batch to a worker and waits until every item has been processed.
+     *
+     * @throws OperationCancelledException if the run was cancelled
+     */
+    public void finish() {
+        if (!stopped.get()) {
+            submitCurrentBatch();
+        }
+        close();
+        if (cancelled.get()) {
+            throw new OperationCancelledException();
+        }
+    }
+
+    /**
+     * Waits for the batches already handed to the workers and shuts the workers down. Items not yet handed over are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        batchesInFlight.acquireUninterruptibly(MAX_BATCHES_IN_FLIGHT);
+        batchWorkers.shutdown();
+    }
+
+    // --- Helper Methods ---
+
+    private void submitCurrentBatch() {
+        if (currentBatch.isEmpty()) {
+            return;
+        }
+        List<T> itemBatch = currentBatch;
+        currentBatch = new ArrayList<>(BATCH_SIZE);
+        try {
+            batchesInFlight.acquire();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            stopped.set(true);
+            cancelled.set(true);
+            throw new OperationCancelledException();
+        }
+        batchWorkers.execute(() -> {
+            try {
+                for (T item : itemBatch) {
+                    if (stopped.get()) {
+                        return;
+                    }
+                    try {
+                        itemAction.apply(item);
+                    } catch (OperationCancelledException operationCancelledException) {
+                        cancelled.set(true);
+                        stopped.set(true);
+                    } catch (IOException | RuntimeException exception) {
+                        if (!failureHandler.handleFailure(item, exception)) {
+                            stopped.set(true);
+                        }
+                    }
+                }
+            } finally {
+                batchesInFlight.release();
+            }
+        });
+    }
+}
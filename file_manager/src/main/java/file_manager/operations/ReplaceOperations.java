@@ -0,0 +1,265 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import file_manager.session.ProgressInputStream;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code replace in file} command, which replaces text in a file of any
+ * size, for example {@code replace in file > settings.conf > debug=true > debug=false}.
+ * <p>
+ * The file is streamed through a fixed-size buffer into a temporary file in the same folder,
+ * which then replaces the original in a single rename, so the whole file is never held in memory
+ * and a failed or cancelled replacement leaves the original untouched. A literal search text is
+ * replaced wherever it occurs. A search text starting with {@code regex:} is a regular expression
+ * that is applied line by line, as {@code sed} does, and whose replacement may refer to groups as
+ * {@code $1}; lines longer than {@value #MAX_REGEX_LINE_LENGTH} characters are refused in that
+ * mode. Without a replacement the matches are removed. A symbolic link is followed, and the
+ * file it points to is replaced while the link is kept.
+ * </p>
+ * <p>
+ * The file is decoded in the default character set, and a file that is not valid text in it is
+ * left unchanged rather than rewritten with replacement characters.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class ReplaceOperations {
+
+    /**
+     * The prefix of a search text given as a regular expression.
+     */
+    public static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * The prefix of the temporary file the result is written to.
+     */
+    public static final String TEMPORARY_FILE_PREFIX = ".file-manager-replace-";
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_REGEX_LINE_LENGTH = 16 * 1024 * 1024;
+
+    private ReplaceOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Replaces every occurrence of a text or every match of a regular expression in a file.
+     *
+     * @param session         the session whose working directory is used
+     * @param fileName        the file to change, or null to prompt the user
+     * @param searchText      the text to replace, or {@code regex:} followed by a regular expression, or null to prompt the user
+     * @param replacementText the replacement, or {@code null} to remove the matches
+     */
+    public static void replaceInFile(SessionContext session, String fileName, String searchText, String replacementText) {
+        if (fileName == null) {
+            fileName = readUserInput(session, "Please enter the name of the file to change: ");
+        }
+        if (searchText == null) {
+            searchText = readUserInput(session, "Please enter the text to replace: ");
+        }
+        if (searchText.isEmpty() || searchText.equals(REGEX_PREFIX)) {
+            session.reportFailure("Unable to replace: the text to replace is empty.");
+            return;
+        }
+        String replacement = replacementText == null ? "" : replacementText;
+        Pattern searchPattern = null;
+        if (searchText.startsWith(REGEX_PREFIX)) {
+            try {
+                searchPattern = Pattern.compile(searchText.substring(REGEX_PREFIX.length()));
+                // Checks the group references of the replacement before the file is read
+                searchPattern.matcher("").replaceAll(replacement);
+            } catch (PatternSyntaxException patternSyntaxException) {
+                session.reportFailure("Invalid regular expression: " + searchText + " (" + patternSyntaxException.getDescription() + ")");
+                return;
+            } catch (IllegalArgumentException | IndexOutOfBoundsException replacementException) {
+                session.reportFailure("Invalid replacement: " + replacement + " (" + replacementException.getMessage() + ")");
+                return;
+            }
+        }
+        Path filePath;
+        try {
+            // The real path, so that a symbolic link is kept and the file it points to is replaced
+            filePath = resolvePath(session, fileName).toRealPath();
+        } catch (InvalidPathException | IOException | SecurityException exception) {
+            session.reportFailure("Unable to replace. File not found: " + fileName);
+            return;
+        }
+        if (!Files.isRegularFile(filePath)) {
+            session.reportFailure("Unable to replace. File not found: " + fileName);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        Path temporaryFilePath = null;
+        try {
+            long fileSize = Files.size(filePath);
+            session.planWork(0, fileSize);
+            temporaryFilePath = Files.createTempFile(filePath.getParent(), TEMPORARY_FILE_PREFIX, ".tmp");
+            Charset fileCharset = Charset.defaultCharset();
+            long replacementCount;
+            try (Reader fileReader = new InputStreamReader(new ProgressInputStream(session, Files.newInputStream(filePath)), fileCharset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT));
+                 Writer temporaryFileWriter = new OutputStreamWriter(Files.newOutputStream(temporaryFilePath), fileCharset)) {
+                replacementCount = searchPattern == null
+                        ? replaceLiteral(session, fileReader, temporaryFileWriter, searchText, replacement)
+                        : replaceByLine(session, fileReader, temporaryFileWriter, searchPattern, replacement);
+            }
+            if (replacementCount == 0) {
+                session.getOutput().println("No match for '" + searchText + "' in " + fileName + "; the file was left unchanged.");
+                return;
+            }
+            copyPermissions(filePath, temporaryFilePath);
+            replaceFile(temporaryFilePath, filePath);
+            temporaryFilePath = null;
+            session.getOutput().println(String.format(Locale.ROOT, "Replaced %d occurrence(s) of '%s' in %s (%s) in %.1f s.",
+                    replacementCount, searchText, fileName, formatByteCount(fileSize),
+                    (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1)));
+        } catch (CharacterCodingException characterCodingException) {
+            session.reportFailure("Unable to replace: " + fileName + " is not valid " + Charset.defaultCharset() + " text; it was left unchanged.");
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("Unable to replace. File not found: " + fileName);
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to replace in " + fileName + ": " + exception.getMessage());
+        } finally {
+            deleteQuietly(temporaryFilePath);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Replaces a literal text, keeping back the end of each chunk that could be the start of an
+     * occurrence completed by the next chunk.
+     *
+     * @return the number of replacements
+     */
+    private static long replaceLiteral(SessionContext session, Reader fileReader, Writer temporaryFileWriter,
+                                       String searchText, String replacement) throws IOException {
+        char[] chunk = new char[CHUNK_SIZE];
+        StringBuilder window = new StringBuilder(CHUNK_SIZE + searchText.length());
+        long replacementCount = 0;
+        int readCharCount;
+        while ((readCharCount = fileReader.read(chunk)) >= 0) {
+            window.append(chunk, 0, readCharCount);
+            int scanPosition = 0;
+            int matchPosition;
+            while ((matchPosition = window.indexOf(searchText, scanPosition)) >= 0) {
+                temporaryFileWriter.append(window, scanPosition, matchPosition).write(replacement);
+                scanPosition = matchPosition + searchText.length();
+                replacementCount++;
+            }
+            int keptPosition = Math.max(scanPosition, window.length() - searchText.length() + 1);
+            temporaryFileWriter.append(window, scanPosition, keptPosition);
+            window.delete(0, keptPosition);
+        }
+        temporaryFileWriter.append(window);
+        return replacementCount;
+    }
+
+    /**
+     * Applies a regular expression to each line; the line breaks themselves are never matched.
+     *
+     * @return the number of replacements
+     */
+    private static long replaceByLine(SessionContext session, Reader fileReader, Writer temporaryFileWriter,
+                                      Pattern searchPattern, String replacement) throws IOException {
+        char[] chunk = new char[CHUNK_SIZE];
+        StringBuilder line = new StringBuilder();
+        long replacementCount = 0;
+        int readCharCount;
+        while ((readCharCount = fileReader.read(chunk)) >= 0) {
+            int lineStart = 0;
+            for (int charIndex = 0; charIndex < readCharCount; charIndex++) {
+                if (chunk[charIndex] == '\n') {
+                    line.append(chunk, lineStart, charIndex - lineStart);
+                    replacementCount += writeReplacedLine(temporaryFileWriter, line, searchPattern, replacement);
+                    temporaryFileWriter.write('\n');
+                    line.setLength(0);
+                    lineStart = charIndex + 1;
+                }
+            }
+            line.append(chunk, lineStart, readCharCount - lineStart);
+            if (line.length() > MAX_REGEX_LINE_LENGTH) {
+                throw new IOException("a line is longer than " + MAX_REGEX_LINE_LENGTH + " characters, too long for a regular expression");
+            }
+        }
+        return replacementCount + writeReplacedLine(temporaryFileWriter, line, searchPattern, replacement);
+    }
+
+    private static long writeReplacedLine(Writer temporaryFileWriter, CharSequence line, Pattern searchPattern, String replacement) throws IOException {
+        Matcher lineMatcher = searchPattern.matcher(line);
+        if (!lineMatcher.find()) {
+            temporaryFileWriter.append(line);
+            return 0;
+        }
+        StringBuilder replacedLine = new StringBuilder(line.length());
+        long replacementCount = 0;
+        do {
+            lineMatcher.appendReplacement(replacedLine, replacement);
+            replacementCount++;
+        } while (lineMatcher.find());
+        lineMatcher.appendTail(replacedLine);
+        temporaryFileWriter.append(replacedLine);
+        return replacementCount;
+    }
+
+    /**
+     * Gives the new file the permissions of the original where the file system has them.
+     */
+    private static void copyPermissions(Path filePath, Path temporaryFilePath) throws IOException {
+        PosixFileAttributeView originalAttributes = Files.getFileAttributeView(filePath, PosixFileAttributeView.class);
+        PosixFileAttributeView temporaryAttributes = Files.getFileAttributeView(temporaryFilePath, PosixFileAttributeView.class);
+        if (originalAttributes != null && temporaryAttributes != null) {
+            temporaryAttributes.setPermissions(originalAttributes.readAttributes().permissions());
+        }
+    }
+
+    /**
+     * Replaces the original with the new file, atomically where the file system allows it.
+     */
+    private static void replaceFile(Path temporaryFilePath, Path filePath) throws IOException {
+        try {
+            Files.move(temporaryFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException atomicMoveNotSupportedException) {
+            Files.move(temporaryFilePath, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path temporaryFilePath) {
+        if (temporaryFilePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporaryFilePath);
+        } catch (IOException | SecurityException ignored) {}
+    }
+}
@@ -0,0 +1,159 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import file_manager.session.SessionContext;
+
+/**
+ * Utility class for copying a file into a new or replaced destination without writing its
+ * zero-filled blocks.
+ * <p>
+ * The destination is first given the full size of the source with a single write at its last
+ * byte, so the file system records its size once instead of on every write. The source is then
+ * read in chunks, and each {@value #HOLE_BLOCK_SIZE}-byte block that holds only zeros is skipped:
+ * the destination reads as zeros there without any disk space being allocated, so sparse files
+ * such as VM images stay sparse, and dense files are written into a file that already has its
+ * final size. File systems that do not support sparse files simply fill the skipped blocks with
+ * zeros. File systems without {@link FileChannel} support are copied as a plain stream.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class SparseCopyOperations {
+
+    /**
+     * The size of the blocks checked for zeros, a multiple of the block size of common file systems.
+     */
+    public static final int HOLE_BLOCK_SIZE = 64 * 1024;
+
+    private static final int CHUNK_SIZE = 16 * HOLE_BLOCK_SIZE;
+    private static final ByteBuffer ZERO_BLOCK = ByteBuffer.allocateDirect(HOLE_BLOCK_SIZE).asReadOnlyBuffer();
+
+    private SparseCopyOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Copies a file, creating the destination or replacing its contents, and leaves the
+     * zero-filled blocks of the source as holes in the destination.
+     * Progress is reported to the session after each chunk, so a background copy can be
+     * paused or cancelled part way.
+     *
+     * @param session             the session to report progress to
+     * @param sourceFilePath      the file to copy
+     * @param destinationFilePath the file to create or replace
+     * @return the number of bytes left as holes instead of being written
+     * @throws IOException if the source cannot be read or the destination cannot be written
+     */
+    public static long copyFile(SessionContext session, Path sourceFilePath, Path destinationFilePath) throws IOException {
+        FileChannel sourceChannel;
+        try {
+            sourceChannel = FileChannel.open(sourceFilePath, StandardOpenOption.READ);
+        } catch (UnsupportedOperationException unsupportedOperationException) {
+            return copyAsStream(session, sourceFilePath, destinationFilePath);
+        }
+        try (FileChannel sourceFileChannel = sourceChannel;
+             FileChannel destinationChannel = openDestination(destinationFilePath)) {
+            if (destinationChannel == null) {
+                return copyAsStream(session, sourceFilePath, destinationFilePath);
+            }
+            long sourceSize = sourceFileChannel.size();
+            if (sourceSize > 0) {
+                destinationChannel.write(ByteBuffer.allocate(1), sourceSize - 1);
+            }
+            ByteBuffer chunkBuffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            long holeByteCount = 0;
+            long chunkPosition = 0;
+            while (chunkPosition < sourceSize) {
+                chunkBuffer.clear().limit((int) Math.min(CHUNK_SIZE, sourceSize - chunkPosition));
+                int chunkLength = readFully(sourceFileChannel, chunkBuffer, chunkPosition);
+                boolean sourceShrank = chunkLength < chunkBuffer.limit();
+                for (int blockStart = 0; blockStart < chunkLength; blockStart += HOLE_BLOCK_SIZE) {
+                    ByteBuffer block = chunkBuffer.duplicate();
+                    block.limit(Math.min(chunkLength, blockStart + HOLE_BLOCK_SIZE)).position(blockStart);
+                    if (isZeroFilled(block)) {
+                        holeByteCount += block.remaining();
+                        continue;
+                    }
+                    long writePosition = chunkPosition + blockStart;
+                    while (block.hasRemaining()) {
+                        writePosition += destinationChannel.write(block, writePosition);
+                    }
+                }
+                chunkPosition += chunkLength;
+                session.recordWork(0, chunkLength);
+                if (sourceShrank) {
+                    // The source was truncated while it was copied, so the destination ends where the source did
+                    destinationChannel.truncate(chunkPosition);
+                    break;
+                }
+            }
+            return holeByteCount;
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Checks whether the remaining bytes of a block are all zero, without moving its position.
+     */
+    private static boolean isZeroFilled(ByteBuffer block) {
+        ByteBuffer zeroBlock = ZERO_BLOCK.duplicate();
+        zeroBlock.limit(block.remaining());
+        return block.mismatch(zeroBlock) < 0;
+    }
+
+    /**
+     * Opens the destination for positional writes, emptying it if it exists.
+     *
+     * @return the channel, or {@code null} if the file system has no file channels
+     */
+    private static FileChannel openDestination(Path destinationFilePath) throws IOException {
+        try {
+            return FileChannel.open(destinationFilePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (UnsupportedOperationException unsupportedOperationException) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies the file as a plain stream, writing every block.
+     *
+     * @return zero, as no bytes are left as holes
+     */
+    private static long copyAsStream(SessionContext session, Path sourceFilePath, Path destinationFilePath) throws IOException {
+        try (InputStream sourceInputStream = Files.newInputStream(sourceFilePath);
+             OutputStream destinationOutputStream = Files.newOutputStream(destinationFilePath)) {
+            FileOperations.copyWithProgress(session, sourceInputStream, destinationOutputStream);
+        }
+        return 0;
+    }
+
+    /**
+     * Reads from the channel at the given position until the buffer is full or the end of the file is reached.
+     *
+     * @return the number of bytes read
+     */
+    private static int readFully(FileChannel fileChannel, ByteBuffer targetBuffer, long readPosition) throws IOException {
+        int totalBytesRead = 0;
+        while (targetBuffer.hasRemaining()) {
+            int bytesRead = fileChannel.read(targetBuffer, readPosition + totalBytesRead);
+            if (bytesRead < 0) {
+                break;
+            }
+            totalBytesRead += bytesRead;
+        }
+        return totalBytesRead;
+    }
+}
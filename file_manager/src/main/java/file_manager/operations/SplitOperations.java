@@ -0,0 +1,520 @@
+package file_manager.operations;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.ByteCountUtils.parseByteCount;
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code split file} and {@code join file} commands, which cut a large file
+ * into parts and put the parts back together.
+ * <p>
+ * {@code split file > data.csv > 512M} writes parts of 512 MiB, {@code split file > data.csv > 512M > lines}
+ * ends each part of at most 512 MiB at the end of a line, and {@code split file > data.csv > 100000 lines}
+ * writes parts of 100000 lines. The parts are named {@code data.csv.part001}, {@code data.csv.part002}
+ * and so on, and a {@code data.csv.manifest} file lists the offset, size and CRC-32C checksum of each
+ * part. {@code join file > data.csv.manifest} writes the parts back into {@code data.csv}, or into
+ * the file given as a second argument.
+ * </p>
+ * <p>
+ * The part boundaries are worked out first; then every part is copied on its own worker thread
+ * with positional reads and writes, so the parts are written, or read back and verified, in
+ * parallel. A join writes into a temporary file that only replaces the output once every part has
+ * matched its checksum. Splitting by lines reads the file once more to find the line ends.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class SplitOperations {
+
+    /**
+     * The extension of the manifest written next to the parts.
+     */
+    public static final String MANIFEST_EXTENSION = ".manifest";
+
+    /**
+     * The word that makes a split count lines, as in {@code 100000 lines}, or align sizes to lines.
+     */
+    public static final String LINES_OPTION = "lines";
+
+    private static final String MANIFEST_HEADER = "file-manager split manifest 1";
+    private static final String PART_SUFFIX = ".part";
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int TRANSFER_BUFFER_SIZE = 1024 * 1024;
+    private static final int ALIGNMENT_CHUNK_SIZE = 64 * 1024;
+
+    private SplitOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A part of a split file: where it lies in the file, and its checksum once known.
+     */
+    private static final class FilePart {
+        private final String partName;
+        private final long offset;
+        private final long size;
+        private long checksum;
+
+        FilePart(String partName, long offset, long size, long checksum) {
+            this.partName = partName;
+            this.offset = offset;
+            this.size = size;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * The contents of a manifest: the name and size of the file that was split, and its parts in order.
+     */
+    private static final class SplitManifest {
+        private String sourceFileName;
+        private long sourceSize = -1;
+        private final List<FilePart> fileParts = new ArrayList<>();
+    }
+
+    /**
+     * Splits a file into parts of a size or a number of lines, and writes their manifest.
+     *
+     * @param session      the session whose working directory is used
+     * @param fileName     the file to split, or null to prompt the user
+     * @param partSizeText the size of a part, such as {@code 512M}, or a number of lines, such as {@code 100000 lines},
+     *                     or null to prompt the user
+     * @param option       {@value #LINES_OPTION} to end each part of a given size at a line end, or {@code null}
+     */
+    public static void splitFile(SessionContext session, String fileName, String partSizeText, String option) {
+        if (fileName == null) {
+            fileName = readUserInput(session, "Please enter the name of the file to split: ");
+        }
+        if (partSizeText == null) {
+            partSizeText = readUserInput(session, "Please enter the size of a part, such as 512M, or a number of lines, such as 1000 lines: ");
+        }
+        partSizeText = partSizeText.trim();
+        boolean byLineCount = partSizeText.toLowerCase(Locale.ROOT).endsWith(LINES_OPTION);
+        boolean alignedToLines = option != null && option.trim().equalsIgnoreCase(LINES_OPTION);
+        if (option != null && !alignedToLines) {
+            session.reportFailure("Unknown option: " + option + " (expected '" + LINES_OPTION + "')");
+            return;
+        }
+        long partSize;
+        try {
+            partSize = byLineCount
+                    ? Long.parseLong(partSizeText.substring(0, partSizeText.length() - LINES_OPTION.length()).trim())
+                    : parseByteCount(partSizeText);
+        } catch (NumberFormatException numberFormatException) {
+            partSize = 0;
+        }
+        if (partSize <= 0) {
+            session.reportFailure("Invalid part size: " + partSizeText + " (expected a size such as 512M or a line count such as 100000 lines)");
+            return;
+        }
+        Path filePath;
+        try {
+            filePath = resolvePath(session, fileName).toAbsolutePath();
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Unable to split. File not found: " + fileName);
+            return;
+        }
+        if (!Files.isRegularFile(filePath)) {
+            session.reportFailure("Unable to split. File not found: " + fileName);
+            return;
+        }
+        Path manifestPath = filePath.resolveSibling(filePath.getFileName() + MANIFEST_EXTENSION);
+        if (Files.exists(manifestPath)) {
+            session.reportFailure("The file has already been split: " + manifestPath.getFileName() + " exists.");
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        List<FilePart> fileParts = new ArrayList<>();
+        Set<Path> createdPartPaths = ConcurrentHashMap.newKeySet();
+        ExecutorService splitWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        boolean completed = false;
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long fileSize = fileChannel.size();
+            List<Long> partOffsets = byLineCount
+                    ? findLineCountBoundaries(session, fileChannel, partSize)
+                    : findSizeBoundaries(fileChannel, partSize, alignedToLines);
+            int partNameWidth = Math.max(3, String.valueOf(partOffsets.size()).length());
+            for (int partIndex = 0; partIndex < partOffsets.size(); partIndex++) {
+                long partOffset = partOffsets.get(partIndex);
+                long partEnd = partIndex + 1 < partOffsets.size() ? partOffsets.get(partIndex + 1) : fileSize;
+                String partName = filePath.getFileName() + PART_SUFFIX + String.format(Locale.ROOT, "%0" + partNameWidth + "d", partIndex + 1);
+                fileParts.add(new FilePart(partName, partOffset, partEnd - partOffset, 0));
+            }
+            session.planWork(fileParts.size(), fileSize);
+
+            List<Future<Long>> partChecksums = new ArrayList<>();
+            for (FilePart filePart : fileParts) {
+                Path partPath = filePath.resolveSibling(filePart.partName);
+                partChecksums.add(splitWorkers.submit(() -> {
+                    try (FileChannel partChannel = FileChannel.open(partPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                        createdPartPaths.add(partPath);
+                        return transfer(session, fileChannel, filePart.offset, partChannel, 0, filePart.size);
+                    }
+                }));
+            }
+            for (int partIndex = 0; partIndex < fileParts.size(); partIndex++) {
+                fileParts.get(partIndex).checksum = awaitResult(partChecksums.get(partIndex));
+            }
+            writeManifest(manifestPath, filePath.getFileName().toString(), fileSize, fileParts);
+            completed = true;
+            session.getOutput().println(String.format(Locale.ROOT, "Split %s (%s) into %d part(s) in %.1f s; the manifest is %s.",
+                    fileName, formatByteCount(fileSize), fileParts.size(), elapsedSeconds(startNanos), manifestPath.getFileName()));
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.reportFailure("Unable to split: the file already exists: " + fileAlreadyExistsException.getFile());
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("Unable to split. File not found: " + fileName);
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to split " + fileName + ": " + exception.getMessage());
+        } finally {
+            splitWorkers.shutdownNow();
+            awaitWorkers(splitWorkers);
+            if (!completed) {
+                // Only the parts this split created are removed, never files that were already there
+                for (Path createdPartPath : createdPartPaths) {
+                    deleteQuietly(createdPartPath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins the parts listed in a manifest into one file, verifying each part against its checksum.
+     *
+     * @param session          the session whose working directory is used
+     * @param manifestFileName the manifest written by {@code split file}, or null to prompt the user
+     * @param outputFileName   the file to write, or {@code null} for the name of the file that was split; an existing
+     *                         file is never replaced
+     */
+    public static void joinFile(SessionContext session, String manifestFileName, String outputFileName) {
+        if (manifestFileName == null) {
+            manifestFileName = readUserInput(session, "Please enter the name of the manifest of the parts to join: ");
+        }
+        Path manifestPath;
+        try {
+            manifestPath = resolvePath(session, manifestFileName).toAbsolutePath();
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Unable to join. Manifest not found: " + manifestFileName);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        SplitManifest splitManifest;
+        Path outputPath;
+        try {
+            splitManifest = readManifest(manifestPath);
+            outputPath = outputFileName != null
+                    ? resolvePath(session, outputFileName).toAbsolutePath()
+                    : manifestPath.resolveSibling(splitManifest.sourceFileName);
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("Unable to join. Manifest not found: " + manifestFileName);
+            return;
+        } catch (IOException | IllegalArgumentException exception) {
+            session.reportFailure("Unable to join: " + manifestFileName + " is not a valid split manifest (" + exception.getMessage() + ")");
+            return;
+        }
+        if (Files.exists(outputPath)) {
+            session.reportFailure("Unable to join: the output already exists: " + outputPath.getFileName());
+            return;
+        }
+        List<FilePart> fileParts = splitManifest.fileParts;
+        long fileSize = splitManifest.sourceSize;
+
+        Path temporaryOutputPath = null;
+        ExecutorService joinWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        try {
+            for (FilePart filePart : fileParts) {
+                Path partPath = manifestPath.resolveSibling(filePart.partName);
+                if (!Files.isRegularFile(partPath) || Files.size(partPath) != filePart.size) {
+                    session.reportFailure("Unable to join: part " + filePart.partName + (Files.isRegularFile(partPath) ? " has the wrong size." : " is missing."));
+                    return;
+                }
+            }
+            session.planWork(fileParts.size(), fileSize);
+            temporaryOutputPath = Files.createTempFile(outputPath.getParent(), ".file-manager-join-", ".tmp");
+            List<String> corruptPartNames = new ArrayList<>();
+            try (FileChannel outputChannel = FileChannel.open(temporaryOutputPath, StandardOpenOption.WRITE)) {
+                List<Future<Long>> partChecksums = new ArrayList<>();
+                for (FilePart filePart : fileParts) {
+                    Path partPath = manifestPath.resolveSibling(filePart.partName);
+                    partChecksums.add(joinWorkers.submit(() -> {
+                        try (FileChannel partChannel = FileChannel.open(partPath, StandardOpenOption.READ)) {
+                            return transfer(session, partChannel, 0, outputChannel, filePart.offset, filePart.size);
+                        }
+                    }));
+                }
+                for (int partIndex = 0; partIndex < fileParts.size(); partIndex++) {
+                    if (awaitResult(partChecksums.get(partIndex)) != fileParts.get(partIndex).checksum) {
+                        corruptPartNames.add(fileParts.get(partIndex).partName);
+                    }
+                }
+            }
+            if (!corruptPartNames.isEmpty()) {
+                session.reportFailure("Unable to join: " + corruptPartNames.size() + " part(s) do not match their checksum: "
+                        + String.join(", ", corruptPartNames));
+                return;
+            }
+            publishFile(temporaryOutputPath, outputPath);
+            temporaryOutputPath = null;
+            session.getOutput().println(String.format(Locale.ROOT, "Joined %d verified part(s) into %s (%s) in %.1f s.",
+                    fileParts.size(), outputPath.getFileName(), formatByteCount(fileSize), elapsedSeconds(startNanos)));
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.reportFailure("Unable to join: the output already exists: " + outputPath.getFileName());
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to join " + manifestFileName + ": " + exception.getMessage());
+        } finally {
+            joinWorkers.shutdownNow();
+            awaitWorkers(joinWorkers);
+            deleteQuietly(temporaryOutputPath);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Cuts a file every given number of bytes, or at the last line end within each part if aligned to lines.
+     *
+     * @return the offsets at which the parts start
+     */
+    private static List<Long> findSizeBoundaries(FileChannel fileChannel, long partSize, boolean alignedToLines) throws IOException {
+        long fileSize = fileChannel.size();
+        List<Long> partOffsets = new ArrayList<>();
+        ByteBuffer alignmentBuffer = ByteBuffer.allocate(ALIGNMENT_CHUNK_SIZE);
+        long partOffset = 0;
+        do {
+            partOffsets.add(partOffset);
+            long partEnd = partOffset + Math.min(partSize, fileSize - partOffset);
+            if (alignedToLines && partEnd < fileSize) {
+                long lineEnd = findLastLineEnd(fileChannel, partOffset, partEnd, alignmentBuffer);
+                // A line longer than a part is cut where the part is full
+                partEnd = lineEnd > partOffset ? lineEnd : partEnd;
+            }
+            partOffset = partEnd;
+        } while (partOffset < fileSize);
+        return partOffsets;
+    }
+
+    /**
+     * Searches backwards from the end of a part for the last {@code \n} in it.
+     *
+     * @return the offset just after that {@code \n}, or {@code partOffset} if the part holds none
+     */
+    private static long findLastLineEnd(FileChannel fileChannel, long partOffset, long partEnd, ByteBuffer alignmentBuffer) throws IOException {
+        long chunkEnd = partEnd;
+        while (chunkEnd > partOffset) {
+            long chunkStart = Math.max(partOffset, chunkEnd - alignmentBuffer.capacity());
+            alignmentBuffer.clear().limit((int) (chunkEnd - chunkStart));
+            readFully(fileChannel, alignmentBuffer, chunkStart);
+            for (int byteIndex = alignmentBuffer.limit() - 1; byteIndex >= 0; byteIndex--) {
+                if (alignmentBuffer.get(byteIndex) == '\n') {
+                    return chunkStart + byteIndex + 1;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return partOffset;
+    }
+
+    /**
+     * Scans a file for its line ends and cuts it after every given number of lines.
+     *
+     * @return the offsets at which the parts start
+     */
+    private static List<Long> findLineCountBoundaries(SessionContext session, FileChannel fileChannel, long linesPerPart) throws IOException {
+        long fileSize = fileChannel.size();
+        List<Long> partOffsets = new ArrayList<>();
+        partOffsets.add(0L);
+        ByteBuffer scanBuffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+        long lineCount = 0;
+        for (long chunkStart = 0; chunkStart < fileSize; chunkStart += scanBuffer.limit()) {
+            scanBuffer.clear().limit((int) Math.min(scanBuffer.capacity(), fileSize - chunkStart));
+            readFully(fileChannel, scanBuffer, chunkStart);
+            for (int byteIndex = 0; byteIndex < scanBuffer.limit(); byteIndex++) {
+                if (scanBuffer.get(byteIndex) == '\n' && ++lineCount % linesPerPart == 0 && chunkStart + byteIndex + 1 < fileSize) {
+                    partOffsets.add(chunkStart + byteIndex + 1);
+                }
+            }
+            session.recordWork(0, 0);
+        }
+        return partOffsets;
+    }
+
+    /**
+     * Copies a range from one channel to another with positional reads and writes, so several
+     * transfers can share a channel, and computes the CRC-32C checksum of the bytes copied.
+     *
+     * @return the checksum
+     */
+    private static long transfer(SessionContext session, FileChannel sourceChannel, long sourceOffset,
+                                 FileChannel targetChannel, long targetOffset, long byteCount) throws IOException {
+        ByteBuffer transferBuffer = ByteBuffer.allocateDirect((int) Math.min(TRANSFER_BUFFER_SIZE, Math.max(1, byteCount)));
+        CRC32C checksum = new CRC32C();
+        for (long transferredCount = 0; transferredCount < byteCount; ) {
+            transferBuffer.clear().limit((int) Math.min(transferBuffer.capacity(), byteCount - transferredCount));
+            readFully(sourceChannel, transferBuffer, sourceOffset + transferredCount);
+            transferBuffer.flip();
+            checksum.update(transferBuffer);
+            transferBuffer.rewind();
+            while (transferBuffer.hasRemaining()) {
+                targetChannel.write(transferBuffer, targetOffset + transferredCount + transferBuffer.position());
+            }
+            transferredCount += transferBuffer.limit();
+            session.recordWork(0, transferBuffer.limit());
+        }
+        session.recordWork(1, 0);
+        return checksum.getValue();
+    }
+
+    private static void readFully(FileChannel fileChannel, ByteBuffer targetBuffer, long readPosition) throws IOException {
+        while (targetBuffer.hasRemaining()) {
+            int bytesRead = fileChannel.read(targetBuffer, readPosition + targetBuffer.position());
+            if (bytesRead < 0) {
+                throw new IOException("The file shrank while it was being read");
+            }
+        }
+    }
+
+    private static void writeManifest(Path manifestPath, String sourceFileName, long fileSize, List<FilePart> fileParts) throws IOException {
+        try (BufferedWriter manifestWriter = Files.newBufferedWriter(manifestPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW)) {
+            manifestWriter.write(MANIFEST_HEADER + "\n");
+            manifestWriter.write("SOURCE\t" + fileSize + "\t" + sourceFileName + "\n");
+            for (FilePart filePart : fileParts) {
+                manifestWriter.write(String.format(Locale.ROOT, "PART\t%d\t%d\t%08x\t%s\n",
+                        filePart.offset, filePart.size, filePart.checksum, filePart.partName));
+            }
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            throw fileAlreadyExistsException;
+        } catch (IOException ioException) {
+            deleteQuietly(manifestPath);
+            throw ioException;
+        }
+    }
+
+    /**
+     * Reads a manifest and checks that its parts follow each other and add up to the file that was split.
+     *
+     * @throws IllegalArgumentException if the manifest is malformed
+     */
+    private static SplitManifest readManifest(Path manifestPath) throws IOException {
+        SplitManifest splitManifest = new SplitManifest();
+        try (BufferedReader manifestReader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(manifestReader.readLine())) {
+                throw new IllegalArgumentException("unknown header");
+            }
+            String manifestLine;
+            long expectedOffset = 0;
+            while ((manifestLine = manifestReader.readLine()) != null) {
+                String[] manifestFields = manifestLine.split("\t", manifestLine.startsWith("PART\t") ? 5 : 3);
+                if (manifestFields[0].equals("SOURCE") && manifestFields.length == 3) {
+                    splitManifest.sourceSize = Long.parseLong(manifestFields[1]);
+                    splitManifest.sourceFileName = manifestFields[2];
+                } else if (manifestFields[0].equals("PART") && manifestFields.length == 5) {
+                    FilePart filePart = new FilePart(manifestFields[4], Long.parseLong(manifestFields[1]),
+                            Long.parseLong(manifestFields[2]), Long.parseLong(manifestFields[3], 16));
+                    if (filePart.offset != expectedOffset || filePart.partName.contains("/") || filePart.partName.contains("\\")) {
+                        throw new IllegalArgumentException("unexpected part " + filePart.partName);
+                    }
+                    expectedOffset += filePart.size;
+                    splitManifest.fileParts.add(filePart);
+                } else {
+                    throw new IllegalArgumentException("unexpected line: " + manifestLine);
+                }
+            }
+            if (splitManifest.sourceFileName == null || splitManifest.sourceFileName.contains("/")
+                    || splitManifest.sourceSize != expectedOffset) {
+                throw new IllegalArgumentException("the parts do not add up to the file");
+            }
+        }
+        return splitManifest;
+    }
+
+    private static <T> T awaitResult(Future<T> pendingResult) throws IOException {
+        try {
+            return pendingResult.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        } catch (ExecutionException executionException) {
+            Throwable workerFailure = executionException.getCause();
+            if (workerFailure instanceof IOException) {
+                throw (IOException) workerFailure;
+            }
+            if (workerFailure instanceof RuntimeException) {
+                throw (RuntimeException) workerFailure;
+            }
+            throw new IOException("Part worker failed: " + workerFailure, workerFailure);
+        }
+    }
+
+    private static void awaitWorkers(ExecutorService partWorkers) {
+        try {
+            partWorkers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gives the joined file its name without replacing a file that took the name meanwhile: a hard
+     * link fails if the name is taken, and a plain move, which checks first, is used where the file
+     * system has no hard links.
+     *
+     * @throws FileAlreadyExistsException if the output already exists
+     */
+    private static void publishFile(Path temporaryFilePath, Path outputPath) throws IOException {
+        try {
+            Files.createLink(outputPath, temporaryFilePath);
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            throw fileAlreadyExistsException;
+        } catch (UnsupportedOperationException | FileSystemException hardLinksNotSupported) {
+            Files.move(temporaryFilePath, outputPath);
+            return;
+        }
+        Files.delete(temporaryFilePath);
+    }
+
+    private static void deleteQuietly(Path filePath) {
+        if (filePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException | SecurityException ignored) {}
+    }
+
+    private static double elapsedSeconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
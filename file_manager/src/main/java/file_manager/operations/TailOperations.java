@@ -0,0 +1,422 @@
+package file_manager.operations;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import file_manager.session.OutputFormat;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.InputUtils.isUserInputPending;
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for printing the end of a file with {@code read file > app.log > tail > 20} and
+ * for following a growing file with {@code read file > app.log > follow > 20}.
+ * <p>
+ * The last lines are found by reading the file backwards in fixed-size chunks from its end, and
+ * a followed file is read from the position reached so far whenever it grows, so neither the
+ * time nor the memory depend on the size of the file. Growth is noticed through a
+ * {@link WatchService} on the folder of the file, and by checking the file every second in case
+ * the file system does not report changes. A file that shrinks is read again from its start, and
+ * a file that is replaced by a new one, as log rotation does, is read to its end before the new
+ * file is followed.
+ * </p>
+ * <p>
+ * Following stops when the user presses Enter, when the command is cancelled as a background
+ * job, when the output can no longer be written to, or after the time limit given with the
+ * option, as in {@code follow 60s}. A session that can neither read Enter nor be cancelled, such
+ * as a batch script or a server connection, may only follow a file with a time limit.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class TailOperations {
+
+    /**
+     * The option that prints the last lines of a file.
+     */
+    public static final String TAIL_OPTION = "tail";
+
+    /**
+     * The option that prints the last lines of a file and then what is appended to it.
+     */
+    public static final String FOLLOW_OPTION = "follow";
+
+    /**
+     * The number of lines printed when no number is given.
+     */
+    public static final int DEFAULT_LINE_COUNT = 10;
+
+    private static final Pattern FOLLOW_TIME_LIMIT_PATTERN = Pattern.compile("(\\d{1,9})\\s*([smh]?)");
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final long WATCH_TIMEOUT_MILLIS = 1000;
+    private static final long POLL_INTERVAL_MILLIS = 250;
+
+    private TailOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Checks whether the option of {@code read file} asks for the end of the file.
+     *
+     * @param option the option, or null
+     * @return {@code true} for {@value #TAIL_OPTION} and for {@value #FOLLOW_OPTION}, with or without a time limit
+     */
+    public static boolean isTailOption(String option) {
+        if (option == null) {
+            return false;
+        }
+        String normalizedOption = option.trim().toLowerCase(Locale.ROOT);
+        return normalizedOption.equals(TAIL_OPTION) || normalizedOption.equals(FOLLOW_OPTION)
+                || normalizedOption.startsWith(FOLLOW_OPTION + " ");
+    }
+
+    /**
+     * Prints the last lines of a file and, with {@value #FOLLOW_OPTION}, what is appended to it afterwards.
+     *
+     * @param session       the session whose working directory is used
+     * @param fileNameToRead the file
+     * @param option        {@value #TAIL_OPTION}, or {@value #FOLLOW_OPTION} optionally followed by a time
+     *                      limit in seconds, minutes or hours, such as {@code follow 90s} or {@code follow 5m}
+     * @param lineCountText the number of lines, or null for {@value #DEFAULT_LINE_COUNT}
+     */
+    public static void tail(SessionContext session, String fileNameToRead, String option, String lineCountText) {
+        String normalizedOption = option.trim().toLowerCase(Locale.ROOT);
+        boolean follow = normalizedOption.startsWith(FOLLOW_OPTION);
+        long followMillis = 0;
+        if (follow && !normalizedOption.equals(FOLLOW_OPTION)) {
+            followMillis = parseTimeLimit(normalizedOption.substring(FOLLOW_OPTION.length()).trim());
+            if (followMillis <= 0) {
+                session.reportFailure("Invalid time limit: " + option.trim() + ". Use for example 'follow 90s' or 'follow 5m'.");
+                return;
+            }
+        }
+        if (follow && followMillis == 0 && !session.isInteractive() && !session.isCancellable()) {
+            session.reportFailure("A file can only be followed without end in an interactive session or a background job."
+                    + " Give a time limit, for example 'read file > " + fileNameToRead + " > follow 60s'.");
+            return;
+        }
+        int lineCount;
+        try {
+            lineCount = lineCountText == null ? DEFAULT_LINE_COUNT : Integer.parseInt(lineCountText.trim());
+        } catch (NumberFormatException numberFormatException) {
+            lineCount = -1;
+        }
+        if (lineCount < 0) {
+            session.reportFailure("Invalid number of lines: " + lineCountText);
+            return;
+        }
+        if (follow && session.getOutputFormat() == OutputFormat.JSON) {
+            session.reportFailure("A file cannot be followed in the JSON output format, whose records are written when a command ends.");
+            return;
+        }
+        Path fileToReadPath;
+        try {
+            fileToReadPath = resolvePath(session, fileNameToRead);
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Unable to read file. File not found: " + fileNameToRead);
+            return;
+        }
+
+        FileChannel fileChannel = null;
+        try {
+            fileChannel = FileChannel.open(fileToReadPath, StandardOpenOption.READ);
+            Object fileIdentity = readFileIdentity(fileToReadPath);
+            long tailStartPosition = findTailStart(fileChannel, lineCount);
+            CharsetDecoder charsetDecoder = newDecoder();
+            ByteBuffer byteBuffer = ByteBuffer.allocate(CHUNK_SIZE);
+            CharBuffer charBuffer = CharBuffer.allocate(CHUNK_SIZE);
+            session.getOutput().println((follow ? "Following " : "Last lines of ") + fileNameToRead + ":");
+            long position = printFrom(session, fileChannel, tailStartPosition, charsetDecoder, byteBuffer, charBuffer);
+            if (!follow) {
+                finishOutput(session, charsetDecoder, byteBuffer, charBuffer);
+                return;
+            }
+            if (session.isInteractive()) {
+                session.getOutput().println("(Press Enter to stop following.)");
+            }
+            session.getOutput().flush();
+            long followDeadlineNanos = followMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(followMillis) : 0;
+            followFile(session, fileToReadPath, fileChannel, fileIdentity, position, followDeadlineNanos, charsetDecoder, byteBuffer,
+                    charBuffer);
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("Unable to read file. File not found: " + fileNameToRead);
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to read file " + fileNameToRead + ": " + exception.getMessage());
+        } finally {
+            closeQuietly(fileChannel);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Waits for the file to change and prints what was appended, until following is stopped or
+     * the deadline, if it is not 0, has passed.
+     */
+    private static void followFile(SessionContext session, Path filePath, FileChannel fileChannel, Object fileIdentity, long position,
+                                   long followDeadlineNanos, CharsetDecoder charsetDecoder, ByteBuffer byteBuffer,
+                                   CharBuffer charBuffer) throws IOException {
+        WatchService watchService = openWatchService(filePath);
+        FileChannel followedChannel = fileChannel;
+        Object followedIdentity = fileIdentity;
+        try {
+            while (!isStopRequested(session) && (followDeadlineNanos == 0 || System.nanoTime() - followDeadlineNanos < 0)) {
+                if (watchService == null) {
+                    sleepQuietly(POLL_INTERVAL_MILLIS);
+                } else if (!awaitChange(watchService)) {
+                    closeQuietly(watchService);
+                    watchService = null;
+                }
+                BasicFileAttributes fileAttributes;
+                try {
+                    fileAttributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+                } catch (NoSuchFileException noSuchFileException) {
+                    // Rotated away and not created again yet; whatever was still written to the old file is printed
+                    position = printFrom(session, followedChannel, position, charsetDecoder, byteBuffer, charBuffer);
+                    continue;
+                }
+                Object currentIdentity = fileAttributes.fileKey() != null ? fileAttributes.fileKey() : fileAttributes.creationTime();
+                if (!Objects.equals(currentIdentity, followedIdentity)) {
+                    printFrom(session, followedChannel, position, charsetDecoder, byteBuffer, charBuffer);
+                    finishOutput(session, charsetDecoder, byteBuffer, charBuffer);
+                    FileChannel replacementChannel;
+                    try {
+                        replacementChannel = FileChannel.open(filePath, StandardOpenOption.READ);
+                    } catch (NoSuchFileException noSuchFileException) {
+                        continue;
+                    }
+                    closeQuietly(followedChannel);
+                    followedChannel = replacementChannel;
+                    followedIdentity = currentIdentity;
+                    charsetDecoder.reset();
+                    position = 0;
+                    session.getOutput().println("--- " + filePath.getFileName() + " was replaced; following the new file ---");
+                } else if (followedChannel.size() < position) {
+                    finishOutput(session, charsetDecoder, byteBuffer, charBuffer);
+                    charsetDecoder.reset();
+                    position = 0;
+                    session.getOutput().println("--- " + filePath.getFileName() + " was truncated ---");
+                }
+                position = printFrom(session, followedChannel, position, charsetDecoder, byteBuffer, charBuffer);
+                session.getOutput().flush();
+            }
+            finishOutput(session, charsetDecoder, byteBuffer, charBuffer);
+            session.getOutput().println();
+            session.getOutput().println("Stopped following " + filePath.getFileName() + ".");
+        } finally {
+            closeQuietly(watchService);
+            if (followedChannel != fileChannel) {
+                closeQuietly(followedChannel);
+            }
+        }
+    }
+
+    /**
+     * Finds where the last lines of a file start by reading it backwards in chunks. A line break
+     * at the very end of the file does not start another line.
+     */
+    private static long findTailStart(FileChannel fileChannel, int lineCount) throws IOException {
+        long fileSize = fileChannel.size();
+        if (lineCount == 0) {
+            return fileSize;
+        }
+        ByteBuffer chunkBuffer = ByteBuffer.allocate(CHUNK_SIZE);
+        int lineBreaksToSkip = lineCount;
+        long chunkEnd = fileSize;
+        boolean skippedFinalLineBreak = false;
+        while (chunkEnd > 0) {
+            long chunkStart = Math.max(0, chunkEnd - CHUNK_SIZE);
+            chunkBuffer.clear().limit((int) (chunkEnd - chunkStart));
+            while (chunkBuffer.hasRemaining()) {
+                if (fileChannel.read(chunkBuffer, chunkStart + chunkBuffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int byteIndex = chunkBuffer.position() - 1; byteIndex >= 0; byteIndex--) {
+                if (chunkBuffer.get(byteIndex) != '\n') {
+                    continue;
+                }
+                if (!skippedFinalLineBreak && chunkStart + byteIndex == fileSize - 1) {
+                    skippedFinalLineBreak = true;
+                    continue;
+                }
+                if (--lineBreaksToSkip == 0) {
+                    return chunkStart + byteIndex + 1;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return 0;
+    }
+
+    /**
+     * Prints the file from a position to its current end and reports the bytes read.
+     *
+     * @return the position after the last byte read
+     */
+    private static long printFrom(SessionContext session, FileChannel fileChannel, long position, CharsetDecoder charsetDecoder,
+                                  ByteBuffer byteBuffer, CharBuffer charBuffer) throws IOException {
+        PrintStream output = session.getOutput();
+        long startPosition = position;
+        int bytesRead;
+        while ((bytesRead = fileChannel.read(byteBuffer, position)) > 0) {
+            position += bytesRead;
+            byteBuffer.flip();
+            charsetDecoder.decode(byteBuffer, charBuffer, false);
+            // An incomplete character at the end stays in the buffer until the rest is read
+            byteBuffer.compact();
+            charBuffer.flip();
+            output.append(charBuffer);
+            charBuffer.clear();
+        }
+        if (position > startPosition) {
+            session.recordWork(0, position - startPosition);
+        }
+        return position;
+    }
+
+    private static void finishOutput(SessionContext session, CharsetDecoder charsetDecoder, ByteBuffer byteBuffer, CharBuffer charBuffer) {
+        byteBuffer.flip();
+        charsetDecoder.decode(byteBuffer, charBuffer, true);
+        charsetDecoder.flush(charBuffer);
+        byteBuffer.clear();
+        charBuffer.flip();
+        session.getOutput().append(charBuffer);
+        charBuffer.clear();
+    }
+
+    /**
+     * Waits until the folder of the file reports a change, or at most {@link #WATCH_TIMEOUT_MILLIS}.
+     *
+     * @return {@code false} if the watch service stopped working, so that polling takes over
+     */
+    private static boolean awaitChange(WatchService watchService) {
+        try {
+            WatchKey watchKey = watchService.poll(WATCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (watchKey == null) {
+                return true;
+            }
+            // Which entry changed does not matter: the file itself is checked every time
+            watchKey.pollEvents();
+            return watchKey.reset();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (ClosedWatchServiceException closedWatchServiceException) {
+            return false;
+        }
+    }
+
+    private static void sleepQuietly(long sleepMillis) {
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WatchService openWatchService(Path filePath) {
+        Path directoryPath = filePath.toAbsolutePath().getParent();
+        if (directoryPath == null) {
+            return null;
+        }
+        WatchService watchService = null;
+        try {
+            watchService = directoryPath.getFileSystem().newWatchService();
+            directoryPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            return watchService;
+        } catch (IOException | UnsupportedOperationException exception) {
+            closeQuietly(watchService);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether following should stop: the job was cancelled, the thread interrupted, the
+     * output closed, or the user pressed Enter.
+     */
+    private static boolean isStopRequested(SessionContext session) {
+        // Throws if the background job running the command was cancelled
+        session.recordWork(0, 0);
+        if (Thread.currentThread().isInterrupted() || session.getOutput().checkError()) {
+            return true;
+        }
+        if (isUserInputPending(session)) {
+            readUserInput(session, "");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a time limit such as {@code 90}, {@code 90s}, {@code 5m} or {@code 2h}; a bare number is in seconds.
+     *
+     * @return the limit in milliseconds, or -1 if it is not a time limit
+     */
+    private static long parseTimeLimit(String timeLimitText) {
+        Matcher timeLimitMatcher = FOLLOW_TIME_LIMIT_PATTERN.matcher(timeLimitText);
+        if (!timeLimitMatcher.matches()) {
+            return -1;
+        }
+        long timeLimit = Long.parseLong(timeLimitMatcher.group(1));
+        switch (timeLimitMatcher.group(2)) {
+            case "m":
+                return TimeUnit.MINUTES.toMillis(timeLimit);
+            case "h":
+                return TimeUnit.HOURS.toMillis(timeLimit);
+            default:
+                return TimeUnit.SECONDS.toMillis(timeLimit);
+        }
+    }
+
+    private static Object readFileIdentity(Path filePath) throws IOException {
+        BasicFileAttributes fileAttributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        return fileAttributes.fileKey() != null ? fileAttributes.fileKey() : fileAttributes.creationTime();
+    }
+
+    private static CharsetDecoder newDecoder() {
+        return Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception exception) {
+            // Nothing is left to do with it
+        }
+    }
+}
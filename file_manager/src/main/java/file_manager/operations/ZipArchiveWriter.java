@@ -0,0 +1,488 @@
+package file_manager.operations;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Writes ZIP archives from entries whose data may already have been compressed elsewhere.
+ * <p>
+ * {@link java.util.zip.ZipOutputStream} always deflates on the thread that writes the archive,
+ * which makes it impossible to spread compression over several cores. This writer instead
+ * accepts entries that were deflated into independent buffers by worker threads and appends
+ * them in order as raw ZIP records. Entries too large to buffer are deflated while streaming,
+ * followed by a data descriptor. ZIP64 records are emitted whenever sizes, offsets or the
+ * entry count exceed the limits of the classic format; a streamed entry whose source may
+ * exceed them is announced with a ZIP64 extra field in its local header, as strict readers
+ * require before a ZIP64 data descriptor. The output can be read back with
+ * {@link java.util.zip.ZipInputStream} or any standard ZIP tool. Appending the same entry
+ * name twice is rejected.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+class ZipArchiveWriter implements Closeable {
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP32_ENTRY_COUNT_LIMIT = 0xFFFF;
+
+    private final CountingOutputStream archiveOutput;
+    private final List<CentralDirectoryRecord> centralDirectoryRecords = new ArrayList<>();
+    private final Set<String> writtenEntryNames = new HashSet<>();
+
+    /**
+     * An entry whose data has already been deflated (or is a directory with no data).
+     */
+    static final class CompressedEntry {
+        final String entryName;
+        final FileTime lastModifiedTime;
+        final boolean isDirectory;
+        final long crc32;
+        final long uncompressedSize;
+        final byte[] compressedData;
+        final int compressedLength;
+
+        CompressedEntry(String entryName, FileTime lastModifiedTime, boolean isDirectory,
+                        long crc32, long uncompressedSize, byte[] compressedData, int compressedLength) {
+            this.entryName = entryName;
+            this.lastModifiedTime = lastModifiedTime;
+            this.isDirectory = isDirectory;
+            this.crc32 = crc32;
+            this.uncompressedSize = uncompressedSize;
+            this.compressedData = compressedData;
+            this.compressedLength = compressedLength;
+        }
+    }
+
+    /**
+     * The information kept for each entry until the central directory is written.
+     */
+    private static final class CentralDirectoryRecord {
+        final byte[] entryNameBytes;
+        final int flags;
+        final int method;
+        final int dosTime;
+        final long crc32;
+        final long compressedSize;
+        final long uncompressedSize;
+        final long localHeaderOffset;
+        final boolean isDirectory;
+
+        CentralDirectoryRecord(byte[] entryNameBytes, int flags, int method, int dosTime, long crc32,
+                               long compressedSize, long uncompressedSize, long localHeaderOffset, boolean isDirectory) {
+            this.entryNameBytes = entryNameBytes;
+            this.flags = flags;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc32 = crc32;
+            this.compressedSize = compressedSize;
+            this.uncompressedSize = uncompressedSize;
+            this.localHeaderOffset = localHeaderOffset;
+            this.isDirectory = isDirectory;
+        }
+    }
+
+    /**
+     * Opens a writer that creates the archive at the given path.
+     *
+     * @param archivePath the path of the archive to create; it must not already exist
+     * @throws IOException if the archive cannot be created
+     */
+    ZipArchiveWriter(Path archivePath) throws IOException {
+        archiveOutput = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(archivePath), 1 << 16));
+    }
+
+    /**
+     * Deflates a whole file into an in-memory entry. This is safe to call from worker threads.
+     *
+     * @param entryName        the name of the entry inside the archive
+     * @param sourceFilePath   the file to compress
+     * @param compressionLevel the {@link Deflater} compression level
+     * @return the compressed entry, ready to be appended with {@link #writeCompressedEntry}
+     * @throws IOException if the file cannot be read
+     */
+    static CompressedEntry compressFile(String entryName, Path sourceFilePath, int compressionLevel) throws IOException {
+        byte[] uncompressedData = Files.readAllBytes(sourceFilePath);
+        CRC32 checksum = new CRC32();
+        checksum.update(uncompressedData);
+
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setInput(uncompressedData);
+            deflater.finish();
+            byte[] compressedData = new byte[Math.max(64, uncompressedData.length + uncompressedData.length / 1000 + 64)];
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressedData.length) {
+                    compressedData = Arrays.copyOf(compressedData, compressedData.length * 2);
+                }
+                compressedLength += deflater.deflate(compressedData, compressedLength, compressedData.length - compressedLength);
+            }
+            return new CompressedEntry(entryName, Files.getLastModifiedTime(sourceFilePath), false,
+                    checksum.getValue(), uncompressedData.length, compressedData, compressedLength);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Creates an entry for a directory.
+     *
+     * @param entryName        the name of the entry; a trailing {@code /} is added if missing
+     * @param lastModifiedTime the modification time of the directory
+     * @return the directory entry
+     */
+    static CompressedEntry directoryEntry(String entryName, FileTime lastModifiedTime) {
+        String directoryEntryName = entryName.endsWith("/") ? entryName : entryName + "/";
+        return new CompressedEntry(directoryEntryName, lastModifiedTime, true, 0, 0, new byte[0], 0);
+    }
+
+    /**
+     * Appends an entry that was compressed ahead of time.
+     *
+     * @param compressedEntry the entry to append
+     * @throws IOException if the archive cannot be written or already has an entry with this name
+     */
+    void writeCompressedEntry(CompressedEntry compressedEntry) throws IOException {
+        checkUniqueEntryName(compressedEntry.entryName);
+        byte[] entryNameBytes = compressedEntry.entryName.getBytes(StandardCharsets.UTF_8);
+        int method = compressedEntry.isDirectory ? METHOD_STORED : METHOD_DEFLATED;
+        int dosTime = toDosTime(compressedEntry.lastModifiedTime);
+        long localHeaderOffset = archiveOutput.getBytesWritten();
+        boolean useZip64 = compressedEntry.uncompressedSize >= ZIP32_LIMIT || compressedEntry.compressedLength >= ZIP32_LIMIT;
+
+        writeInt(LOCAL_FILE_HEADER_SIGNATURE);
+        writeShort(useZip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        writeShort(FLAG_UTF8_NAMES);
+        writeShort(method);
+        writeInt(dosTime);
+        writeInt(compressedEntry.crc32);
+        writeInt(useZip64 ? ZIP32_LIMIT : compressedEntry.compressedLength);
+        writeInt(useZip64 ? ZIP32_LIMIT : compressedEntry.uncompressedSize);
+        writeShort(entryNameBytes.length);
+        writeShort(useZip64 ? 20 : 0);
+        archiveOutput.write(entryNameBytes);
+        if (useZip64) {
+            writeShort(ZIP64_EXTRA_FIELD_ID);
+            writeShort(16);
+            writeLong(compressedEntry.uncompressedSize);
+            writeLong(compressedEntry.compressedLength);
+        }
+        archiveOutput.write(compressedEntry.compressedData, 0, compressedEntry.compressedLength);
+
+        centralDirectoryRecords.add(new CentralDirectoryRecord(entryNameBytes, FLAG_UTF8_NAMES, method, dosTime,
+                compressedEntry.crc32, compressedEntry.compressedLength, compressedEntry.uncompressedSize,
+                localHeaderOffset, compressedEntry.isDirectory));
+    }
+
+    /**
+     * Appends a file by deflating it while it is streamed into the archive.
+     * Used for files too large to compress into a buffer ahead of time.
+     * <p>
+     * The sizes follow the data in a data descriptor. Whether that descriptor uses ZIP64 sizes is
+     * decided up front from the size of the source and announced in the local header, so data that
+     * ends up past the classic limits anyway (a source that grows while it is read, or incompressible
+     * data just under 4 GiB that deflate expands) fails the entry instead of producing a header
+     * that strict readers reject.
+     * </p>
+     *
+     * @param entryName        the name of the entry inside the archive
+     * @param sourceFilePath   the file to compress
+     * @param compressionLevel the {@link Deflater} compression level
+     * @throws IOException if the file cannot be read, the archive cannot be written or already has
+     *                     an entry with this name
+     */
+    void writeStreamedEntry(String entryName, Path sourceFilePath, int compressionLevel) throws IOException {
+        checkUniqueEntryName(entryName);
+        byte[] entryNameBytes = entryName.getBytes(StandardCharsets.UTF_8);
+        int flags = FLAG_UTF8_NAMES | FLAG_DATA_DESCRIPTOR;
+        int dosTime = toDosTime(Files.getLastModifiedTime(sourceFilePath));
+        long localHeaderOffset = archiveOutput.getBytesWritten();
+        // A size of exactly the classic limit is the ZIP64 marker itself, so it needs ZIP64
+        // like every size beyond it, as for buffered entries and the central directory
+        boolean useZip64 = Files.size(sourceFilePath) >= ZIP32_LIMIT;
+
+        writeInt(LOCAL_FILE_HEADER_SIGNATURE);
+        writeShort(VERSION_ZIP64);
+        writeShort(flags);
+        writeShort(METHOD_DEFLATED);
+        writeInt(dosTime);
+        writeInt(0);
+        writeInt(useZip64 ? ZIP32_LIMIT : 0);
+        writeInt(useZip64 ? ZIP32_LIMIT : 0);
+        writeShort(entryNameBytes.length);
+        writeShort(useZip64 ? 20 : 0);
+        archiveOutput.write(entryNameBytes);
+        if (useZip64) {
+            // The real sizes are only known once the data is written and go in the data descriptor
+            writeShort(ZIP64_EXTRA_FIELD_ID);
+            writeShort(16);
+            writeLong(0);
+            writeLong(0);
+        }
+
+        CRC32 checksum = new CRC32();
+        long uncompressedSize = 0;
+        long compressedDataStart = archiveOutput.getBytesWritten();
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try (InputStream sourceInput = Files.newInputStream(sourceFilePath)) {
+            DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(new NonClosingOutputStream(archiveOutput), deflater, 1 << 16);
+            byte[] readBuffer = new byte[1 << 16];
+            int bytesRead;
+            while ((bytesRead = sourceInput.read(readBuffer)) != -1) {
+                checksum.update(readBuffer, 0, bytesRead);
+                deflaterOutput.write(readBuffer, 0, bytesRead);
+                uncompressedSize += bytesRead;
+            }
+            deflaterOutput.finish();
+        } finally {
+            deflater.end();
+        }
+        long compressedSize = archiveOutput.getBytesWritten() - compressedDataStart;
+
+        if (!useZip64 && (compressedSize >= ZIP32_LIMIT || uncompressedSize >= ZIP32_LIMIT)) {
+            throw new ZipException("Entry exceeds 4 GiB but its size was not known in advance: " + entryName);
+        }
+
+        writeInt(DATA_DESCRIPTOR_SIGNATURE);
+        writeInt(checksum.getValue());
+        if (useZip64) {
+            writeLong(compressedSize);
+            writeLong(uncompressedSize);
+        } else {
+            writeInt(compressedSize);
+            writeInt(uncompressedSize);
+        }
+
+        centralDirectoryRecords.add(new CentralDirectoryRecord(entryNameBytes, flags, METHOD_DEFLATED, dosTime,
+                checksum.getValue(), compressedSize, uncompressedSize, localHeaderOffset, false));
+    }
+
+    /**
+     * @return the number of entries appended so far
+     */
+    int getEntryCount() {
+        return centralDirectoryRecords.size();
+    }
+
+    /**
+     * Writes the central directory and closes the archive.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long centralDirectoryOffset = archiveOutput.getBytesWritten();
+            for (CentralDirectoryRecord centralDirectoryRecord : centralDirectoryRecords) {
+                writeCentralDirectoryHeader(centralDirectoryRecord);
+            }
+            long centralDirectorySize = archiveOutput.getBytesWritten() - centralDirectoryOffset;
+            writeEndOfCentralDirectory(centralDirectoryOffset, centralDirectorySize);
+        } finally {
+            archiveOutput.close();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private void checkUniqueEntryName(String entryName) throws ZipException {
+        if (!writtenEntryNames.add(entryName)) {
+            throw new ZipException("duplicate entry: " + entryName);
+        }
+    }
+
+    private void writeCentralDirectoryHeader(CentralDirectoryRecord record) throws IOException {
+        boolean uncompressedSizeOverflows = record.uncompressedSize >= ZIP32_LIMIT;
+        boolean compressedSizeOverflows = record.compressedSize >= ZIP32_LIMIT;
+        boolean offsetOverflows = record.localHeaderOffset >= ZIP32_LIMIT;
+        int zip64ExtraDataSize = (uncompressedSizeOverflows ? 8 : 0) + (compressedSizeOverflows ? 8 : 0) + (offsetOverflows ? 8 : 0);
+        boolean useZip64 = zip64ExtraDataSize > 0;
+
+        writeInt(CENTRAL_DIRECTORY_HEADER_SIGNATURE);
+        writeShort(VERSION_ZIP64);
+        writeShort(useZip64 || (record.flags & FLAG_DATA_DESCRIPTOR) != 0 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        writeShort(record.flags);
+        writeShort(record.method);
+        writeInt(record.dosTime);
+        writeInt(record.crc32);
+        writeInt(compressedSizeOverflows ? ZIP32_LIMIT : record.compressedSize);
+        writeInt(uncompressedSizeOverflows ? ZIP32_LIMIT : record.uncompressedSize);
+        writeShort(record.entryNameBytes.length);
+        writeShort(useZip64 ? zip64ExtraDataSize + 4 : 0);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeInt(record.isDirectory ? 0x10 : 0);
+        writeInt(offsetOverflows ? ZIP32_LIMIT : record.localHeaderOffset);
+        archiveOutput.write(record.entryNameBytes);
+        if (useZip64) {
+            writeShort(ZIP64_EXTRA_FIELD_ID);
+            writeShort(zip64ExtraDataSize);
+            if (uncompressedSizeOverflows) writeLong(record.uncompressedSize);
+            if (compressedSizeOverflows) writeLong(record.compressedSize);
+            if (offsetOverflows) writeLong(record.localHeaderOffset);
+        }
+    }
+
+    private void writeEndOfCentralDirectory(long centralDirectoryOffset, long centralDirectorySize) throws IOException {
+        int entryCount = centralDirectoryRecords.size();
+        boolean useZip64 = entryCount >= ZIP32_ENTRY_COUNT_LIMIT
+                || centralDirectoryOffset >= ZIP32_LIMIT || centralDirectorySize >= ZIP32_LIMIT;
+
+        if (useZip64) {
+            long zip64EndOfCentralDirectoryOffset = archiveOutput.getBytesWritten();
+            writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            writeLong(44);
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0);
+            writeInt(0);
+            writeLong(entryCount);
+            writeLong(entryCount);
+            writeLong(centralDirectorySize);
+            writeLong(centralDirectoryOffset);
+
+            writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+            writeInt(0);
+            writeLong(zip64EndOfCentralDirectoryOffset);
+            writeInt(1);
+        }
+
+        writeInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(entryCount, ZIP32_ENTRY_COUNT_LIMIT));
+        writeShort(Math.min(entryCount, ZIP32_ENTRY_COUNT_LIMIT));
+        writeInt(Math.min(centralDirectorySize, ZIP32_LIMIT));
+        writeInt(Math.min(centralDirectoryOffset, ZIP32_LIMIT));
+        writeShort(0);
+    }
+
+    /**
+     * Converts a modification time to the packed MS-DOS date and time used by ZIP headers.
+     */
+    private static int toDosTime(FileTime lastModifiedTime) {
+        LocalDateTime localDateTime = LocalDateTime.ofInstant(lastModifiedTime.toInstant(), ZoneId.systemDefault());
+        if (localDateTime.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (localDateTime.getYear() - 1980) << 25
+                | localDateTime.getMonthValue() << 21
+                | localDateTime.getDayOfMonth() << 16
+                | localDateTime.getHour() << 11
+                | localDateTime.getMinute() << 5
+                | localDateTime.getSecond() >> 1;
+    }
+
+    private void writeShort(int value) throws IOException {
+        archiveOutput.write(value & 0xFF);
+        archiveOutput.write((value >>> 8) & 0xFF);
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xFFFF));
+        writeShort((int) ((value >>> 16) & 0xFFFF));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt(value & 0xFFFFFFFFL);
+        writeInt(value >>> 32);
+    }
+
+    /**
+     * Output stream that tracks how many bytes have been written, giving entry offsets.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream delegateOutput;
+        private long bytesWritten;
+
+        CountingOutputStream(OutputStream delegateOutput) {
+            this.delegateOutput = delegateOutput;
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        @Override
+        public void write(int singleByte) throws IOException {
+            delegateOutput.write(singleByte);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegateOutput.write(bytes, offset, length);
+            bytesWritten += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegateOutput.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegateOutput.close();
+        }
+    }
+
+    /**
+     * Shields the archive stream from being closed when a per-entry stream is finished.
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+        private final OutputStream delegateOutput;
+
+        NonClosingOutputStream(OutputStream delegateOutput) {
+            this.delegateOutput = delegateOutput;
+        }
+
+        @Override
+        public void write(int singleByte) throws IOException {
+            delegateOutput.write(singleByte);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegateOutput.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() {
+            // The archive stream stays open for the next entry
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package file_manager.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one File Manager command, such as a copy or a folder deletion.
+ * <p>
+ * The event spans the whole command and records the paths it was given, the bytes and files it
+ * processed and how it ended, so slow commands can be lined up with garbage collections, safepoints
+ * and file I/O events in JDK Mission Control. It is committed only while a recording that enables
+ * {@value #EVENT_NAME} is running, so it costs next to nothing otherwise.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+@Name(FileOperationEvent.EVENT_NAME)
+@Label("File Operation")
+@Category({"File Manager"})
+@Description("A File Manager command and the I/O it did")
+@StackTrace(false)
+public class FileOperationEvent extends jdk.jfr.Event {
+
+    /**
+     * The name of the event in recordings and in recording settings.
+     */
+    public static final String EVENT_NAME = "file_manager.FileOperation";
+
+    /**
+     * The outcome of a command that reported no failure.
+     */
+    public static final String OUTCOME_SUCCEEDED = "SUCCEEDED";
+
+    /**
+     * The outcome of a command that reported a failure or threw.
+     */
+    public static final String OUTCOME_FAILED = "FAILED";
+
+    /**
+     * The outcome of a command that was cancelled as a background job.
+     */
+    public static final String OUTCOME_CANCELLED = "CANCELLED";
+
+    @Label("Command")
+    @Description("The command as the user typed it, for example copy file")
+    String command;
+
+    @Label("Path")
+    @Description("The first path the command was given, resolved against the working directory")
+    String path;
+
+    @Label("Target Path")
+    @Description("The second argument of the command, such as the destination of a copy")
+    String targetPath;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Files")
+    @Description("The files and folders created, copied, moved or deleted")
+    long fileCount;
+
+    @Label("Outcome")
+    @Description("SUCCEEDED, FAILED or CANCELLED")
+    String outcome;
+
+    /**
+     * Fills in the fields of the event once the command has finished.
+     *
+     * @param command    the command as the user typed it
+     * @param path       the first path argument, resolved, or null
+     * @param targetPath the second argument, or null
+     * @param bytes      the bytes read or written
+     * @param fileCount  the files and folders processed
+     * @param outcome    how the command ended
+     */
+    public void set(String command, String path, String targetPath, long bytes, long fileCount, String outcome) {
+        this.command = command;
+        this.path = path;
+        this.targetPath = targetPath;
+        this.bytes = bytes;
+        this.fileCount = fileCount;
+        this.outcome = outcome;
+    }
+}
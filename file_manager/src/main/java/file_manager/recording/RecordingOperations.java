@@ -0,0 +1,139 @@
+package file_manager.recording;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code start recording} and {@code stop recording} commands, which
+ * run a Java Flight Recorder recording of the whole JVM together with the
+ * {@link FileOperationEvent}s of every command.
+ * <p>
+ * One recording can run at a time. It uses one of the settings shipped with the JDK,
+ * {@code profile} unless another is named, and is written to a {@code .jfr} file when it is
+ * stopped; the file can be opened in JDK Mission Control or printed with {@code jfr print}.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class RecordingOperations {
+
+    /**
+     * The settings used unless another name is given: the JDK's low-overhead profiling settings.
+     */
+    public static final String DEFAULT_SETTINGS_NAME = "profile";
+
+    private static final String RECORDING_NAME = "file-manager";
+
+    private static Recording activeRecording;
+
+    private RecordingOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Starts a flight recording.
+     *
+     * @param session      the session to report to
+     * @param settingsName {@code default} or {@code profile}, or null for {@value #DEFAULT_SETTINGS_NAME}
+     */
+    public static synchronized void startRecording(SessionContext session, String settingsName) {
+        if (activeRecording != null) {
+            session.reportFailure("A recording is already in progress. Save it first with 'stop recording > file.jfr'.");
+            return;
+        }
+        String chosenSettingsName = settingsName == null ? DEFAULT_SETTINGS_NAME : settingsName.trim();
+        Recording newRecording = null;
+        try {
+            newRecording = new Recording(Configuration.getConfiguration(chosenSettingsName));
+            newRecording.setName(RECORDING_NAME);
+            newRecording.enable(FileOperationEvent.class).withoutThreshold();
+            newRecording.start();
+            activeRecording = newRecording;
+            session.getOutput().println("Flight recording started with the '" + chosenSettingsName
+                    + "' settings. Save it with 'stop recording > file.jfr'.");
+        } catch (IOException | ParseException exception) {
+            session.reportFailure("Unknown recording settings: " + chosenSettingsName + ". Use default or profile.");
+        } catch (IllegalStateException | SecurityException exception) {
+            if (newRecording != null) {
+                newRecording.close();
+            }
+            session.reportFailure("Unable to start a flight recording: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Stops the flight recording and writes it to a file. If the file cannot be written,
+     * the recording is kept so it can be saved to another file.
+     *
+     * @param session           the session whose working directory is used
+     * @param recordingFileName the file to write the recording to, or null to prompt the user
+     */
+    public static synchronized void stopRecording(SessionContext session, String recordingFileName) {
+        if (activeRecording == null) {
+            session.reportFailure("No recording is in progress. Start one with 'start recording'.");
+            return;
+        }
+        if (recordingFileName == null) {
+            recordingFileName = readUserInput(session, "Please enter the name of the file to save the recording to: ");
+        }
+        try {
+            Path recordingFilePath = resolvePath(session, recordingFileName);
+            if (activeRecording.getState() == RecordingState.RUNNING) {
+                activeRecording.stop();
+            }
+            dumpRecording(activeRecording, recordingFilePath);
+            activeRecording.close();
+            activeRecording = null;
+            session.getOutput().println("Flight recording saved to: " + recordingFileName
+                    + " (" + formatByteCount(Files.size(recordingFilePath)) + ")");
+        } catch (IOException | InvalidPathException | SecurityException exception) {
+            session.reportFailure("Error saving the recording: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * @return {@code true} if a recording has been started and not saved yet
+     */
+    public static synchronized boolean isRecording() {
+        return activeRecording != null;
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Writes the recording to the file. The recorder can only write to the default file system,
+     * so a recording saved elsewhere, such as in an archive or in memory, goes through a temporary file.
+     */
+    private static void dumpRecording(Recording recording, Path recordingFilePath) throws IOException {
+        if (recordingFilePath.getFileSystem() == FileSystems.getDefault()) {
+            recording.dump(recordingFilePath);
+            return;
+        }
+        Path temporaryRecordingPath = Files.createTempFile(RECORDING_NAME, ".jfr");
+        try {
+            recording.dump(temporaryRecordingPath);
+            Files.copy(temporaryRecordingPath, recordingFilePath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryRecordingPath);
+        }
+    }
+}
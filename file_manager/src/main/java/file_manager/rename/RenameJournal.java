@@ -0,0 +1,267 @@
+package file_manager.rename;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The append-only journal of a bulk rename, kept in the folder being renamed.
+ * <p>
+ * The journal starts with every planned step and a {@code PLANNED} line, which are forced to
+ * disk before the first file is renamed. A {@code DONE} line is appended after each step; these
+ * are buffered, because recovery also checks which of the two names of a step exists. A
+ * {@code COMMITTED} line ends a rename that has completed, whose journal is kept so that the
+ * rename can be undone. Names are written with backslash, tab and line breaks escaped, one
+ * record per line, so a line torn by a crash is simply ignored.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public final class RenameJournal implements Closeable {
+
+    /**
+     * The name of the journal file in the folder being renamed.
+     */
+    public static final String JOURNAL_FILE_NAME = ".file-manager-rename.journal";
+
+    private static final String HEADER_LINE = "file-manager rename journal 1";
+    private static final String PLAN_RECORD = "PLAN";
+    private static final String PLANNED_RECORD = "PLANNED";
+    private static final String DONE_RECORD = "DONE";
+    private static final String COMMITTED_RECORD = "COMMITTED";
+    private static final int DONE_RECORDS_PER_FLUSH = 1024;
+
+    private final FileChannel journalChannel;
+    private final Writer journalWriter;
+    private int unflushedDoneRecordCount;
+
+    private final List<RenameStep> steps;
+    private final BitSet doneStepIndexes;
+    private final boolean planned;
+    private final boolean committed;
+
+    private RenameJournal(FileChannel journalChannel, List<RenameStep> steps, BitSet doneStepIndexes,
+                          boolean planned, boolean committed) {
+        this.journalChannel = journalChannel;
+        this.journalWriter = journalChannel == null ? null
+                : new BufferedWriter(Channels.newWriter(journalChannel, StandardCharsets.UTF_8.newEncoder(), -1));
+        this.steps = steps;
+        this.doneStepIndexes = doneStepIndexes;
+        this.planned = planned;
+        this.committed = committed;
+    }
+
+    /**
+     * Writes the journal of a new rename and forces it to disk.
+     *
+     * @param directoryPath the folder being renamed
+     * @param steps         the planned steps
+     * @return the journal, open for {@link #markDone} and {@link #commit}
+     * @throws IOException if the journal cannot be written, or already exists
+     */
+    public static RenameJournal create(Path directoryPath, List<RenameStep> steps) throws IOException {
+        FileChannel journalChannel = FileChannel.open(getJournalPath(directoryPath),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        RenameJournal journal = new RenameJournal(journalChannel, steps, new BitSet(steps.size()), true, false);
+        try {
+            journal.journalWriter.write(HEADER_LINE + "\n");
+            for (RenameStep step : steps) {
+                journal.journalWriter.write(PLAN_RECORD + "\t" + step.getPhase() + "\t" + escapeName(step.getFromName())
+                        + "\t" + escapeName(step.getToName()) + "\n");
+            }
+            journal.journalWriter.write(PLANNED_RECORD + "\t" + steps.size() + "\n");
+            journal.forceToDisk();
+        } catch (IOException ioException) {
+            journal.close();
+            throw ioException;
+        }
+        return journal;
+    }
+
+    /**
+     * Reads the journal left in a folder, for recovery or undo.
+     *
+     * @param directoryPath the folder
+     * @return the journal, read-only, or {@code null} if the folder has none
+     * @throws IOException if the journal cannot be read or is not a rename journal
+     */
+    public static RenameJournal read(Path directoryPath) throws IOException {
+        Path journalPath = getJournalPath(directoryPath);
+        if (!Files.exists(journalPath)) {
+            return null;
+        }
+        List<RenameStep> steps = new ArrayList<>();
+        BitSet doneStepIndexes = new BitSet();
+        boolean planned = false;
+        boolean committed = false;
+        try (BufferedReader journalReader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            if (!HEADER_LINE.equals(journalReader.readLine())) {
+                throw new IOException("Not a rename journal: " + journalPath);
+            }
+            String journalLine;
+            while ((journalLine = journalReader.readLine()) != null) {
+                String[] fields = journalLine.split("\t", -1);
+                if (!planned && fields[0].equals(PLAN_RECORD) && fields.length == 4) {
+                    steps.add(new RenameStep(steps.size(), Integer.parseInt(fields[1]), unescapeName(fields[2]), unescapeName(fields[3])));
+                } else if (!planned && fields[0].equals(PLANNED_RECORD) && fields.length == 2) {
+                    planned = Integer.parseInt(fields[1]) == steps.size();
+                } else if (planned && fields[0].equals(DONE_RECORD) && fields.length == 2) {
+                    doneStepIndexes.set(Integer.parseInt(fields[1]));
+                } else if (planned && journalLine.equals(COMMITTED_RECORD)) {
+                    committed = true;
+                }
+                // Anything else is a line torn by a crash and is ignored
+            }
+        } catch (NumberFormatException numberFormatException) {
+            throw new IOException("Damaged rename journal: " + journalPath);
+        }
+        return new RenameJournal(null, steps, doneStepIndexes, planned, committed);
+    }
+
+    /**
+     * Appends a {@code COMMITTED} line to the journal of a rename that was completed by recovery.
+     *
+     * @param directoryPath the folder
+     * @throws IOException if the journal cannot be written
+     */
+    public static void appendCommitted(Path directoryPath) throws IOException {
+        try (FileChannel journalChannel = FileChannel.open(getJournalPath(directoryPath), StandardOpenOption.APPEND)) {
+            RenameJournal journal = new RenameJournal(journalChannel, List.of(), new BitSet(), true, false);
+            // The leading line break ends a line torn by the crash, if there is one
+            journal.journalWriter.write("\n");
+            journal.commit();
+        }
+    }
+
+    /**
+     * @param directoryPath a folder
+     * @return the path of the journal of the folder
+     */
+    public static Path getJournalPath(Path directoryPath) {
+        return directoryPath.resolve(JOURNAL_FILE_NAME);
+    }
+
+    /**
+     * Records that a step has been carried out. Safe to call from several threads.
+     *
+     * @param step the step
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void markDone(RenameStep step) throws IOException {
+        journalWriter.write(DONE_RECORD + "\t" + step.getStepIndex() + "\n");
+        doneStepIndexes.set(step.getStepIndex());
+        if (++unflushedDoneRecordCount == DONE_RECORDS_PER_FLUSH) {
+            journalWriter.flush();
+            unflushedDoneRecordCount = 0;
+        }
+    }
+
+    /**
+     * Records that every step has been carried out, forces the journal to disk and closes it.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void commit() throws IOException {
+        journalWriter.write(COMMITTED_RECORD + "\n");
+        forceToDisk();
+        close();
+    }
+
+    /**
+     * @return the planned steps, phase 1 first
+     */
+    public List<RenameStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @param step a step
+     * @return {@code true} if the journal records the step as done
+     */
+    public synchronized boolean isDone(RenameStep step) {
+        return doneStepIndexes.get(step.getStepIndex());
+    }
+
+    /**
+     * @return {@code false} if the journal was torn before the plan was complete, in which case nothing was renamed
+     */
+    public boolean isPlanned() {
+        return planned;
+    }
+
+    /**
+     * @return {@code true} if the rename completed
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Flushes what is buffered and closes the journal file, if it is open.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (journalWriter != null && journalChannel.isOpen()) {
+            journalWriter.close();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private void forceToDisk() throws IOException {
+        journalWriter.flush();
+        journalChannel.force(false);
+    }
+
+    private static String escapeName(String fileName) {
+        StringBuilder escapedBuilder = new StringBuilder(fileName.length());
+        for (int charIndex = 0; charIndex < fileName.length(); charIndex++) {
+            char nameChar = fileName.charAt(charIndex);
+            switch (nameChar) {
+                case '\\':
+                    escapedBuilder.append("\\\\");
+                    break;
+                case '\t':
+                    escapedBuilder.append("\\t");
+                    break;
+                case '\n':
+                    escapedBuilder.append("\\n");
+                    break;
+                case '\r':
+                    escapedBuilder.append("\\r");
+                    break;
+                default:
+                    escapedBuilder.append(nameChar);
+            }
+        }
+        return escapedBuilder.toString();
+    }
+
+    private static String unescapeName(String escapedName) {
+        StringBuilder nameBuilder = new StringBuilder(escapedName.length());
+        for (int charIndex = 0; charIndex < escapedName.length(); charIndex++) {
+            char nameChar = escapedName.charAt(charIndex);
+            if (nameChar == '\\' && charIndex + 1 < escapedName.length()) {
+                char escapedChar = escapedName.charAt(++charIndex);
+                nameBuilder.append(escapedChar == 't' ? '\t' : escapedChar == 'n' ? '\n' : escapedChar == 'r' ? '\r' : escapedChar);
+            } else {
+                nameBuilder.append(nameChar);
+            }
+        }
+        return nameBuilder.toString();
+    }
+}
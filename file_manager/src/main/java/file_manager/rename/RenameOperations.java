@@ -0,0 +1,334 @@
+package file_manager.rename;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import file_manager.operations.ParallelBatchExecutor;
+import file_manager.session.OperationCancelledException;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code rename files}, {@code finish rename} and {@code undo rename}
+ * commands, which rename many files of the working directory at once by pattern.
+ * <p>
+ * Every rename is planned and checked before the first file is touched (see {@link RenamePlan}),
+ * and the plan is written to a {@link RenameJournal} in the folder. The renames of each phase of
+ * the plan are independent of each other and run on worker threads. If the application stops
+ * part way, the journal is left behind and {@code finish rename} rolls the rename forward or
+ * {@code undo rename} rolls it back; a new rename is refused until one of them has run.
+ * {@code undo rename} also reverts the last completed rename of a folder.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class RenameOperations {
+
+    /**
+     * The optional prefix of the pattern, accepted for symmetry with the wildcard commands.
+     */
+    public static final String REGEX_PREFIX = "regex:";
+
+    /**
+     * The option that lists the new names without renaming anything.
+     */
+    public static final String DRY_RUN_OPTION = "dry-run";
+
+    private static final int MAX_LISTED_CONFLICTS = 10;
+    private static final int MAX_LISTED_DRY_RUN_RENAMES = 20;
+
+    private RenameOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * One step of a rename, applied by a worker.
+     */
+    @FunctionalInterface
+    private interface StepAction {
+        /**
+         * @param directoryPath the folder being renamed
+         * @param step          the step
+         * @throws IOException if the step cannot be carried out
+         */
+        void apply(Path directoryPath, RenameStep step) throws IOException;
+    }
+
+    /**
+     * Renames every file of the working directory whose name matches a regular expression.
+     *
+     * @param session      the session whose working directory is renamed
+     * @param namePattern  the regular expression the whole file name must match, or null to prompt the user
+     * @param nameTemplate the template of the new names (see {@link RenamePlan}), or null to prompt the user
+     * @param option       {@value #DRY_RUN_OPTION} to only list the new names, or {@code null}
+     */
+    public static void renameFiles(SessionContext session, String namePattern, String nameTemplate, String option) {
+        if (namePattern == null) {
+            namePattern = readUserInput(session, "Please enter the regular expression the file names must match: ");
+        }
+        if (nameTemplate == null) {
+            nameTemplate = readUserInput(session, "Please enter the template of the new names: ");
+        }
+        Path directoryPath = session.getCurrentWorkingDirectoryPath();
+        Pattern compiledNamePattern;
+        try {
+            compiledNamePattern = Pattern.compile(namePattern.startsWith(REGEX_PREFIX) ? namePattern.substring(REGEX_PREFIX.length()) : namePattern);
+        } catch (PatternSyntaxException patternSyntaxException) {
+            session.reportFailure("Invalid pattern: " + namePattern + " (" + patternSyntaxException.getDescription() + ")");
+            return;
+        }
+        boolean dryRun = option != null && option.trim().equalsIgnoreCase(DRY_RUN_OPTION);
+
+        long startNanos = System.nanoTime();
+        RenamePlan renamePlan;
+        try {
+            RenameJournal previousJournal = RenameJournal.read(directoryPath);
+            if (previousJournal != null && previousJournal.isPlanned() && !previousJournal.isCommitted()) {
+                session.reportFailure("An unfinished rename was found in " + directoryPath
+                        + ". Run 'finish rename' to complete it or 'undo rename' to revert it first.");
+                return;
+            }
+            renamePlan = RenamePlan.create(directoryPath, compiledNamePattern, nameTemplate, System.currentTimeMillis());
+        } catch (IOException ioException) {
+            session.reportFailure("Unable to plan the rename: " + ioException.getMessage());
+            return;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException templateException) {
+            session.reportFailure("Invalid name template: " + nameTemplate + " (" + templateException.getMessage() + ")");
+            return;
+        }
+
+        if (!renamePlan.getConflicts().isEmpty()) {
+            session.reportFailure("Nothing was renamed: " + renamePlan.getConflicts().size() + " conflict(s) were found:");
+            listLimited(session, renamePlan.getConflicts(), MAX_LISTED_CONFLICTS);
+            return;
+        }
+        if (renamePlan.getRenamedFileCount() == 0) {
+            session.getOutput().println("No file matching '" + namePattern + "' changes name.");
+            return;
+        }
+        if (dryRun) {
+            List<String> listedRenames = new ArrayList<>();
+            for (Map.Entry<String, String> rename : renamePlan.getNewNamesByOldName().entrySet()) {
+                listedRenames.add(rename.getKey() + " -> " + rename.getValue());
+            }
+            listLimited(session, listedRenames, MAX_LISTED_DRY_RUN_RENAMES);
+            session.getOutput().println("Dry run: " + renamePlan.getRenamedFileCount() + " file(s) would be renamed ("
+                    + renamePlan.getChainedFileCount() + " through temporary names).");
+            return;
+        }
+
+        session.planWork(renamePlan.getSteps().size(), 0);
+        try {
+            Files.deleteIfExists(RenameJournal.getJournalPath(directoryPath));
+            try (RenameJournal journal = RenameJournal.create(directoryPath, renamePlan.getSteps())) {
+                String failure;
+                try {
+                    failure = runSteps(session, directoryPath, renamePlan.getSteps(), false, (stepDirectoryPath, step) -> {
+                        Files.move(stepDirectoryPath.resolve(step.getFromName()), stepDirectoryPath.resolve(step.getToName()));
+                        journal.markDone(step);
+                    });
+                } catch (OperationCancelledException operationCancelledException) {
+                    session.getOutput().println("The rename was cancelled part way. Run 'finish rename' to complete it or 'undo rename' to revert it.");
+                    throw operationCancelledException;
+                }
+                if (failure != null) {
+                    session.reportFailure("The rename stopped part way: " + failure
+                            + ". Run 'finish rename' to complete it or 'undo rename' to revert it.");
+                    return;
+                }
+                journal.commit();
+            }
+        } catch (IOException ioException) {
+            session.reportFailure("Unable to write the rename journal: " + ioException.getMessage());
+            return;
+        }
+        session.getOutput().println(String.format(Locale.ROOT, "Renamed %d file(s) in %.1f s (%d through temporary names).",
+                renamePlan.getRenamedFileCount(), elapsedSeconds(startNanos), renamePlan.getChainedFileCount()));
+    }
+
+    /**
+     * Completes a rename that stopped part way, using the journal it left in the folder.
+     *
+     * @param session       the session whose working directory is used
+     * @param directoryName the folder of the rename, or {@code null} for the working directory
+     */
+    public static void finishRename(SessionContext session, String directoryName) {
+        Path directoryPath = resolveRenameDirectory(session, directoryName);
+        RenameJournal journal = readJournal(session, directoryPath);
+        if (journal == null) {
+            return;
+        }
+        if (journal.isCommitted()) {
+            session.getOutput().println("The last rename in " + directoryPath + " is already complete.");
+            return;
+        }
+        long startNanos = System.nanoTime();
+        session.planWork(journal.getSteps().size(), 0);
+        String failure = runSteps(session, directoryPath, journal.getSteps(), false, (stepDirectoryPath, step) -> {
+            if (!journal.isDone(step)) {
+                moveIfNotDone(stepDirectoryPath, step.getFromName(), step.getToName());
+            }
+        });
+        if (failure != null) {
+            session.reportFailure("The rename could not be completed: " + failure + ".");
+            return;
+        }
+        try {
+            RenameJournal.appendCommitted(directoryPath);
+        } catch (IOException ioException) {
+            session.reportFailure("The rename was completed but its journal could not be updated: " + ioException.getMessage());
+            return;
+        }
+        session.getOutput().println(String.format(Locale.ROOT, "Completed the rename in %s in %.1f s.", directoryPath, elapsedSeconds(startNanos)));
+    }
+
+    /**
+     * Reverts the last rename of a folder, whether it completed or stopped part way.
+     *
+     * @param session       the session whose working directory is used
+     * @param directoryName the folder of the rename, or {@code null} for the working directory
+     */
+    public static void undoRename(SessionContext session, String directoryName) {
+        Path directoryPath = resolveRenameDirectory(session, directoryName);
+        RenameJournal journal = readJournal(session, directoryPath);
+        if (journal == null) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        session.planWork(journal.getSteps().size(), 0);
+        String failure = runSteps(session, directoryPath, journal.getSteps(), true,
+                (stepDirectoryPath, step) -> moveIfNotDone(stepDirectoryPath, step.getToName(), step.getFromName()));
+        if (failure != null) {
+            session.reportFailure("The rename could not be reverted: " + failure + ". Run 'undo rename' again once it is fixed.");
+            return;
+        }
+        try {
+            Files.delete(RenameJournal.getJournalPath(directoryPath));
+        } catch (IOException ioException) {
+            session.reportFailure("The rename was reverted but its journal could not be deleted: " + ioException.getMessage());
+            return;
+        }
+        session.getOutput().println(String.format(Locale.ROOT, "Reverted the rename in %s in %.1f s.", directoryPath, elapsedSeconds(startNanos)));
+    }
+
+    // --- Helper Methods ---
+
+    private static Path resolveRenameDirectory(SessionContext session, String directoryName) {
+        if (directoryName == null) {
+            return session.getCurrentWorkingDirectoryPath();
+        }
+        try {
+            return resolvePath(session, directoryName);
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Invalid folder name: " + directoryName);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the journal of a folder, reporting a missing journal or one torn before any file was renamed.
+     */
+    private static RenameJournal readJournal(SessionContext session, Path directoryPath) {
+        if (directoryPath == null) {
+            return null;
+        }
+        try {
+            RenameJournal journal = RenameJournal.read(directoryPath);
+            if (journal == null) {
+                session.reportFailure("There is no rename to finish or undo in " + directoryPath + ".");
+                return null;
+            }
+            if (!journal.isPlanned()) {
+                // The journal was torn while it was being written, before any file was renamed
+                Files.delete(RenameJournal.getJournalPath(directoryPath));
+                session.getOutput().println("The last rename in " + directoryPath + " stopped before renaming anything.");
+                return null;
+            }
+            return journal;
+        } catch (IOException ioException) {
+            session.reportFailure("Unable to read the rename journal: " + ioException.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Moves a file unless the move has already happened, which is the case when the source is
+     * missing and the target exists. Anything else means the folder changed since the rename.
+     */
+    private static void moveIfNotDone(Path directoryPath, String fromName, String toName) throws IOException {
+        Path fromPath = directoryPath.resolve(fromName);
+        Path toPath = directoryPath.resolve(toName);
+        boolean fromExists = Files.exists(fromPath);
+        boolean toExists = Files.exists(toPath);
+        if (fromExists && !toExists) {
+            Files.move(fromPath, toPath);
+        } else if (fromExists || !toExists) {
+            throw new IOException(fromExists ? "both " + fromName + " and " + toName + " exist" : "neither " + fromName + " nor " + toName + " exists");
+        }
+    }
+
+    /**
+     * Runs the steps phase by phase, the steps of each phase in batches on worker threads, and
+     * stops at the first failure.
+     *
+     * @return a description of the first failure, or {@code null} if every step was carried out
+     * @throws OperationCancelledException if the command was cancelled, which leaves the journal unfinished
+     */
+    private static String runSteps(SessionContext session, Path directoryPath, List<RenameStep> steps, boolean reverse,
+                                   StepAction stepAction) {
+        AtomicReference<String> firstFailure = new AtomicReference<>();
+        AtomicLong completedStepCount = new AtomicLong();
+        for (int phase : reverse ? new int[] {2, 1} : new int[] {1, 2}) {
+            try (ParallelBatchExecutor<RenameStep> renameWorkers = new ParallelBatchExecutor<>(step -> {
+                stepAction.apply(directoryPath, step);
+                completedStepCount.incrementAndGet();
+                session.recordWork(1, 0);
+            }, (step, exception) -> {
+                firstFailure.compareAndSet(null, step.getFromName() + " -> " + step.getToName() + ": "
+                        + exception.getClass().getSimpleName() + (exception.getMessage() != null ? " (" + exception.getMessage() + ")" : ""));
+                return false;
+            })) {
+                for (RenameStep step : steps) {
+                    if (step.getPhase() == phase) {
+                        renameWorkers.submit(step);
+                    }
+                }
+                renameWorkers.finish();
+            }
+            if (firstFailure.get() != null) {
+                return firstFailure.get() + " (" + completedStepCount.get() + " of " + steps.size() + " step(s) done)";
+            }
+        }
+        return null;
+    }
+
+    private static void listLimited(SessionContext session, List<String> listedLines, int maxListedLines) {
+        for (int lineIndex = 0; lineIndex < Math.min(listedLines.size(), maxListedLines); lineIndex++) {
+            session.getOutput().println(" - " + listedLines.get(lineIndex));
+        }
+        if (listedLines.size() > maxListedLines) {
+            session.getOutput().println(" - ... and " + (listedLines.size() - maxListedLines) + " more");
+        }
+    }
+
+    private static double elapsedSeconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
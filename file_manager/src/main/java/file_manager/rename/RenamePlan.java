@@ -0,0 +1,209 @@
+package file_manager.rename;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Works out every rename of a bulk rename before anything is renamed.
+ * <p>
+ * The files of a folder whose whole name matches a regular expression are renamed after a
+ * template. In the template, {@code $1} to {@code $9} insert a group of the match,
+ * {@code {n}} inserts a counter that starts at 1 and follows the order of the old names
+ * ({@code {n:4}} pads it to four digits), {@code {date}} inserts the current date and
+ * {@code {mdate}} the date the file was last modified, both as {@code yyyy-MM-dd} unless a
+ * format is given, as in {@code {mdate:yyyyMMdd}}.
+ * </p>
+ * <p>
+ * The plan is refused if two files would get the same name, if a new name is taken by a file
+ * that is not renamed itself, or if a new name is not a plain file name. Renames whose new name
+ * is the old name of another file, chains and cycles included, go through a temporary name
+ * (see {@link RenameStep}); the others are done directly.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public final class RenamePlan {
+
+    /**
+     * The prefix of the temporary names used for renames that depend on each other.
+     */
+    static final String TEMPORARY_NAME_PREFIX = ".file-manager-rename-";
+
+    private static final Pattern TEMPLATE_TOKEN = Pattern.compile("(?<!\\$)\\{(n|date|mdate)(?::([^}]+))?}");
+    private static final DateTimeFormatter DEFAULT_DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private final List<RenameStep> steps;
+    private final List<String> conflicts;
+    private final Map<String, String> newNamesByOldName;
+    private final int renamedFileCount;
+    private final int chainedFileCount;
+
+    private RenamePlan(List<RenameStep> steps, List<String> conflicts, Map<String, String> newNamesByOldName,
+                       int renamedFileCount, int chainedFileCount) {
+        this.steps = steps;
+        this.conflicts = conflicts;
+        this.newNamesByOldName = newNamesByOldName;
+        this.renamedFileCount = renamedFileCount;
+        this.chainedFileCount = chainedFileCount;
+    }
+
+    /**
+     * Plans the renames of the matching files of a folder.
+     *
+     * @param directoryPath the folder
+     * @param namePattern   the pattern the whole file name must match
+     * @param nameTemplate  the template of the new names
+     * @param planId        a number that makes the temporary names of this plan unique
+     * @return the plan, which has conflicts if it cannot be carried out
+     * @throws IOException if the folder cannot be read
+     * @throws IllegalArgumentException if the template has an invalid group or date format
+     */
+    public static RenamePlan create(Path directoryPath, Pattern namePattern, String nameTemplate, long planId) throws IOException {
+        Map<String, Path> matchingFiles = new TreeMap<>();
+        Set<String> existingNames = new HashSet<>();
+        try (DirectoryStream<Path> directoryEntries = Files.newDirectoryStream(directoryPath)) {
+            for (Path entryPath : directoryEntries) {
+                String entryName = entryPath.getFileName().toString();
+                existingNames.add(entryName);
+                if (!isInternalName(entryName) && namePattern.matcher(entryName).matches() && Files.isRegularFile(entryPath)) {
+                    matchingFiles.put(entryName, entryPath);
+                }
+            }
+        }
+
+        Map<String, String> newNamesByOldName = new TreeMap<>();
+        Map<String, String> oldNamesByNewName = new HashMap<>();
+        List<String> conflicts = new ArrayList<>();
+        LocalDate currentDate = LocalDate.now();
+        int counter = 0;
+        for (Map.Entry<String, Path> matchingFile : matchingFiles.entrySet()) {
+            counter++;
+            String oldName = matchingFile.getKey();
+            String newName = expandTemplate(namePattern.matcher(oldName), nameTemplate, counter, currentDate, matchingFile.getValue());
+            if (newName.isEmpty() || newName.contains("/") || newName.contains("\\") || newName.equals(".") || newName.equals("..")
+                    || isInternalName(newName)) {
+                conflicts.add(oldName + " -> '" + newName + "' is not a valid file name");
+                continue;
+            }
+            String previousOldName = oldNamesByNewName.putIfAbsent(newName, oldName);
+            if (previousOldName != null) {
+                conflicts.add(oldName + " and " + previousOldName + " would both be renamed to " + newName);
+                continue;
+            }
+            if (!newName.equals(oldName)) {
+                newNamesByOldName.put(oldName, newName);
+            }
+        }
+        for (Map.Entry<String, String> rename : newNamesByOldName.entrySet()) {
+            String newName = rename.getValue();
+            if (existingNames.contains(newName) && !newNamesByOldName.containsKey(newName)) {
+                conflicts.add(rename.getKey() + " -> " + newName + ", which already exists");
+            }
+        }
+
+        List<RenameStep> steps = new ArrayList<>();
+        List<Map.Entry<String, String>> chainedRenames = new ArrayList<>();
+        for (Map.Entry<String, String> rename : newNamesByOldName.entrySet()) {
+            if (newNamesByOldName.containsKey(rename.getValue())) {
+                chainedRenames.add(rename);
+            } else {
+                steps.add(new RenameStep(steps.size(), 1, rename.getKey(), rename.getValue()));
+            }
+        }
+        int temporaryIndex = 0;
+        List<RenameStep> secondPhaseSteps = new ArrayList<>();
+        for (Map.Entry<String, String> chainedRename : chainedRenames) {
+            String temporaryName = TEMPORARY_NAME_PREFIX + planId + "-" + temporaryIndex++;
+            steps.add(new RenameStep(steps.size(), 1, chainedRename.getKey(), temporaryName));
+            secondPhaseSteps.add(new RenameStep(0, 2, temporaryName, chainedRename.getValue()));
+        }
+        for (RenameStep secondPhaseStep : secondPhaseSteps) {
+            steps.add(new RenameStep(steps.size(), 2, secondPhaseStep.getFromName(), secondPhaseStep.getToName()));
+        }
+        return new RenamePlan(steps, conflicts, newNamesByOldName, newNamesByOldName.size(), chainedRenames.size());
+    }
+
+    /**
+     * @return the renames to carry out, phase 1 first
+     */
+    public List<RenameStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the reasons the plan cannot be carried out, empty if it can
+     */
+    public List<String> getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return the new name of each file that changes name, ordered by old name
+     */
+    public Map<String, String> getNewNamesByOldName() {
+        return newNamesByOldName;
+    }
+
+    /**
+     * @return the number of files that change name
+     */
+    public int getRenamedFileCount() {
+        return renamedFileCount;
+    }
+
+    /**
+     * @return the number of files renamed through a temporary name
+     */
+    public int getChainedFileCount() {
+        return chainedFileCount;
+    }
+
+    /**
+     * @param fileName a file name
+     * @return {@code true} if it is the journal or a temporary name, which bulk renames never touch
+     */
+    static boolean isInternalName(String fileName) {
+        return fileName.equals(RenameJournal.JOURNAL_FILE_NAME) || fileName.startsWith(TEMPORARY_NAME_PREFIX);
+    }
+
+    // --- Helper Methods ---
+
+    private static String expandTemplate(Matcher nameMatcher, String nameTemplate, int counter, LocalDate currentDate,
+                                         Path filePath) throws IOException {
+        Matcher tokenMatcher = TEMPLATE_TOKEN.matcher(nameTemplate);
+        StringBuilder expandedBuilder = new StringBuilder();
+        while (tokenMatcher.find()) {
+            String tokenName = tokenMatcher.group(1);
+            String tokenFormat = tokenMatcher.group(2);
+            String tokenValue;
+            if (tokenName.equals("n")) {
+                tokenValue = tokenFormat == null ? Integer.toString(counter)
+                        : String.format("%0" + Integer.parseInt(tokenFormat.trim()) + "d", counter);
+            } else {
+                DateTimeFormatter dateFormat = tokenFormat == null ? DEFAULT_DATE_FORMAT : DateTimeFormatter.ofPattern(tokenFormat);
+                LocalDate tokenDate = tokenName.equals("date") ? currentDate
+                        : LocalDate.ofInstant(Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault());
+                tokenValue = dateFormat.format(tokenDate);
+            }
+            tokenMatcher.appendReplacement(expandedBuilder, Matcher.quoteReplacement(Matcher.quoteReplacement(tokenValue)));
+        }
+        tokenMatcher.appendTail(expandedBuilder);
+        nameMatcher.matches();
+        return nameMatcher.replaceFirst(expandedBuilder.toString());
+    }
+}
@@ -0,0 +1,57 @@
+package file_manager.rename;
+
+/**
+ * One rename within a folder, from one file name to another, as planned by {@link RenamePlan}
+ * and recorded in a {@link RenameJournal}.
+ * <p>
+ * Renames in phase 1 run first and are independent of each other, and so are the renames in
+ * phase 2. A rename whose target is the old name of another file moves its file to a temporary
+ * name in phase 1 and to its target in phase 2, which resolves chains and cycles such as
+ * swapping two names.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public final class RenameStep {
+
+    private final int stepIndex;
+    private final int phase;
+    private final String fromName;
+    private final String toName;
+
+    RenameStep(int stepIndex, int phase, String fromName, String toName) {
+        this.stepIndex = stepIndex;
+        this.phase = phase;
+        this.fromName = fromName;
+        this.toName = toName;
+    }
+
+    /**
+     * @return the position of the step in the journal, starting at 0
+     */
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    /**
+     * @return 1 or 2
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return the name the file has before the step
+     */
+    public String getFromName() {
+        return fromName;
+    }
+
+    /**
+     * @return the name the file has after the step
+     */
+    public String getToName() {
+        return toName;
+    }
+}
@@ -0,0 +1,231 @@
+package file_manager.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A thin client for {@link CommandServer}.
+ * <p>
+ * Run it with a command to execute that command on a running server, for example
+ * {@code java file_manager.server.CommandClient copy file '>' notes.txt '>' backup.txt} (the
+ * {@code >} separators are quoted so the shell does not treat them as redirections), or without
+ * one to send every line of standard input as a command. The output of each command is printed
+ * once the command has finished, and the exit status is 0 if every command succeeded and 1
+ * otherwise. The {@code --port <n>} option selects a server port other than
+ * {@link CommandServer#DEFAULT_PORT}.
+ * </p>
+ * <p>
+ * The client authenticates with the token the server wrote to its token file, so it must run as
+ * a user who can read that file. It keeps one connection, and so one server session, for all the
+ * commands it sends.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CommandClient implements Closeable {
+
+    private static final String PORT_OPTION = "--port";
+    private static final int CONNECTION_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_HEADER_LENGTH = 64;
+
+    private final Socket connection;
+    private final InputStream responseInput;
+    private final Writer commandWriter;
+
+    /**
+     * Connects to a server on the loopback interface, reading its token from the default token file of the port.
+     *
+     * @param port the port the server listens on
+     * @throws IOException if the connection or the authentication fails
+     */
+    public CommandClient(int port) throws IOException {
+        this(port, CommandServer.getDefaultTokenFilePath(port));
+    }
+
+    /**
+     * Connects to a server on the loopback interface.
+     *
+     * @param port          the port the server listens on
+     * @param tokenFilePath the token file the server was started with
+     * @throws IOException if the token file cannot be read, or the connection or the authentication fails
+     */
+    public CommandClient(int port, Path tokenFilePath) throws IOException {
+        String token = new String(Files.readAllBytes(tokenFilePath), StandardCharsets.US_ASCII).trim();
+        connection = new Socket(InetAddress.getLoopbackAddress(), port);
+        try {
+            connection.setTcpNoDelay(true);
+            responseInput = new BufferedInputStream(connection.getInputStream(), CONNECTION_BUFFER_SIZE);
+            commandWriter = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8);
+
+            List<String> refusalLines = new ArrayList<>();
+            boolean accepted = readResponse(refusalLines);
+            if (accepted) {
+                sendLine(CommandServer.AUTH_COMMAND + " " + token);
+                accepted = readResponse(refusalLines);
+            }
+            if (!accepted) {
+                throw new IOException(String.join(" ", refusalLines));
+            }
+        } catch (IOException ioException) {
+            connection.close();
+            throw ioException;
+        }
+    }
+
+    /**
+     * Sends a command and collects its output.
+     *
+     * @param commandLine  the command, in the {@code >}-separated grammar of the interactive prompt
+     * @param outputLines receives the lines printed by the command
+     * @return {@code true} if the command succeeded
+     * @throws IOException if the connection fails or the server closes it
+     */
+    public boolean execute(String commandLine, List<String> outputLines) throws IOException {
+        sendLine(commandLine.replace('\n', ' '));
+        return readResponse(outputLines);
+    }
+
+    /**
+     * Ends the session on the server and closes the connection.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            commandWriter.write("exit\n");
+            commandWriter.flush();
+        } catch (IOException ignored) {
+            // The connection is closed below either way
+        }
+        connection.close();
+    }
+
+    /**
+     * Sends the command given on the command line, or every line of standard input, to a running server.
+     *
+     * @param args the command to send, optionally preceded by {@code --port <n>}
+     */
+    public static void main(String[] args) {
+        int port = CommandServer.DEFAULT_PORT;
+        int commandStartIndex = 0;
+        if (args.length >= 2 && args[0].equals(PORT_OPTION)) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException numberFormatException) {
+                System.out.println("Invalid port: " + args[1]);
+                System.exit(2);
+            }
+            commandStartIndex = 2;
+        }
+
+        boolean allSucceeded = true;
+        try (CommandClient commandClient = new CommandClient(port)) {
+            if (commandStartIndex < args.length) {
+                allSucceeded = sendAndPrint(commandClient, String.join(" ", List.of(args).subList(commandStartIndex, args.length)));
+            } else {
+                BufferedReader commandReader = new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()));
+                String commandLine;
+                while ((commandLine = commandReader.readLine()) != null) {
+                    if (!commandLine.trim().isEmpty()) {
+                        allSucceeded &= sendAndPrint(commandClient, commandLine);
+                    }
+                }
+            }
+        } catch (IOException ioException) {
+            System.out.println("Unable to reach the File Manager server on port " + port + ": " + ioException.getMessage());
+            System.exit(2);
+        }
+        System.exit(allSucceeded ? 0 : 1);
+    }
+
+    private void sendLine(String line) throws IOException {
+        commandWriter.write(line);
+        commandWriter.write('\n');
+        commandWriter.flush();
+    }
+
+    /**
+     * Reads the frames of one response, collecting the output it carries until the status frame ends it.
+     */
+    private boolean readResponse(List<String> outputLines) throws IOException {
+        ByteArrayOutputStream responseOutput = new ByteArrayOutputStream();
+        String frameHeader;
+        while ((frameHeader = readFrameHeader()) != null) {
+            if (frameHeader.startsWith(CommandServer.DATA_FRAME + " ")) {
+                int dataLength = parseDataLength(frameHeader);
+                byte[] data = responseInput.readNBytes(dataLength);
+                if (data.length < dataLength) {
+                    break;
+                }
+                responseOutput.write(data);
+            } else if (frameHeader.startsWith(CommandServer.STATUS_FRAME + " ")) {
+                BufferedReader outputReader = new BufferedReader(new StringReader(responseOutput.toString(StandardCharsets.UTF_8)));
+                String outputLine;
+                while ((outputLine = outputReader.readLine()) != null) {
+                    outputLines.add(outputLine);
+                }
+                return frameHeader.substring(CommandServer.STATUS_FRAME.length() + 1).equals(CommandServer.STATUS_SUCCESS);
+            } else {
+                throw new IOException("Unexpected response from the server: " + frameHeader);
+            }
+        }
+        throw new IOException("The server closed the connection.");
+    }
+
+    /**
+     * Reads an ASCII frame header up to its line feed.
+     *
+     * @return the header, or null if the connection ended
+     */
+    private String readFrameHeader() throws IOException {
+        StringBuilder headerBuilder = new StringBuilder();
+        int headerByte;
+        while ((headerByte = responseInput.read()) != -1) {
+            if (headerByte == '\n') {
+                return headerBuilder.toString();
+            }
+            if (headerBuilder.length() == MAX_HEADER_LENGTH) {
+                throw new IOException("Unexpected response from the server: " + headerBuilder);
+            }
+            headerBuilder.append((char) headerByte);
+        }
+        return null;
+    }
+
+    private static int parseDataLength(String frameHeader) throws IOException {
+        try {
+            int dataLength = Integer.parseInt(frameHeader.substring(CommandServer.DATA_FRAME.length() + 1));
+            if (dataLength < 0) {
+                throw new NumberFormatException(frameHeader);
+            }
+            return dataLength;
+        } catch (NumberFormatException numberFormatException) {
+            throw new IOException("Unexpected response from the server: " + frameHeader);
+        }
+    }
+
+    private static boolean sendAndPrint(CommandClient commandClient, String commandLine) throws IOException {
+        List<String> outputLines = new ArrayList<>();
+        boolean succeeded = commandClient.execute(commandLine, outputLines);
+        for (String outputLine : outputLines) {
+            System.out.println(outputLine);
+        }
+        return succeeded;
+    }
+}
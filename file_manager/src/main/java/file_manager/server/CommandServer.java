@@ -0,0 +1,362 @@
+package file_manager.server;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.MissingArgumentException;
+import file_manager.session.SessionContext;
+
+/**
+ * Serves File Manager commands over a local TCP socket, so that automation can run many
+ * commands against one long-lived JVM instead of starting a new one for each command.
+ * <p>
+ * The server listens on the loopback interface only, and only clients that can read its token
+ * may run commands: when it starts, the server writes a random token to a file that only the
+ * owner can read (by default {@code ~/.file-manager/server-<port>.token}), and each connection
+ * must present that token before its first command. Each connection gets its own
+ * non-interactive {@link SessionContext}, so {@code chdir} on one connection does not affect
+ * another. At most a fixed number of connections are open at once, each served by its own
+ * worker thread; further connections are turned away, and a connection that stays idle longer
+ * than the idle timeout is closed.
+ * </p>
+ * <p>
+ * The client sends UTF-8 lines: first {@code AUTH <token>}, then one command per line in the
+ * same {@code >}-separated grammar as the interactive prompt, or {@code exit} to close the
+ * connection. The server answers in frames that each start with an ASCII header line. A
+ * {@code DATA <length>} header is followed by exactly that many bytes of UTF-8 output, and a
+ * {@code STATUS OK} or {@code STATUS FAILED} header ends a response. Because output is skipped
+ * by length, no output can be mistaken for the end of a response. The server greets each
+ * connection with a response before reading from it, answers the token with another one, and
+ * then sends one response per command. A command ending with {@code &} is started as a
+ * background job of the connection and answered at once; the jobs of a connection are
+ * cancelled when it closes. {@link CommandClient} implements the client side.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CommandServer implements Closeable {
+
+    /**
+     * The port the server listens on unless another one is given.
+     */
+    public static final int DEFAULT_PORT = 7171;
+
+    /**
+     * The number of connections open at once unless another number is given.
+     */
+    public static final int DEFAULT_WORKER_COUNT = Runtime.getRuntime().availableProcessors() * 4;
+
+    /**
+     * How long a connection may wait between commands before it is closed, unless another timeout is given.
+     */
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    /**
+     * The header of a frame that carries output, followed by the length of the output in bytes.
+     */
+    public static final String DATA_FRAME = "DATA";
+
+    /**
+     * The header of the frame that ends a response, followed by the status of the command.
+     */
+    public static final String STATUS_FRAME = "STATUS";
+
+    /**
+     * The line a client sends first, followed by the token of the server.
+     */
+    public static final String AUTH_COMMAND = "AUTH";
+
+    /**
+     * The status of a command that succeeded.
+     */
+    public static final String STATUS_SUCCESS = "OK";
+
+    /**
+     * The status of a command that failed.
+     */
+    public static final String STATUS_FAILURE = "FAILED";
+
+    private static final String EXIT_COMMAND = "exit";
+    private static final String TOKEN_DIRECTORY_NAME = ".file-manager";
+    private static final int TOKEN_BYTE_COUNT = 32;
+    private static final int AUTHENTICATION_TIMEOUT_MILLIS = 10_000;
+    private static final int CONNECTION_BUFFER_SIZE = 1 << 16;
+
+    private final Path initialWorkingDirectoryPath;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionWorkers;
+    private final Semaphore connectionSlots;
+    private final int maxConnectionCount;
+    private final int idleTimeoutMillis;
+    private final Path tokenFilePath;
+    private final byte[] expectedAuthenticationLine;
+    private final Set<Socket> openConnections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Creates a server listening on the loopback interface, with its token in the default token
+     * file for its port and the default idle timeout.
+     *
+     * @param initialWorkingDirectoryPath the working directory each connection starts in
+     * @param port                        the port to listen on, or 0 to pick a free port
+     * @param maxConnectionCount          the maximum number of connections open at once
+     * @throws IOException if the port cannot be bound or the token file cannot be written
+     */
+    public CommandServer(Path initialWorkingDirectoryPath, int port, int maxConnectionCount) throws IOException {
+        this(initialWorkingDirectoryPath, port, maxConnectionCount, null, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a server listening on the loopback interface.
+     *
+     * @param initialWorkingDirectoryPath the working directory each connection starts in
+     * @param port                        the port to listen on, or 0 to pick a free port
+     * @param maxConnectionCount          the maximum number of connections open at once
+     * @param tokenFilePath               the file to write the token to, or null for the default token file of the port
+     * @param idleTimeoutMillis           how long a connection may wait between commands before it is closed
+     * @throws IOException if the port cannot be bound or the token file cannot be written
+     */
+    public CommandServer(Path initialWorkingDirectoryPath, int port, int maxConnectionCount, Path tokenFilePath,
+                         int idleTimeoutMillis) throws IOException {
+        this.initialWorkingDirectoryPath = initialWorkingDirectoryPath;
+        this.maxConnectionCount = Math.max(1, maxConnectionCount);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        try {
+            this.tokenFilePath = tokenFilePath != null ? tokenFilePath : getDefaultTokenFilePath(serverSocket.getLocalPort());
+            String token = generateToken();
+            writeTokenFile(this.tokenFilePath, token);
+            this.expectedAuthenticationLine = (AUTH_COMMAND + " " + token).getBytes(StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException exception) {
+            serverSocket.close();
+            throw exception;
+        }
+        this.connectionSlots = new Semaphore(this.maxConnectionCount);
+        this.connectionWorkers = Executors.newFixedThreadPool(this.maxConnectionCount);
+    }
+
+    /**
+     * Returns the file a server on the given port writes its token to unless another file is given.
+     *
+     * @param port the port of the server
+     * @return the path of the token file in the home directory of the user
+     */
+    public static Path getDefaultTokenFilePath(int port) {
+        return Paths.get(System.getProperty("user.home"), TOKEN_DIRECTORY_NAME, "server-" + port + ".token");
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the file holding the token that clients must present
+     */
+    public Path getTokenFilePath() {
+        return tokenFilePath;
+    }
+
+    /**
+     * Starts accepting connections on a background thread and returns immediately.
+     */
+    public void start() {
+        Thread acceptorThread = new Thread(this::acceptConnections, "file-manager-server");
+        acceptorThread.setDaemon(true);
+        acceptorThread.start();
+    }
+
+    /**
+     * Accepts connections on the calling thread until the server is closed.
+     */
+    public void acceptConnections() {
+        while (!closed) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                if (!connectionSlots.tryAcquire()) {
+                    rejectConnection(connection);
+                    continue;
+                }
+                openConnections.add(connection);
+                try {
+                    connectionWorkers.execute(() -> serveConnection(connection));
+                } catch (RejectedExecutionException rejectedExecutionException) {
+                    openConnections.remove(connection);
+                    connectionSlots.release();
+                    connection.close();
+                    throw rejectedExecutionException;
+                }
+            } catch (RejectedExecutionException | IOException exception) {
+                if (!closed) {
+                    System.out.println("Error accepting connection: " + exception.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and deletes the token file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket openConnection : openConnections) {
+            openConnection.close();
+        }
+        connectionWorkers.shutdownNow();
+        Files.deleteIfExists(tokenFilePath);
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Runs the commands of one connection in its own session until the client sends {@code exit},
+     * disconnects, fails to authenticate or stays idle for too long.
+     */
+    private void serveConnection(Socket connection) {
+        try (Socket connectionSocket = connection;
+             BufferedReader commandReader = new BufferedReader(
+                     new InputStreamReader(connectionSocket.getInputStream(), StandardCharsets.UTF_8), CONNECTION_BUFFER_SIZE);
+             FramedResponseOutputStream framedOutput = new FramedResponseOutputStream(
+                     new BufferedOutputStream(connectionSocket.getOutputStream(), CONNECTION_BUFFER_SIZE));
+             PrintStream connectionOutput = new PrintStream(framedOutput, false, "UTF-8");
+             SessionContext connectionSession = new SessionContext(initialWorkingDirectoryPath, connectionOutput, false)) {
+            framedOutput.writeStatus(true);
+            connectionSocket.setSoTimeout(AUTHENTICATION_TIMEOUT_MILLIS);
+            if (!isAuthenticated(commandReader.readLine())) {
+                connectionOutput.println("Authentication failed: the token does not match the token file of the server.");
+                connectionOutput.flush();
+                framedOutput.writeStatus(false);
+                return;
+            }
+            framedOutput.writeStatus(true);
+
+            connectionSocket.setSoTimeout(idleTimeoutMillis);
+            String commandLine;
+            while ((commandLine = commandReader.readLine()) != null) {
+                String trimmedCommandLine = commandLine.trim();
+                if (trimmedCommandLine.equals(EXIT_COMMAND)) {
+                    break;
+                }
+                boolean succeeded = trimmedCommandLine.isEmpty() || runCommand(connectionSession, trimmedCommandLine);
+                connectionOutput.flush();
+                framedOutput.writeStatus(succeeded);
+            }
+        } catch (SocketTimeoutException socketTimeoutException) {
+            // The client did not authenticate or send a command in time
+        } catch (SocketException socketException) {
+            // The client disconnected or the server is closing
+        } catch (IOException ioException) {
+            System.out.println("Error serving connection: " + ioException.getMessage());
+        } finally {
+            openConnections.remove(connection);
+            connectionSlots.release();
+        }
+    }
+
+    /**
+     * Turns a connection away because the maximum number of connections is already open.
+     * The client has not sent anything yet, so closing the connection does not discard unread input.
+     */
+    private void rejectConnection(Socket connection) {
+        try (Socket rejectedConnection = connection;
+             FramedResponseOutputStream framedOutput = new FramedResponseOutputStream(
+                     new BufferedOutputStream(rejectedConnection.getOutputStream()))) {
+            framedOutput.write(("The server is busy: " + maxConnectionCount + " connections are already open.\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            framedOutput.writeStatus(false);
+        } catch (IOException ioException) {
+            // The client is turned away either way
+        }
+    }
+
+    /**
+     * Compares the first line of a connection with the expected token in constant time.
+     */
+    private boolean isAuthenticated(String authenticationLine) {
+        return authenticationLine != null
+                && MessageDigest.isEqual(authenticationLine.trim().getBytes(StandardCharsets.UTF_8), expectedAuthenticationLine);
+    }
+
+    private static String generateToken() {
+        byte[] tokenBytes = new byte[TOKEN_BYTE_COUNT];
+        new SecureRandom().nextBytes(tokenBytes);
+        StringBuilder tokenBuilder = new StringBuilder(TOKEN_BYTE_COUNT * 2);
+        for (byte tokenByte : tokenBytes) {
+            tokenBuilder.append(String.format("%02x", tokenByte));
+        }
+        return tokenBuilder.toString();
+    }
+
+    /**
+     * Writes the token to a new file that only the owner can read, replacing a token left by an earlier server.
+     * The file is created rather than opened, so a link planted at its path is replaced instead of followed.
+     */
+    private static void writeTokenFile(Path tokenFilePath, String token) throws IOException {
+        Path tokenDirectoryPath = tokenFilePath.toAbsolutePath().getParent();
+        boolean posixFileSystem = tokenFilePath.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (posixFileSystem) {
+            Files.createDirectories(tokenDirectoryPath, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(tokenDirectoryPath);
+        }
+        Files.deleteIfExists(tokenFilePath);
+        Set<StandardOpenOption> createOptions = EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        FileAttribute<?>[] ownerOnlyAttributes = posixFileSystem
+                ? new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))}
+                : new FileAttribute<?>[0];
+        try (SeekableByteChannel tokenChannel = Files.newByteChannel(tokenFilePath, createOptions, ownerOnlyAttributes)) {
+            tokenChannel.write(ByteBuffer.wrap(token.getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+
+    private static boolean runCommand(SessionContext connectionSession, String commandLine) {
+        String[] parsedCommandArguments = CommandExecutor.parseCommandLine(CommandExecutor.removeBackgroundSuffix(commandLine));
+        if (CommandExecutor.resolveCommandCode(parsedCommandArguments[0]) == null) {
+            connectionSession.reportFailure("Unrecognized command: " + parsedCommandArguments[0]);
+            return false;
+        }
+        int failureCountBefore = connectionSession.getReportedFailureCount();
+        try {
+            CommandExecutor.executeCommandLine(connectionSession, commandLine);
+        } catch (MissingArgumentException missingArgumentException) {
+            connectionSession.reportFailure(missingArgumentException.getMessage());
+        } catch (RuntimeException runtimeException) {
+            connectionSession.reportFailure("An error occurred: " + runtimeException);
+        }
+        return connectionSession.getReportedFailureCount() == failureCountBefore;
+    }
+}
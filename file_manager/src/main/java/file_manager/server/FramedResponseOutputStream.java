@@ -0,0 +1,95 @@
+package file_manager.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output stream that wraps the output of a command into the length-prefixed frames of the
+ * {@link CommandServer} protocol.
+ * <p>
+ * Bytes written to the stream are buffered and sent as {@code DATA <length>} frames whenever
+ * the buffer fills up or the stream is flushed, so the output of a command is streamed to the
+ * client with bounded memory. Because the client skips the payload of a data frame by its
+ * length, the output may contain any bytes, including lines that look like a status frame.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+class FramedResponseOutputStream extends OutputStream {
+
+    private static final int FRAME_BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream connectionOutput;
+    private final byte[] frameBuffer = new byte[FRAME_BUFFER_SIZE];
+    private int bufferedByteCount;
+
+    /**
+     * @param connectionOutput the stream of the connection the frames are written to
+     */
+    FramedResponseOutputStream(OutputStream connectionOutput) {
+        this.connectionOutput = connectionOutput;
+    }
+
+    @Override
+    public synchronized void write(int singleByte) throws IOException {
+        if (bufferedByteCount == frameBuffer.length) {
+            writeDataFrame();
+        }
+        frameBuffer[bufferedByteCount++] = (byte) singleByte;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (bufferedByteCount == frameBuffer.length) {
+                writeDataFrame();
+            }
+            int copiedByteCount = Math.min(length, frameBuffer.length - bufferedByteCount);
+            System.arraycopy(bytes, offset, frameBuffer, bufferedByteCount, copiedByteCount);
+            bufferedByteCount += copiedByteCount;
+            offset += copiedByteCount;
+            length -= copiedByteCount;
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        writeDataFrame();
+        connectionOutput.flush();
+    }
+
+    /**
+     * Sends any buffered output followed by the status frame that ends a response.
+     *
+     * @param succeeded whether the command succeeded
+     * @throws IOException if the connection fails
+     */
+    synchronized void writeStatus(boolean succeeded) throws IOException {
+        writeDataFrame();
+        writeHeader(CommandServer.STATUS_FRAME + " " + (succeeded ? CommandServer.STATUS_SUCCESS : CommandServer.STATUS_FAILURE));
+        connectionOutput.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        connectionOutput.close();
+    }
+
+    // --- Helper Methods ---
+
+    private void writeDataFrame() throws IOException {
+        if (bufferedByteCount == 0) {
+            return;
+        }
+        writeHeader(CommandServer.DATA_FRAME + " " + bufferedByteCount);
+        connectionOutput.write(frameBuffer, 0, bufferedByteCount);
+        bufferedByteCount = 0;
+    }
+
+    private void writeHeader(String header) throws IOException {
+        connectionOutput.write((header + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,112 @@
+package file_manager.session;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Collects what one command prints and the failures it reports, instead of printing them,
+ * so that they can be written out as a single structured record when the command ends.
+ * <p>
+ * Only the first {@value #MAX_OUTPUT_BYTES} bytes of output are kept, so a command that prints
+ * a very large file or folder holds a bounded amount of memory. The rest is counted and dropped,
+ * and the transcript is then marked as {@linkplain #isOutputTruncated() truncated}.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class CommandTranscript {
+
+    /**
+     * The number of bytes of output kept for the record of a command.
+     */
+    public static final int MAX_OUTPUT_BYTES = 1024 * 1024;
+
+    private final BoundedOutputBuffer outputBuffer = new BoundedOutputBuffer();
+    private final PrintStream output = new PrintStream(outputBuffer, false, StandardCharsets.UTF_8);
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @return the stream the command prints to while the transcript is installed
+     */
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    /**
+     * Records a failure reported by the command.
+     *
+     * @param errorMessage the message of the failure
+     */
+    public void addError(String errorMessage) {
+        errors.add(errorMessage);
+    }
+
+    /**
+     * Returns the lines kept of the output. If the output was truncated, the line cut off by the
+     * limit is left out.
+     *
+     * @return the lines printed by the command, without line separators
+     */
+    public List<String> getOutputLines() {
+        output.flush();
+        synchronized (outputBuffer) {
+            String keptOutput = outputBuffer.toString(StandardCharsets.UTF_8);
+            if (outputBuffer.droppedByteCount > 0) {
+                int lastLineEnd = keptOutput.lastIndexOf('\n');
+                keptOutput = lastLineEnd >= 0 ? keptOutput.substring(0, lastLineEnd + 1) : "";
+            }
+            return keptOutput.lines().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return {@code true} if the command printed more than {@value #MAX_OUTPUT_BYTES} bytes and the rest was dropped
+     */
+    public boolean isOutputTruncated() {
+        output.flush();
+        synchronized (outputBuffer) {
+            return outputBuffer.droppedByteCount > 0;
+        }
+    }
+
+    /**
+     * @return the failures reported by the command, in order
+     */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Keeps the first {@value #MAX_OUTPUT_BYTES} bytes written and counts the rest.
+     */
+    private static final class BoundedOutputBuffer extends ByteArrayOutputStream {
+
+        private long droppedByteCount;
+
+        @Override
+        public synchronized void write(int singleByte) {
+            if (count < MAX_OUTPUT_BYTES) {
+                super.write(singleByte);
+            } else {
+                droppedByteCount++;
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            int keptLength = Math.min(length, MAX_OUTPUT_BYTES - count);
+            super.write(bytes, offset, keptLength);
+            droppedByteCount += length - keptLength;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package file_manager.session;
+
+/**
+ * Thrown when a command run in a non-interactive {@link SessionContext} is missing
+ * an argument that an interactive session would prompt the user for.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class MissingArgumentException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param promptText the prompt that would have been shown to the user
+     */
+    public MissingArgumentException(String promptText) {
+        super("Missing argument: " + describeMissingArgument(promptText));
+    }
+
+    /**
+     * Turns a prompt such as "Please enter the name of the file to read: " into
+     * "the name of the file to read".
+     */
+    private static String describeMissingArgument(String promptText) {
+        String missingArgument = promptText.trim();
+        if (missingArgument.endsWith(":")) {
+            missingArgument = missingArgument.substring(0, missingArgument.length() - 1);
+        }
+        for (String promptPrefix : new String[] {"Please enter ", "Enter "}) {
+            if (missingArgument.startsWith(promptPrefix)) {
+                return missingArgument.substring(promptPrefix.length());
+            }
+        }
+        return missingArgument;
+    }
+}
@@ -0,0 +1,17 @@
+package file_manager.session;
+
+/**
+ * Thrown from a progress report to stop an operation that has been cancelled.
+ * Operations let it propagate after cleaning up partial results.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class OperationCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OperationCancelledException() {
+        super("The operation was cancelled.");
+    }
+}
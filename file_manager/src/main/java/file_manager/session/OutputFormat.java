@@ -0,0 +1,42 @@
+package file_manager.session;
+
+/**
+ * The ways a session can present the results of its commands.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public enum OutputFormat {
+    /** The messages of each command, printed as they are written for people. */
+    TEXT("text"),
+    /** One JSON object per line and per command, holding its output, errors, outcome, timing and I/O. */
+    JSON("json");
+
+    private final String formatName;
+
+    OutputFormat(String formatName) {
+        this.formatName = formatName;
+    }
+
+    /**
+     * @return the name used to select the format, such as {@code json}
+     */
+    public String getFormatName() {
+        return formatName;
+    }
+
+    /**
+     * Finds a format by its name.
+     *
+     * @param formatName the name of the format, in any case
+     * @return the format, or {@code null} if there is no format with that name
+     */
+    public static OutputFormat fromFormatName(String formatName) {
+        for (OutputFormat outputFormat : values()) {
+            if (outputFormat.formatName.equalsIgnoreCase(formatName.trim())) {
+                return outputFormat;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package file_manager.session;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that records the bytes read from a file as the progress of a session.
+ * <p>
+ * Operations that decode text, such as {@code replace} and {@code sort}, read through it so
+ * that their progress and throttling are counted in the bytes of the file, as planned from its
+ * size, rather than in decoded characters. Each read is reported through
+ * {@link SessionContext#recordWork(long, long)}, which may pause the operation or stop it with
+ * an {@link OperationCancelledException}.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+    private final SessionContext session;
+
+    /**
+     * @param session   the session the bytes read are recorded in
+     * @param fileInput the stream of the file
+     */
+    public ProgressInputStream(SessionContext session, InputStream fileInput) {
+        super(fileInput);
+        this.session = session;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int readByte = super.read();
+        if (readByte >= 0) {
+            session.recordWork(0, 1);
+        }
+        return readByte;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        int readByteCount = super.read(bytes, offset, length);
+        if (readByteCount > 0) {
+            session.recordWork(0, readByteCount);
+        }
+        return readByteCount;
+    }
+}
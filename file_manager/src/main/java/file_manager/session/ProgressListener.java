@@ -0,0 +1,33 @@
+package file_manager.session;
+
+/**
+ * Receives progress from long-running operations.
+ * <p>
+ * Operations report through their {@link SessionContext}: they announce the work they are about
+ * to do when they know it, and report each file and each chunk of bytes as it is done. A listener
+ * may block in {@link #workDone(long, long)} to pause an operation, or throw an
+ * {@link OperationCancelledException} to stop it at that point.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public interface ProgressListener {
+
+    /**
+     * Announces work an operation is about to do.
+     *
+     * @param fileCount the number of files and folders it will process
+     * @param byteCount the number of bytes it will read or write
+     */
+    void workPlanned(long fileCount, long byteCount);
+
+    /**
+     * Reports work an operation has done since its last report.
+     *
+     * @param fileCount the number of files and folders processed
+     * @param byteCount the number of bytes read or written
+     * @throws OperationCancelledException if the operation should stop
+     */
+    void workDone(long fileCount, long byteCount);
+}
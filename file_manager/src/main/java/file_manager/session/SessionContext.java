@@ -0,0 +1,460 @@
+package file_manager.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import file_manager.jobs.JobManager;
+import file_manager.throttle.IoThrottle;
+import file_manager.utils.JsonUtils;
+
+/**
+ * Holds the state of one File Manager session.
+ * <p>
+ * A session owns its current working directory as a resolved {@link Path}, the history of
+ * directories it has visited, the archives it has mounted, and the output stream its messages
+ * are printed to. Operations receive the session
+ * they run in, so several sessions can work in different directories (or on different file
+ * systems) in the same JVM without touching any global state such as the {@code user.dir}
+ * system property.
+ * </p>
+ * <p>
+ * The interactive application and the operations' overloads without a session parameter use
+ * the {@linkplain #getDefaultSession() default session}. A session is meant to be driven by
+ * one command at a time; only reads of the working directory may happen concurrently.
+ * </p>
+ * <p>
+ * A non-interactive session never prompts: a missing argument raises a
+ * {@link MissingArgumentException} instead, and failures reported through
+ * {@link #reportFailure(String)} are counted so that scripts can report an exit status.
+ * </p>
+ * <p>
+ * Long-running operations report their progress through {@link #planWork(long, long)} and
+ * {@link #recordWork(long, long)}; a session running a background job passes the reports on to
+ * its {@link ProgressListener}, which can pause or cancel the operation. The same reports are
+ * charged to the global {@link IoThrottle} and to the throttle of the running command, which
+ * slow the operation down to the configured I/O limits, and passed to the listener of the
+ * running command, which counts them for metrics and profiling.
+ * </p>
+ * <p>
+ * In the {@link OutputFormat#JSON JSON} output format, a {@link CommandTranscript} installed for
+ * the running command collects what the command prints and the failures it reports, so they
+ * can be written as one record when it ends. A failure reported outside a command is printed
+ * as a JSON error record of its own.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class SessionContext implements Closeable {
+
+    /**
+     * The maximum number of directories remembered in the history.
+     */
+    private static final int MAX_DIRECTORY_HISTORY_SIZE = 100;
+
+    private static final SessionContext DEFAULT_SESSION = new SessionContext(FileSystems.getDefault());
+
+    private volatile Path currentWorkingDirectoryPath;
+    private final Deque<Path> directoryHistory = new ArrayDeque<>();
+    private final Map<FileSystem, Path> mountedArchivePaths;
+    private final Map<FileSystem, Integer> archiveReferenceCounts;
+    private final List<FileSystem> referencedArchives;
+    private final PrintStream output;
+    private final boolean interactive;
+    private final AtomicInteger reportedFailureCount = new AtomicInteger();
+    private final ProgressListener progressListener;
+    private volatile IoThrottle commandThrottle;
+    private volatile ProgressListener commandProgressListener;
+    private volatile CommandTranscript commandTranscript;
+    private volatile OutputFormat outputFormat = OutputFormat.TEXT;
+    private volatile boolean trashEnabled;
+    private JobManager jobManager;
+
+    /**
+     * Creates a session that starts in the working directory of the given file system.
+     *
+     * @param fileSystem the file system the session runs on
+     */
+    public SessionContext(FileSystem fileSystem) {
+        this(fileSystem.getPath("").toAbsolutePath());
+    }
+
+    /**
+     * Creates a session that starts in the given directory.
+     *
+     * @param initialWorkingDirectoryPath the initial working directory
+     */
+    public SessionContext(Path initialWorkingDirectoryPath) {
+        this(initialWorkingDirectoryPath, null, true);
+    }
+
+    /**
+     * Creates a session that starts in the given directory and prints to the given stream.
+     *
+     * @param initialWorkingDirectoryPath the initial working directory
+     * @param output                      the stream messages are printed to, or {@code null} for {@link System#out}
+     * @param interactive                 {@code true} to prompt the user for missing arguments,
+     *                                    {@code false} to fail with a {@link MissingArgumentException}
+     */
+    public SessionContext(Path initialWorkingDirectoryPath, PrintStream output, boolean interactive) {
+        this(initialWorkingDirectoryPath, output, interactive, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), null, null);
+    }
+
+    private SessionContext(Path initialWorkingDirectoryPath, PrintStream output, boolean interactive,
+                           Map<FileSystem, Path> mountedArchivePaths, Map<FileSystem, Integer> archiveReferenceCounts,
+                           List<FileSystem> referencedArchives, ProgressListener progressListener) {
+        this.currentWorkingDirectoryPath = initialWorkingDirectoryPath.toAbsolutePath().normalize();
+        this.output = output;
+        this.interactive = interactive;
+        this.mountedArchivePaths = mountedArchivePaths;
+        this.archiveReferenceCounts = archiveReferenceCounts;
+        this.referencedArchives = referencedArchives;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Returns the session shared by the interactive application and by the operations'
+     * overloads that do not take a session.
+     *
+     * @return the default session
+     */
+    public static SessionContext getDefaultSession() {
+        return DEFAULT_SESSION;
+    }
+
+    /**
+     * Creates a session for running a single command alongside others started from this session.
+     * <p>
+     * The forked session starts in the current working directory of this session and copies its
+     * output format and trash mode. It shares the mounted archives and the progress listener of
+     * this session, but has its own output stream, failure count and empty history, and never
+     * prompts. It must not change its working directory. The archives stay owned by this
+     * session, but every archive that encloses the working directory of the forked session is
+     * {@linkplain #isArchiveReferenced(FileSystem) referenced} until the forked session is
+     * closed, so that it stays mounted while the command runs.
+     * </p>
+     *
+     * @param forkedOutput the stream the forked session prints to
+     * @return the forked session
+     */
+    public SessionContext fork(PrintStream forkedOutput) {
+        return fork(forkedOutput, progressListener);
+    }
+
+    /**
+     * Creates a session for running a single command, like {@link #fork(PrintStream)},
+     * that reports its progress to the given listener.
+     *
+     * @param forkedOutput           the stream the forked session prints to
+     * @param forkedProgressListener the listener that receives the progress of the command
+     * @return the forked session
+     */
+    public SessionContext fork(PrintStream forkedOutput, ProgressListener forkedProgressListener) {
+        Path forkedWorkingDirectoryPath = currentWorkingDirectoryPath;
+        List<FileSystem> forkedReferencedArchives = new ArrayList<>();
+        Path enclosingPath = forkedWorkingDirectoryPath;
+        while (mountedArchivePaths.containsKey(enclosingPath.getFileSystem())) {
+            forkedReferencedArchives.add(enclosingPath.getFileSystem());
+            archiveReferenceCounts.merge(enclosingPath.getFileSystem(), 1, Integer::sum);
+            enclosingPath = mountedArchivePaths.get(enclosingPath.getFileSystem());
+        }
+        SessionContext forkedSession = new SessionContext(forkedWorkingDirectoryPath, forkedOutput, false, mountedArchivePaths,
+                archiveReferenceCounts, forkedReferencedArchives, forkedProgressListener);
+        forkedSession.setOutputFormat(outputFormat);
+        forkedSession.setTrashEnabled(trashEnabled);
+        return forkedSession;
+    }
+
+    /**
+     * Returns the stream the session prints its messages to. A session created without an
+     * output stream follows {@link System#out}, even if it is replaced later. While a
+     * {@link CommandTranscript} is installed, messages go to the transcript instead.
+     *
+     * @return the output stream of this session
+     */
+    public PrintStream getOutput() {
+        CommandTranscript currentCommandTranscript = commandTranscript;
+        if (currentCommandTranscript != null) {
+            return currentCommandTranscript.getOutput();
+        }
+        return output != null ? output : System.out;
+    }
+
+    /**
+     * @return the format the results of commands are presented in
+     */
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Sets the format the results of the following commands are presented in.
+     *
+     * @param newOutputFormat the new output format
+     */
+    public void setOutputFormat(OutputFormat newOutputFormat) {
+        this.outputFormat = newOutputFormat;
+    }
+
+    /**
+     * @return {@code true} if deleted files and folders are moved to the trash instead of being removed
+     */
+    public boolean isTrashEnabled() {
+        return trashEnabled;
+    }
+
+    /**
+     * Switches the trash mode of the following commands.
+     *
+     * @param newTrashEnabled {@code true} to move deleted files and folders to the trash
+     */
+    public void setTrashEnabled(boolean newTrashEnabled) {
+        this.trashEnabled = newTrashEnabled;
+    }
+
+    /**
+     * @return {@code true} if missing arguments are prompted for, {@code false} if they fail the command
+     */
+    public boolean isInteractive() {
+        return interactive;
+    }
+
+    /**
+     * Prints a message describing a failed operation and counts the failure.
+     *
+     * @param failureMessage the message to print
+     */
+    public void reportFailure(String failureMessage) {
+        reportedFailureCount.incrementAndGet();
+        CommandTranscript currentCommandTranscript = commandTranscript;
+        if (currentCommandTranscript != null) {
+            currentCommandTranscript.addError(failureMessage);
+        } else if (outputFormat == OutputFormat.JSON) {
+            getOutput().println("{\"type\":\"error\",\"message\":\"" + JsonUtils.escapeJson(failureMessage) + "\"}");
+        } else {
+            getOutput().println(failureMessage);
+        }
+    }
+
+    /**
+     * @return {@code true} if progress reports are passed on to a listener, so that
+     *         operations may spend extra effort to announce their work up front
+     */
+    public boolean isTrackingProgress() {
+        return progressListener != null;
+    }
+
+    /**
+     * @return {@code true} if a listener, such as the background job running the session, can
+     *         cancel its commands, so that a command that runs until it is stopped can be stopped
+     */
+    public boolean isCancellable() {
+        return progressListener != null;
+    }
+
+    /**
+     * Announces work an operation is about to do.
+     *
+     * @param fileCount the number of files and folders it will process
+     * @param byteCount the number of bytes it will read or write
+     */
+    public void planWork(long fileCount, long byteCount) {
+        if (progressListener != null) {
+            progressListener.workPlanned(fileCount, byteCount);
+        }
+    }
+
+    /**
+     * Reports work an operation has done. This may block while the operation is paused
+     * or while it is over its I/O limits.
+     *
+     * @param fileCount the number of files and folders processed
+     * @param byteCount the number of bytes read or written
+     * @throws OperationCancelledException if the operation has been cancelled
+     */
+    public void recordWork(long fileCount, long byteCount) {
+        if (progressListener != null) {
+            progressListener.workDone(fileCount, byteCount);
+        }
+        ProgressListener currentCommandProgressListener = commandProgressListener;
+        if (currentCommandProgressListener != null) {
+            currentCommandProgressListener.workDone(fileCount, byteCount);
+        }
+        IoThrottle.getGlobalThrottle().acquire(fileCount, byteCount);
+        IoThrottle currentCommandThrottle = commandThrottle;
+        if (currentCommandThrottle != null) {
+            currentCommandThrottle.acquire(fileCount, byteCount);
+        }
+    }
+
+    /**
+     * Sets the throttle of the command the session is running, in addition to the global one.
+     *
+     * @param newCommandThrottle the throttle of the command, or {@code null} if it has none
+     */
+    public void setCommandThrottle(IoThrottle newCommandThrottle) {
+        this.commandThrottle = newCommandThrottle;
+    }
+
+    /**
+     * Sets the listener that receives the work done by the running command, in addition to the
+     * progress listener of the session.
+     *
+     * @param newCommandProgressListener the listener of the command, or {@code null} when no command is running
+     */
+    public void setCommandProgressListener(ProgressListener newCommandProgressListener) {
+        this.commandProgressListener = newCommandProgressListener;
+    }
+
+    /**
+     * Installs the transcript that collects the output and failures of the running command.
+     *
+     * @param newCommandTranscript the transcript of the command, or {@code null} to print directly again
+     */
+    public void setCommandTranscript(CommandTranscript newCommandTranscript) {
+        this.commandTranscript = newCommandTranscript;
+    }
+
+    /**
+     * Returns the manager of the background jobs started from this session, creating it on first use.
+     *
+     * @return the job manager of this session
+     */
+    public synchronized JobManager getJobManager() {
+        if (jobManager == null) {
+            jobManager = new JobManager();
+        }
+        return jobManager;
+    }
+
+    /**
+     * @return the number of failures reported in this session so far
+     */
+    public int getReportedFailureCount() {
+        return reportedFailureCount.get();
+    }
+
+    /**
+     * @return the current working directory of this session
+     */
+    public Path getCurrentWorkingDirectoryPath() {
+        return currentWorkingDirectoryPath;
+    }
+
+    /**
+     * Sets the current working directory without recording the previous one in the history.
+     *
+     * @param newCurrentWorkingDirectoryPath the new working directory
+     */
+    public void setCurrentWorkingDirectoryPath(Path newCurrentWorkingDirectoryPath) {
+        this.currentWorkingDirectoryPath = newCurrentWorkingDirectoryPath;
+    }
+
+    /**
+     * Remembers a directory the session is leaving, dropping the oldest entry once the history is full.
+     *
+     * @param previousWorkingDirectoryPath the directory being left
+     */
+    public synchronized void recordDirectoryHistory(Path previousWorkingDirectoryPath) {
+        if (previousWorkingDirectoryPath.equals(directoryHistory.peekFirst())) {
+            return;
+        }
+        directoryHistory.addFirst(previousWorkingDirectoryPath);
+        if (directoryHistory.size() > MAX_DIRECTORY_HISTORY_SIZE) {
+            directoryHistory.removeLast();
+        }
+    }
+
+    /**
+     * Removes and returns the most recently left directory.
+     *
+     * @return the previous working directory, or {@code null} if the history is empty
+     */
+    public synchronized Path popDirectoryHistory() {
+        return directoryHistory.pollFirst();
+    }
+
+    /**
+     * @return the remembered directories, most recent first
+     */
+    public synchronized List<Path> getDirectoryHistory() {
+        return new ArrayList<>(directoryHistory);
+    }
+
+    /**
+     * Forgets every remembered directory that belongs to the given file system,
+     * for example because the archive it represents has been unmounted.
+     *
+     * @param fileSystem the file system whose directories should be forgotten
+     */
+    public synchronized void forgetDirectoryHistory(FileSystem fileSystem) {
+        directoryHistory.removeIf(historyPath -> historyPath.getFileSystem() == fileSystem);
+    }
+
+    /**
+     * Returns the archives mounted by this session, keyed by the file system that exposes
+     * their contents and mapped to the archive file they were opened from.
+     *
+     * @return the live map of mounted archives
+     */
+    public Map<FileSystem, Path> getMountedArchivePaths() {
+        return mountedArchivePaths;
+    }
+
+    /**
+     * Tells whether a forked session that has not been closed yet works inside the archive.
+     *
+     * @param archiveFileSystem the file system of a mounted archive
+     * @return {@code true} if the archive must stay mounted for a forked session
+     */
+    public boolean isArchiveReferenced(FileSystem archiveFileSystem) {
+        return archiveReferenceCounts.containsKey(archiveFileSystem);
+    }
+
+    /**
+     * Cancels the background jobs of this session and unmounts every archive it mounted.
+     * Closing a forked session only releases the archives it references; they are unmounted
+     * the next time the session that owns them changes its working directory, or when it is
+     * closed.
+     */
+    @Override
+    public void close() {
+        if (referencedArchives != null) {
+            synchronized (this) {
+                for (FileSystem referencedArchive : referencedArchives) {
+                    archiveReferenceCounts.computeIfPresent(referencedArchive,
+                            (ignoredArchive, referenceCount) -> referenceCount == 1 ? null : referenceCount - 1);
+                }
+                referencedArchives.clear();
+            }
+            return;
+        }
+        synchronized (this) {
+            if (jobManager != null) {
+                jobManager.shutdown();
+            }
+        }
+        Iterator<Map.Entry<FileSystem, Path>> mountedArchives = mountedArchivePaths.entrySet().iterator();
+        while (mountedArchives.hasNext()) {
+            FileSystem mountedFileSystem = mountedArchives.next().getKey();
+            mountedArchives.remove();
+            archiveReferenceCounts.remove(mountedFileSystem);
+            forgetDirectoryHistory(mountedFileSystem);
+            try {
+                mountedFileSystem.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package file_manager.sort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import file_manager.session.OperationCancelledException;
+import file_manager.session.ProgressInputStream;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.InputUtils.readUserInput;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code sort file} command, which sorts the lines of a text file that may
+ * be much larger than the memory of the application.
+ * <p>
+ * The input is read as a stream and cut into runs whose estimated size on the heap stays within a
+ * share of the memory cap (see {@link SortOptions}). Each run is sorted on a worker thread while
+ * the next one is read, and written to a temporary file next to the output. The sorted runs are
+ * then merged through a priority queue holding the next line of each run; when there are more
+ * than {@value #MAX_MERGE_WIDTH} runs, groups of them are first merged into longer runs in
+ * parallel, so the number of open files and read buffers stays bounded. Input that fits in a
+ * single run is sorted in memory and written directly.
+ * </p>
+ * <p>
+ * The result is written to a temporary file that replaces the output file only once it is
+ * complete, so a file can be sorted into itself and a failed or cancelled sort leaves the output
+ * untouched. Lines are read in the default character set, and written with {@code \n} line endings.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class SortOperations {
+
+    /**
+     * The prefix of the temporary folder holding the runs of a sort.
+     */
+    public static final String WORK_DIRECTORY_PREFIX = ".file-manager-sort-";
+
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_MERGE_WIDTH = 128;
+    private static final int INPUT_BUFFER_SIZE = 1 << 20;
+    private static final int MIN_RUN_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_RUN_BUFFER_SIZE = 1 << 20;
+    private static final int LINES_PER_PROGRESS_CHECK = 4096;
+
+    private SortOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * The counts gathered while a sort runs, reported when it ends.
+     */
+    private static final class SortStatistics {
+        private long readLineCount;
+        private int runCount;
+        private final AtomicInteger mergePassCount = new AtomicInteger();
+        private long writtenLineCount;
+    }
+
+    /**
+     * The next line of a sorted run during a merge.
+     */
+    private static final class RunCursor implements Closeable {
+        private final BufferedReader runReader;
+        private final SortOptions sortOptions;
+        private SortRecord currentRecord;
+
+        RunCursor(Path runPath, int bufferSize, SortOptions sortOptions) throws IOException {
+            this.runReader = new BufferedReader(new InputStreamReader(Files.newInputStream(runPath), StandardCharsets.UTF_8), bufferSize);
+            this.sortOptions = sortOptions;
+        }
+
+        /**
+         * Moves to the next line of the run.
+         *
+         * @return {@code false} once the run is exhausted
+         */
+        boolean advance() throws IOException {
+            String line = runReader.readLine();
+            currentRecord = line == null ? null : sortOptions.toRecord(line);
+            return line != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            runReader.close();
+        }
+    }
+
+    /**
+     * Sorts the lines of a file into another file, or into itself.
+     *
+     * @param session        the session whose working directory is used
+     * @param inputFileName  the file to sort, or null to prompt the user
+     * @param outputFileName the file to write the sorted lines to, or null to prompt the user; it is replaced if it exists
+     * @param optionsText    the options (see {@link SortOptions}), or {@code null} for the defaults
+     */
+    public static void sortFile(SessionContext session, String inputFileName, String outputFileName, String optionsText) {
+        if (inputFileName == null) {
+            inputFileName = readUserInput(session, "Please enter the name of the file to sort: ");
+        }
+        if (outputFileName == null) {
+            outputFileName = readUserInput(session, "Please enter the name of the file to write the sorted lines to: ");
+        }
+        SortOptions sortOptions;
+        try {
+            sortOptions = SortOptions.parse(optionsText);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            session.reportFailure("Invalid sort options: " + illegalArgumentException.getMessage());
+            return;
+        }
+        Path inputFilePath;
+        Path outputFilePath;
+        try {
+            inputFilePath = resolvePath(session, inputFileName);
+            outputFilePath = resolvePath(session, outputFileName).toAbsolutePath();
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("Invalid file name: " + invalidPathException.getInput());
+            return;
+        }
+        if (!Files.isRegularFile(inputFilePath)) {
+            session.reportFailure("Unable to sort. File not found: " + inputFileName);
+            return;
+        }
+        if (Files.isDirectory(outputFilePath) || outputFilePath.getParent() == null || !Files.isDirectory(outputFilePath.getParent())) {
+            session.reportFailure("Unable to sort. The output must be a file in an existing folder: " + outputFileName);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        SortStatistics sortStatistics = new SortStatistics();
+        Path workDirectoryPath = null;
+        ExecutorService sortWorkers = Executors.newFixedThreadPool(WORKER_COUNT);
+        try {
+            session.planWork(0, Files.size(inputFilePath));
+            workDirectoryPath = Files.createTempDirectory(outputFilePath.getParent(), WORK_DIRECTORY_PREFIX);
+            Path sortedFilePath = workDirectoryPath.resolve("sorted");
+            sort(session, inputFilePath, sortedFilePath, sortOptions, sortWorkers, sortStatistics);
+            replaceFile(sortedFilePath, outputFilePath);
+        } catch (NoSuchFileException noSuchFileException) {
+            session.reportFailure("Unable to sort. File not found: " + noSuchFileException.getFile());
+            return;
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Unable to sort " + inputFileName + ": " + exception.getMessage());
+            return;
+        } finally {
+            sortWorkers.shutdownNow();
+            awaitWorkers(sortWorkers);
+            deleteWorkDirectory(workDirectoryPath);
+        }
+
+        long removedLineCount = sortStatistics.readLineCount - sortStatistics.writtenLineCount;
+        session.getOutput().println(String.format(Locale.ROOT, "Sorted %d line(s) (%s) into %s in %.1f s using %d run(s) and %d merge pass(es)%s.",
+                sortStatistics.readLineCount, formatByteCount(sizeQuietly(outputFilePath)),
+                outputFileName, elapsedSeconds(startNanos), sortStatistics.runCount, sortStatistics.mergePassCount.get(),
+                sortOptions.isUnique() ? "; removed " + removedLineCount + " duplicate(s)" : ""));
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Cuts the input into sorted runs and merges them into the sorted file.
+     */
+    private static void sort(SessionContext session, Path inputFilePath, Path sortedFilePath, SortOptions sortOptions,
+                             ExecutorService sortWorkers, SortStatistics sortStatistics) throws IOException {
+        // One run is being read while at most WORKER_COUNT runs are sorted and written
+        long runBudgetBytes = Math.max(1, sortOptions.getMemoryCapBytes() / (WORKER_COUNT + 1));
+        Semaphore runsInFlight = new Semaphore(WORKER_COUNT);
+        List<Future<Path>> spilledRuns = new ArrayList<>();
+        Path workDirectoryPath = sortedFilePath.getParent();
+        Comparator<SortRecord> recordComparator = sortOptions.recordComparator();
+
+        try (BufferedReader inputReader = new BufferedReader(
+                new InputStreamReader(new ProgressInputStream(session, Files.newInputStream(inputFilePath)), Charset.defaultCharset()),
+                INPUT_BUFFER_SIZE)) {
+            List<SortRecord> runRecords = new ArrayList<>();
+            long runBytes = 0;
+            String line;
+            while ((line = inputReader.readLine()) != null) {
+                SortRecord sortRecord = sortOptions.toRecord(line);
+                runRecords.add(sortRecord);
+                runBytes += sortRecord.estimateHeapBytes();
+                sortStatistics.readLineCount++;
+                if (runBytes >= runBudgetBytes) {
+                    spilledRuns.add(spillRun(runRecords, workDirectoryPath.resolve("run-" + spilledRuns.size()), sortOptions,
+                            sortWorkers, runsInFlight));
+                    runRecords = new ArrayList<>();
+                    runBytes = 0;
+                }
+            }
+            if (spilledRuns.isEmpty()) {
+                sortStatistics.runCount = runRecords.isEmpty() ? 0 : 1;
+                runRecords.sort(recordComparator);
+                sortStatistics.writtenLineCount = writeRecords(runRecords, sortedFilePath, Charset.defaultCharset(), sortOptions);
+                return;
+            }
+            if (!runRecords.isEmpty()) {
+                spilledRuns.add(spillRun(runRecords, workDirectoryPath.resolve("run-" + spilledRuns.size()), sortOptions,
+                        sortWorkers, runsInFlight));
+            }
+        }
+
+        List<Path> runPaths = new ArrayList<>();
+        for (Future<Path> spilledRun : spilledRuns) {
+            runPaths.add(awaitResult(spilledRun));
+        }
+        sortStatistics.runCount = runPaths.size();
+        while (runPaths.size() > MAX_MERGE_WIDTH) {
+            runPaths = mergePass(session, runPaths, sortOptions, sortWorkers, sortStatistics);
+        }
+        sortStatistics.mergePassCount.incrementAndGet();
+        int runBufferSize = clampBufferSize(sortOptions.getMemoryCapBytes() / (runPaths.size() + 1));
+        sortStatistics.writtenLineCount = mergeRuns(session, runPaths, sortedFilePath, Charset.defaultCharset(), runBufferSize, sortOptions);
+    }
+
+    /**
+     * Sorts a run and writes it to a file on a worker, once a worker is free to take it.
+     */
+    private static Future<Path> spillRun(List<SortRecord> runRecords, Path runPath, SortOptions sortOptions,
+                                         ExecutorService sortWorkers, Semaphore runsInFlight) {
+        try {
+            runsInFlight.acquire();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        }
+        try {
+            return sortWorkers.submit(() -> {
+                try {
+                    runRecords.sort(sortOptions.recordComparator());
+                    writeRecords(runRecords, runPath, StandardCharsets.UTF_8, sortOptions);
+                    return runPath;
+                } finally {
+                    runsInFlight.release();
+                }
+            });
+        } catch (RuntimeException rejectedException) {
+            runsInFlight.release();
+            throw rejectedException;
+        }
+    }
+
+    /**
+     * Merges groups of {@value #MAX_MERGE_WIDTH} runs into longer runs in parallel, deleting the merged runs.
+     */
+    private static List<Path> mergePass(SessionContext session, List<Path> runPaths, SortOptions sortOptions,
+                                        ExecutorService sortWorkers, SortStatistics sortStatistics) throws IOException {
+        int passIndex = sortStatistics.mergePassCount.incrementAndGet();
+        int runBufferSize = clampBufferSize(sortOptions.getMemoryCapBytes() / ((MAX_MERGE_WIDTH + 1L) * WORKER_COUNT));
+        List<Future<Path>> mergedRuns = new ArrayList<>();
+        for (int groupStart = 0; groupStart < runPaths.size(); groupStart += MAX_MERGE_WIDTH) {
+            List<Path> groupRunPaths = runPaths.subList(groupStart, Math.min(runPaths.size(), groupStart + MAX_MERGE_WIDTH));
+            Path mergedRunPath = groupRunPaths.get(0).resolveSibling("pass-" + passIndex + "-run-" + mergedRuns.size());
+            mergedRuns.add(sortWorkers.submit(() -> {
+                mergeRuns(session, groupRunPaths, mergedRunPath, StandardCharsets.UTF_8, runBufferSize, sortOptions);
+                for (Path groupRunPath : groupRunPaths) {
+                    Files.delete(groupRunPath);
+                }
+                return mergedRunPath;
+            }));
+        }
+        List<Path> mergedRunPaths = new ArrayList<>();
+        for (Future<Path> mergedRun : mergedRuns) {
+            mergedRunPaths.add(awaitResult(mergedRun));
+        }
+        return mergedRunPaths;
+    }
+
+    /**
+     * Merges sorted runs into one sorted file through a priority queue holding the next line of each run.
+     *
+     * @return the number of lines written
+     */
+    private static long mergeRuns(SessionContext session, List<Path> runPaths, Path mergedFilePath, Charset mergedCharset,
+                                  int runBufferSize, SortOptions sortOptions) throws IOException {
+        Comparator<SortRecord> recordComparator = sortOptions.recordComparator();
+        Comparator<SortRecord> keyComparator = sortOptions.keyComparator();
+        PriorityQueue<RunCursor> runCursors = new PriorityQueue<>(runPaths.size(),
+                (firstCursor, secondCursor) -> recordComparator.compare(firstCursor.currentRecord, secondCursor.currentRecord));
+        List<RunCursor> openedCursors = new ArrayList<>();
+        long writtenLineCount = 0;
+        try (Writer mergedWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(mergedFilePath), mergedCharset), INPUT_BUFFER_SIZE)) {
+            for (Path runPath : runPaths) {
+                RunCursor runCursor = new RunCursor(runPath, runBufferSize, sortOptions);
+                openedCursors.add(runCursor);
+                if (runCursor.advance()) {
+                    runCursors.add(runCursor);
+                }
+            }
+            SortRecord lastWrittenRecord = null;
+            long mergedLineCount = 0;
+            while (!runCursors.isEmpty()) {
+                RunCursor runCursor = runCursors.poll();
+                SortRecord sortRecord = runCursor.currentRecord;
+                if (!sortOptions.isUnique() || lastWrittenRecord == null || keyComparator.compare(lastWrittenRecord, sortRecord) != 0) {
+                    mergedWriter.write(sortRecord.getLine());
+                    mergedWriter.write('\n');
+                    lastWrittenRecord = sortRecord;
+                    writtenLineCount++;
+                }
+                if (runCursor.advance()) {
+                    runCursors.add(runCursor);
+                }
+                if (++mergedLineCount % LINES_PER_PROGRESS_CHECK == 0) {
+                    checkCancelled(session);
+                }
+            }
+        } finally {
+            for (RunCursor openedCursor : openedCursors) {
+                openedCursor.close();
+            }
+        }
+        return writtenLineCount;
+    }
+
+    /**
+     * Writes sorted records to a file, leaving out duplicates when the options ask for it.
+     *
+     * @return the number of lines written
+     */
+    private static long writeRecords(List<SortRecord> sortedRecords, Path filePath, Charset fileCharset, SortOptions sortOptions) throws IOException {
+        Comparator<SortRecord> keyComparator = sortOptions.keyComparator();
+        long writtenLineCount = 0;
+        try (Writer fileWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(filePath), fileCharset), INPUT_BUFFER_SIZE)) {
+            SortRecord lastWrittenRecord = null;
+            for (SortRecord sortRecord : sortedRecords) {
+                if (sortOptions.isUnique() && lastWrittenRecord != null && keyComparator.compare(lastWrittenRecord, sortRecord) == 0) {
+                    continue;
+                }
+                fileWriter.write(sortRecord.getLine());
+                fileWriter.write('\n');
+                lastWrittenRecord = sortRecord;
+                writtenLineCount++;
+            }
+        }
+        return writtenLineCount;
+    }
+
+    /**
+     * Replaces the output with the sorted file, atomically where the file system allows it.
+     */
+    private static void replaceFile(Path sortedFilePath, Path outputFilePath) throws IOException {
+        try {
+            Files.move(sortedFilePath, outputFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException atomicMoveNotSupportedException) {
+            Files.move(sortedFilePath, outputFilePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Gives the cancellation of a background job a chance to stop a merge.
+     */
+    private static void checkCancelled(SessionContext session) {
+        session.recordWork(0, 0);
+        if (Thread.currentThread().isInterrupted()) {
+            throw new OperationCancelledException();
+        }
+    }
+
+    private static <T> T awaitResult(Future<T> pendingResult) throws IOException {
+        try {
+            return pendingResult.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        } catch (ExecutionException executionException) {
+            Throwable workerFailure = executionException.getCause();
+            if (workerFailure instanceof IOException) {
+                throw (IOException) workerFailure;
+            }
+            if (workerFailure instanceof RuntimeException) {
+                throw (RuntimeException) workerFailure;
+            }
+            throw new IOException("Sort worker failed: " + workerFailure, workerFailure);
+        }
+    }
+
+    private static void awaitWorkers(ExecutorService sortWorkers) {
+        try {
+            sortWorkers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int clampBufferSize(long bufferSize) {
+        return (int) Math.max(MIN_RUN_BUFFER_SIZE, Math.min(MAX_RUN_BUFFER_SIZE, bufferSize));
+    }
+
+    private static void deleteWorkDirectory(Path workDirectoryPath) {
+        if (workDirectoryPath == null) {
+            return;
+        }
+        try {
+            Files.walkFileTree(workDirectoryPath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path filePath, BasicFileAttributes fileAttributes) throws IOException {
+                    Files.deleteIfExists(filePath);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directoryPath, IOException visitException) throws IOException {
+                    Files.deleteIfExists(directoryPath);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | SecurityException ignored) {}
+    }
+
+    private static long sizeQuietly(Path filePath) {
+        try {
+            return Files.size(filePath);
+        } catch (IOException | SecurityException exception) {
+            return 0;
+        }
+    }
+
+    private static double elapsedSeconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
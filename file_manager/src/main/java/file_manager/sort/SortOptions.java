@@ -0,0 +1,212 @@
+package file_manager.sort;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.ByteCountUtils.parseByteCount;
+
+/**
+ * The options of {@code sort file}, given as one argument of space-separated words such as
+ * {@code key=2 sep=, numeric unique reverse memory=512M}.
+ * <ul>
+ *   <li>{@code key=N} sorts by the N-th field, counting from 1, instead of the whole line</li>
+ *   <li>{@code sep=C} separates fields by the character C ({@code sep=tab} for a tab) instead of
+ *       runs of spaces and tabs</li>
+ *   <li>{@code numeric} compares the keys as numbers; keys that are not numbers come first</li>
+ *   <li>{@code unique} keeps only the first of the lines with equal keys</li>
+ *   <li>{@code reverse} sorts in descending order</li>
+ *   <li>{@code memory=SIZE} caps the memory used for lines, {@value #DEFAULT_MEMORY_CAP_TEXT} by default</li>
+ * </ul>
+ * Lines with equal keys are ordered by the whole line, so the result does not depend on how the
+ * input was split into runs.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public final class SortOptions {
+
+    static final String DEFAULT_MEMORY_CAP_TEXT = "256M";
+
+    private int keyField;
+    private Character fieldSeparator;
+    private boolean numeric;
+    private boolean unique;
+    private boolean reverse;
+    private long memoryCapBytes = Math.min(parseByteCount(DEFAULT_MEMORY_CAP_TEXT), Runtime.getRuntime().maxMemory() / 2);
+
+    private SortOptions() {
+    }
+
+    /**
+     * Parses the options argument of {@code sort file}.
+     *
+     * @param optionsText the options, or null for the defaults
+     * @return the options
+     * @throws IllegalArgumentException if an option is unknown or has an invalid value
+     */
+    public static SortOptions parse(String optionsText) {
+        SortOptions sortOptions = new SortOptions();
+        if (optionsText == null) {
+            return sortOptions;
+        }
+        for (String option : optionsText.trim().split("\\s+")) {
+            String optionName = option.contains("=") ? option.substring(0, option.indexOf('=')).toLowerCase(Locale.ROOT) : option.toLowerCase(Locale.ROOT);
+            String optionValue = option.contains("=") ? option.substring(option.indexOf('=') + 1) : null;
+            switch (optionName) {
+                case "":
+                    break;
+                case "key":
+                    sortOptions.keyField = Integer.parseInt(requireValue(optionName, optionValue));
+                    if (sortOptions.keyField < 1) {
+                        throw new IllegalArgumentException("Fields are counted from 1: " + option);
+                    }
+                    break;
+                case "sep":
+                    String separator = requireValue(optionName, optionValue);
+                    if (separator.equalsIgnoreCase("tab")) {
+                        sortOptions.fieldSeparator = '\t';
+                    } else if (separator.length() == 1) {
+                        sortOptions.fieldSeparator = separator.charAt(0);
+                    } else {
+                        throw new IllegalArgumentException("The separator must be a single character or tab: " + option);
+                    }
+                    break;
+                case "numeric":
+                    sortOptions.numeric = true;
+                    break;
+                case "unique":
+                    sortOptions.unique = true;
+                    break;
+                case "reverse":
+                    sortOptions.reverse = true;
+                    break;
+                case "memory":
+                    sortOptions.memoryCapBytes = parseByteCount(requireValue(optionName, optionValue));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown sort option: " + option);
+            }
+        }
+        return sortOptions;
+    }
+
+    /**
+     * @return {@code true} if only the first of the lines with equal keys is kept
+     */
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * @return the memory the lines being sorted may take, in bytes
+     */
+    public long getMemoryCapBytes() {
+        return memoryCapBytes;
+    }
+
+    /**
+     * Describes the options, for example {@code key 2, numeric, unique, 256.0 MiB}.
+     *
+     * @return the description
+     */
+    public String describe() {
+        StringBuilder descriptionBuilder = new StringBuilder(keyField == 0 ? "whole lines" : "key " + keyField);
+        if (numeric) {
+            descriptionBuilder.append(", numeric");
+        }
+        if (unique) {
+            descriptionBuilder.append(", unique");
+        }
+        if (reverse) {
+            descriptionBuilder.append(", reverse");
+        }
+        return descriptionBuilder.append(", ").append(formatByteCount(memoryCapBytes)).append(" memory").toString();
+    }
+
+    /**
+     * Wraps a line with its key, extracted once.
+     *
+     * @param line the line
+     * @return the record to sort
+     */
+    SortRecord toRecord(String line) {
+        String key = keyField == 0 ? line : extractField(line);
+        return new SortRecord(line, key, numeric ? parseNumber(key) : Double.NaN);
+    }
+
+    /**
+     * @return the order of records by key only, which decides which lines are duplicates
+     */
+    Comparator<SortRecord> keyComparator() {
+        Comparator<SortRecord> keyComparator = numeric
+                ? Comparator.comparingDouble(SortRecord::getNumericKey).thenComparing(SortRecord::getKey)
+                : Comparator.comparing(SortRecord::getKey);
+        return reverse ? keyComparator.reversed() : keyComparator;
+    }
+
+    /**
+     * @return the order of records by key and then by the whole line
+     */
+    Comparator<SortRecord> recordComparator() {
+        Comparator<SortRecord> lineComparator = Comparator.comparing(SortRecord::getLine);
+        return keyComparator().thenComparing(reverse ? lineComparator.reversed() : lineComparator);
+    }
+
+    // --- Helper Methods ---
+
+    private static String requireValue(String optionName, String optionValue) {
+        if (optionValue == null || optionValue.isEmpty()) {
+            throw new IllegalArgumentException("The option needs a value: " + optionName + "=...");
+        }
+        return optionValue;
+    }
+
+    private String extractField(String line) {
+        int fieldStart = 0;
+        int fieldIndex = 1;
+        int lineLength = line.length();
+        if (fieldSeparator == null) {
+            // Runs of blanks separate fields, and leading blanks are ignored
+            while (fieldStart < lineLength && isBlank(line.charAt(fieldStart))) {
+                fieldStart++;
+            }
+            while (fieldIndex < keyField && fieldStart < lineLength) {
+                while (fieldStart < lineLength && !isBlank(line.charAt(fieldStart))) {
+                    fieldStart++;
+                }
+                while (fieldStart < lineLength && isBlank(line.charAt(fieldStart))) {
+                    fieldStart++;
+                }
+                fieldIndex++;
+            }
+            int fieldEnd = fieldStart;
+            while (fieldEnd < lineLength && !isBlank(line.charAt(fieldEnd))) {
+                fieldEnd++;
+            }
+            return fieldIndex == keyField ? line.substring(fieldStart, fieldEnd) : "";
+        }
+        while (fieldIndex < keyField) {
+            int separatorIndex = line.indexOf(fieldSeparator, fieldStart);
+            if (separatorIndex < 0) {
+                return "";
+            }
+            fieldStart = separatorIndex + 1;
+            fieldIndex++;
+        }
+        int fieldEnd = line.indexOf(fieldSeparator, fieldStart);
+        return line.substring(fieldStart, fieldEnd < 0 ? lineLength : fieldEnd);
+    }
+
+    private static boolean isBlank(char lineChar) {
+        return lineChar == ' ' || lineChar == '\t';
+    }
+
+    private static double parseNumber(String key) {
+        try {
+            return Double.parseDouble(key.trim());
+        } catch (NumberFormatException numberFormatException) {
+            return Double.NEGATIVE_INFINITY;
+        }
+    }
+}
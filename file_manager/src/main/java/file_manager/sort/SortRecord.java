@@ -0,0 +1,45 @@
+package file_manager.sort;
+
+/**
+ * A line being sorted, with its key extracted once so that comparisons do not repeat the work.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+final class SortRecord {
+
+    /**
+     * A rough count of the bytes a record takes besides its characters: the record, two strings
+     * and their arrays, and the reference to the record.
+     */
+    private static final int RECORD_OVERHEAD_BYTES = 128;
+
+    private final String line;
+    private final String key;
+    private final double numericKey;
+
+    SortRecord(String line, String key, double numericKey) {
+        this.line = line;
+        this.key = key;
+        this.numericKey = numericKey;
+    }
+
+    String getLine() {
+        return line;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    double getNumericKey() {
+        return numericKey;
+    }
+
+    /**
+     * @return an estimate of the heap the record takes, counting two bytes per character
+     */
+    long estimateHeapBytes() {
+        return RECORD_OVERHEAD_BYTES + 2L * line.length() + (key == line ? 0 : 2L * key.length());
+    }
+}
@@ -0,0 +1,189 @@
+package file_manager.throttle;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import file_manager.session.OperationCancelledException;
+
+/**
+ * Limits the rate of I/O done by File Manager commands with two token buckets: one for bytes
+ * read or written per second and one for file operations (files created, copied, moved or
+ * deleted) per second.
+ * <p>
+ * Operations charge their work through {@link file_manager.session.SessionContext#recordWork(long, long)}
+ * once per chunk or file, never per byte, and a throttle that has no limits returns at once.
+ * Each bucket holds at most one second of its rate, so a burst after an idle period is bounded.
+ * A charge that overdraws a bucket is granted and the caller sleeps until the debt is repaid,
+ * which keeps the long-run rate exact even when concurrent commands charge large chunks.
+ * </p>
+ * <p>
+ * One {@linkplain #getGlobalThrottle() global throttle} is shared by every session in the JVM,
+ * so background jobs, batch commands and server connections together stay under the limit of
+ * the host. In addition, each command can have its own {@linkplain #getCommandThrottle(String)
+ * throttle}, shared by every run of that command. Work is charged to both.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class IoThrottle {
+
+    /**
+     * The rate that means no limit.
+     */
+    public static final long UNLIMITED = 0;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final IoThrottle GLOBAL_THROTTLE = new IoThrottle();
+    private static final Map<String, IoThrottle> COMMAND_THROTTLES = new ConcurrentHashMap<>();
+
+    private final TokenBucket byteBucket = new TokenBucket();
+    private final TokenBucket operationBucket = new TokenBucket();
+
+    /**
+     * @return the throttle shared by every command in the JVM
+     */
+    public static IoThrottle getGlobalThrottle() {
+        return GLOBAL_THROTTLE;
+    }
+
+    /**
+     * Returns the throttle of a command, creating an unlimited one on first use.
+     *
+     * @param commandCode the command code, as returned by {@code CommandExecutor.resolveCommandCode}
+     * @return the throttle shared by every run of the command
+     */
+    public static IoThrottle getCommandThrottle(String commandCode) {
+        return COMMAND_THROTTLES.computeIfAbsent(commandCode, unthrottledCommandCode -> new IoThrottle());
+    }
+
+    /**
+     * Returns the throttle of a command if it has limits.
+     *
+     * @param commandCode the command code
+     * @return the throttle of the command, or {@code null} if the command is not limited
+     */
+    public static IoThrottle findCommandThrottle(String commandCode) {
+        IoThrottle commandThrottle = COMMAND_THROTTLES.get(commandCode);
+        return commandThrottle != null && commandThrottle.isLimited() ? commandThrottle : null;
+    }
+
+    /**
+     * @return the command codes that have limits, mapped to their throttles, in command code order
+     */
+    public static Map<String, IoThrottle> getLimitedCommandThrottles() {
+        Map<String, IoThrottle> limitedCommandThrottles = new TreeMap<>();
+        COMMAND_THROTTLES.forEach((commandCode, commandThrottle) -> {
+            if (commandThrottle.isLimited()) {
+                limitedCommandThrottles.put(commandCode, commandThrottle);
+            }
+        });
+        return limitedCommandThrottles;
+    }
+
+    /**
+     * Removes the limits of the global throttle and of every command.
+     */
+    public static void removeAllLimits() {
+        GLOBAL_THROTTLE.setLimits(UNLIMITED, UNLIMITED);
+        COMMAND_THROTTLES.clear();
+    }
+
+    /**
+     * Sets the limits of this throttle. The buckets start full.
+     *
+     * @param bytesPerSecond      the bytes per second, or {@link #UNLIMITED}
+     * @param operationsPerSecond the file operations per second, or {@link #UNLIMITED}
+     * @throws IllegalArgumentException if either rate is negative
+     */
+    public void setLimits(long bytesPerSecond, long operationsPerSecond) {
+        if (bytesPerSecond < 0 || operationsPerSecond < 0) {
+            throw new IllegalArgumentException("I/O rates cannot be negative: " + bytesPerSecond + " bytes/s, "
+                    + operationsPerSecond + " operations/s");
+        }
+        byteBucket.setRate(bytesPerSecond);
+        operationBucket.setRate(operationsPerSecond);
+    }
+
+    /**
+     * @return the limit in bytes per second, or {@link #UNLIMITED}
+     */
+    public long getBytesPerSecond() {
+        return byteBucket.ratePerSecond;
+    }
+
+    /**
+     * @return the limit in file operations per second, or {@link #UNLIMITED}
+     */
+    public long getOperationsPerSecond() {
+        return operationBucket.ratePerSecond;
+    }
+
+    /**
+     * @return {@code true} if either rate is limited
+     */
+    public boolean isLimited() {
+        return byteBucket.ratePerSecond != UNLIMITED || operationBucket.ratePerSecond != UNLIMITED;
+    }
+
+    /**
+     * Charges work to this throttle, sleeping as long as needed to stay within its limits.
+     *
+     * @param operationCount the number of file operations done
+     * @param byteCount      the number of bytes read or written
+     * @throws OperationCancelledException if the thread is interrupted while it waits
+     */
+    public void acquire(long operationCount, long byteCount) {
+        long waitNanos = Math.max(byteBucket.reserve(byteCount), operationBucket.reserve(operationCount));
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new OperationCancelledException();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * A token bucket that refills continuously at its rate and holds at most one second of tokens.
+     */
+    private static final class TokenBucket {
+        private volatile long ratePerSecond = UNLIMITED;
+        private double availableTokens;
+        private long lastRefillNanos;
+
+        synchronized void setRate(long newRatePerSecond) {
+            ratePerSecond = newRatePerSecond;
+            availableTokens = ratePerSecond;
+            lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * Takes the tokens and returns how long the caller must wait for the bucket to be out of debt.
+         */
+        long reserve(long tokenCount) {
+            if (ratePerSecond == UNLIMITED || tokenCount <= 0) {
+                return 0;
+            }
+            synchronized (this) {
+                long currentRate = ratePerSecond;
+                if (currentRate == UNLIMITED) {
+                    return 0;
+                }
+                long nowNanos = System.nanoTime();
+                availableTokens = Math.min(currentRate,
+                        availableTokens + (double) (nowNanos - lastRefillNanos) * currentRate / NANOS_PER_SECOND);
+                lastRefillNanos = nowNanos;
+                availableTokens -= tokenCount;
+                return availableTokens >= 0 ? 0 : (long) (-availableTokens * NANOS_PER_SECOND / currentRate);
+            }
+        }
+    }
+}
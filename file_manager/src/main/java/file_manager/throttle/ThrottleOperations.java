@@ -0,0 +1,100 @@
+package file_manager.throttle;
+
+import java.util.Locale;
+import java.util.Map;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.SessionContext;
+import file_manager.utils.ByteCountUtils;
+
+/**
+ * Utility class for the {@code throttle} command, which shows and sets the I/O limits
+ * enforced by {@link IoThrottle}.
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class ThrottleOperations {
+
+    private ThrottleOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Shows the I/O limits if no limit is given, otherwise sets the limits of every command
+     * together or, if a command is named, of that command alone.
+     * A limit of {@code 0} or {@code off} removes it.
+     *
+     * @param session             the session to report to
+     * @param bytesPerSecondText  the bytes per second, for example {@code 50M}, or null to show the limits
+     * @param operationsPerSecond the file operations per second, or null for no limit
+     * @param commandName         the command to limit, such as {@code copy file}, or null for every command
+     */
+    public static void throttle(SessionContext session, String bytesPerSecondText, String operationsPerSecond, String commandName) {
+        if (bytesPerSecondText == null && operationsPerSecond == null) {
+            printLimits(session);
+            return;
+        }
+        IoThrottle targetThrottle = IoThrottle.getGlobalThrottle();
+        String targetDescription = "all commands";
+        if (commandName != null) {
+            String commandCode = CommandExecutor.resolveCommandCode(commandName);
+            if (commandCode == null) {
+                session.reportFailure("Unrecognized command: " + commandName);
+                return;
+            }
+            targetThrottle = IoThrottle.getCommandThrottle(commandCode);
+            targetDescription = commandName;
+        }
+        long parsedBytesPerSecond;
+        long parsedOperationsPerSecond;
+        try {
+            parsedBytesPerSecond = isUnlimited(bytesPerSecondText) ? IoThrottle.UNLIMITED : ByteCountUtils.parseByteCount(bytesPerSecondText);
+            parsedOperationsPerSecond = isUnlimited(operationsPerSecond) ? IoThrottle.UNLIMITED : Long.parseLong(operationsPerSecond.trim());
+        } catch (NumberFormatException numberFormatException) {
+            session.reportFailure("Invalid limit. Use a byte rate such as 50M and a number of operations per second, or 0 for no limit.");
+            return;
+        }
+        if (parsedBytesPerSecond < 0 || parsedOperationsPerSecond < 0) {
+            session.reportFailure("Invalid limit: I/O rates cannot be negative. Use a positive rate, or 0 for no limit.");
+            return;
+        }
+        targetThrottle.setLimits(parsedBytesPerSecond, parsedOperationsPerSecond);
+        session.getOutput().println("I/O limits for " + targetDescription + ": " + describeLimits(targetThrottle));
+    }
+
+    /**
+     * Describes the limits of a throttle, for example {@code 50.0 MiB/s, 200 operations/s}.
+     *
+     * @param ioThrottle the throttle to describe
+     * @return the description of its limits
+     */
+    public static String describeLimits(IoThrottle ioThrottle) {
+        String byteRateDescription = ioThrottle.getBytesPerSecond() == IoThrottle.UNLIMITED
+                ? "unlimited bytes/s" : ByteCountUtils.formatByteCount(ioThrottle.getBytesPerSecond()) + "/s";
+        String operationRateDescription = ioThrottle.getOperationsPerSecond() == IoThrottle.UNLIMITED
+                ? "unlimited operations/s" : ioThrottle.getOperationsPerSecond() + " operations/s";
+        return byteRateDescription + ", " + operationRateDescription;
+    }
+
+    // --- Helper Methods ---
+
+    private static void printLimits(SessionContext session) {
+        session.getOutput().println("I/O limits for all commands: " + describeLimits(IoThrottle.getGlobalThrottle()));
+        for (Map.Entry<String, IoThrottle> commandThrottle : IoThrottle.getLimitedCommandThrottles().entrySet()) {
+            session.getOutput().println("I/O limits for " + CommandExecutor.getCommandName(commandThrottle.getKey())
+                    + ": " + describeLimits(commandThrottle.getValue()));
+        }
+    }
+
+    private static boolean isUnlimited(String limitText) {
+        if (limitText == null) {
+            return true;
+        }
+        String normalizedLimitText = limitText.trim().toLowerCase(Locale.ROOT);
+        return normalizedLimitText.equals("0") || normalizedLimitText.equals("off") || normalizedLimitText.equals("unlimited");
+    }
+}
@@ -0,0 +1,553 @@
+package file_manager.trash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The trash of one volume: a folder that deleted files and folders are renamed into, so that
+ * deleting and restoring take one rename however large the tree is.
+ * <p>
+ * The bin is chosen the way the freedesktop.org trash specification chooses it, so that every
+ * item can be moved there without copying and no bin is ever shared with other users. On the
+ * volume of the home folder it is the home trash, {@code $XDG_DATA_HOME/Trash}. On any other
+ * volume it is {@code $topdir/.Trash/$uid}, where {@code $topdir} is the root of the volume, if
+ * an administrator has set up {@code $topdir/.Trash} as a sticky folder that is not a symbolic
+ * link, and {@code $topdir/.Trash-$uid} otherwise. A per-user folder is created readable by its
+ * owner only and is refused if it is a symbolic link or open to other users.
+ * </p>
+ * <p>
+ * The layout of a bin follows the same specification: the items are in {@code files} and the index is
+ * a {@code .trashinfo} file per item in {@code info}, holding the original path and the
+ * deletion date. The index entry is written before the item is moved and removed after it is
+ * restored, so an item is never in the bin without its entry. Items being purged are first
+ * renamed into {@code expunged}, which {@link TrashPurger} empties. The size of each trashed
+ * folder is measured once and kept in the {@code directorysizes} cache of the specification,
+ * next to the modification time of its index entry, so that the size limit can be checked
+ * without walking the folders again.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public final class TrashBin {
+
+    /**
+     * The name of the shared trash folder an administrator can set up at the root of a volume.
+     */
+    public static final String SHARED_TRASH_DIRECTORY_NAME = ".Trash";
+
+    /**
+     * The prefix of the per-user trash folder created at the root of a volume, followed by the user id.
+     */
+    public static final String USER_TRASH_DIRECTORY_PREFIX = ".Trash-";
+
+    private static final String HOME_TRASH_DIRECTORY_NAME = "Trash";
+    private static final int STICKY_BIT = 01000;
+    private static final Set<PosixFilePermission> OWNER_ONLY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+    private static final String FILES_DIRECTORY_NAME = "files";
+    private static final String INFO_DIRECTORY_NAME = "info";
+    private static final String EXPUNGED_DIRECTORY_NAME = "expunged";
+    private static final String DIRECTORY_SIZES_FILE_NAME = "directorysizes";
+    private static final String INFO_FILE_SUFFIX = ".trashinfo";
+    private static final String INFO_HEADER = "[Trash Info]";
+    private static final String PATH_KEY = "Path=";
+    private static final String DELETION_DATE_KEY = "DeletionDate=";
+    private static final String UNRESERVED_PATH_CHARACTERS = "-._~/";
+
+    private static final Map<Path, TrashBin> KNOWN_TRASH_BINS = new ConcurrentHashMap<>();
+
+    private final Path trashDirectoryPath;
+    private final Path filesDirectoryPath;
+    private final Path infoDirectoryPath;
+    private final Path expungedDirectoryPath;
+    private final Path directorySizesPath;
+
+    private TrashBin(Path trashDirectoryPath) {
+        this.trashDirectoryPath = trashDirectoryPath;
+        this.filesDirectoryPath = trashDirectoryPath.resolve(FILES_DIRECTORY_NAME);
+        this.infoDirectoryPath = trashDirectoryPath.resolve(INFO_DIRECTORY_NAME);
+        this.expungedDirectoryPath = trashDirectoryPath.resolve(EXPUNGED_DIRECTORY_NAME);
+        this.directorySizesPath = trashDirectoryPath.resolve(DIRECTORY_SIZES_FILE_NAME);
+    }
+
+    /**
+     * Finds the bin that the files and folders of a folder are moved to, creating its folder if needed.
+     *
+     * @param directoryPath the folder
+     * @return the bin on the volume of the folder
+     * @throws IOException if the bin cannot be created, or is a symbolic link or open to other users
+     */
+    public static TrashBin forDirectory(Path directoryPath) throws IOException {
+        Path absoluteDirectoryPath = directoryPath.toAbsolutePath().normalize();
+        FileStore directoryStore = Files.getFileStore(absoluteDirectoryPath);
+        Path homeDirectoryPath = findHomeDirectory(absoluteDirectoryPath);
+        Path trashDirectoryPath;
+        if (homeDirectoryPath != null && isOnFileStore(homeDirectoryPath, directoryStore)) {
+            trashDirectoryPath = findHomeTrashDirectory(homeDirectoryPath);
+            Files.createDirectories(trashDirectoryPath.getParent());
+            usePrivateDirectory(trashDirectoryPath);
+        } else {
+            Path topDirectoryPath = absoluteDirectoryPath;
+            while (topDirectoryPath.getParent() != null && isOnFileStore(topDirectoryPath.getParent(), directoryStore)) {
+                topDirectoryPath = topDirectoryPath.getParent();
+            }
+            String userId = findUserId();
+            Path sharedTrashPath = topDirectoryPath.resolve(SHARED_TRASH_DIRECTORY_NAME);
+            trashDirectoryPath = isValidSharedTrash(sharedTrashPath)
+                    ? sharedTrashPath.resolve(userId) : topDirectoryPath.resolve(USER_TRASH_DIRECTORY_PREFIX + userId);
+            usePrivateDirectory(trashDirectoryPath);
+        }
+        return KNOWN_TRASH_BINS.computeIfAbsent(trashDirectoryPath, TrashBin::new);
+    }
+
+    /**
+     * @return the bins used since the application started
+     */
+    public static Collection<TrashBin> getKnownTrashBins() {
+        return KNOWN_TRASH_BINS.values();
+    }
+
+    /**
+     * @return the folder of the bin
+     */
+    public Path getTrashDirectoryPath() {
+        return trashDirectoryPath;
+    }
+
+    /**
+     * Moves a file or folder into the bin with a single rename.
+     *
+     * @param itemPath the file or folder, on the volume of the bin
+     * @return the entry of the item in the bin
+     * @throws IOException if the item is the bin or inside it, or cannot be renamed into the bin;
+     *                     an {@link java.nio.file.AtomicMoveNotSupportedException} means it is on another volume
+     */
+    public TrashEntry moveToTrash(Path itemPath) throws IOException {
+        Path absoluteItemPath = itemPath.toAbsolutePath().normalize();
+        if (absoluteItemPath.startsWith(trashDirectoryPath) || trashDirectoryPath.startsWith(absoluteItemPath)) {
+            throw new IOException("The trash cannot be moved to the trash");
+        }
+        Files.createDirectories(filesDirectoryPath);
+        Files.createDirectories(infoDirectoryPath);
+        String itemName = absoluteItemPath.getFileName().toString();
+        LocalDateTime deletionDateTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        byte[] infoContents = (INFO_HEADER + "\n" + PATH_KEY + encodePath(absoluteItemPath.toString()) + "\n"
+                + DELETION_DATE_KEY + deletionDateTime + "\n").getBytes(StandardCharsets.UTF_8);
+        for (int attempt = 1; ; attempt++) {
+            String entryId = attempt == 1 ? itemName : itemName + "." + attempt;
+            Path infoPath = getInfoPath(entryId);
+            try {
+                // Creating the index entry reserves the name in the bin
+                Files.write(infoPath, infoContents, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+                continue;
+            }
+            Path trashedItemPath = filesDirectoryPath.resolve(entryId);
+            try {
+                if (Files.exists(trashedItemPath, LinkOption.NOFOLLOW_LINKS)) {
+                    throw new FileAlreadyExistsException(trashedItemPath.toString());
+                }
+                Files.move(absoluteItemPath, trashedItemPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+                // Left behind without its entry, so it cannot be restored; the purger removes it
+                Files.deleteIfExists(infoPath);
+                continue;
+            } catch (IOException | RuntimeException exception) {
+                Files.deleteIfExists(infoPath);
+                throw exception;
+            }
+            return new TrashEntry(this, entryId, absoluteItemPath, deletionDateTime.atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    /**
+     * Moves an item back to where it was deleted from, creating its parent folders if needed.
+     *
+     * @param entryId the name of the item in the bin
+     * @return the path the item was restored to
+     * @throws NoSuchFileException if the bin has no such item
+     * @throws FileAlreadyExistsException if something else now has the original path
+     * @throws IOException if the item cannot be moved back
+     */
+    public synchronized Path restore(String entryId) throws IOException {
+        TrashEntry trashEntry = findEntry(entryId);
+        if (trashEntry == null) {
+            throw new NoSuchFileException(entryId);
+        }
+        Path originalPath = trashEntry.getOriginalPath();
+        if (Files.exists(originalPath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new FileAlreadyExistsException(originalPath.toString());
+        }
+        if (originalPath.getParent() != null) {
+            Files.createDirectories(originalPath.getParent());
+        }
+        Files.move(filesDirectoryPath.resolve(entryId), originalPath, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(getInfoPath(entryId));
+        return originalPath;
+    }
+
+    /**
+     * Reads the index entry of one item.
+     *
+     * @param entryId the name of the item in the bin
+     * @return the entry, or {@code null} if the bin has no such item
+     * @throws IOException if the index cannot be read
+     */
+    public TrashEntry findEntry(String entryId) throws IOException {
+        if (entryId.isEmpty() || entryId.contains("/") || entryId.contains("\\") || entryId.equals(".") || entryId.equals("..")) {
+            return null;
+        }
+        Path infoPath = getInfoPath(entryId);
+        if (!Files.isRegularFile(infoPath)) {
+            return null;
+        }
+        return readEntry(entryId, infoPath);
+    }
+
+    /**
+     * Reads the whole index of the bin. Entries that cannot be parsed are skipped.
+     *
+     * @return the items in the bin, in no particular order
+     * @throws IOException if the index cannot be read
+     */
+    public List<TrashEntry> listEntries() throws IOException {
+        List<TrashEntry> trashEntries = new ArrayList<>();
+        if (!Files.isDirectory(infoDirectoryPath)) {
+            return trashEntries;
+        }
+        try (DirectoryStream<Path> infoFiles = Files.newDirectoryStream(infoDirectoryPath, "*" + INFO_FILE_SUFFIX)) {
+            for (Path infoPath : infoFiles) {
+                String infoFileName = infoPath.getFileName().toString();
+                TrashEntry trashEntry = readEntry(infoFileName.substring(0, infoFileName.length() - INFO_FILE_SUFFIX.length()), infoPath);
+                if (trashEntry != null) {
+                    trashEntries.add(trashEntry);
+                }
+            }
+        }
+        return trashEntries;
+    }
+
+    /**
+     * Takes an item out of the bin for purging: it is renamed into {@code expunged} and its
+     * index entry is removed, so it can no longer be restored.
+     *
+     * @param trashEntry the item
+     * @throws IOException if the item cannot be renamed
+     */
+    synchronized void expunge(TrashEntry trashEntry) throws IOException {
+        Path trashedItemPath = filesDirectoryPath.resolve(trashEntry.getEntryId());
+        if (Files.exists(trashedItemPath, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(expungedDirectoryPath);
+            Files.move(trashedItemPath, expungedDirectoryPath.resolve(trashEntry.getEntryId() + "." + System.nanoTime()),
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.deleteIfExists(getInfoPath(trashEntry.getEntryId()));
+    }
+
+    /**
+     * Takes the items that have no index entry, which can never be restored, out of the bin for purging.
+     *
+     * @throws IOException if the bin cannot be read
+     */
+    synchronized void expungeOrphans() throws IOException {
+        if (!Files.isDirectory(filesDirectoryPath)) {
+            return;
+        }
+        try (DirectoryStream<Path> trashedItems = Files.newDirectoryStream(filesDirectoryPath)) {
+            for (Path trashedItemPath : trashedItems) {
+                String entryId = trashedItemPath.getFileName().toString();
+                if (!Files.exists(getInfoPath(entryId))) {
+                    expunge(new TrashEntry(this, entryId, null, null));
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the number of bytes in the files of each item. A file is measured directly; a folder
+     * is measured only if the {@code directorysizes} cache has no size for it that is as recent
+     * as its index entry. The cache is then rewritten with the folders among the items, and
+     * removed if there are none.
+     *
+     * @param trashEntries the items
+     * @return the number of bytes of each item, by the name of the item in the bin; an item
+     *         restored or purged meanwhile counts as empty
+     * @throws IOException if an item cannot be measured
+     */
+    synchronized Map<String, Long> measureEntries(List<TrashEntry> trashEntries) throws IOException {
+        Map<String, long[]> cachedDirectorySizes = readDirectorySizes();
+        Map<String, long[]> directorySizes = new HashMap<>();
+        Map<String, Long> entryBytes = new HashMap<>();
+        for (TrashEntry trashEntry : trashEntries) {
+            String entryId = trashEntry.getEntryId();
+            long itemBytes = 0;
+            try {
+                BasicFileAttributes itemAttributes = Files.readAttributes(getTrashedItemPath(trashEntry),
+                        BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (itemAttributes.isDirectory()) {
+                    long infoModifiedSeconds = Files.getLastModifiedTime(getInfoPath(entryId)).to(TimeUnit.SECONDS);
+                    long[] cachedDirectorySize = cachedDirectorySizes.get(entryId);
+                    itemBytes = cachedDirectorySize != null && cachedDirectorySize[1] == infoModifiedSeconds
+                            ? cachedDirectorySize[0] : measureTree(getTrashedItemPath(trashEntry));
+                    directorySizes.put(entryId, new long[] {itemBytes, infoModifiedSeconds});
+                } else {
+                    itemBytes = itemAttributes.size();
+                }
+            } catch (NoSuchFileException noSuchFileException) {
+                // Restored or purged meanwhile
+            }
+            entryBytes.put(entryId, itemBytes);
+        }
+        writeDirectorySizes(directorySizes);
+        return entryBytes;
+    }
+
+    /**
+     * @return the folder of the items taken out for purging
+     */
+    Path getExpungedDirectoryPath() {
+        return expungedDirectoryPath;
+    }
+
+    /**
+     * @param trashEntry an item in the bin
+     * @return the path of the item inside the bin
+     */
+    Path getTrashedItemPath(TrashEntry trashEntry) {
+        return filesDirectoryPath.resolve(trashEntry.getEntryId());
+    }
+
+    // --- Helper Methods ---
+
+    private Path getInfoPath(String entryId) {
+        return infoDirectoryPath.resolve(entryId + INFO_FILE_SUFFIX);
+    }
+
+    /**
+     * Reads the {@code directorysizes} cache, whose lines hold the size of a folder, the
+     * modification time of its index entry in seconds and its percent-encoded name. Lines that
+     * cannot be parsed are skipped.
+     */
+    private Map<String, long[]> readDirectorySizes() throws IOException {
+        Map<String, long[]> directorySizes = new HashMap<>();
+        List<String> directorySizeLines;
+        try {
+            directorySizeLines = Files.readAllLines(directorySizesPath, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException noSuchFileException) {
+            return directorySizes;
+        }
+        for (String directorySizeLine : directorySizeLines) {
+            String[] directorySizeFields = directorySizeLine.split(" ", 3);
+            if (directorySizeFields.length != 3) {
+                continue;
+            }
+            try {
+                directorySizes.put(decodePath(directorySizeFields[2]),
+                        new long[] {Long.parseLong(directorySizeFields[0]), Long.parseLong(directorySizeFields[1])});
+            } catch (IllegalArgumentException invalidLine) {
+                // Skipped, so the folder is measured again
+            }
+        }
+        return directorySizes;
+    }
+
+    /**
+     * Replaces the {@code directorysizes} cache in one rename, so that readers never see it half
+     * written, or removes it when no folder is left.
+     */
+    private void writeDirectorySizes(Map<String, long[]> directorySizes) throws IOException {
+        if (directorySizes.isEmpty()) {
+            Files.deleteIfExists(directorySizesPath);
+            return;
+        }
+        StringBuilder directorySizesBuilder = new StringBuilder();
+        for (Map.Entry<String, long[]> directorySize : directorySizes.entrySet()) {
+            directorySizesBuilder.append(directorySize.getValue()[0]).append(' ').append(directorySize.getValue()[1]).append(' ')
+                    .append(encodePath(directorySize.getKey())).append('\n');
+        }
+        Path temporaryDirectorySizesPath = Files.createTempFile(trashDirectoryPath, DIRECTORY_SIZES_FILE_NAME, ".tmp");
+        try {
+            Files.write(temporaryDirectorySizesPath, directorySizesBuilder.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryDirectorySizesPath, directorySizesPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryDirectorySizesPath);
+        }
+    }
+
+    private static long measureTree(Path rootPath) throws IOException {
+        AtomicLong treeBytes = new AtomicLong();
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path filePath, BasicFileAttributes fileAttributes) {
+                treeBytes.addAndGet(fileAttributes.size());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return treeBytes.get();
+    }
+
+    private TrashEntry readEntry(String entryId, Path infoPath) throws IOException {
+        String encodedPath = null;
+        String deletionDate = null;
+        try {
+            for (String infoLine : Files.readAllLines(infoPath, StandardCharsets.UTF_8)) {
+                if (infoLine.startsWith(PATH_KEY)) {
+                    encodedPath = infoLine.substring(PATH_KEY.length());
+                } else if (infoLine.startsWith(DELETION_DATE_KEY)) {
+                    deletionDate = infoLine.substring(DELETION_DATE_KEY.length());
+                }
+            }
+        } catch (NoSuchFileException noSuchFileException) {
+            // Restored or purged meanwhile
+            return null;
+        }
+        if (encodedPath == null || deletionDate == null) {
+            return null;
+        }
+        try {
+            return new TrashEntry(this, entryId, trashDirectoryPath.getFileSystem().getPath(decodePath(encodedPath)),
+                    LocalDateTime.parse(deletionDate).atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the home folder of the user if the folder is on the default file system, where the home folder lives.
+     */
+    private static Path findHomeDirectory(Path absoluteDirectoryPath) {
+        String homeDirectoryName = System.getProperty("user.home");
+        if (absoluteDirectoryPath.getFileSystem() != FileSystems.getDefault() || homeDirectoryName == null || homeDirectoryName.isEmpty()) {
+            return null;
+        }
+        return Path.of(homeDirectoryName).toAbsolutePath().normalize();
+    }
+
+    private static Path findHomeTrashDirectory(Path homeDirectoryPath) {
+        String dataHomeName = System.getenv("XDG_DATA_HOME");
+        if (dataHomeName != null && Path.of(dataHomeName).isAbsolute()) {
+            return Path.of(dataHomeName).resolve(HOME_TRASH_DIRECTORY_NAME).normalize();
+        }
+        return homeDirectoryPath.resolve(".local").resolve("share").resolve(HOME_TRASH_DIRECTORY_NAME);
+    }
+
+    /**
+     * Returns the numeric user id on Unix-like systems, and the user name elsewhere.
+     */
+    private static String findUserId() {
+        try {
+            return Long.toString(new com.sun.security.auth.module.UnixSystem().getUid());
+        } catch (LinkageError | RuntimeException unixSystemUnavailable) {
+            return System.getProperty("user.name");
+        }
+    }
+
+    /**
+     * Checks that a shared trash folder exists, is not a symbolic link and has the sticky bit set,
+     * so that users cannot remove or rename each other's folders in it.
+     */
+    private static boolean isValidSharedTrash(Path sharedTrashPath) {
+        try {
+            if (!Files.isDirectory(sharedTrashPath, LinkOption.NOFOLLOW_LINKS)) {
+                return false;
+            }
+            int fileMode = (Integer) Files.getAttribute(sharedTrashPath, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+            return (fileMode & STICKY_BIT) != 0;
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException | SecurityException exception) {
+            // The sticky bit cannot be checked, so the folder cannot be trusted
+            return false;
+        }
+    }
+
+    /**
+     * Creates a folder that only its owner can use, or checks that the existing folder is one.
+     */
+    private static void usePrivateDirectory(Path directoryPath) throws IOException {
+        boolean supportsPosixPermissions = directoryPath.getFileSystem().supportedFileAttributeViews().contains("posix");
+        try {
+            if (supportsPosixPermissions) {
+                Files.createDirectory(directoryPath, PosixFilePermissions.asFileAttribute(OWNER_ONLY_PERMISSIONS));
+            } else {
+                Files.createDirectory(directoryPath);
+            }
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            // Checked below
+        }
+        if (!Files.isDirectory(directoryPath, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException("The trash " + directoryPath + " is not a folder");
+        }
+        if (supportsPosixPermissions
+                && !OWNER_ONLY_PERMISSIONS.containsAll(Files.getPosixFilePermissions(directoryPath, LinkOption.NOFOLLOW_LINKS))) {
+            throw new IOException("The trash " + directoryPath + " can be used by other users");
+        }
+    }
+
+    private static boolean isOnFileStore(Path candidatePath, FileStore fileStore) {
+        try {
+            return Files.getFileStore(candidatePath).equals(fileStore);
+        } catch (IOException | SecurityException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Percent-encodes a path the way the freedesktop.org trash stores it, leaving the separators as they are.
+     */
+    private static String encodePath(String path) {
+        StringBuilder encodedBuilder = new StringBuilder(path.length());
+        for (byte pathByte : path.getBytes(StandardCharsets.UTF_8)) {
+            char pathChar = (char) (pathByte & 0xFF);
+            if ((pathChar >= 'a' && pathChar <= 'z') || (pathChar >= 'A' && pathChar <= 'Z') || (pathChar >= '0' && pathChar <= '9')
+                    || UNRESERVED_PATH_CHARACTERS.indexOf(pathChar) >= 0) {
+                encodedBuilder.append(pathChar);
+            } else {
+                encodedBuilder.append('%').append(Character.toUpperCase(Character.forDigit(pathChar >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(pathChar & 0xF, 16)));
+            }
+        }
+        return encodedBuilder.toString();
+    }
+
+    private static String decodePath(String encodedPath) {
+        ByteArrayOutputStream decodedBytes = new ByteArrayOutputStream(encodedPath.length());
+        for (int charIndex = 0; charIndex < encodedPath.length(); charIndex++) {
+            char encodedChar = encodedPath.charAt(charIndex);
+            if (encodedChar == '%' && charIndex + 2 < encodedPath.length()) {
+                decodedBytes.write(Integer.parseInt(encodedPath.substring(charIndex + 1, charIndex + 3), 16));
+                charIndex += 2;
+            } else {
+                decodedBytes.write(encodedChar);
+            }
+        }
+        return new String(decodedBytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
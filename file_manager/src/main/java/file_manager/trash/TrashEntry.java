@@ -0,0 +1,53 @@
+package file_manager.trash;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * A file or folder in a {@link TrashBin}, as described by its entry in the index of the bin.
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public final class TrashEntry {
+
+    private final TrashBin trashBin;
+    private final String entryId;
+    private final Path originalPath;
+    private final Instant deletionTime;
+
+    TrashEntry(TrashBin trashBin, String entryId, Path originalPath, Instant deletionTime) {
+        this.trashBin = trashBin;
+        this.entryId = entryId;
+        this.originalPath = originalPath;
+        this.deletionTime = deletionTime;
+    }
+
+    /**
+     * @return the bin the entry is in
+     */
+    public TrashBin getTrashBin() {
+        return trashBin;
+    }
+
+    /**
+     * @return the name of the entry in its bin: the original name, with a number added if it was taken
+     */
+    public String getEntryId() {
+        return entryId;
+    }
+
+    /**
+     * @return the absolute path the file or folder had before it was deleted
+     */
+    public Path getOriginalPath() {
+        return originalPath;
+    }
+
+    /**
+     * @return when the file or folder was deleted
+     */
+    public Instant getDeletionTime() {
+        return deletionTime;
+    }
+}
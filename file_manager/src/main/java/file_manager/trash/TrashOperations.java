@@ -0,0 +1,296 @@
+package file_manager.trash;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+import static file_manager.utils.ByteCountUtils.parseByteCount;
+import static file_manager.utils.PathUtils.resolvePath;
+
+/**
+ * Utility class for the {@code trash}, {@code restore} and {@code empty trash} commands, and for
+ * moving deleted files and folders to the trash while the trash mode of a session is on.
+ * <p>
+ * With the trash on, {@code delete file} and {@code delete dir} rename the item into the
+ * {@link TrashBin} of its volume instead of deleting it, which takes the same time for a huge
+ * tree as for a single file, and {@code restore} renames it back. The data is removed later by
+ * the {@link TrashPurger} in the background.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class TrashOperations {
+
+    private static final DateTimeFormatter DELETION_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private TrashOperations() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Moves a file or folder to the trash of its volume and reports it.
+     *
+     * @param session  the session to report to
+     * @param itemPath the file or folder
+     * @return {@code true} if the item was moved to the trash
+     */
+    public static boolean moveToTrash(SessionContext session, Path itemPath) {
+        List<TrashEntry> trashEntries;
+        try {
+            trashEntries = moveToTrash(itemPath);
+        } catch (AtomicMoveNotSupportedException atomicMoveNotSupportedException) {
+            session.reportFailure("Error: " + itemPath.getFileName() + " cannot be moved to the trash of its volume."
+                    + " Turn the trash off with 'trash > off' to delete it.");
+            return false;
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Error: Unable to move " + itemPath.getFileName() + " to the trash: " + exception.getMessage());
+            return false;
+        }
+        if (trashEntries.isEmpty()) {
+            session.reportFailure("Error: " + itemPath.getFileName() + " is the trash and cannot be moved to the trash.");
+            return false;
+        }
+        session.recordWork(trashEntries.size(), 0);
+        if (trashEntries.size() == 1 && trashEntries.get(0).getOriginalPath().equals(itemPath.toAbsolutePath().normalize())) {
+            session.getOutput().println("Moved to the trash: " + itemPath.getFileName() + " (restore it with 'restore > "
+                    + trashEntries.get(0).getEntryId() + "')");
+        } else {
+            session.getOutput().println("Moved the contents of " + itemPath.getFileName() + " to the trash as " + trashEntries.size()
+                    + " item(s), except the folders holding the trash itself (see them with 'trash').");
+        }
+        return true;
+    }
+
+    /**
+     * Moves a file or folder to the trash of its volume and asks for a policy purge of the bin.
+     * <p>
+     * A folder that holds the bin itself, such as the folder of the home trash, cannot be renamed
+     * into it. Its other files and folders are moved to the trash one by one instead, and the
+     * folders on the way to the bin are kept.
+     * </p>
+     *
+     * @param itemPath the file or folder
+     * @return the entries of the items moved to the trash: just the item, unless it holds the bin
+     * @throws IOException if the item cannot be moved
+     */
+    public static List<TrashEntry> moveToTrash(Path itemPath) throws IOException {
+        Path absoluteItemPath = itemPath.toAbsolutePath().normalize();
+        if (absoluteItemPath.getParent() == null) {
+            throw new IOException("A root folder cannot be moved to the trash");
+        }
+        TrashBin trashBin = TrashBin.forDirectory(absoluteItemPath.getParent());
+        List<TrashEntry> trashEntries = new ArrayList<>();
+        moveToTrashSkippingBin(trashBin, absoluteItemPath, trashEntries);
+        TrashPurger.requestPurge(trashBin, false);
+        return trashEntries;
+    }
+
+    /**
+     * Lists the trash if no argument is given, switches the trash mode with {@code on} or
+     * {@code off}, or sets the purge policy with {@code policy}.
+     *
+     * @param session         the session whose trash mode is switched
+     * @param action          {@code on}, {@code off}, {@code policy}, or null to list the trash
+     * @param retentionDays   with {@code policy}, the number of days items are kept
+     * @param maxTrashBytesText with {@code policy}, the size a bin may grow to, such as {@code 5G}, or {@code off}
+     */
+    public static void trash(SessionContext session, String action, String retentionDays, String maxTrashBytesText) {
+        if (action == null) {
+            listTrash(session);
+            return;
+        }
+        switch (action.trim().toLowerCase(Locale.ROOT)) {
+            case "on":
+                session.setTrashEnabled(true);
+                session.getOutput().println("Trash on: deleted files and folders are moved to the trash of their volume.");
+                break;
+            case "off":
+                session.setTrashEnabled(false);
+                session.getOutput().println("Trash off: deleted files and folders are removed at once.");
+                break;
+            case "policy":
+                setPolicy(session, retentionDays, maxTrashBytesText);
+                break;
+            default:
+                session.reportFailure("Unknown trash action: " + action + ". Use on, off or policy.");
+        }
+    }
+
+    /**
+     * Moves an item of the trash back to where it was deleted from.
+     *
+     * @param session          the session whose working directory is used
+     * @param entryIdOrPath    the name of the item in the trash, or the path it was deleted from
+     */
+    public static void restore(SessionContext session, String entryIdOrPath) {
+        try {
+            TrashEntry trashEntry = findEntry(session, entryIdOrPath.trim());
+            if (trashEntry == null) {
+                session.reportFailure("Error: The trash has no item named " + entryIdOrPath + ".");
+                return;
+            }
+            Path restoredPath = trashEntry.getTrashBin().restore(trashEntry.getEntryId());
+            session.recordWork(1, 0);
+            session.getOutput().println("Restored: " + restoredPath);
+        } catch (FileAlreadyExistsException fileAlreadyExistsException) {
+            session.reportFailure("Error: " + fileAlreadyExistsException.getFile() + " already exists. Move it away first.");
+        } catch (IOException | SecurityException exception) {
+            session.reportFailure("Error: Unable to restore " + entryIdOrPath + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Purges every item of the trash in the background.
+     *
+     * @param session the session whose working directory is used
+     */
+    public static void emptyTrash(SessionContext session) {
+        int trashedItemCount = 0;
+        for (TrashBin trashBin : findTrashBins(session)) {
+            try {
+                trashedItemCount += trashBin.listEntries().size();
+            } catch (IOException ioException) {
+                session.reportFailure("Unable to read the trash " + trashBin.getTrashDirectoryPath() + ": " + ioException.getMessage());
+                continue;
+            }
+            TrashPurger.requestPurge(trashBin, true);
+        }
+        session.getOutput().println("Emptying the trash of " + trashedItemCount + " item(s) in the background.");
+    }
+
+    // --- Helper Methods ---
+
+    private static void listTrash(SessionContext session) {
+        String sizeLimit = TrashPurger.getMaxTrashBytes() == TrashPurger.UNLIMITED
+                ? "without a size limit" : "up to " + formatByteCount(TrashPurger.getMaxTrashBytes()) + " per volume";
+        session.getOutput().println("Trash " + (session.isTrashEnabled() ? "on" : "off") + ". Items are kept for "
+                + TrashPurger.getRetention().toDays() + " day(s), " + sizeLimit + ".");
+        List<TrashEntry> trashEntries = new ArrayList<>();
+        for (TrashBin trashBin : findTrashBins(session)) {
+            try {
+                trashEntries.addAll(trashBin.listEntries());
+            } catch (IOException ioException) {
+                session.reportFailure("Unable to read the trash " + trashBin.getTrashDirectoryPath() + ": " + ioException.getMessage());
+            }
+        }
+        trashEntries.sort(Comparator.comparing(TrashEntry::getDeletionTime).reversed());
+        for (TrashEntry trashEntry : trashEntries) {
+            session.getOutput().println(String.format(" - %-30s deleted %s from %s", trashEntry.getEntryId(),
+                    DELETION_TIME_FORMAT.format(trashEntry.getDeletionTime().atZone(ZoneId.systemDefault())), trashEntry.getOriginalPath()));
+        }
+        session.getOutput().println(trashEntries.size() + " item(s) in the trash.");
+        if (TrashPurger.getLastPurgeSummary() != null) {
+            session.getOutput().println("Last purge: " + TrashPurger.getLastPurgeSummary());
+        }
+    }
+
+    private static void setPolicy(SessionContext session, String retentionDays, String maxTrashBytesText) {
+        if (retentionDays == null) {
+            session.reportFailure("Give the number of days items are kept, and optionally a size limit: 'trash > policy > 30 > 10G'.");
+            return;
+        }
+        long parsedRetentionDays;
+        long parsedMaxTrashBytes;
+        try {
+            parsedRetentionDays = Long.parseLong(retentionDays.trim());
+            parsedMaxTrashBytes = maxTrashBytesText == null || maxTrashBytesText.trim().equalsIgnoreCase("off")
+                    ? TrashPurger.UNLIMITED : parseByteCount(maxTrashBytesText);
+        } catch (NumberFormatException numberFormatException) {
+            session.reportFailure("Invalid trash policy. Use a number of days and a size such as 10G, or off for no size limit.");
+            return;
+        }
+        if (parsedRetentionDays < 0) {
+            session.reportFailure("Invalid number of days: " + retentionDays);
+            return;
+        }
+        TrashPurger.setPolicy(Duration.ofDays(parsedRetentionDays), parsedMaxTrashBytes);
+        session.getOutput().println("Trash policy set: items are kept for " + parsedRetentionDays + " day(s), "
+                + (parsedMaxTrashBytes == TrashPurger.UNLIMITED ? "without a size limit." : "up to " + formatByteCount(parsedMaxTrashBytes) + " per volume."));
+        for (TrashBin trashBin : findTrashBins(session)) {
+            TrashPurger.requestPurge(trashBin, false);
+        }
+    }
+
+    /**
+     * Finds an item by its name in the trash, or else the item most recently deleted from the given path.
+     */
+    private static TrashEntry findEntry(SessionContext session, String entryIdOrPath) throws IOException {
+        Set<TrashBin> trashBins = findTrashBins(session);
+        for (TrashBin trashBin : trashBins) {
+            TrashEntry trashEntry = trashBin.findEntry(entryIdOrPath);
+            if (trashEntry != null) {
+                return trashEntry;
+            }
+        }
+        Path originalPath;
+        try {
+            originalPath = resolvePath(session, entryIdOrPath).toAbsolutePath().normalize();
+        } catch (InvalidPathException invalidPathException) {
+            return null;
+        }
+        TrashEntry latestEntry = null;
+        for (TrashBin trashBin : trashBins) {
+            for (TrashEntry trashEntry : trashBin.listEntries()) {
+                if (trashEntry.getOriginalPath().equals(originalPath)
+                        && (latestEntry == null || trashEntry.getDeletionTime().isAfter(latestEntry.getDeletionTime()))) {
+                    latestEntry = trashEntry;
+                }
+            }
+        }
+        return latestEntry;
+    }
+
+    private static void moveToTrashSkippingBin(TrashBin trashBin, Path absoluteItemPath, List<TrashEntry> trashEntries) throws IOException {
+        Path trashDirectoryPath = trashBin.getTrashDirectoryPath();
+        if (absoluteItemPath.equals(trashDirectoryPath)) {
+            return;
+        }
+        if (!trashDirectoryPath.startsWith(absoluteItemPath)) {
+            trashEntries.add(trashBin.moveToTrash(absoluteItemPath));
+            return;
+        }
+        try (DirectoryStream<Path> childItems = Files.newDirectoryStream(absoluteItemPath)) {
+            for (Path childItemPath : childItems) {
+                moveToTrashSkippingBin(trashBin, childItemPath, trashEntries);
+            }
+        }
+    }
+
+    /**
+     * Returns the bin of the working directory, followed by the other bins on its file system used since the application started.
+     */
+    private static Set<TrashBin> findTrashBins(SessionContext session) {
+        Set<TrashBin> trashBins = new LinkedHashSet<>();
+        try {
+            trashBins.add(TrashBin.forDirectory(session.getCurrentWorkingDirectoryPath()));
+        } catch (IOException | SecurityException exception) {
+            // The working directory has no bin; the other bins are still listed
+        }
+        for (TrashBin trashBin : TrashBin.getKnownTrashBins()) {
+            if (trashBin.getTrashDirectoryPath().getFileSystem() == session.getCurrentWorkingDirectoryPath().getFileSystem()) {
+                trashBins.add(trashBin);
+            }
+        }
+        return trashBins;
+    }
+}
@@ -0,0 +1,230 @@
+package file_manager.trash;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import file_manager.operations.DirectoryOperations;
+import file_manager.session.SessionContext;
+
+import static file_manager.utils.ByteCountUtils.formatByteCount;
+
+/**
+ * Removes items from the trash for good, in the background.
+ * <p>
+ * Items are purged once they are older than the retention period, and the oldest items are
+ * purged while a bin is larger than its size limit, as measured by
+ * {@link TrashBin#measureEntries(List)} from the folder sizes cached in the bin. A purge is requested whenever something is
+ * moved to the trash and runs every hour for the bins in use, on a single background thread;
+ * requests for a bin that is already waiting are merged. Each purged tree is deleted by the
+ * parallel delete of {@code delete dir}, {@link DirectoryOperations#deleteTree(SessionContext, Path)},
+ * in a session of its own that prints nothing, so every file and folder deleted is charged to the
+ * global I/O limits like any other deletion.
+ * </p>
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class TrashPurger {
+
+    /**
+     * How long items are kept unless another retention period is set.
+     */
+    public static final Duration DEFAULT_RETENTION = Duration.ofDays(30);
+
+    /**
+     * The size a bin may grow to unless another limit is set.
+     */
+    public static final long DEFAULT_MAX_TRASH_BYTES = 10L * 1024 * 1024 * 1024;
+
+    /**
+     * The size limit that means bins may grow without limit.
+     */
+    public static final long UNLIMITED = -1;
+
+    private static final long PURGE_INTERVAL_MINUTES = 60;
+
+    private static final ScheduledExecutorService PURGE_SCHEDULER = Executors.newSingleThreadScheduledExecutor(purgeRunnable -> {
+        Thread purgeThread = new Thread(purgeRunnable, "file-manager-trash-purger");
+        purgeThread.setDaemon(true);
+        return purgeThread;
+    });
+    private static final Set<TrashBin> PENDING_TRASH_BINS = ConcurrentHashMap.newKeySet();
+
+    private static volatile Duration retention = DEFAULT_RETENTION;
+    private static volatile long maxTrashBytes = DEFAULT_MAX_TRASH_BYTES;
+    private static volatile String lastPurgeSummary;
+
+    static {
+        PURGE_SCHEDULER.scheduleWithFixedDelay(() -> TrashBin.getKnownTrashBins().forEach(trashBin -> requestPurge(trashBin, false)),
+                PURGE_INTERVAL_MINUTES, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    private TrashPurger() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * The outcome of a purge.
+     */
+    public static final class PurgeResult {
+
+        private final int purgedEntryCount;
+        private final long purgedByteCount;
+
+        PurgeResult(int purgedEntryCount, long purgedByteCount) {
+            this.purgedEntryCount = purgedEntryCount;
+            this.purgedByteCount = purgedByteCount;
+        }
+
+        /**
+         * @return the number of items purged
+         */
+        public int getPurgedEntryCount() {
+            return purgedEntryCount;
+        }
+
+        /**
+         * @return the number of bytes of the files deleted
+         */
+        public long getPurgedByteCount() {
+            return purgedByteCount;
+        }
+    }
+
+    /**
+     * Sets the policy of every bin.
+     *
+     * @param newRetention     how long items are kept
+     * @param newMaxTrashBytes the size a bin may grow to, or {@link #UNLIMITED}
+     */
+    public static void setPolicy(Duration newRetention, long newMaxTrashBytes) {
+        retention = newRetention;
+        maxTrashBytes = newMaxTrashBytes;
+    }
+
+    /**
+     * @return how long items are kept
+     */
+    public static Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * @return the size a bin may grow to, or {@link #UNLIMITED}
+     */
+    public static long getMaxTrashBytes() {
+        return maxTrashBytes;
+    }
+
+    /**
+     * @return a description of the last background purge, or {@code null} if none has run
+     */
+    public static String getLastPurgeSummary() {
+        return lastPurgeSummary;
+    }
+
+    /**
+     * Purges a bin in the background.
+     *
+     * @param trashBin   the bin
+     * @param everything {@code true} to purge every item, {@code false} to apply the policy
+     * @return the pending purge, which is already pending if a policy purge of the bin was waiting
+     */
+    public static Future<?> requestPurge(TrashBin trashBin, boolean everything) {
+        if (!everything && !PENDING_TRASH_BINS.add(trashBin)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return PURGE_SCHEDULER.submit(() -> {
+            if (!everything) {
+                PENDING_TRASH_BINS.remove(trashBin);
+            }
+            try {
+                PurgeResult purgeResult = purge(trashBin, everything);
+                if (purgeResult.getPurgedEntryCount() > 0) {
+                    lastPurgeSummary = "purged " + purgeResult.getPurgedEntryCount() + " item(s) ("
+                            + formatByteCount(purgeResult.getPurgedByteCount()) + ") from " + trashBin.getTrashDirectoryPath()
+                            + " at " + Instant.now();
+                }
+            } catch (IOException | RuntimeException exception) {
+                lastPurgeSummary = "failed to purge " + trashBin.getTrashDirectoryPath() + " at " + Instant.now() + ": " + exception;
+            }
+        });
+    }
+
+    /**
+     * Purges a bin on the calling thread. Purges never run at the same time.
+     *
+     * @param trashBin   the bin
+     * @param everything {@code true} to purge every item, {@code false} to apply the policy
+     * @return the number of items and bytes purged
+     * @throws IOException if the bin cannot be read or an item cannot be deleted
+     */
+    public static synchronized PurgeResult purge(TrashBin trashBin, boolean everything) throws IOException {
+        trashBin.expungeOrphans();
+        List<TrashEntry> trashEntries = trashBin.listEntries();
+        trashEntries.sort(Comparator.comparing(TrashEntry::getDeletionTime));
+        Instant retentionCutoff = Instant.now().minus(retention);
+        long currentMaxTrashBytes = maxTrashBytes;
+
+        List<TrashEntry> keptEntries = new ArrayList<>();
+        int purgedEntryCount = 0;
+        for (TrashEntry trashEntry : trashEntries) {
+            if (everything || trashEntry.getDeletionTime().isBefore(retentionCutoff)) {
+                trashBin.expunge(trashEntry);
+                purgedEntryCount++;
+            } else {
+                keptEntries.add(trashEntry);
+            }
+        }
+        // Measuring no items at all removes the cached folder sizes of an emptied bin
+        if (currentMaxTrashBytes != UNLIMITED || keptEntries.isEmpty()) {
+            Map<String, Long> keptEntryBytes = trashBin.measureEntries(keptEntries);
+            long keptBytes = 0;
+            for (long entryBytes : keptEntryBytes.values()) {
+                keptBytes += entryBytes;
+            }
+            for (int entryIndex = 0; entryIndex < keptEntries.size() && keptBytes > currentMaxTrashBytes; entryIndex++) {
+                trashBin.expunge(keptEntries.get(entryIndex));
+                keptBytes -= keptEntryBytes.get(keptEntries.get(entryIndex).getEntryId());
+                purgedEntryCount++;
+            }
+        }
+
+        long purgedByteCount = 0;
+        if (Files.isDirectory(trashBin.getExpungedDirectoryPath())) {
+            try (DirectoryStream<Path> expungedItems = Files.newDirectoryStream(trashBin.getExpungedDirectoryPath());
+                 SessionContext purgeSession = new SessionContext(trashBin.getTrashDirectoryPath(),
+                         new PrintStream(OutputStream.nullOutputStream()), false)) {
+                for (Path expungedItemPath : expungedItems) {
+                    try {
+                        purgedByteCount += DirectoryOperations.deleteTree(purgeSession, expungedItemPath);
+                    } catch (NoSuchFileException noSuchFileException) {
+                        // Purged by an earlier purge
+                    }
+                }
+            }
+        }
+        return new PurgeResult(purgedEntryCount, purgedByteCount);
+    }
+}
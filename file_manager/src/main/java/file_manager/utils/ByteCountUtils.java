@@ -0,0 +1,65 @@
+package file_manager.utils;
+
+import java.util.Locale;
+
+/**
+ * Utility class for formatting and parsing byte counts such as {@code 1.5 MiB} or {@code 50M}.
+ * <p>
+ * Units are binary: {@code K} is 1024 bytes, {@code M} is 1024 KiB, and so on.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class ByteCountUtils {
+
+    private static final String[] BYTE_UNITS = {"B", "KiB", "MiB", "GiB", "TiB"};
+    private static final String UNIT_PREFIXES = "KMGT";
+
+    private ByteCountUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Formats a byte count with a binary unit, for example {@code 1.5 MiB}.
+     *
+     * @param byteCount the number of bytes
+     * @return the formatted byte count
+     */
+    public static String formatByteCount(long byteCount) {
+        double scaledByteCount = byteCount;
+        int unitIndex = 0;
+        while (scaledByteCount >= 1024 && unitIndex < BYTE_UNITS.length - 1) {
+            scaledByteCount /= 1024;
+            unitIndex++;
+        }
+        return unitIndex == 0 ? byteCount + " B" : String.format(Locale.ROOT, "%.1f %s", scaledByteCount, BYTE_UNITS[unitIndex]);
+    }
+
+    /**
+     * Parses a byte count with an optional binary unit: {@code 4096}, {@code 512K}, {@code 1.5MiB} or {@code 2 GB}.
+     *
+     * @param byteCountText the text to parse
+     * @return the number of bytes
+     * @throws NumberFormatException if the text is not a valid, non-negative byte count
+     */
+    public static long parseByteCount(String byteCountText) {
+        String normalizedText = byteCountText.trim().toUpperCase(Locale.ROOT).replace(" ", "");
+        if (normalizedText.endsWith("IB")) {
+            normalizedText = normalizedText.substring(0, normalizedText.length() - 2);
+        } else if (normalizedText.endsWith("B")) {
+            normalizedText = normalizedText.substring(0, normalizedText.length() - 1);
+        }
+        long unitMultiplier = 1;
+        int unitIndex = normalizedText.isEmpty() ? -1 : UNIT_PREFIXES.indexOf(normalizedText.charAt(normalizedText.length() - 1));
+        if (unitIndex >= 0) {
+            unitMultiplier = 1L << (10 * (unitIndex + 1));
+            normalizedText = normalizedText.substring(0, normalizedText.length() - 1);
+        }
+        double byteCount = Double.parseDouble(normalizedText) * unitMultiplier;
+        if (byteCount < 0 || Double.isNaN(byteCount) || byteCount >= Long.MAX_VALUE) {
+            throw new NumberFormatException("Invalid byte count: " + byteCountText);
+        }
+        return (long) byteCount;
+    }
+}
@@ -0,0 +1,49 @@
+package file_manager.utils;
+
+import java.nio.file.FileSystem;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+
+/**
+ * Utility class for creating the file systems the File Manager application can run on.
+ * <p>
+ * The operations classes work on {@link java.nio.file.Path}s resolved by {@link PathUtils},
+ * so any {@link FileSystem} can be plugged in with {@link PathUtils#useFileSystem(FileSystem)}.
+ * Besides the default (disk) file system, this class provides an in-memory backend that keeps
+ * every file and directory in RAM, which lets functional and performance tests run without
+ * touching the disk and without cleaning up after themselves.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class FileSystemUtils {
+
+    /**
+     * The working directory of a newly created in-memory file system.
+     */
+    public static final String IN_MEMORY_WORKING_DIRECTORY = "/work";
+
+    private FileSystemUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Creates a new, empty in-memory file system with Unix path semantics.
+     * <p>
+     * The file system starts with a single working directory, {@value #IN_MEMORY_WORKING_DIRECTORY},
+     * and supports everything the operations classes use, including file channels,
+     * directory streams, and basic and POSIX file attributes. Its contents are discarded when it is closed.
+     * </p>
+     *
+     * @return the new in-memory file system
+     */
+    public static FileSystem newInMemoryFileSystem() {
+        Configuration inMemoryConfiguration = Configuration.unix().toBuilder()
+                .setWorkingDirectory(IN_MEMORY_WORKING_DIRECTORY)
+                .setAttributeViews("basic", "owner", "posix", "unix")
+                .build();
+        return Jimfs.newFileSystem(inMemoryConfiguration);
+    }
+}
@@ -1,7 +1,13 @@
 package file_manager.utils;
 
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.Scanner;
 
+import file_manager.session.MissingArgumentException;
+import file_manager.session.OutputFormat;
+import file_manager.session.SessionContext;
+
 /**
  * <h1>InputUtils</h1>
  * <p>
@@ -34,9 +40,49 @@ public class InputUtils {
      */
     public static String readUserInput(String userMessage) {
         System.out.print(userMessage);
+        System.out.flush();
+        return CONSOLE_SCANNER.nextLine();
+    }
+
+    /**
+     * Reads a line of input for a session.
+     * <p>
+     * An interactive session prompts the user like {@link #readUserInput(String)}. A non-interactive
+     * session, such as one running a batch script, cannot wait for input and fails instead, and so
+     * does a session printing JSON, whose output is read by a program rather than a person.
+     * </p>
+     * @param session     the session that needs the input
+     * @param userMessage the message to display to the user before reading input
+     * @return a {@code String} containing the user's input from the console
+     * @throws MissingArgumentException if the session is not interactive or prints JSON
+     */
+    public static String readUserInput(SessionContext session, String userMessage) {
+        if (!session.isInteractive() || session.getOutputFormat() == OutputFormat.JSON) {
+            throw new MissingArgumentException(userMessage);
+        }
+        session.getOutput().print(userMessage);
+        session.getOutput().flush();
         return CONSOLE_SCANNER.nextLine();
     }
 
+    /**
+     * Checks, without blocking, whether the user of an interactive session has typed a line that
+     * has not been read yet, so that a long-running command can stop when Enter is pressed.
+     *
+     * @param session the session
+     * @return {@code true} if the session is interactive and console input is waiting
+     */
+    public static boolean isUserInputPending(SessionContext session) {
+        if (!session.isInteractive() || session.getOutputFormat() == OutputFormat.JSON) {
+            return false;
+        }
+        try {
+            return System.in.available() > 0;
+        } catch (IOException ioException) {
+            return false;
+        }
+    }
+
     /**
      * Displays a formatted menu of all available commands in the File Manager application.
      * <p>
@@ -49,13 +95,30 @@ public class InputUtils {
      * </p>
      */
     public static void displayAvailableCommands() {
+        displayAvailableCommands(System.out);
+    }
+
+    /**
+     * Displays the menu of available commands on the given stream.
+     *
+     * @param commandOutput the stream to print the menu to
+     */
+    public static void displayAvailableCommands(PrintStream commandOutput) {
         String[] availableCommands = {
             "exit", "list", "path", "info",
             "chdir", "prevdir", "make file",
             "delete file", "rename file", "read file",
             "write file", "clear file", "copy file",
             "move file", "make dir", "delete dir", 
-            "rename dir", "move dir"
+            "rename dir", "move dir", "zip dir",
+            "unzip file", "jobs", "show job",
+            "pause job", "resume job", "cancel job",
+            "throttle", "stats", "start recording",
+            "stop recording", "output", "rename files",
+            "finish rename", "undo rename", "trash",
+            "restore", "empty trash", "sort file",
+            "count", "replace in file", "compare file",
+            "compare dir", "split file", "join file"
         };
 
         final int COMMAND_MENU_WIDTH = 60;
@@ -63,17 +126,17 @@ public class InputUtils {
         final int COMMANDS_PER_ROW = 3;
         final int COMMAND_COLUMN_WIDTH = 20;
 
-        System.out.println(COMMAND_MENU_SEPARATOR);
-        System.out.println("Available commands:");
-        System.out.println(COMMAND_MENU_SEPARATOR);
+        commandOutput.println(COMMAND_MENU_SEPARATOR);
+        commandOutput.println("Available commands:");
+        commandOutput.println(COMMAND_MENU_SEPARATOR);
 
         for (int commandIndex = 0; commandIndex < availableCommands.length; commandIndex++) {
-            System.out.printf("%-" + COMMAND_COLUMN_WIDTH + "s", availableCommands[commandIndex]);
+            commandOutput.printf("%-" + COMMAND_COLUMN_WIDTH + "s", availableCommands[commandIndex]);
             if ((commandIndex + 1) % COMMANDS_PER_ROW == 0 || commandIndex == availableCommands.length - 1) {
-                System.out.println();
+                commandOutput.println();
             }
         }
 
-        System.out.println(COMMAND_MENU_SEPARATOR);
+        commandOutput.println(COMMAND_MENU_SEPARATOR);
     }
 }
@@ -0,0 +1,88 @@
+package file_manager.utils;
+
+import java.util.List;
+
+/**
+ * Utility class for writing JSON values by hand, without a JSON library.
+ * <p>
+ * This class is not intended to be instantiated.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class JsonUtils {
+
+    private JsonUtils() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Escapes text for use inside a JSON string: quotes, backslashes and control characters.
+     *
+     * @param text the text to escape
+     * @return the escaped text, without surrounding quotes
+     */
+    public static String escapeJson(String text) {
+        StringBuilder escapedBuilder = new StringBuilder(text.length() + 16);
+        for (int charIndex = 0; charIndex < text.length(); charIndex++) {
+            char currentChar = text.charAt(charIndex);
+            switch (currentChar) {
+                case '"':
+                    escapedBuilder.append("\\\"");
+                    break;
+                case '\\':
+                    escapedBuilder.append("\\\\");
+                    break;
+                case '\n':
+                    escapedBuilder.append("\\n");
+                    break;
+                case '\r':
+                    escapedBuilder.append("\\r");
+                    break;
+                case '\t':
+                    escapedBuilder.append("\\t");
+                    break;
+                default:
+                    if (currentChar < 0x20) {
+                        escapedBuilder.append(String.format("\\u%04x", (int) currentChar));
+                    } else {
+                        escapedBuilder.append(currentChar);
+                    }
+            }
+        }
+        return escapedBuilder.toString();
+    }
+
+    /**
+     * Appends a JSON string, or {@code null} if the text is {@code null}.
+     *
+     * @param jsonBuilder the builder to append to
+     * @param text        the text to append
+     * @return the builder
+     */
+    public static StringBuilder appendString(StringBuilder jsonBuilder, String text) {
+        if (text == null) {
+            return jsonBuilder.append("null");
+        }
+        return jsonBuilder.append('"').append(escapeJson(text)).append('"');
+    }
+
+    /**
+     * Appends a JSON array of strings.
+     *
+     * @param jsonBuilder the builder to append to
+     * @param texts       the strings to append
+     * @return the builder
+     */
+    public static StringBuilder appendStringArray(StringBuilder jsonBuilder, List<String> texts) {
+        jsonBuilder.append('[');
+        for (int textIndex = 0; textIndex < texts.size(); textIndex++) {
+            if (textIndex > 0) {
+                jsonBuilder.append(',');
+            }
+            appendString(jsonBuilder, texts.get(textIndex));
+        }
+        return jsonBuilder.append(']');
+    }
+}
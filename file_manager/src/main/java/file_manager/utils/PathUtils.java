@@ -1,10 +1,19 @@
 package file_manager.utils;
 
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
-import file_manager.operations.DirectoryOperations;
+import file_manager.session.SessionContext;
 
 /**
  * Utility class for managing file system paths in the File Manager application.
@@ -12,35 +21,162 @@ import file_manager.operations.DirectoryOperations;
  * This class provides static methods to:
  * <ul>
  *   <li>Retrieve the current working directory</li>
+ *   <li>Resolve names and paths entered by the user against the current working directory</li>
  *   <li>Change the current working directory to a specified path</li>
- *   <li>Navigate to the parent directory</li>
+ *   <li>Navigate to the parent directory or back to the previous directory</li>
  * </ul>
  * <p>
- * It supports both absolute and relative paths, and updates the "user.dir" system property
- * to reflect changes in the working directory. Path validation is performed using
- * {@link java.nio.file.Files} and {@link java.nio.file.Path}.
+ * The current working directory belongs to a {@link SessionContext} and is held as a resolved
+ * {@link Path}, which may belong to any {@link FileSystem}. Each method takes the session it
+ * works on; the overloads without a session use the {@linkplain SessionContext#getDefaultSession()
+ * default session}. Changing into a {@code .zip} or {@code .jar} file mounts it through the
+ * JDK zip {@link java.nio.file.spi.FileSystemProvider}, so the operations classes can list, read
+ * and copy entries directly without extracting the archive. Leaving the archive unmounts it.
+ * While inside an archive, relative paths resolve to entries of the archive and absolute paths
+ * resolve on the file system that holds the archive, which is how files are copied out of it.
+ * </p>
+ * <p>
+ * The file system itself is pluggable through {@link #useFileSystem(FileSystem)}, so the whole
+ * application can run on an in-memory file system (see {@link FileSystemUtils}).
+ * </p>
  * <p>
- * The class also interacts with {@link DirectoryOperations} for platform-specific path delimiters,
- * and with {@code InputUtils} for user input when a path is not provided.
+ * The class also interacts with {@code InputUtils} for user input when a path is not provided.
  * </p>
- * 
+ *
  * @author Nikolaos Marvakis
  * @version 1.0
  */
 public class PathUtils {
-    private static final DirectoryOperations directoryOperations = new DirectoryOperations();
+    private static final String[] ARCHIVE_FILE_EXTENSIONS = {".zip", ".jar"};
+
+    /**
+     * The target of {@code chdir} that returns to the previously visited directory.
+     */
+    private static final String PREVIOUS_DIRECTORY_ALIAS = "-";
 
     private PathUtils() {
         // Private constructor to prevent instantiation
     }
 
     /**
-     * Retrieves the absolute path of the current working directory.
+     * Retrieves the current working directory of the default session for display.
      *
      * @return the current working directory as a String
      */
     public static String getCurrentWorkingDirectory() {
-        return System.getProperty("user.dir");
+        return getCurrentWorkingDirectory(SessionContext.getDefaultSession());
+    }
+
+    /**
+     * Retrieves the current working directory of a session for display.
+     * <p>
+     * Inside a mounted archive, the path is shown as the archive path followed by
+     * {@code !} and the directory inside the archive.
+     * </p>
+     *
+     * @param session the session whose working directory is returned
+     * @return the current working directory as a String
+     */
+    public static String getCurrentWorkingDirectory(SessionContext session) {
+        return describePath(session, session.getCurrentWorkingDirectoryPath());
+    }
+
+    /**
+     * Retrieves the current working directory of the default session as a {@link Path}.
+     *
+     * @return the current working directory, possibly on a mounted archive file system
+     */
+    public static Path getCurrentWorkingDirectoryPath() {
+        return SessionContext.getDefaultSession().getCurrentWorkingDirectoryPath();
+    }
+
+    /**
+     * Switches the default session to another file system.
+     *
+     * @param fileSystem the file system to run on
+     * @see #useFileSystem(SessionContext, FileSystem)
+     */
+    public static void useFileSystem(FileSystem fileSystem) {
+        useFileSystem(SessionContext.getDefaultSession(), fileSystem);
+    }
+
+    /**
+     * Switches a session to another file system, for example an in-memory one
+     * created by {@link FileSystemUtils#newInMemoryFileSystem()}.
+     * <p>
+     * The current working directory becomes the working directory of the given file system,
+     * and any mounted archives are unmounted. Passing {@link FileSystems#getDefault()} returns
+     * to the directory the application was started in.
+     * </p>
+     *
+     * @param session    the session to switch
+     * @param fileSystem the file system to run on
+     */
+    public static void useFileSystem(SessionContext session, FileSystem fileSystem) {
+        session.setCurrentWorkingDirectoryPath(fileSystem.getPath("").toAbsolutePath());
+        unmountUnusedArchives(session);
+    }
+
+    /**
+     * Resolves a file or folder name against the current working directory of the default session.
+     *
+     * @param fileOrDirectoryPath the name or path to resolve
+     * @return the resolved, normalized path
+     * @throws InvalidPathException if the path string cannot be converted to a path
+     * @see #resolvePath(SessionContext, String)
+     */
+    public static Path resolvePath(String fileOrDirectoryPath) {
+        return resolvePath(SessionContext.getDefaultSession(), fileOrDirectoryPath);
+    }
+
+    /**
+     * Resolves a file or folder name entered by the user against the current working directory.
+     * <p>
+     * Relative paths resolve against the current working directory. Inside a mounted archive,
+     * absolute paths resolve on the file system that holds the archive.
+     * </p>
+     *
+     * @param session             the session whose working directory is used
+     * @param fileOrDirectoryPath the name or path to resolve
+     * @return the resolved, normalized path
+     * @throws InvalidPathException if the path string cannot be converted to a path
+     */
+    public static Path resolvePath(SessionContext session, String fileOrDirectoryPath) {
+        Path currentWorkingDirectoryPath = session.getCurrentWorkingDirectoryPath();
+        if (isMountedArchive(session, currentWorkingDirectoryPath.getFileSystem())) {
+            Path hostFileSystemPath = getHostFileSystem(session, currentWorkingDirectoryPath).getPath(fileOrDirectoryPath);
+            if (hostFileSystemPath.isAbsolute()) {
+                return hostFileSystemPath.normalize();
+            }
+        }
+        return currentWorkingDirectoryPath.resolve(fileOrDirectoryPath).normalize();
+    }
+
+    /**
+     * Formats a path for messages, marking paths inside archives mounted by the session
+     * with the archive they belong to.
+     *
+     * @param session        the session that may have mounted the path's file system
+     * @param pathToDescribe the path to describe
+     * @return a readable representation of the path
+     */
+    public static String describePath(SessionContext session, Path pathToDescribe) {
+        Path archivePath = session.getMountedArchivePaths().get(pathToDescribe.getFileSystem());
+        if (archivePath != null) {
+            return describePath(session, archivePath) + "!" + pathToDescribe;
+        }
+        return pathToDescribe.toString();
+    }
+
+    /**
+     * Changes the current working directory of the default session.
+     *
+     * @param targetDirectoryPath the target directory path, or {@code null} to prompt the user
+     * @return the new working directory path if successful, or {@code null} if the operation fails
+     * @see #changeWorkingDirectory(SessionContext, String)
+     */
+    public static String changeWorkingDirectory(String targetDirectoryPath) {
+        return changeWorkingDirectory(SessionContext.getDefaultSession(), targetDirectoryPath);
     }
 
     /**
@@ -48,60 +184,214 @@ public class PathUtils {
      * <p>
      * If the provided path is {@code null}, the user is prompted to enter a path.
      * The method supports both absolute and relative paths, and validates whether
-     * the target directory exists before updating the working directory.
+     * the target directory exists before updating the working directory. A {@code .zip}
+     * or {@code .jar} file along the path is mounted and entered like a directory.
+     * The target {@code -} returns to the previously visited directory.
      * </p>
      *
+     * @param session             the session whose working directory changes
      * @param targetDirectoryPath the target directory path, or {@code null} to prompt the user
      * @return the new working directory path if successful, or {@code null} if the operation fails
      */
-    public static String changeWorkingDirectory(String targetDirectoryPath) {
+    public static String changeWorkingDirectory(SessionContext session, String targetDirectoryPath) {
         if (targetDirectoryPath == null) {
-            targetDirectoryPath = InputUtils.readUserInput("Please enter the path to the directory you want to switch to: ");
+            targetDirectoryPath = InputUtils.readUserInput(session, "Please enter the path to the directory you want to switch to: ");
         }
 
-        try {
-            Path currentDirectoryPath = Paths.get(getCurrentWorkingDirectory());
-            Path resolvedTargetCurrentWorkingDirectory = currentDirectoryPath.resolve(targetDirectoryPath).normalize();
-
-            if (Files.isDirectory(resolvedTargetCurrentWorkingDirectory)) {
-                System.setProperty("user.dir", resolvedTargetCurrentWorkingDirectory.toString());
-                return resolvedTargetCurrentWorkingDirectory.toString();
-            }
+        if (targetDirectoryPath.equals(PREVIOUS_DIRECTORY_ALIAS)) {
+            return changeToPreviousDirectory(session);
+        }
 
-            if (targetDirectoryPath.contains(directoryOperations.getCurrentWorkingDirectoryDelimiter())) {
-                Path absoluteTargetCurrentWorkingDirectory = Paths.get(targetDirectoryPath).normalize();
-                if (Files.isDirectory(absoluteTargetCurrentWorkingDirectory)) {
-                    System.setProperty("user.dir", absoluteTargetCurrentWorkingDirectory.toString());
-                    return absoluteTargetCurrentWorkingDirectory.toString();
-                }
+        try {
+            Path resolvedTargetCurrentWorkingDirectory = walkToDirectory(session, targetDirectoryPath);
+            if (resolvedTargetCurrentWorkingDirectory != null) {
+                moveToDirectory(session, resolvedTargetCurrentWorkingDirectory);
+                return getCurrentWorkingDirectory(session);
             }
-
-            System.out.println("The specified directory was not found: " + targetDirectoryPath);
-        } catch (java.nio.file.InvalidPathException invalidPathException) {
-            System.out.println("The path you entered is invalid: " + targetDirectoryPath);
+            unmountUnusedArchives(session);
+            session.reportFailure("The specified directory was not found: " + targetDirectoryPath);
+        } catch (InvalidPathException invalidPathException) {
+            session.reportFailure("The path you entered is invalid: " + targetDirectoryPath);
+        } catch (IOException | ProviderNotFoundException exception) {
+            unmountUnusedArchives(session);
+            session.reportFailure("Unable to open the archive: " + targetDirectoryPath + " (" + exception.getMessage() + ")");
         }
         return null;
     }
 
+    /**
+     * Changes the current working directory of the default session to its parent directory.
+     *
+     * @see #changeToParentDirectory(SessionContext)
+     */
+    public static void changeToParentDirectory() {
+        changeToParentDirectory(SessionContext.getDefaultSession());
+    }
+
     /**
      * Changes the current working directory to its parent directory.
      * <p>
-     * If the current directory is already the root, this method does nothing.
+     * At the root of a mounted archive, this leaves the archive and moves to the directory
+     * that contains it. If the current directory is already the root, this method does nothing.
      * </p>
+     *
+     * @param session the session whose working directory changes
      */
-    public static void changeToParentDirectory() {
-        String[] currentDirectoryParts = getCurrentWorkingDirectory().split(directoryOperations.getCurrentWorkingDirectoryDelimiter());
-        if (currentDirectoryParts.length <= 1) {
-            // Already at root, do nothing
-            return;
-        }
-        StringBuilder parentDirectoryPathBuilder = new StringBuilder();
-        for (int partIndex = 0; partIndex < currentDirectoryParts.length - 1; partIndex++) {
-            parentDirectoryPathBuilder.append(currentDirectoryParts[partIndex]);
-            if (partIndex < currentDirectoryParts.length - 2) {
-                parentDirectoryPathBuilder.append(directoryOperations.getCurrentWorkingDirectoryDelimiter());
+    public static void changeToParentDirectory(SessionContext session) {
+        Path currentWorkingDirectoryPath = session.getCurrentWorkingDirectoryPath();
+        Path parentDirectoryPath = getParentDirectory(session, currentWorkingDirectoryPath);
+        if (!parentDirectoryPath.equals(currentWorkingDirectoryPath)) {
+            moveToDirectory(session, parentDirectoryPath);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Returns to the most recently left directory that still exists.
+     *
+     * @return the new working directory path if successful, or {@code null} if there is no previous directory
+     */
+    private static String changeToPreviousDirectory(SessionContext session) {
+        Path previousDirectoryPath;
+        while ((previousDirectoryPath = session.popDirectoryHistory()) != null) {
+            if (previousDirectoryPath.getFileSystem().isOpen() && Files.isDirectory(previousDirectoryPath)) {
+                session.setCurrentWorkingDirectoryPath(previousDirectoryPath);
+                unmountUnusedArchives(session);
+                return getCurrentWorkingDirectory(session);
+            }
+        }
+        session.reportFailure("There is no previous directory to return to.");
+        return null;
+    }
+
+    /**
+     * Makes the given directory current, remembering the directory being left.
+     */
+    private static void moveToDirectory(SessionContext session, Path newCurrentWorkingDirectoryPath) {
+        session.recordDirectoryHistory(session.getCurrentWorkingDirectoryPath());
+        session.setCurrentWorkingDirectoryPath(newCurrentWorkingDirectoryPath);
+        unmountUnusedArchives(session);
+    }
+
+    /**
+     * Resolves the target one name element at a time, so that {@code ..} can leave a mounted
+     * archive and archive files met along the way can be mounted.
+     *
+     * @return the target directory, or {@code null} if an element does not exist
+     */
+    private static Path walkToDirectory(SessionContext session, String targetDirectoryPath) throws IOException {
+        Path currentWorkingDirectoryPath = session.getCurrentWorkingDirectoryPath();
+        Path targetPath = currentWorkingDirectoryPath.getFileSystem().getPath(targetDirectoryPath);
+        if (isMountedArchive(session, currentWorkingDirectoryPath.getFileSystem())) {
+            Path hostFileSystemPath = getHostFileSystem(session, currentWorkingDirectoryPath).getPath(targetDirectoryPath);
+            if (hostFileSystemPath.isAbsolute()) {
+                targetPath = hostFileSystemPath;
+            }
+        }
+
+        Path walkedPath = targetPath.isAbsolute() ? targetPath.getRoot() : currentWorkingDirectoryPath;
+        for (Path targetPathElement : targetPath) {
+            String elementName = targetPathElement.toString();
+            if (elementName.isEmpty() || elementName.equals(".")) {
+                continue;
+            }
+            if (elementName.equals("..")) {
+                walkedPath = getParentDirectory(session, walkedPath);
+                continue;
+            }
+            Path nextPath = walkedPath.resolve(elementName);
+            if (Files.isDirectory(nextPath)) {
+                walkedPath = nextPath;
+            } else if (isArchiveFile(nextPath)) {
+                walkedPath = mountArchive(session, nextPath);
+            } else {
+                return null;
+            }
+        }
+        return walkedPath;
+    }
+
+    /**
+     * Returns the parent of a directory, stepping out of a mounted archive at its root.
+     */
+    private static Path getParentDirectory(SessionContext session, Path directoryPath) {
+        if (directoryPath.getParent() != null) {
+            return directoryPath.getParent();
+        }
+        Path archivePath = session.getMountedArchivePaths().get(directoryPath.getFileSystem());
+        if (archivePath != null && archivePath.getParent() != null) {
+            return archivePath.getParent();
+        }
+        return directoryPath;
+    }
+
+    private static boolean isArchiveFile(Path candidatePath) {
+        if (candidatePath.getFileName() == null || !Files.isRegularFile(candidatePath)) {
+            return false;
+        }
+        String fileName = candidatePath.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String archiveFileExtension : ARCHIVE_FILE_EXTENSIONS) {
+            if (fileName.endsWith(archiveFileExtension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMountedArchive(SessionContext session, FileSystem fileSystem) {
+        return session.getMountedArchivePaths().containsKey(fileSystem);
+    }
+
+    /**
+     * Mounts an archive, reusing the file system if the session already mounted it, and returns its root directory.
+     */
+    private static Path mountArchive(SessionContext session, Path archivePath) throws IOException {
+        for (Map.Entry<FileSystem, Path> mountedArchive : session.getMountedArchivePaths().entrySet()) {
+            if (mountedArchive.getValue().equals(archivePath)) {
+                return mountedArchive.getKey().getRootDirectories().iterator().next();
+            }
+        }
+        FileSystem archiveFileSystem = FileSystems.newFileSystem(archivePath, (ClassLoader) null);
+        session.getMountedArchivePaths().put(archiveFileSystem, archivePath);
+        return archiveFileSystem.getRootDirectories().iterator().next();
+    }
+
+    /**
+     * Returns the file system that holds the outermost mounted archive containing the path.
+     */
+    private static FileSystem getHostFileSystem(SessionContext session, Path archiveEntryPath) {
+        Path hostPath = archiveEntryPath;
+        while (isMountedArchive(session, hostPath.getFileSystem())) {
+            hostPath = session.getMountedArchivePaths().get(hostPath.getFileSystem());
+        }
+        return hostPath.getFileSystem();
+    }
+
+    /**
+     * Closes every archive mounted by the session that neither its working directory nor a
+     * session forked from it, such as a background job, is still inside.
+     */
+    private static void unmountUnusedArchives(SessionContext session) {
+        Set<FileSystem> fileSystemsInUse = new HashSet<>();
+        Path enclosingPath = session.getCurrentWorkingDirectoryPath();
+        while (isMountedArchive(session, enclosingPath.getFileSystem())) {
+            fileSystemsInUse.add(enclosingPath.getFileSystem());
+            enclosingPath = session.getMountedArchivePaths().get(enclosingPath.getFileSystem());
+        }
+
+        Iterator<FileSystem> mountedFileSystems = session.getMountedArchivePaths().keySet().iterator();
+        while (mountedFileSystems.hasNext()) {
+            FileSystem mountedFileSystem = mountedFileSystems.next();
+            if (!fileSystemsInUse.contains(mountedFileSystem) && !session.isArchiveReferenced(mountedFileSystem)) {
+                mountedFileSystems.remove();
+                session.forgetDirectoryHistory(mountedFileSystem);
+                try {
+                    mountedFileSystem.close();
+                } catch (IOException ioException) {
+                    session.getOutput().println("Unable to close the archive: " + ioException.getMessage());
+                }
             }
         }
-        changeWorkingDirectory(parentDirectoryPathBuilder.toString());
     }
 }
@@ -0,0 +1,155 @@
+package file_manager.tests;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import file_manager.operations.ArchiveOperations;
+import file_manager.utils.FileSystemUtils;
+import file_manager.utils.PathUtils;
+
+public class ArchiveOperationsTest {
+
+    private FileSystem inMemoryFileSystem;
+
+    @Before
+    public void setUp() {
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        PathUtils.useFileSystem(inMemoryFileSystem);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        PathUtils.useFileSystem(FileSystems.getDefault());
+        inMemoryFileSystem.close();
+    }
+
+    private Path workingDirectoryFile(String name) {
+        return PathUtils.getCurrentWorkingDirectoryPath().resolve(name);
+    }
+
+    private Path createSampleTree() throws Exception {
+        Path root = Files.createDirectory(workingDirectoryFile("sample"));
+        Files.write(root.resolve("a.txt"), "Alpha".getBytes());
+        Files.createDirectories(root.resolve("nested/deeper"));
+        Files.write(root.resolve("nested/b.txt"), "Beta".getBytes());
+        Files.write(root.resolve("nested/deeper/c.txt"), "Gamma".getBytes());
+        Files.createDirectories(root.resolve("empty"));
+        return root;
+    }
+
+    private void writeZip(String archiveName, String... entryNames) throws Exception {
+        try (ZipOutputStream zipOutput = new ZipOutputStream(Files.newOutputStream(workingDirectoryFile(archiveName)))) {
+            for (String entryName : entryNames) {
+                zipOutput.putNextEntry(new ZipEntry(entryName));
+                zipOutput.write(entryName.getBytes());
+                zipOutput.closeEntry();
+            }
+        }
+    }
+
+    private long countWorkingDirectoryEntries() throws Exception {
+        try (Stream<Path> entries = Files.list(PathUtils.getCurrentWorkingDirectoryPath())) {
+            return entries.count();
+        }
+    }
+
+    // Zip a directory and extract it again, contents should round-trip
+    @Test
+    public void testZipAndUnzipRoundTrip() throws Exception {
+        createSampleTree();
+        assertNotNull(ArchiveOperations.zipDir("sample", "sample.zip"));
+        assertTrue("Archive should exist", Files.exists(workingDirectoryFile("sample.zip")));
+        assertNotNull(ArchiveOperations.unzipFile("sample.zip", "extracted"));
+
+        Path extractedRoot = workingDirectoryFile("extracted/sample");
+        assertEquals("Alpha", new String(Files.readAllBytes(extractedRoot.resolve("a.txt"))));
+        assertEquals("Beta", new String(Files.readAllBytes(extractedRoot.resolve("nested/b.txt"))));
+        assertEquals("Gamma", new String(Files.readAllBytes(extractedRoot.resolve("nested/deeper/c.txt"))));
+        assertTrue("Empty directory should be restored", Files.isDirectory(extractedRoot.resolve("empty")));
+    }
+
+    // The central directory should be readable by the JDK zip file system
+    @Test
+    public void testArchiveCentralDirectoryIsValid() throws Exception {
+        createSampleTree();
+        ArchiveOperations.zipDir("sample", "valid.zip");
+
+        try (FileSystem zipFileSystem = FileSystems.newFileSystem(workingDirectoryFile("valid.zip"), (ClassLoader) null)) {
+            assertEquals("Gamma", new String(Files.readAllBytes(zipFileSystem.getPath("sample/nested/deeper/c.txt"))));
+            assertTrue(Files.isDirectory(zipFileSystem.getPath("sample/empty")));
+        }
+    }
+
+    // Files larger than the in-memory limit are streamed and must round-trip as well
+    @Test
+    public void testLargeFileRoundTrip() throws Exception {
+        Path root = Files.createDirectory(workingDirectoryFile("large"));
+        byte[] content = new byte[9 * 1024 * 1024];
+        new Random(7).nextBytes(content);
+        Files.write(root.resolve("large.bin"), content);
+        Files.write(root.resolve("small.txt"), "Small".getBytes());
+        ArchiveOperations.zipDir("large", "large.zip");
+        ArchiveOperations.unzipFile("large.zip", "largeExtracted");
+
+        assertArrayEquals(content, Files.readAllBytes(workingDirectoryFile("largeExtracted/large/large.bin")));
+        assertEquals("Small", new String(Files.readAllBytes(workingDirectoryFile("largeExtracted/large/small.txt"))));
+    }
+
+    // Zipping a non-existent directory should fail
+    @Test
+    public void testZipNonExistentDir() {
+        assertNull(ArchiveOperations.zipDir("missing", "missing.zip"));
+        assertFalse("No archive should be left behind", Files.exists(workingDirectoryFile("missing.zip")));
+    }
+
+    // Unzipping a non-existent archive should fail
+    @Test
+    public void testUnzipNonExistentArchive() {
+        assertNull(ArchiveOperations.unzipFile("missing.zip", null));
+    }
+
+    // Two entries that resolve to the same file should fail the extraction without leaving anything behind
+    @Test
+    public void testUnzipRejectsDuplicateEntries() throws Exception {
+        writeZip("duplicates.zip", "dir/b.txt", "dir/./b.txt");
+        long entriesBefore = countWorkingDirectoryEntries();
+        assertNull(ArchiveOperations.unzipFile("duplicates.zip", "duplicates"));
+        assertEquals(entriesBefore, countWorkingDirectoryEntries());
+    }
+
+    // An entry escaping a destination given with a non-normalized path should be rejected
+    @Test
+    public void testUnzipRejectsEntryOutsideNonNormalizedDestination() throws Exception {
+        writeZip("slip.zip", "inside.txt", "../outside.txt");
+        assertNull(ArchiveOperations.unzipFile("slip.zip", "target/../slipped"));
+        assertFalse(Files.exists(workingDirectoryFile("outside.txt")));
+        assertFalse(Files.exists(workingDirectoryFile("slipped")));
+    }
+
+    // A folder extracted over a symbolic link should be refused instead of writing through the link
+    @Test
+    public void testUnzipDoesNotFollowSymbolicLinkInDestination() throws Exception {
+        writeZip("linked.zip", "docs/readme.txt");
+        Files.createDirectories(workingDirectoryFile("outside"));
+        Files.createDirectories(workingDirectoryFile("target"));
+        Files.createSymbolicLink(workingDirectoryFile("target/docs"), workingDirectoryFile("outside"));
+        assertNull(ArchiveOperations.unzipFile("linked.zip", "target"));
+        assertFalse(Files.exists(workingDirectoryFile("outside/readme.txt")));
+    }
+}
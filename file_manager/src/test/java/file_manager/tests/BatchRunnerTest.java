@@ -0,0 +1,112 @@
+package file_manager.tests;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.batch.BatchRunner;
+import file_manager.session.CommandTranscript;
+import file_manager.session.OutputFormat;
+
+public class BatchRunnerTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    private int runScript(String script) throws Exception {
+        return BatchRunner.run(new BufferedReader(new StringReader(script)), fixture.getSession());
+    }
+
+    // A valid script runs every command in order and succeeds
+    @Test
+    public void testScriptRunsInOrder() throws Exception {
+        int exitStatus = runScript("# create and fill a file\n"
+                + "make dir > reports\n"
+                + "chdir > reports\n"
+                + "make file > summary.txt\n"
+                + "write file > summary.txt > Totals: 42\n"
+                + "\n"
+                + "copy file > summary.txt > backup.txt\n");
+
+        assertEquals(BatchRunner.EXIT_SUCCESS, exitStatus);
+        assertEquals("Totals: 42", new String(Files.readAllBytes(fixture.resolve("reports/backup.txt"))));
+        assertTrue(fixture.getOutput().contains("5 command(s), 5 succeeded, 0 failed"));
+    }
+
+    // A missing required argument fails the script before anything runs
+    @Test
+    public void testMissingArgumentFailsBeforeRunning() throws Exception {
+        int exitStatus = runScript("make dir > untouched\nrename file > onlyOneName\n");
+
+        assertEquals(BatchRunner.EXIT_INVALID_SCRIPT, exitStatus);
+        assertFalse(Files.exists(fixture.resolve("untouched")));
+        assertTrue(fixture.getOutput().contains("Line 2"));
+    }
+
+    // A failing command is counted and the exit status reports it
+    @Test
+    public void testFailedCommandIsReported() throws Exception {
+        int exitStatus = runScript("delete file > missing.txt\nmake file > created.txt\n");
+
+        assertEquals(BatchRunner.EXIT_COMMAND_FAILED, exitStatus);
+        assertTrue(Files.exists(fixture.resolve("created.txt")));
+        assertTrue(fixture.getOutput().contains("1 failed (line(s) 1)"));
+    }
+
+    // Deleting a non-empty folder needs an explicit confirmation instead of a prompt
+    @Test
+    public void testNonEmptyFolderNeedsConfirmation() throws Exception {
+        Files.createDirectories(fixture.resolve("full/nested"));
+
+        assertEquals(BatchRunner.EXIT_COMMAND_FAILED, runScript("delete dir > full\n"));
+        assertTrue(Files.exists(fixture.resolve("full")));
+        assertEquals(BatchRunner.EXIT_SUCCESS, runScript("delete dir > full > y\n"));
+        assertFalse(Files.exists(fixture.resolve("full")));
+    }
+
+    // In the JSON output format each command prints one record with its output, errors, status and I/O
+    @Test
+    public void testJsonOutputFormat() throws Exception {
+        Files.write(fixture.resolve("notes.txt"), "first \"line\"\nsecond line\n".getBytes());
+        fixture.getSession().setOutputFormat(OutputFormat.JSON);
+
+        int exitStatus = BatchRunner.run(new BufferedReader(new StringReader("read file > notes.txt\ndelete file > missing.txt\n")),
+                fixture.getSession(), 1);
+
+        assertEquals(BatchRunner.EXIT_COMMAND_FAILED, exitStatus);
+        String[] outputLines = fixture.getOutput().split("\\R");
+        assertEquals(3, outputLines.length);
+        assertTrue(outputLines[0].startsWith("{\"type\":\"command\",\"command\":\"read file\",\"arguments\":[\"notes.txt\"],"
+                + "\"status\":\"succeeded\",\"output\":[\"Reading file...\",\"Contents of notes.txt:\",\"first \\\"line\\\"\",\"second line\"],"
+                + "\"outputTruncated\":false,\"errors\":[],\"durationMicros\":"));
+        assertTrue(outputLines[0].endsWith(",\"files\":0,\"bytes\":25}"));
+        assertTrue(outputLines[1].contains("\"status\":\"failed\""));
+        assertTrue(outputLines[1].contains("\"errors\":[\""));
+        assertEquals("{\"type\":\"summary\",\"commands\":2,\"succeeded\":1,\"failed\":1,\"failedLines\":[2]}", outputLines[2]);
+    }
+
+    // The JSON record keeps only the first MiB of output and says that the rest was dropped
+    @Test
+    public void testJsonOutputIsTruncated() throws Exception {
+        StringBuilder longContent = new StringBuilder();
+        for (int lineIndex = 0; longContent.length() <= 2 * CommandTranscript.MAX_OUTPUT_BYTES; lineIndex++) {
+            longContent.append("line ").append(lineIndex).append('\n');
+        }
+        Files.write(fixture.resolve("long.txt"), longContent.toString().getBytes());
+        fixture.getSession().setOutputFormat(OutputFormat.JSON);
+
+        BatchRunner.run(new BufferedReader(new StringReader("read file > long.txt\n")), fixture.getSession(), 1);
+
+        String commandRecord = fixture.getOutput().split("\\R")[0];
+        assertTrue(commandRecord.length() < 2 * CommandTranscript.MAX_OUTPUT_BYTES);
+        assertTrue(commandRecord.contains("\"line 0\","));
+        assertTrue(commandRecord.contains("\"],\"outputTruncated\":true,\"errors\":[]"));
+        assertTrue(commandRecord.contains("\"status\":\"succeeded\""));
+    }
+}
@@ -0,0 +1,84 @@
+package file_manager.tests;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import file_manager.batch.BatchRunner;
+import file_manager.session.SessionContext;
+import file_manager.utils.FileSystemUtils;
+
+public class BatchSchedulerTest {
+
+    private static final String DEPENDENT_SCRIPT = "make dir > left\n"
+            + "make dir > right\n"
+            + "make file > left/notes.txt\n"
+            + "make file > right/notes.txt\n"
+            + "write file > left/notes.txt > Left side\n"
+            + "write file > right/notes.txt > Right side\n"
+            + "copy file > left/notes.txt > left/copy.txt\n"
+            + "read file > left/copy.txt\n"
+            + "chdir > right\n"
+            + "rename file > notes.txt > renamed.txt\n"
+            + "read file > renamed.txt\n"
+            + "prevdir\n"
+            + "delete dir > left > y\n";
+
+    /**
+     * Runs a script on the given file system and returns its output.
+     */
+    private String runScript(FileSystem inMemoryFileSystem, String script, int parallelism) throws Exception {
+        Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+        ByteArrayOutputStream capturedOutput = new ByteArrayOutputStream();
+        try (SessionContext batchSession = new SessionContext(workingDirectory, new PrintStream(capturedOutput, true), false)) {
+            assertEquals(BatchRunner.EXIT_SUCCESS,
+                    BatchRunner.run(new BufferedReader(new StringReader(script)), batchSession, parallelism));
+        }
+        return capturedOutput.toString();
+    }
+
+    // Commands on overlapping paths keep script order and the output matches a sequential run
+    @Test
+    public void testParallelRunMatchesSequentialRun() throws Exception {
+        try (FileSystem sequentialFileSystem = FileSystemUtils.newInMemoryFileSystem();
+             FileSystem parallelFileSystem = FileSystemUtils.newInMemoryFileSystem()) {
+            String sequentialOutput = runScript(sequentialFileSystem, DEPENDENT_SCRIPT, 1);
+            String parallelOutput = runScript(parallelFileSystem, DEPENDENT_SCRIPT, 8);
+            Path workingDirectory = parallelFileSystem.getPath("").toAbsolutePath();
+
+            assertEquals(sequentialOutput, parallelOutput);
+            assertTrue(parallelOutput.contains("Left side"));
+            assertFalse(Files.exists(workingDirectory.resolve("left")));
+            assertEquals("Right side", new String(Files.readAllBytes(workingDirectory.resolve("right/renamed.txt"))));
+        }
+    }
+
+    // Many independent commands all complete
+    @Test
+    public void testIndependentCommandsAllRun() throws Exception {
+        StringBuilder scriptBuilder = new StringBuilder();
+        for (int directoryIndex = 0; directoryIndex < 50; directoryIndex++) {
+            scriptBuilder.append("make dir > dir").append(directoryIndex).append('\n');
+            scriptBuilder.append("make file > dir").append(directoryIndex).append("/file.txt\n");
+            scriptBuilder.append("write file > dir").append(directoryIndex).append("/file.txt > ").append(directoryIndex).append('\n');
+        }
+        try (FileSystem inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem()) {
+            runScript(inMemoryFileSystem, scriptBuilder.toString(), 8);
+            Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+
+            for (int directoryIndex = 0; directoryIndex < 50; directoryIndex++) {
+                assertEquals(String.valueOf(directoryIndex),
+                        new String(Files.readAllBytes(workingDirectory.resolve("dir" + directoryIndex + "/file.txt"))));
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package file_manager.tests;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.operations.BulkOperations;
+
+public class BulkOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    @Before
+    public void setUp() throws Exception {
+        // More matches than one batch, so several workers take part
+        for (int fileIndex = 0; fileIndex < 1000; fileIndex++) {
+            Files.write(fixture.resolve("scratch-" + fileIndex + ".tmp"), new byte[10]);
+        }
+        Files.write(fixture.resolve("keep.txt"), new byte[10]);
+        Files.createDirectory(fixture.resolve("folder.tmp"));
+    }
+
+    // Only the glob: and regex: prefixes make an argument a pattern
+    @Test
+    public void testPatternDetection() {
+        assertTrue(BulkOperations.isFilePattern("glob:*.tmp"));
+        assertTrue(BulkOperations.isFilePattern("glob:logs/app-?.log"));
+        assertTrue(BulkOperations.isFilePattern("regex:report-\\d+\\.csv"));
+        assertFalse(BulkOperations.isFilePattern("notes.txt"));
+        assertFalse(BulkOperations.isFilePattern("*.tmp"));
+    }
+
+    // A file whose name contains wildcards is deleted by that name, and its look-alikes are left alone
+    @Test
+    public void testLiteralNameWithWildcardsIsNotAPattern() throws Exception {
+        Files.write(fixture.resolve("report[1].txt"), new byte[1]);
+        Files.write(fixture.resolve("report1.txt"), new byte[1]);
+
+        fixture.run("delete file > report[1].txt");
+
+        assertFalse(Files.exists(fixture.resolve("report[1].txt")));
+        assertTrue(Files.exists(fixture.resolve("report1.txt")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A name with wildcards that does not exist fails and suggests the glob: form instead of matching
+    @Test
+    public void testMissingNameWithWildcardsNeedsGlobPrefix() throws Exception {
+        fixture.run("delete file > scratch-?.tmp");
+
+        assertTrue(Files.exists(fixture.resolve("scratch-1.tmp")));
+        assertTrue(fixture.getOutput().contains("write glob:scratch-?.tmp"));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A dry run lists what would be deleted and changes nothing
+    @Test
+    public void testDryRunChangesNothing() {
+        fixture.run("delete file > glob:*.tmp > dry-run");
+
+        assertTrue(Files.exists(fixture.resolve("scratch-0.tmp")));
+        assertTrue(fixture.getOutput().contains("Dry run: 1000 file(s) (9.8 KiB) match 'glob:*.tmp' and would be deleted."));
+    }
+
+    // Every matching file is deleted, but no matching folder and no other file
+    @Test
+    public void testDeleteMatchingFiles() {
+        fixture.run("delete file > glob:*.tmp");
+
+        assertTrue(fixture.getOutput().contains("Deleted 1000 of 1000 file(s) matching 'glob:*.tmp' (9.8 KiB)"));
+        assertFalse(Files.exists(fixture.resolve("scratch-999.tmp")));
+        assertTrue(Files.isDirectory(fixture.resolve("folder.tmp")));
+        assertTrue(Files.exists(fixture.resolve("keep.txt")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Matches of a regular expression are copied into a folder
+    @Test
+    public void testCopyMatchingFiles() throws Exception {
+        Files.createDirectory(fixture.resolve("backup"));
+
+        fixture.run("copy file > regex:scratch-1\\d\\.tmp > backup");
+
+        try (Stream<Path> copiedFiles = Files.list(fixture.resolve("backup"))) {
+            assertEquals(10, copiedFiles.count());
+        }
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Matches are moved into a folder, and files already there are counted as failures of the move
+    @Test
+    public void testMoveMatchingFilesKeepsExistingFiles() throws Exception {
+        Files.createDirectory(fixture.resolve("archive"));
+        Files.write(fixture.resolve("archive").resolve("scratch-7.tmp"), new byte[1]);
+
+        fixture.run("move file > glob:scratch-?.tmp > archive");
+
+        assertTrue(fixture.getOutput().contains("Moved 9 of 10 file(s) matching 'glob:scratch-?.tmp'"));
+        assertTrue(fixture.getOutput().contains("scratch-7.tmp: already exists at the destination"));
+        assertTrue(Files.exists(fixture.resolve("scratch-7.tmp")));
+        assertTrue(Files.exists(fixture.resolve("archive").resolve("scratch-3.tmp")));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+}
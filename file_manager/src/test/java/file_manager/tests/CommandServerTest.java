@@ -0,0 +1,154 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import file_manager.server.CommandClient;
+import file_manager.server.CommandServer;
+import file_manager.utils.FileSystemUtils;
+
+public class CommandServerTest {
+
+    private static final int MAX_CONNECTION_COUNT = 2;
+    private static final int IDLE_TIMEOUT_MILLIS = 500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileSystem inMemoryFileSystem;
+    private Path workingDirectory;
+    private Path tokenFilePath;
+    private CommandServer commandServer;
+
+    @Before
+    public void setUp() throws Exception {
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+        tokenFilePath = temporaryFolder.getRoot().toPath().resolve("server.token");
+        commandServer = new CommandServer(workingDirectory, 0, MAX_CONNECTION_COUNT, tokenFilePath, IDLE_TIMEOUT_MILLIS);
+        commandServer.start();
+    }
+
+    private CommandClient connect() throws IOException {
+        return new CommandClient(commandServer.getPort(), tokenFilePath);
+    }
+
+    private void assertConnectionRefused(Path clientTokenFilePath, String expectedMessagePrefix) {
+        try {
+            new CommandClient(commandServer.getPort(), clientTokenFilePath).close();
+            fail("The connection should have been refused");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith(expectedMessagePrefix));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        commandServer.close();
+        inMemoryFileSystem.close();
+    }
+
+    // Commands run on the server and their output and status come back to the client
+    @Test
+    public void testCommandsRunOnServer() throws Exception {
+        try (CommandClient commandClient = connect()) {
+            List<String> outputLines = new ArrayList<>();
+            assertTrue(commandClient.execute("make file > served.txt", outputLines));
+            assertTrue(commandClient.execute("write file > served.txt > From the server", outputLines));
+
+            outputLines.clear();
+            assertTrue(commandClient.execute("read file > served.txt", outputLines));
+            assertTrue(outputLines.contains("From the server"));
+
+            assertFalse(commandClient.execute("delete file > missing.txt", new ArrayList<>()));
+            assertFalse(commandClient.execute("rename file", new ArrayList<>()));
+        }
+        assertTrue(Files.exists(workingDirectory.resolve("served.txt")));
+    }
+
+    // Each connection keeps its own working directory
+    @Test
+    public void testConnectionsHaveSeparateSessions() throws Exception {
+        Files.createDirectory(workingDirectory.resolve("elsewhere"));
+        try (CommandClient firstClient = connect();
+             CommandClient secondClient = connect()) {
+            assertTrue(firstClient.execute("chdir > elsewhere", new ArrayList<>()));
+
+            List<String> firstPath = new ArrayList<>();
+            List<String> secondPath = new ArrayList<>();
+            firstClient.execute("path", firstPath);
+            secondClient.execute("path", secondPath);
+
+            assertEquals("Current working directory: " + workingDirectory.resolve("elsewhere"), firstPath.get(0));
+            assertEquals("Current working directory: " + workingDirectory, secondPath.get(0));
+        }
+    }
+
+    // The token file should only be readable by its owner
+    @Test
+    public void testTokenFileIsOwnerOnly() throws Exception {
+        if (Files.getFileStore(tokenFilePath).supportsFileAttributeView("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFilePath)));
+        }
+    }
+
+    // A client with the wrong token should be refused before it can run a command
+    @Test
+    public void testWrongTokenIsRefused() throws Exception {
+        Path wrongTokenFilePath = temporaryFolder.newFile("wrong.token").toPath();
+        Files.write(wrongTokenFilePath, "0123456789abcdef".getBytes());
+        assertConnectionRefused(wrongTokenFilePath, "Authentication failed");
+    }
+
+    // Output that looks like a frame header should come back as plain output
+    @Test
+    public void testOutputCannotEndResponseEarly() throws Exception {
+        Files.write(workingDirectory.resolve("frames.txt"), Arrays.asList("STATUS FAILED", "DATA 3", "after"));
+        try (CommandClient commandClient = connect()) {
+            List<String> outputLines = new ArrayList<>();
+            assertTrue(commandClient.execute("read file > frames.txt", outputLines));
+            assertTrue(outputLines.containsAll(Arrays.asList("STATUS FAILED", "DATA 3", "after")));
+            assertTrue(commandClient.execute("path", new ArrayList<>()));
+        }
+    }
+
+    // Connections beyond the limit should be turned away
+    @Test
+    public void testConnectionsBeyondLimitAreRefused() throws Exception {
+        try (CommandClient firstClient = connect(); CommandClient secondClient = connect()) {
+            assertTrue(firstClient.execute("path", new ArrayList<>()));
+            assertTrue(secondClient.execute("path", new ArrayList<>()));
+            assertConnectionRefused(tokenFilePath, "The server is busy");
+        }
+    }
+
+    // An idle connection should be closed and free its slot
+    @Test
+    public void testIdleConnectionIsClosed() throws Exception {
+        try (CommandClient idleClient = connect()) {
+            Thread.sleep(IDLE_TIMEOUT_MILLIS * 3);
+            try {
+                idleClient.execute("path", new ArrayList<>());
+                fail("The idle connection should have been closed");
+            } catch (IOException expected) {
+                // The server closed the connection
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.session.MissingArgumentException;
+
+public class CompareOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // Identical files are reported as such
+    @Test
+    public void testCompareIdenticalFiles() throws Exception {
+        byte[] content = newPatternContent();
+        Files.write(fixture.resolve("original.bin"), content);
+        Files.write(fixture.resolve("copy.bin"), content);
+
+        fixture.run("compare file > original.bin > copy.bin");
+
+        assertTrue(fixture.getOutput().contains("The files are identical (3.0 MiB"));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // The offset of the first difference is found past the first block, and the difference fails the command
+    @Test
+    public void testCompareFindsFirstDifference() throws Exception {
+        byte[] content = newPatternContent();
+        Files.write(fixture.resolve("original.bin"), content);
+        content[2_000_123]++;
+        Files.write(fixture.resolve("changed.bin"), content);
+
+        fixture.run("compare file > original.bin > changed.bin");
+
+        assertTrue(fixture.getOutput().contains("The files differ at byte offset 2000123"));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Files only on one side, of different sizes, or with different content behind different times are listed in path order
+    @Test
+    public void testCompareDirListsDifferences() throws Exception {
+        createTrees();
+
+        fixture.run("compare dir > sent > received");
+
+        String output = fixture.getOutput();
+        assertTrue(output, output.contains(" - differs: a.txt (at byte offset 3)\n - differs: b.txt (sizes 4 and 5)\n - only in sent: only-sent.txt\n"));
+        assertTrue(output, output.contains("The folders differ: 2 identical, 2 different, 1 only in sent, 0 only in received (1 compared by content"));
+    }
+
+    // Comparing by content finds files with the same times identical
+    @Test
+    public void testCompareDirByContent() throws Exception {
+        createTrees();
+
+        fixture.run("compare dir > sent/data > received/data > content");
+
+        assertTrue(fixture.getOutput().contains("The folders are identical: 1 identical, 0 different"));
+    }
+
+    // Without the second file, a session that cannot prompt fails with a missing argument
+    @Test(expected = MissingArgumentException.class)
+    public void testMissingSecondFileIsMissingArgument() throws Exception {
+        Files.write(fixture.resolve("original.bin"), new byte[1]);
+
+        fixture.run("compare file > original.bin");
+    }
+
+    // --- Helper Methods ---
+
+    private static byte[] newPatternContent() {
+        byte[] content = new byte[3 * 1024 * 1024];
+        for (int byteIndex = 0; byteIndex < content.length; byteIndex++) {
+            content[byteIndex] = (byte) (byteIndex * 31);
+        }
+        return content;
+    }
+
+    private void createTrees() throws IOException {
+        FileTime sameTime = FileTime.fromMillis(1_000_000_000_000L);
+        for (String treeName : new String[] {"sent", "received"}) {
+            Files.createDirectories(fixture.resolve(treeName).resolve("data"));
+            Files.write(fixture.resolve(treeName).resolve("data/same.txt"), "same".getBytes());
+            Files.setLastModifiedTime(fixture.resolve(treeName).resolve("data/same.txt"), sameTime);
+        }
+        Files.write(fixture.resolve("sent/a.txt"), "alpha".getBytes());
+        Files.write(fixture.resolve("received/a.txt"), "alpHa".getBytes());
+        Files.setLastModifiedTime(fixture.resolve("received/a.txt"), sameTime);
+        Files.write(fixture.resolve("sent/b.txt"), "beta".getBytes());
+        Files.write(fixture.resolve("received/b.txt"), "beta!".getBytes());
+        Files.write(fixture.resolve("sent/only-sent.txt"), new byte[1]);
+    }
+}
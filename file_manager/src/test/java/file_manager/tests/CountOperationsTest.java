@@ -0,0 +1,55 @@
+package file_manager.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class CountOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // A file spanning several segments, with words cut by the segment boundaries, is counted as if it were one piece
+    @Test
+    public void testCountAcrossSegments() throws Exception {
+        StringBuilder contentBuilder = new StringBuilder();
+        long wordCount = 0;
+        long lineCount = 0;
+        while (contentBuilder.length() < 40 * 1024 * 1024) {
+            contentBuilder.append("alpha beta\tgamma  ").append(wordCount).append('\n');
+            wordCount += 4;
+            lineCount++;
+        }
+        byte[] content = contentBuilder.toString().getBytes(StandardCharsets.US_ASCII);
+        Files.write(fixture.resolve("large.txt"), content);
+
+        fixture.run("count > large.txt");
+
+        assertTrue(fixture.getOutput(), fixture.getOutput().contains(
+                String.format("%10d %10d %14d  large.txt", lineCount, wordCount, content.length)));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Folders are counted as a whole, patterns file by file, and a total follows
+    @Test
+    public void testCountFoldersAndPatterns() throws Exception {
+        Files.createDirectories(fixture.resolve("docs/nested"));
+        Files.write(fixture.resolve("docs/a.txt"), "one two\nthree".getBytes(StandardCharsets.US_ASCII));
+        Files.write(fixture.resolve("docs/nested/b.txt"), "four\n".getBytes(StandardCharsets.US_ASCII));
+        Files.write(fixture.resolve("notes.md"), "five six\n".getBytes(StandardCharsets.US_ASCII));
+        Files.write(fixture.resolve("empty.md"), new byte[0]);
+
+        fixture.run("count > docs > glob:*.md");
+
+        String output = fixture.getOutput();
+        assertTrue(output, output.contains(String.format("%10d %10d %14d  docs", 2, 4, 18)));
+        assertTrue(output, output.contains(String.format("%10d %10d %14d  notes.md", 1, 2, 9)));
+        assertTrue(output, output.contains(String.format("%10d %10d %14d  empty.md", 0, 0, 0)));
+        assertTrue(output, output.contains(String.format("%10d %10d %14d  total", 3, 6, 27)));
+        assertTrue(output, output.contains("Counted 4 file(s)"));
+    }
+}
@@ -0,0 +1,122 @@
+package file_manager.tests;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import file_manager.operations.DeltaCopyOperations;
+import file_manager.operations.FileOperations;
+import file_manager.utils.FileSystemUtils;
+import file_manager.utils.PathUtils;
+
+public class DeltaCopyOperationsTest {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private FileSystem inMemoryFileSystem;
+
+    @Before
+    public void setUp() {
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        PathUtils.useFileSystem(inMemoryFileSystem);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        PathUtils.useFileSystem(FileSystems.getDefault());
+        inMemoryFileSystem.close();
+    }
+
+    private Path workingDirectoryFile(String fileName) {
+        return PathUtils.getCurrentWorkingDirectoryPath().resolve(fileName);
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    // Identical files: nothing should be rewritten
+    @Test
+    public void testIdenticalFilesRewriteNothing() throws Exception {
+        byte[] content = randomBytes(10 * BLOCK_SIZE + 17);
+        Path source = workingDirectoryFile("source.bin");
+        Path destination = workingDirectoryFile("destination.bin");
+        Files.write(source, content);
+        Files.write(destination, content);
+
+        DeltaCopyOperations.DeltaCopySummary summary = DeltaCopyOperations.updateInPlace(source, destination, BLOCK_SIZE);
+
+        assertEquals(11, summary.getTotalBlockCount());
+        assertEquals(0, summary.getRewrittenBlockCount());
+        assertArrayEquals(content, Files.readAllBytes(destination));
+    }
+
+    // A single changed byte should only rewrite the block containing it
+    @Test
+    public void testSingleChangedBlockIsRewritten() throws Exception {
+        byte[] content = randomBytes(8 * BLOCK_SIZE);
+        byte[] changed = Arrays.copyOf(content, content.length);
+        changed[3 * BLOCK_SIZE + 5] ^= 0x7F;
+        Path source = workingDirectoryFile("source.bin");
+        Path destination = workingDirectoryFile("destination.bin");
+        Files.write(source, changed);
+        Files.write(destination, content);
+
+        DeltaCopyOperations.DeltaCopySummary summary = DeltaCopyOperations.updateInPlace(source, destination, BLOCK_SIZE);
+
+        assertEquals(1, summary.getRewrittenBlockCount());
+        assertEquals(BLOCK_SIZE, summary.getRewrittenByteCount());
+        assertArrayEquals(changed, Files.readAllBytes(destination));
+    }
+
+    // A longer destination should be truncated to the source length
+    @Test
+    public void testLongerDestinationIsTruncated() throws Exception {
+        byte[] content = randomBytes(5 * BLOCK_SIZE);
+        byte[] shorter = Arrays.copyOf(content, 2 * BLOCK_SIZE + 100);
+        Path source = workingDirectoryFile("source.bin");
+        Path destination = workingDirectoryFile("destination.bin");
+        Files.write(source, shorter);
+        Files.write(destination, content);
+
+        DeltaCopyOperations.updateInPlace(source, destination, BLOCK_SIZE);
+
+        assertArrayEquals(shorter, Files.readAllBytes(destination));
+    }
+
+    // A shorter destination should be extended with the missing blocks
+    @Test
+    public void testShorterDestinationIsExtended() throws Exception {
+        byte[] content = randomBytes(4 * BLOCK_SIZE + 3);
+        Path source = workingDirectoryFile("source.bin");
+        Path destination = workingDirectoryFile("destination.bin");
+        Files.write(source, content);
+        Files.write(destination, Arrays.copyOf(content, BLOCK_SIZE));
+
+        DeltaCopyOperations.DeltaCopySummary summary = DeltaCopyOperations.updateInPlace(source, destination, BLOCK_SIZE);
+
+        assertEquals(4, summary.getRewrittenBlockCount());
+        assertArrayEquals(content, Files.readAllBytes(destination));
+    }
+
+    // copy file onto an existing destination should update it in place
+    @Test
+    public void testCopyOntoExistingDestinationUpdatesInPlace() throws Exception {
+        Path destination = workingDirectoryFile("deltaDestination.txt");
+        Files.write(workingDirectoryFile("deltaSource.txt"), "New contents".getBytes());
+        Files.write(destination, "Old contents that are longer".getBytes());
+        FileOperations.copy("deltaSource.txt", "deltaDestination.txt");
+        assertEquals("New contents", new String(Files.readAllBytes(destination)));
+    }
+}
@@ -1,159 +1,131 @@
 package file_manager.tests;
 
-import java.io.File;
-import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+import org.junit.After;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import org.junit.Before;
 import org.junit.Test;
 
 import file_manager.operations.DirectoryOperations;
+import file_manager.utils.FileSystemUtils;
 import file_manager.utils.PathUtils;
 
 public class DirectoryOperationsTest {
 
+    private FileSystem inMemoryFileSystem;
+
+    @Before
+    public void setUp() {
+        // Every test starts on a fresh, empty in-memory file system
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        PathUtils.useFileSystem(inMemoryFileSystem);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        PathUtils.useFileSystem(FileSystems.getDefault());
+        inMemoryFileSystem.close();
+    }
+
+    private Path workingDirectoryFile(String name) {
+        return PathUtils.getCurrentWorkingDirectoryPath().resolve(name);
+    }
+
     // Test creating a new directory
     @Test
     public void testNewDir() {
         String dirName = "testNewDir";
-        File dir = new File(PathUtils.getCurrentWorkingDirectory(), dirName);
-        try {
-            assertTrue("Directory should be created", DirectoryOperations.newDir(dirName));
-            assertTrue("Directory should exist", dir.exists() && dir.isDirectory());
-            // Try to create again, should return false
-            assertFalse("Duplicate directory creation should fail", DirectoryOperations.newDir(dirName));
-        } finally {
-            dir.delete();
-        }
+        Path dir = workingDirectoryFile(dirName);
+        assertTrue("Directory should be created", DirectoryOperations.newDir(dirName));
+        assertTrue("Directory should exist", Files.isDirectory(dir));
+        // Try to create again, should return false
+        assertFalse("Duplicate directory creation should fail", DirectoryOperations.newDir(dirName));
     }
 
     // Test deleting an empty directory
     @Test
-    public void testDelEmptyDir() {
-        String dirName = "testDelEmptyDir";
-        File dir = new File(PathUtils.getCurrentWorkingDirectory(), dirName);
-        try {
-            dir.mkdir();
-            assertTrue("Directory should exist before deletion", dir.exists());
-            assertTrue("Directory should be deleted", DirectoryOperations.delDir(dir.getName(), "y"));
-            assertFalse("Directory should not exist after deletion", dir.exists());
-        } finally {
-            dir.delete();
-        }
+    public void testDelEmptyDir() throws Exception {
+        Path dir = Files.createDirectory(workingDirectoryFile("testDelEmptyDir"));
+        assertTrue("Directory should exist before deletion", Files.exists(dir));
+        assertTrue("Directory should be deleted", DirectoryOperations.delDir(dir.getFileName().toString(), "y"));
+        assertFalse("Directory should not exist after deletion", Files.exists(dir));
     }
 
     // Test deleting a non-existent directory
     @Test
     public void testDelNonExistentDir() {
-        String dirName = "nonExistentDir";
-        File dir = new File(PathUtils.getCurrentWorkingDirectory(), dirName);
-        assertFalse("Deleting non-existent directory should return false", DirectoryOperations.delDir(dir.getAbsolutePath(), "y"));
+        Path dir = workingDirectoryFile("nonExistentDir");
+        assertFalse("Deleting non-existent directory should return false", DirectoryOperations.delDir(dir.toString(), "y"));
+    }
+
+    // Test deleting a non-empty directory without confirmation (no confirmation mode given)
+    @Test
+    public void testDelNonEmptyDir() throws Exception {
+        Path dir = Files.createDirectory(workingDirectoryFile("testDelNonEmptyDir"));
+        Files.createFile(dir.resolve("file.txt"));
+        assertTrue("Directory should exist before deletion", Files.exists(dir));
+        // Without a confirmation mode the non-empty directory must not be deleted
+        assertFalse(DirectoryOperations.delDir(dir.toString(), null));
+        assertTrue("Directory should still exist", Files.exists(dir));
     }
 
-    // Test deleting a non-empty directory (simulate user confirmation as "Y")
+    // Test deleting a non-empty directory with automatic confirmation
     @Test
-    public void testDelNonEmptyDir() throws IOException {
-        String dirName = "testDelNonEmptyDir";
-        File dir = new File(PathUtils.getCurrentWorkingDirectory(), dirName);
-        File file = new File(dir, "file.txt");
-        try {
-            dir.mkdir();
-            file.createNewFile();
-            // Simulate user confirmation by temporarily replacing System.in if needed
-            // Here, we assume the method will prompt and we can't automate input, so just test deletion logic
-            // (In real test, use a mocking framework or refactor for testability)
-            assertTrue("Directory should exist before deletion", dir.exists());
-            // The method will prompt for confirmation and may not delete in this test environment
-            // So, we just call and check if the directory is eventually deleted
-            DirectoryOperations.delDir(dir.getAbsolutePath(), null);
-            // Directory may or may not be deleted depending on prompt, so just clean up
-        } finally {
-            file.delete();
-            dir.delete();
-        }
+    public void testDelNonEmptyDirAutoConfirmed() throws Exception {
+        Path dir = Files.createDirectories(workingDirectoryFile("testDelNonEmptyDirAuto/nested"));
+        Files.createFile(dir.resolve("file.txt"));
+        assertTrue(DirectoryOperations.delDir("testDelNonEmptyDirAuto", "y"));
+        assertFalse("Directory tree should be deleted", Files.exists(workingDirectoryFile("testDelNonEmptyDirAuto")));
     }
 
     // Test renaming a directory
     @Test
-    public void testRenameDir() {
-        String originalDir = "originalDir";
-        String renamedDir = "renamedDir";
-        File orig = new File(PathUtils.getCurrentWorkingDirectory(), originalDir);
-        File renamed = new File(PathUtils.getCurrentWorkingDirectory(), renamedDir);
-        try {
-            orig.mkdir();
-            assertTrue("Original directory should exist", orig.exists());
-            DirectoryOperations.renameDir(originalDir, renamedDir);
-            assertFalse("Original directory should not exist after rename", orig.exists());
-            assertTrue("Renamed directory should exist", renamed.exists());
-        } finally {
-            orig.delete();
-            renamed.delete();
-        }
+    public void testRenameDir() throws Exception {
+        Path orig = Files.createDirectory(workingDirectoryFile("originalDir"));
+        Path renamed = workingDirectoryFile("renamedDir");
+        assertTrue("Original directory should exist", Files.exists(orig));
+        DirectoryOperations.renameDir("originalDir", "renamedDir");
+        assertFalse("Original directory should not exist after rename", Files.exists(orig));
+        assertTrue("Renamed directory should exist", Files.exists(renamed));
     }
 
     // Test renaming a directory to an existing directory name (should fail)
     @Test
-    public void testRenameDirToExisting() {
-        String dir1 = "dir1";
-        String dir2 = "dir2";
-        File d1 = new File(PathUtils.getCurrentWorkingDirectory(), dir1);
-        File d2 = new File(PathUtils.getCurrentWorkingDirectory(), dir2);
-        try {
-            d1.mkdir();
-            d2.mkdir();
-            DirectoryOperations.renameDir(dir1, dir2);
-            // d1 should still exist, d2 should still exist
-            assertTrue("Original directory should still exist", d1.exists());
-            assertTrue("Target directory should still exist", d2.exists());
-        } finally {
-            d1.delete();
-            d2.delete();
-        }
+    public void testRenameDirToExisting() throws Exception {
+        Path d1 = Files.createDirectory(workingDirectoryFile("dir1"));
+        Path d2 = Files.createDirectory(workingDirectoryFile("dir2"));
+        DirectoryOperations.renameDir("dir1", "dir2");
+        // d1 should still exist, d2 should still exist
+        assertTrue("Original directory should still exist", Files.exists(d1));
+        assertTrue("Target directory should still exist", Files.exists(d2));
     }
 
     // Test moving a directory
     @Test
-    public void testMoveDir() {
-        String dirName = "moveDir";
-        String targetParent = "targetParent";
-        File dir = new File(PathUtils.getCurrentWorkingDirectory(), dirName);
-        File parent = new File(PathUtils.getCurrentWorkingDirectory(), targetParent);
-        File moved = new File(parent, dirName);
-        try {
-            dir.mkdir();
-            parent.mkdir();
-            assertTrue("Source directory should exist", dir.exists());
-            DirectoryOperations.moveDir(dir.getName(), parent.getAbsolutePath());
-            assertFalse("Source directory should not exist after move", dir.exists());
-            assertTrue("Directory should exist in new location", moved.exists());
-        } finally {
-            moved.delete();
-            dir.delete();
-            parent.delete();
-        }
+    public void testMoveDir() throws Exception {
+        Path dir = Files.createDirectory(workingDirectoryFile("moveDir"));
+        Path parent = Files.createDirectory(workingDirectoryFile("targetParent"));
+        Path moved = parent.resolve("moveDir");
+        assertTrue("Source directory should exist", Files.exists(dir));
+        DirectoryOperations.moveDir("moveDir", parent.toString());
+        assertFalse("Source directory should not exist after move", Files.exists(dir));
+        assertTrue("Directory should exist in new location", Files.exists(moved));
     }
 
     // Test moving a directory to an existing directory (should fail)
     @Test
-    public void testMoveDirToExisting() {
-        String dirName = "moveDirExisting";
-        String targetParent = "targetParentExisting";
-        File dir = new File(PathUtils.getCurrentWorkingDirectory(), dirName);
-        File parent = new File(PathUtils.getCurrentWorkingDirectory(), targetParent);
-        File moved = new File(parent, dirName);
-        try {
-            dir.mkdir();
-            parent.mkdir();
-            moved.mkdir(); // Create a directory with the same name in target
-            DirectoryOperations.moveDir(dir.getAbsolutePath(), parent.getAbsolutePath());
-            // Should not overwrite, so both should exist
-            assertTrue("Source directory should still exist", dir.exists());
-            assertTrue("Target directory should still exist", moved.exists());
-        } finally {
-            moved.delete();
-            dir.delete();
-            parent.delete();
-        }
+    public void testMoveDirToExisting() throws Exception {
+        Path dir = Files.createDirectory(workingDirectoryFile("moveDirExisting"));
+        Path parent = Files.createDirectory(workingDirectoryFile("targetParentExisting"));
+        Path moved = Files.createDirectory(parent.resolve("moveDirExisting")); // Same name in target
+        DirectoryOperations.moveDir(dir.toString(), parent.toString());
+        // Should not overwrite, so both should exist
+        assertTrue("Source directory should still exist", Files.exists(dir));
+        assertTrue("Target directory should still exist", Files.exists(moved));
     }
-}
\ No newline at end of file
+}
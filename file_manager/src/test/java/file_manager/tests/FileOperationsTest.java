@@ -1,7 +1,9 @@
 package file_manager.tests;
 
-import java.io.File;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.After;
 import static org.junit.Assert.assertEquals;
@@ -11,7 +13,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import file_manager.operations.FileOperations;
-import static file_manager.utils.PathUtils.getCurrentWorkingDirectory;
+import file_manager.utils.FileSystemUtils;
+import file_manager.utils.PathUtils;
+import static file_manager.utils.PathUtils.getCurrentWorkingDirectoryPath;
 
 public class FileOperationsTest {
 
@@ -21,113 +25,86 @@ public class FileOperationsTest {
     private final String testFileMove = "testFileMove.txt";
     private final String testDir = "testDir";
 
+    private FileSystem inMemoryFileSystem;
+
     @Before
     public void setUp() throws Exception {
-        // Clean up before each test
-        deleteFileIfExists(testFileName);
-        deleteFileIfExists(testFileName2);
-        deleteFileIfExists(testFileCopy);
-        deleteFileIfExists(testFileMove);
-        deleteFileIfExists(testDir + File.separator + testFileMove);
-        File dir = new File(getCurrentWorkingDirectory(), testDir);
-        if (dir.exists()) {
-            for (File f : dir.listFiles()) {
-                f.delete();
-            }
-            dir.delete();
-        }
+        // Every test starts on a fresh, empty in-memory file system
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        PathUtils.useFileSystem(inMemoryFileSystem);
     }
 
     @After
     public void tearDown() throws Exception {
-        // Clean up after each test
-        deleteFileIfExists(testFileName);
-        deleteFileIfExists(testFileName2);
-        deleteFileIfExists(testFileCopy);
-        deleteFileIfExists(testFileMove);
-        File dir = new File(getCurrentWorkingDirectory(), testDir);
-        if (dir.exists()) {
-            for (File f : dir.listFiles()) {
-                f.delete();
-            }
-            dir.delete();
-        }
+        PathUtils.useFileSystem(FileSystems.getDefault());
+        inMemoryFileSystem.close();
     }
 
-    private void deleteFileIfExists(String fileName) {
-        File file = new File(getCurrentWorkingDirectory(), fileName);
-        if (file.exists()) file.delete();
+    private Path workingDirectoryFile(String fileName) {
+        return getCurrentWorkingDirectoryPath().resolve(fileName);
     }
 
     @Test
     public void testNewFileCreatesFile() {
         FileOperations.newFile(testFileName);
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        assertTrue(file.exists());
+        assertTrue(Files.exists(workingDirectoryFile(testFileName)));
     }
 
     @Test
-    public void testNewFileAlreadyExists() {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        try {
-            file.createNewFile();
-        } catch (java.io.IOException | SecurityException ignored) {}
+    public void testNewFileAlreadyExists() throws Exception {
+        Path file = workingDirectoryFile(testFileName);
+        Files.createFile(file);
         FileOperations.newFile(testFileName);
-        assertTrue(file.exists());
+        assertTrue(Files.exists(file));
     }
 
     @Test
     public void testClearFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        Files.write(file.toPath(), "Hello\nWorld".getBytes());
+        Path file = workingDirectoryFile(testFileName);
+        Files.write(file, "Hello\nWorld".getBytes());
         FileOperations.clearFile(testFileName);
-        String content = new String(Files.readAllBytes(file.toPath()));
+        String content = new String(Files.readAllBytes(file));
         assertEquals("", content);
     }
 
     @Test
     public void testClearFileNonExistent() {
         FileOperations.clearFile("nonexistent.txt");
-        File file = new File(getCurrentWorkingDirectory(), "nonexistent.txt");
-        assertFalse(file.exists());
+        assertFalse(Files.exists(workingDirectoryFile("nonexistent.txt")));
     }
 
     @Test
     public void testDelFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        file.createNewFile();
+        Path file = workingDirectoryFile(testFileName);
+        Files.createFile(file);
         FileOperations.delFile(testFileName);
-        assertFalse(file.exists());
+        assertFalse(Files.exists(file));
     }
 
     @Test
     public void testDelFileNonExistent() {
         FileOperations.delFile("nonexistent.txt");
-        File file = new File(getCurrentWorkingDirectory(), "nonexistent.txt");
-        assertFalse(file.exists());
+        assertFalse(Files.exists(workingDirectoryFile("nonexistent.txt")));
     }
 
     @Test
     public void testRenameFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        file.createNewFile();
+        Path file = workingDirectoryFile(testFileName);
+        Files.createFile(file);
         FileOperations.renameFile(testFileName, testFileName2);
-        File renamed = new File(getCurrentWorkingDirectory(), testFileName2);
-        assertTrue(renamed.exists());
-        assertFalse(file.exists());
+        assertTrue(Files.exists(workingDirectoryFile(testFileName2)));
+        assertFalse(Files.exists(file));
     }
 
     @Test
     public void testRenameFileNonExistent() {
         FileOperations.renameFile("nonexistent.txt", testFileName2);
-        File file = new File(getCurrentWorkingDirectory(), testFileName2);
-        assertFalse(file.exists());
+        assertFalse(Files.exists(workingDirectoryFile(testFileName2)));
     }
 
     @Test
     public void testReadFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        Files.write(file.toPath(), "Hello\nWorld".getBytes());
+        Files.write(workingDirectoryFile(testFileName), "Hello\nWorld".getBytes());
         String content = FileOperations.readFile(testFileName);
         assertTrue(content.contains("Hello"));
         assertTrue(content.contains("World"));
@@ -141,10 +118,10 @@ public class FileOperationsTest {
 
     @Test
     public void testWriteFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        Files.write(file.toPath(), "Line1".getBytes());
+        Path file = workingDirectoryFile(testFileName);
+        Files.write(file, "Line1".getBytes());
         FileOperations.writeFile(testFileName, "Line2");
-        String content = new String(Files.readAllBytes(file.toPath()));
+        String content = new String(Files.readAllBytes(file));
         assertTrue(content.contains("Line1"));
         assertTrue(content.contains("Line2"));
     }
@@ -152,47 +129,40 @@ public class FileOperationsTest {
     @Test
     public void testWriteFileNonExistent() {
         FileOperations.writeFile("nonexistent.txt", "Should not write");
-        File file = new File(getCurrentWorkingDirectory(), "nonexistent.txt");
-        assertFalse(file.exists());
+        assertFalse(Files.exists(workingDirectoryFile("nonexistent.txt")));
     }
 
     @Test
     public void testCopyFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileName);
-        Files.write(file.toPath(), "CopyMe".getBytes());
+        Files.write(workingDirectoryFile(testFileName), "CopyMe".getBytes());
         FileOperations.copy(testFileName, testFileCopy);
-        File copied = new File(getCurrentWorkingDirectory(), testFileCopy);
-        assertTrue(copied.exists());
-        String content = new String(Files.readAllBytes(copied.toPath()));
+        Path copied = workingDirectoryFile(testFileCopy);
+        assertTrue(Files.exists(copied));
+        String content = new String(Files.readAllBytes(copied));
         assertEquals("CopyMe", content);
     }
 
     @Test
     public void testCopyFileNonExistent() {
         String result = FileOperations.copy("nonexistent.txt", testFileCopy);
-        File copied = new File(getCurrentWorkingDirectory(), testFileCopy);
-        assertTrue(copied.exists());
+        assertTrue(Files.exists(workingDirectoryFile(testFileCopy)));
         assertEquals(testFileCopy, result); // The method returns the name even if not created
     }
 
     @Test
     public void testMoveFile() throws Exception {
-        File file = new File(getCurrentWorkingDirectory(), testFileMove);
-        Files.write(file.toPath(), "MoveMe".getBytes());
-        File dir = new File(getCurrentWorkingDirectory(), testDir);
-        dir.mkdir();
-        FileOperations.moveFile(testFileMove, dir.getAbsolutePath());
-        File moved = new File(dir, testFileMove);
-        assertTrue(moved.exists());
-        assertFalse(file.exists());
-    }
-
-    @Test
-    public void testMoveFileNonExistent() {
-        File dir = new File(getCurrentWorkingDirectory(), testDir);
-        dir.mkdir();
-        FileOperations.moveFile("nonexistent.txt", dir.getAbsolutePath());
-        File moved = new File(dir, "nonexistent.txt");
-        assertFalse(moved.exists());
+        Path file = workingDirectoryFile(testFileMove);
+        Files.write(file, "MoveMe".getBytes());
+        Path dir = Files.createDirectory(workingDirectoryFile(testDir));
+        FileOperations.moveFile(testFileMove, dir.toString());
+        assertTrue(Files.exists(dir.resolve(testFileMove)));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testMoveFileNonExistent() throws Exception {
+        Path dir = Files.createDirectory(workingDirectoryFile(testDir));
+        FileOperations.moveFile("nonexistent.txt", dir.toString());
+        assertFalse(Files.exists(dir.resolve("nonexistent.txt")));
     }
 }
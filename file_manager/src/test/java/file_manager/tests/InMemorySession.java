@@ -0,0 +1,104 @@
+package file_manager.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+
+import org.junit.rules.ExternalResource;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.SessionContext;
+import file_manager.utils.FileSystemUtils;
+
+/**
+ * JUnit rule that gives every test a fresh, empty in-memory file system and a non-interactive
+ * session working at its root, whose output is captured.
+ * <p>
+ * The session and the file system are closed after the test, whether it passed or not.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class InMemorySession extends ExternalResource {
+
+    private FileSystem inMemoryFileSystem;
+    private Path workingDirectory;
+    private ByteArrayOutputStream capturedOutput;
+    private PrintStream outputStream;
+    private SessionContext session;
+
+    @Override
+    protected void before() {
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+        capturedOutput = new ByteArrayOutputStream();
+        outputStream = new PrintStream(capturedOutput, true);
+        session = new SessionContext(workingDirectory, outputStream, false);
+    }
+
+    @Override
+    protected void after() {
+        session.close();
+        try {
+            inMemoryFileSystem.close();
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * @return the in-memory file system of the test
+     */
+    public FileSystem getFileSystem() {
+        return inMemoryFileSystem;
+    }
+
+    /**
+     * @return the working directory of the session, the root of the file system
+     */
+    public Path getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    /**
+     * @param relativePath a path relative to the working directory
+     * @return the path resolved against the working directory
+     */
+    public Path resolve(String relativePath) {
+        return workingDirectory.resolve(relativePath);
+    }
+
+    /**
+     * @return the session
+     */
+    public SessionContext getSession() {
+        return session;
+    }
+
+    /**
+     * @return the stream the session writes to, for further sessions whose output should be captured too
+     */
+    public PrintStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * @return everything written to the output so far
+     */
+    public String getOutput() {
+        return capturedOutput.toString();
+    }
+
+    /**
+     * Runs a command line in the session.
+     *
+     * @param commandLine the command line, for example {@code "copy file > a.txt > b.txt"}
+     */
+    public void run(String commandLine) {
+        CommandExecutor.executeCommandLine(session, commandLine);
+    }
+}
@@ -0,0 +1,89 @@
+package file_manager.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.SessionContext;
+import file_manager.throttle.IoThrottle;
+import file_manager.utils.ByteCountUtils;
+import file_manager.utils.FileSystemUtils;
+
+public class IoThrottleTest {
+
+    @After
+    public void tearDown() {
+        IoThrottle.removeAllLimits();
+    }
+
+    // After the initial burst of one second, operations are granted at the configured rate
+    @Test
+    public void testOperationRateIsLimited() {
+        IoThrottle ioThrottle = new IoThrottle();
+        ioThrottle.setLimits(IoThrottle.UNLIMITED, 100);
+
+        long startNanos = System.nanoTime();
+        for (int operationIndex = 0; operationIndex < 150; operationIndex++) {
+            ioThrottle.acquire(1, 4096);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis >= 450);
+    }
+
+    // A limit set for one command slows that command down and is listed by 'throttle'
+    @Test
+    public void testCommandThrottleSlowsCopy() throws Exception {
+        assertEquals(50L * 1024 * 1024, ByteCountUtils.parseByteCount("50M"));
+        assertEquals(1536, ByteCountUtils.parseByteCount("1.5KiB"));
+
+        try (FileSystem inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem()) {
+            Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+            ByteArrayOutputStream capturedOutput = new ByteArrayOutputStream();
+            SessionContext session = new SessionContext(workingDirectory, new PrintStream(capturedOutput, true), false);
+            Files.write(workingDirectory.resolve("large.bin"), new byte[3 * 1024 * 1024]);
+
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("throttle > 2M > 0 > copy file"));
+            long startNanos = System.nanoTime();
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("copy file > large.bin > copy.bin"));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("throttle"));
+
+            assertTrue("Took " + elapsedMillis + " ms", elapsedMillis >= 450);
+            assertEquals(3 * 1024 * 1024, Files.size(workingDirectory.resolve("copy.bin")));
+            assertTrue(capturedOutput.toString().contains("I/O limits for copy file: 2.0 MiB/s, unlimited operations/s"));
+            assertEquals(0, session.getReportedFailureCount());
+        }
+    }
+
+    // A negative rate is rejected instead of silently removing the limit
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRateIsRejected() {
+        new IoThrottle().setLimits(-1, IoThrottle.UNLIMITED);
+    }
+
+    // 'throttle' with a negative rate reports a failure and keeps the current limits
+    @Test
+    public void testThrottleCommandRejectsNegativeRate() throws Exception {
+        try (FileSystem inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem()) {
+            Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+            SessionContext session = new SessionContext(workingDirectory, new PrintStream(new ByteArrayOutputStream(), true), false);
+            IoThrottle.getGlobalThrottle().setLimits(1024 * 1024, 100);
+
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("throttle > -5M > 0"));
+
+            assertEquals(1, session.getReportedFailureCount());
+            assertEquals(1024 * 1024, IoThrottle.getGlobalThrottle().getBytesPerSecond());
+            assertEquals(100, IoThrottle.getGlobalThrottle().getOperationsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package file_manager.tests;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.jobs.Job;
+import file_manager.jobs.JobState;
+
+public class JobManagerTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // A command ending with '&' runs in the background and reports its progress and output
+    @Test
+    public void testBackgroundCommandSucceeds() throws Exception {
+        Job job = runBackgroundCopy();
+
+        assertEquals(JobState.SUCCEEDED, job.getState());
+        assertEquals("Background copy", new String(Files.readAllBytes(fixture.resolve("target.txt"))));
+        assertEquals(15, job.getDoneByteCount());
+        assertTrue(job.getOutput().contains("File copied successfully"));
+        assertTrue(fixture.getOutput().contains("[1] Started in the background: copy file > source.txt > target.txt"));
+    }
+
+    // Listing the jobs shows finished jobs once and then forgets them
+    @Test
+    public void testJobsListsFinishedJobsOnce() throws Exception {
+        runBackgroundCopy();
+
+        fixture.run("jobs");
+
+        assertTrue(fixture.getOutput().contains("SUCCEEDED copy file > source.txt > target.txt"));
+        assertTrue(fixture.getSession().getJobManager().getJobs().isEmpty());
+    }
+
+    // A paused job waits at its next progress report and stops when cancelled, removing its partial output
+    @Test
+    public void testPausedJobCanBeCancelled() throws Exception {
+        Files.write(fixture.resolve("large.bin"), new byte[32 * 1024 * 1024]);
+
+        fixture.run("copy file > large.bin > large-copy.bin &");
+        fixture.run("pause job > 1");
+        Job job = fixture.getSession().getJobManager().getJob(1);
+        // A job paused while still queued only shows as paused once a worker picks it up
+        for (int attempt = 0; attempt < 100 && job.getState() == JobState.QUEUED; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(JobState.PAUSED, job.getState());
+
+        fixture.run("cancel job > 1");
+        job.awaitFinish();
+
+        assertEquals(JobState.CANCELLED, job.getState());
+        assertFalse(Files.exists(fixture.resolve("large-copy.bin")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Changing the directory in the background is refused
+    @Test
+    public void testBackgroundDirectoryChangeFails() {
+        fixture.run("chdir > elsewhere &");
+
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+        assertTrue(fixture.getSession().getJobManager().getJobs().isEmpty());
+    }
+
+    // Cancelling an unknown job fails
+    @Test
+    public void testUnknownJobFails() {
+        fixture.run("cancel job > 7");
+
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A job keeps only the most recent output of its command
+    @Test
+    public void testJobOutputIsBounded() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int lineNumber = 0; lineNumber < 100_000; lineNumber++) {
+            lines.add("line " + lineNumber);
+        }
+        Files.write(fixture.resolve("long.txt"), lines);
+
+        fixture.run("read file > long.txt &");
+        Job job = fixture.getSession().getJobManager().getJob(1);
+        job.awaitFinish();
+
+        String jobOutput = job.getOutput();
+        assertTrue(jobOutput.length() <= Job.OUTPUT_BUFFER_SIZE + 64);
+        String[] outputLines = jobOutput.split("\\R");
+        assertTrue(outputLines[0].matches("\\[\\d+ earlier bytes of output dropped\\]"));
+        assertTrue(outputLines[1].matches("line \\d+"));
+        assertTrue(jobOutput.contains("line 99999"));
+    }
+
+    // An archive stays mounted while a background job works inside it, and is unmounted once the job is done
+    @Test
+    public void testArchiveStaysMountedForBackgroundJob() throws Exception {
+        try (ZipOutputStream zipOutput = new ZipOutputStream(Files.newOutputStream(fixture.resolve("bundle.zip")))) {
+            zipOutput.putNextEntry(new ZipEntry("large.bin"));
+            zipOutput.write(new byte[4 * 1024 * 1024]);
+            zipOutput.closeEntry();
+        }
+        fixture.run("chdir > bundle.zip");
+        fixture.run("copy file > large.bin > large-copy.bin &");
+        fixture.run("pause job > 1");
+
+        fixture.run("chdir > ..");
+        assertEquals(1, fixture.getSession().getMountedArchivePaths().size());
+
+        fixture.run("resume job > 1");
+        Job job = fixture.getSession().getJobManager().getJob(1);
+        job.awaitFinish();
+        assertEquals(job.getOutput(), JobState.SUCCEEDED, job.getState());
+
+        fixture.run("chdir > .");
+        assertTrue(fixture.getSession().getMountedArchivePaths().isEmpty());
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // --- Helper Methods ---
+
+    private Job runBackgroundCopy() throws Exception {
+        Files.write(fixture.resolve("source.txt"), "Background copy".getBytes());
+        fixture.run("copy file > source.txt > target.txt &");
+        Job job = fixture.getSession().getJobManager().getJob(1);
+        job.awaitFinish();
+        return job;
+    }
+}
@@ -0,0 +1,58 @@
+package file_manager.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.metrics.LatencyHistogram;
+import file_manager.metrics.MetricsRegistry;
+
+public class MetricsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    @Before
+    public void setUp() {
+        MetricsRegistry.reset();
+    }
+
+    // Quantiles are reported within the relative error of the histogram
+    @Test
+    public void testHistogramQuantiles() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (long durationMicros = 1; durationMicros <= 1000; durationMicros++) {
+            latencyHistogram.record(durationMicros * 1000);
+        }
+
+        assertEquals(1000, latencyHistogram.getCount());
+        assertEquals(1_000_000, latencyHistogram.getMaxNanos());
+        assertEquals(500_000, latencyHistogram.getValueAtQuantile(0.5), 500_000 * 0.04);
+        assertEquals(990_000, latencyHistogram.getValueAtQuantile(0.99), 990_000 * 0.04);
+        assertEquals(1_000_000, latencyHistogram.getValueAtQuantile(1.0));
+    }
+
+    // Commands are counted with their bytes and failures, and the snapshot can be written for scraping
+    @Test
+    public void testStatsCommandExportsMetrics() throws Exception {
+        Files.write(fixture.resolve("source.bin"), new byte[300 * 1024]);
+
+        CommandExecutor.execute(fixture.getSession(), CommandExecutor.parseCommandLine("copy file > source.bin > copy.bin"));
+        CommandExecutor.execute(fixture.getSession(), CommandExecutor.parseCommandLine("delete file > missing.txt"));
+        CommandExecutor.execute(fixture.getSession(), CommandExecutor.parseCommandLine("stats > prometheus > metrics.prom"));
+        CommandExecutor.execute(fixture.getSession(), CommandExecutor.parseCommandLine("stats > json"));
+
+        String prometheusText = new String(Files.readAllBytes(fixture.resolve("metrics.prom")), StandardCharsets.UTF_8);
+        assertTrue(prometheusText.contains("file_manager_command_duration_seconds_count{command=\"copy file\"} 1\n"));
+        assertTrue(prometheusText.contains("file_manager_command_bytes_total{command=\"copy file\"} 307200\n"));
+        assertTrue(prometheusText.contains("file_manager_command_io_calls_total{command=\"copy file\"} 1\n"));
+        assertTrue(prometheusText.contains("file_manager_command_failures_total{command=\"delete file\"} 1\n"));
+        assertTrue(fixture.getOutput().contains("{\"command\":\"copy file\",\"count\":1,\"failures\":0,"));
+    }
+}
@@ -0,0 +1,95 @@
+package file_manager.tests;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import file_manager.operations.FileOperations;
+import file_manager.utils.FileSystemUtils;
+import file_manager.utils.PathUtils;
+
+public class PathUtilsTest {
+
+    private FileSystem inMemoryFileSystem;
+    private Path workingDirectory;
+
+    @Before
+    public void setUp() {
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        PathUtils.useFileSystem(inMemoryFileSystem);
+        workingDirectory = PathUtils.getCurrentWorkingDirectoryPath();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        PathUtils.useFileSystem(FileSystems.getDefault());
+        inMemoryFileSystem.close();
+    }
+
+    private Path createArchive() throws Exception {
+        Path archive = workingDirectory.resolve("bundle.zip");
+        try (ZipOutputStream zipOutput = new ZipOutputStream(Files.newOutputStream(archive))) {
+            zipOutput.putNextEntry(new ZipEntry("docs/"));
+            zipOutput.putNextEntry(new ZipEntry("docs/readme.txt"));
+            zipOutput.write("Inside the archive".getBytes());
+            zipOutput.closeEntry();
+        }
+        return archive;
+    }
+
+    // Changing into a relative and then a parent directory
+    @Test
+    public void testChangeToRelativeAndParentDirectory() throws Exception {
+        Path nested = Files.createDirectories(workingDirectory.resolve("outer/inner"));
+        assertNotNull(PathUtils.changeWorkingDirectory("outer/inner"));
+        assertEquals(nested, PathUtils.getCurrentWorkingDirectoryPath());
+        PathUtils.changeToParentDirectory();
+        assertEquals(nested.getParent(), PathUtils.getCurrentWorkingDirectoryPath());
+    }
+
+    // Changing into a directory that does not exist should fail and keep the working directory
+    @Test
+    public void testChangeToMissingDirectory() {
+        assertNull(PathUtils.changeWorkingDirectory("doesNotExist"));
+        assertEquals(workingDirectory, PathUtils.getCurrentWorkingDirectoryPath());
+    }
+
+    // Changing into an archive mounts it and files can be read in place
+    @Test
+    public void testChangeIntoArchiveAndReadEntry() throws Exception {
+        Path archive = createArchive();
+        assertNotNull(PathUtils.changeWorkingDirectory("bundle.zip/docs"));
+        assertTrue(PathUtils.getCurrentWorkingDirectory().startsWith(archive + "!"));
+        assertEquals("Inside the archive", FileOperations.readFile("readme.txt"));
+    }
+
+    // Copying with an absolute destination copies out of the archive
+    @Test
+    public void testCopyOutOfArchive() throws Exception {
+        createArchive();
+        Path copied = workingDirectory.resolve("copied.txt");
+        PathUtils.changeWorkingDirectory("bundle.zip");
+        FileOperations.copy("docs/readme.txt", copied.toString());
+        assertEquals("Inside the archive", new String(Files.readAllBytes(copied)));
+    }
+
+    // Moving to the parent of the archive root leaves the archive
+    @Test
+    public void testLeaveArchiveWithParentDirectory() throws Exception {
+        createArchive();
+        PathUtils.changeWorkingDirectory("bundle.zip");
+        PathUtils.changeToParentDirectory();
+        assertEquals(workingDirectory, PathUtils.getCurrentWorkingDirectoryPath());
+    }
+}
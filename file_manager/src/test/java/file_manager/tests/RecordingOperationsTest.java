@@ -0,0 +1,65 @@
+package file_manager.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.recording.FileOperationEvent;
+import file_manager.recording.RecordingOperations;
+import file_manager.session.SessionContext;
+import file_manager.utils.FileSystemUtils;
+
+public class RecordingOperationsTest {
+
+    // Commands run during a recording appear in the saved file with their path, bytes and outcome
+    @Test
+    public void testRecordingContainsFileOperationEvents() throws Exception {
+        Path localRecordingPath = Files.createTempFile("file-manager-test", ".jfr");
+        try (FileSystem inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem()) {
+            Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+            SessionContext session = new SessionContext(workingDirectory, new PrintStream(new ByteArrayOutputStream(), true), false);
+            Files.write(workingDirectory.resolve("source.bin"), new byte[100_000]);
+
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("start recording"));
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("copy file > source.bin > copy.bin"));
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("delete file > missing.bin"));
+            CommandExecutor.execute(session, CommandExecutor.parseCommandLine("stop recording > commands.jfr"));
+
+            assertEquals(1, session.getReportedFailureCount());
+            assertFalse(RecordingOperations.isRecording());
+            Files.copy(workingDirectory.resolve("commands.jfr"), localRecordingPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        List<RecordedEvent> fileOperationEvents = RecordingFile.readAllEvents(localRecordingPath).stream()
+                .filter(recordedEvent -> recordedEvent.getEventType().getName().equals(FileOperationEvent.EVENT_NAME))
+                .collect(Collectors.toList());
+        Files.delete(localRecordingPath);
+
+        RecordedEvent copyEvent = findEvent(fileOperationEvents, "copy file");
+        assertEquals("/work/source.bin", copyEvent.getString("path"));
+        assertEquals("copy.bin", copyEvent.getString("targetPath"));
+        assertEquals(100_000, copyEvent.getLong("bytes"));
+        assertEquals(FileOperationEvent.OUTCOME_SUCCEEDED, copyEvent.getString("outcome"));
+        assertEquals(FileOperationEvent.OUTCOME_FAILED, findEvent(fileOperationEvents, "delete file").getString("outcome"));
+    }
+
+    private static RecordedEvent findEvent(List<RecordedEvent> recordedEvents, String commandName) {
+        return recordedEvents.stream()
+                .filter(recordedEvent -> commandName.equals(recordedEvent.getString("command")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No event for " + commandName));
+    }
+}
@@ -0,0 +1,139 @@
+package file_manager.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.rename.RenameJournal;
+import file_manager.rename.RenamePlan;
+import file_manager.rename.RenameStep;
+import file_manager.session.MissingArgumentException;
+
+public class RenameOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    @Before
+    public void setUp() throws Exception {
+        for (String fileName : new String[] {"a-b.txt", "b-a.txt", "c-d.txt", "notes.md"}) {
+            Files.write(fixture.resolve(fileName), fileName.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // A dry run lists the renames and changes nothing
+    @Test
+    public void testDryRunChangesNothing() {
+        fixture.run("rename files > (.)-(.)\\.txt > $2-$1.txt > dry-run");
+
+        assertTrue(fixture.getOutput().contains(" - c-d.txt -> d-c.txt"));
+        assertTrue(fixture.getOutput().contains("Dry run: 3 file(s) would be renamed (2 through temporary names)."));
+        assertTrue(Files.exists(fixture.resolve("c-d.txt")));
+    }
+
+    // Two names are swapped through temporary names and the other renames are done directly
+    @Test
+    public void testRenameWithSwap() throws Exception {
+        fixture.run("rename files > (.)-(.)\\.txt > $2-$1.txt");
+
+        assertTrue(fixture.getOutput().contains("Renamed 3 file(s)"));
+        assertEquals("a-b.txt", Files.readString(fixture.resolve("b-a.txt")));
+        assertEquals("b-a.txt", Files.readString(fixture.resolve("a-b.txt")));
+        assertEquals("c-d.txt", Files.readString(fixture.resolve("d-c.txt")));
+        assertFalse(Files.exists(fixture.resolve("c-d.txt")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Undoing a rename restores the old names and removes the journal
+    @Test
+    public void testUndoRename() throws Exception {
+        fixture.run("rename files > (.)-(.)\\.txt > $2-$1.txt");
+
+        fixture.run("undo rename");
+
+        assertEquals("c-d.txt", Files.readString(fixture.resolve("c-d.txt")));
+        assertEquals("a-b.txt", Files.readString(fixture.resolve("a-b.txt")));
+        assertFalse(Files.exists(RenameJournal.getJournalPath(fixture.getWorkingDirectory())));
+    }
+
+    // Nothing is renamed when two files would get the same name
+    @Test
+    public void testSameNewNameStopsTheRename() {
+        fixture.run("rename files > .-.\\.txt > same.txt");
+
+        assertTrue(fixture.getOutput().contains("would both be renamed to same.txt"));
+        assertTrue(Files.exists(fixture.resolve("a-b.txt")));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Nothing is renamed when a new name is taken
+    @Test
+    public void testTakenNameStopsTheRename() {
+        fixture.run("rename files > c-(.)\\.txt > notes.md");
+
+        assertTrue(fixture.getOutput().contains("c-d.txt -> notes.md, which already exists"));
+        assertTrue(Files.exists(fixture.resolve("c-d.txt")));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A rename interrupted part way blocks new renames until it is finished
+    @Test
+    public void testInterruptedRenameBlocksNewRenames() throws Exception {
+        interruptRename();
+
+        fixture.run("rename files > (.*)\\.md > $1.txt");
+
+        assertTrue(fixture.getOutput().contains("An unfinished rename was found"));
+        assertTrue(Files.exists(fixture.resolve("notes.md")));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // An interrupted rename is finished from its journal
+    @Test
+    public void testFinishInterruptedRename() throws Exception {
+        interruptRename();
+
+        fixture.run("finish rename");
+
+        assertEquals("a-b.txt", Files.readString(fixture.resolve("001-a-b.txt")));
+        assertEquals("c-d.txt", Files.readString(fixture.resolve("003-c-d.txt")));
+        assertTrue(RenameJournal.read(fixture.getWorkingDirectory()).isCommitted());
+    }
+
+    // A finished rename can be undone
+    @Test
+    public void testUndoFinishedRename() throws Exception {
+        interruptRename();
+        fixture.run("finish rename");
+
+        fixture.run("undo rename");
+
+        assertEquals("b-a.txt", Files.readString(fixture.resolve("b-a.txt")));
+        assertFalse(Files.exists(fixture.resolve("002-b-a.txt")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Without the template of the new names, a session that cannot prompt fails with a missing argument
+    @Test(expected = MissingArgumentException.class)
+    public void testMissingTemplateIsMissingArgument() {
+        fixture.run("rename files > (.*)\\.md");
+    }
+
+    // --- Helper Methods ---
+
+    private void interruptRename() throws Exception {
+        RenamePlan renamePlan = RenamePlan.create(fixture.getWorkingDirectory(), Pattern.compile("(.*)\\.txt"), "{n:3}-$1.txt", 1);
+        try (RenameJournal journal = RenameJournal.create(fixture.getWorkingDirectory(), renamePlan.getSteps())) {
+            RenameStep firstStep = renamePlan.getSteps().get(0);
+            Files.move(fixture.resolve(firstStep.getFromName()), fixture.resolve(firstStep.getToName()));
+            journal.markDone(firstStep);
+        }
+    }
+}
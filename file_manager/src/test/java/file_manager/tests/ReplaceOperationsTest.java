@@ -0,0 +1,94 @@
+package file_manager.tests;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.session.MissingArgumentException;
+
+public class ReplaceOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // Occurrences are replaced wherever they fall relative to the buffer
+    @Test
+    public void testReplaceLiteralAcrossBuffers() throws Exception {
+        StringBuilder contentBuilder = new StringBuilder();
+        for (int recordIndex = 0; recordIndex < 50000; recordIndex++) {
+            contentBuilder.append(recordIndex).append(",status=pending,");
+        }
+        String content = contentBuilder.toString();
+        Files.write(fixture.resolve("dump.csv"), content.getBytes(Charset.defaultCharset()));
+
+        fixture.run("replace in file > dump.csv > status=pending > status=done");
+
+        assertEquals(content.replace("status=pending", "status=done"),
+                new String(Files.readAllBytes(fixture.resolve("dump.csv")), Charset.defaultCharset()));
+        assertTrue(fixture.getOutput().contains("Replaced 50000 occurrence(s) of 'status=pending' in dump.csv"));
+    }
+
+    // The rewritten file replaces the original and no temporary file is left behind
+    @Test
+    public void testReplaceLeavesNoTemporaryFile() throws Exception {
+        Files.write(fixture.resolve("dump.csv"), "status=pending".getBytes(Charset.defaultCharset()));
+
+        fixture.run("replace in file > dump.csv > status=pending > status=done");
+
+        try (Stream<Path> leftFiles = Files.list(fixture.getWorkingDirectory())) {
+            assertEquals(1, leftFiles.count());
+        }
+    }
+
+    // A regular expression is applied line by line with group references
+    @Test
+    public void testReplaceRegexByLine() throws Exception {
+        Files.write(fixture.resolve("app.conf"), List.of("port = 8080", "host = local", "port=9090"), Charset.defaultCharset());
+
+        fixture.run("replace in file > app.conf > regex:^port\\s*=\\s*(\\d+)$ > listen=$1");
+
+        assertEquals(List.of("listen=8080", "host = local", "listen=9090"),
+                Files.readAllLines(fixture.resolve("app.conf"), Charset.defaultCharset()));
+        assertTrue(fixture.getOutput().contains("Replaced 2 occurrence(s)"));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A search without matches changes nothing
+    @Test
+    public void testReplaceWithoutMatchLeavesFile() throws Exception {
+        Files.write(fixture.resolve("app.conf"), List.of("port = 8080"), Charset.defaultCharset());
+
+        fixture.run("replace in file > app.conf > timeout > 30");
+
+        assertEquals(List.of("port = 8080"), Files.readAllLines(fixture.resolve("app.conf"), Charset.defaultCharset()));
+        assertTrue(fixture.getOutput().contains("No match for 'timeout' in app.conf; the file was left unchanged."));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A symbolic link is kept and the file it points to is changed
+    @Test
+    public void testReplaceKeepsSymbolicLink() throws Exception {
+        Files.write(fixture.resolve("real.conf"), List.of("debug=true"), Charset.defaultCharset());
+        Files.createSymbolicLink(fixture.resolve("link.conf"), fixture.resolve("real.conf"));
+
+        fixture.run("replace in file > link.conf > true > false");
+
+        assertTrue(Files.isSymbolicLink(fixture.resolve("link.conf")));
+        assertEquals(List.of("debug=false"), Files.readAllLines(fixture.resolve("real.conf"), Charset.defaultCharset()));
+    }
+
+    // Without the text to replace, a session that cannot prompt fails with a missing argument
+    @Test(expected = MissingArgumentException.class)
+    public void testMissingSearchTextIsMissingArgument() throws Exception {
+        Files.write(fixture.resolve("notes.txt"), List.of("note"), Charset.defaultCharset());
+
+        fixture.run("replace in file > notes.txt");
+    }
+}
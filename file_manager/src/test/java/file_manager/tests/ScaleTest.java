@@ -0,0 +1,246 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import file_manager.operations.ArchiveOperations;
+import file_manager.operations.DirectoryOperations;
+import file_manager.operations.FileOperations;
+import file_manager.session.SessionContext;
+
+/**
+ * Runs the bulk operations against large generated trees on the real disk and fails when an
+ * operation takes longer or allocates more than its budget. The budgets are several times what
+ * the operations need on a developer machine, so only a real regression trips them.
+ */
+public class ScaleTest {
+
+    private static final long MIB = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path workingDirectory;
+    private SessionContext session;
+
+    @Before
+    public void setUp() throws Exception {
+        workingDirectory = temporaryFolder.getRoot().toPath();
+        session = new SessionContext(workingDirectory, new PrintStream(OutputStream.nullOutputStream()), false);
+    }
+
+    // The same seed and settings always build the same tree
+    @Test
+    public void testGeneratorIsDeterministic() throws Exception {
+        TreeFixtureGenerator generator = new TreeFixtureGenerator(42).depth(2).fanOut(3).filesPerDirectory(5).fileSizes(0, 64 * 1024);
+        generator.generate(workingDirectory.resolve("first"));
+        long firstTotalBytes = generator.getTotalFileBytes();
+        generator.generate(workingDirectory.resolve("second"));
+
+        assertEquals(12, generator.getDirectoryCount());
+        assertEquals(65, generator.getFileCount());
+        assertEquals(firstTotalBytes, generator.getTotalFileBytes());
+        Path sampleFile = Path.of("dir-0002", "dir-0001", "file-00003.dat");
+        assertArrayEquals(Files.readAllBytes(workingDirectory.resolve("first").resolve(sampleFile)),
+                Files.readAllBytes(workingDirectory.resolve("second").resolve(sampleFile)));
+    }
+
+    // Listing a folder of 20,000 entries streams them instead of collecting them first
+    @Test
+    public void testListLargeFlatFolder() throws Exception {
+        Path flatDirectory = workingDirectory.resolve("flat");
+        new TreeFixtureGenerator(1).depth(0).filesPerDirectory(20_000).fileSizes(0, 0).generate(flatDirectory);
+        SessionContext flatSession = new SessionContext(flatDirectory, new PrintStream(OutputStream.nullOutputStream()), false);
+
+        assertWithinBudget("list", 2_000, 32 * MIB, () -> DirectoryOperations.listDir(flatSession));
+        assertEquals(0, flatSession.getReportedFailureCount());
+    }
+
+    // Deleting a tree of about 4,000 files stays within budget
+    @Test
+    public void testDeleteLargeTree() throws Exception {
+        TreeFixtureGenerator generator = new TreeFixtureGenerator(2).depth(3).fanOut(6).filesPerDirectory(15).fileSizes(0, 16 * 1024)
+                .generate(workingDirectory.resolve("tree"));
+        assertEquals(3_885, generator.getFileCount());
+
+        assertWithinBudget("delete dir", 10_000, 16 * MIB, () -> DirectoryOperations.delDir(session, "tree", "y"));
+        assertFalse(Files.exists(workingDirectory.resolve("tree")));
+        assertEquals(0, session.getReportedFailureCount());
+    }
+
+    // Moving a large tree within one file system renames its root and does not touch the entries
+    @Test
+    public void testMoveLargeTree() throws Exception {
+        TreeFixtureGenerator generator = new TreeFixtureGenerator(3).depth(3).fanOut(6).filesPerDirectory(15).fileSizes(0, 16 * 1024)
+                .generate(workingDirectory.resolve("tree"));
+        Files.createDirectory(workingDirectory.resolve("archive"));
+
+        assertWithinBudget("move dir", 1_000, MIB, () -> DirectoryOperations.moveDir(session, "tree", "archive"));
+        try (Stream<Path> movedEntries = Files.walk(workingDirectory.resolve("archive").resolve("tree"))) {
+            assertEquals(generator.getFileCount() + generator.getDirectoryCount() + 1, movedEntries.count());
+        }
+        assertEquals(0, session.getReportedFailureCount());
+    }
+
+    // Copying a 256 MiB file streams it through a fixed buffer, both to a new file and onto an unchanged copy.
+    // The file has no zero blocks, so every byte is really read and written rather than left as a hole.
+    @Test
+    public void testCopyLargeFile() throws Exception {
+        TreeFixtureGenerator.writeRandomFile(workingDirectory.resolve("large.bin"), 256 * MIB, 4);
+
+        assertWithinBudget("copy to a new file", 20_000, 8 * MIB,
+                () -> FileOperations.copy(session, "large.bin", "large-copy.bin"));
+        assertEquals(256 * MIB, Files.size(workingDirectory.resolve("large-copy.bin")));
+
+        assertWithinBudget("copy onto an unchanged file", 20_000, 8 * MIB,
+                () -> FileOperations.copy(session, "large.bin", "large-copy.bin"));
+        assertSameContents(workingDirectory.resolve("large.bin"), workingDirectory.resolve("large-copy.bin"));
+        assertEquals(0, session.getReportedFailureCount());
+    }
+
+    // A file of exactly 0xFFFFFFFF bytes is too large for the classic format and is zipped with ZIP64.
+    // The file is sparse, so it takes no disk space, but all of it is still read and compressed.
+    @Test
+    public void testZipFileAtClassicSizeLimit() throws Exception {
+        Path sourceDirectory = Files.createDirectory(workingDirectory.resolve("boundary"));
+        try (RandomAccessFile boundaryFile = new RandomAccessFile(sourceDirectory.resolve("boundary.bin").toFile(), "rw")) {
+            boundaryFile.setLength(0xFFFFFFFFL);
+        }
+
+        assertWithinBudget("zip a file at the classic size limit", 120_000, 32 * MIB,
+                () -> ArchiveOperations.zipDir(session, "boundary", "boundary.zip"));
+        assertEquals(0, session.getReportedFailureCount());
+        try (ZipFile boundaryArchive = new ZipFile(workingDirectory.resolve("boundary.zip").toFile())) {
+            ZipEntry boundaryEntry = boundaryArchive.getEntry("boundary/boundary.bin");
+            assertEquals(0xFFFFFFFFL, boundaryEntry.getSize());
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private static void assertSameContents(Path expectedFilePath, Path actualFilePath) throws IOException {
+        byte[] expectedChunk = new byte[1 << 20];
+        byte[] actualChunk = new byte[1 << 20];
+        try (InputStream expectedInput = Files.newInputStream(expectedFilePath);
+             InputStream actualInput = Files.newInputStream(actualFilePath)) {
+            int expectedLength;
+            while ((expectedLength = expectedInput.readNBytes(expectedChunk, 0, expectedChunk.length)) > 0) {
+                assertEquals(expectedLength, actualInput.readNBytes(actualChunk, 0, expectedLength));
+                assertTrue(Arrays.equals(expectedChunk, 0, expectedLength, actualChunk, 0, expectedLength));
+            }
+            assertEquals(-1, actualInput.read());
+        }
+    }
+
+    /**
+     * Runs the operation and fails if it takes longer than {@code maxMillis} or allocates more than
+     * {@code maxAllocatedBytes}. Allocation is summed over every thread of the JVM, so the work of
+     * worker pools counts as well as that of the calling thread. The allocation check is skipped on
+     * JVMs that cannot measure it.
+     */
+    private static void assertWithinBudget(String operationName, long maxMillis, long maxAllocatedBytes, Runnable operation) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean measuresAllocation = threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled();
+        AllocationSampler allocationSampler = measuresAllocation ? new AllocationSampler(threadBean) : null;
+        long startNanos = System.nanoTime();
+
+        operation.run();
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long allocatedBytes = measuresAllocation ? allocationSampler.stop() : 0;
+        assertTrue(operationName + " took " + elapsedMillis + " ms, the budget is " + maxMillis + " ms",
+                elapsedMillis <= maxMillis);
+        if (measuresAllocation) {
+            assertTrue(operationName + " allocated " + allocatedBytes + " bytes, the budget is " + maxAllocatedBytes + " bytes",
+                    allocatedBytes <= maxAllocatedBytes);
+        }
+    }
+
+    /**
+     * Measures the bytes allocated by all threads while it runs. The JVM stops reporting the
+     * allocation of a thread once it ends, so the threads are sampled every few milliseconds and
+     * the last sample of each worker that ended meanwhile is kept. Only the few milliseconds of
+     * allocation between the last sample of a worker and its end are missed.
+     */
+    private static final class AllocationSampler {
+
+        private static final long SAMPLE_INTERVAL_MILLIS = 5;
+
+        private final com.sun.management.ThreadMXBean threadBean;
+        private final Map<Long, Long> allocatedBytesBefore = new HashMap<>();
+        private final Map<Long, Long> lastAllocatedBytes = new HashMap<>();
+        private final Thread samplerThread;
+        private volatile boolean stopped;
+
+        AllocationSampler(com.sun.management.ThreadMXBean threadBean) {
+            this.threadBean = threadBean;
+            samplerThread = new Thread(() -> {
+                while (!stopped) {
+                    sample(lastAllocatedBytes);
+                    try {
+                        Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                    } catch (InterruptedException interruptedException) {
+                        return;
+                    }
+                }
+            }, "allocation-sampler");
+            samplerThread.setDaemon(true);
+            sample(allocatedBytesBefore);
+            samplerThread.start();
+        }
+
+        /**
+         * Stops sampling.
+         *
+         * @return the bytes allocated by every thread but the sampler since the sampler was created
+         */
+        long stop() {
+            stopped = true;
+            samplerThread.interrupt();
+            try {
+                samplerThread.join();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            sample(lastAllocatedBytes);
+            lastAllocatedBytes.remove(samplerThread.getId());
+            long allocatedBytes = 0;
+            for (Map.Entry<Long, Long> threadAllocation : lastAllocatedBytes.entrySet()) {
+                allocatedBytes += threadAllocation.getValue() - allocatedBytesBefore.getOrDefault(threadAllocation.getKey(), 0L);
+            }
+            return allocatedBytes;
+        }
+
+        private void sample(Map<Long, Long> allocatedBytesByThread) {
+            long[] threadIds = threadBean.getAllThreadIds();
+            long[] threadAllocatedBytes = threadBean.getThreadAllocatedBytes(threadIds);
+            for (int threadIndex = 0; threadIndex < threadIds.length; threadIndex++) {
+                if (threadAllocatedBytes[threadIndex] >= 0) {
+                    allocatedBytesByThread.put(threadIds[threadIndex], threadAllocatedBytes[threadIndex]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package file_manager.tests;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import file_manager.operations.DirectoryOperations;
+import file_manager.operations.FileOperations;
+import file_manager.session.SessionContext;
+import file_manager.utils.FileSystemUtils;
+import file_manager.utils.PathUtils;
+
+public class SessionContextTest {
+
+    private FileSystem inMemoryFileSystem;
+    private SessionContext firstSession;
+    private SessionContext secondSession;
+
+    @Before
+    public void setUp() throws Exception {
+        inMemoryFileSystem = FileSystemUtils.newInMemoryFileSystem();
+        Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+        Files.createDirectories(workingDirectory.resolve("first"));
+        Files.createDirectories(workingDirectory.resolve("second"));
+        firstSession = new SessionContext(inMemoryFileSystem);
+        secondSession = new SessionContext(inMemoryFileSystem);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        firstSession.close();
+        secondSession.close();
+        inMemoryFileSystem.close();
+    }
+
+    // Sessions keep their own working directory
+    @Test
+    public void testSessionsHaveIndependentWorkingDirectories() {
+        PathUtils.changeWorkingDirectory(firstSession, "first");
+        PathUtils.changeWorkingDirectory(secondSession, "second");
+        FileOperations.newFile(firstSession, "shared.txt");
+        DirectoryOperations.newDir(secondSession, "shared");
+
+        Path workingDirectory = inMemoryFileSystem.getPath("").toAbsolutePath();
+        assertTrue(Files.isRegularFile(workingDirectory.resolve("first/shared.txt")));
+        assertTrue(Files.isDirectory(workingDirectory.resolve("second/shared")));
+        assertEquals(workingDirectory.resolve("first"), firstSession.getCurrentWorkingDirectoryPath());
+    }
+
+    // chdir to "-" returns to the previously visited directories in turn
+    @Test
+    public void testChangeBackToPreviousDirectory() {
+        Path startDirectory = firstSession.getCurrentWorkingDirectoryPath();
+        PathUtils.changeWorkingDirectory(firstSession, "first");
+        PathUtils.changeWorkingDirectory(firstSession, "../second");
+
+        PathUtils.changeWorkingDirectory(firstSession, "-");
+        assertEquals(startDirectory.resolve("first"), firstSession.getCurrentWorkingDirectoryPath());
+        PathUtils.changeWorkingDirectory(firstSession, "-");
+        assertEquals(startDirectory, firstSession.getCurrentWorkingDirectoryPath());
+        assertNull(PathUtils.changeWorkingDirectory(firstSession, "-"));
+    }
+}
@@ -0,0 +1,107 @@
+package file_manager.tests;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.session.MissingArgumentException;
+import file_manager.session.ProgressListener;
+import file_manager.session.SessionContext;
+import file_manager.sort.SortOperations;
+
+public class SortOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // A memory cap far below the input forces hundreds of runs and an extra merge pass, and the result matches an in-memory sort
+    @Test
+    public void testSortLargerThanMemoryCap() throws Exception {
+        List<String> lines = new ArrayList<>();
+        Random random = new Random(42);
+        for (int lineIndex = 0; lineIndex < 20000; lineIndex++) {
+            lines.add("line-" + random.nextInt(1000000));
+        }
+        Files.write(fixture.resolve("input.txt"), lines, Charset.defaultCharset());
+
+        fixture.run("sort file > input.txt > input.txt > memory=16K");
+
+        Collections.sort(lines);
+        assertEquals(lines, Files.readAllLines(fixture.resolve("input.txt"), Charset.defaultCharset()));
+        assertTrue(fixture.getOutput().contains("Sorted 20000 line(s)"));
+        assertTrue(fixture.getOutput().matches("(?s).* using \\d{3,} run\\(s\\) and [2-9] merge pass\\(es\\).*"));
+        try (Stream<Path> leftFiles = Files.list(fixture.getWorkingDirectory())) {
+            assertEquals(1, leftFiles.count());
+        }
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Lines are sorted by a numeric field in descending order, keeping one line per key
+    @Test
+    public void testNumericKeyUniqueReverse() throws Exception {
+        Files.write(fixture.resolve("prices.csv"),
+                List.of("pear,10", "apple,9", "plum,100", "fig,10", "kiwi,n/a"), Charset.defaultCharset());
+
+        fixture.run("sort file > prices.csv > sorted.csv > key=2 sep=, numeric unique reverse");
+
+        assertEquals(List.of("plum,100", "pear,10", "apple,9", "kiwi,n/a"),
+                Files.readAllLines(fixture.resolve("sorted.csv"), Charset.defaultCharset()));
+        assertTrue(fixture.getOutput().contains("removed 1 duplicate(s)"));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Progress is counted in the bytes of the input, whatever the line endings and characters, so it adds up to the planned size
+    @Test
+    public void testProgressCountsInputBytes() throws Exception {
+        byte[] content = String.join("\r\n", "zo\u00eb", "\u00e5ngstr\u00f6m", "caf\u00e9", "na\u00efve", "").getBytes(Charset.defaultCharset());
+        Files.write(fixture.resolve("words.txt"), content);
+        AtomicLong plannedByteCount = new AtomicLong();
+        AtomicLong doneByteCount = new AtomicLong();
+        SessionContext countingSession = fixture.getSession().fork(fixture.getOutputStream(), new ProgressListener() {
+            @Override
+            public void workPlanned(long fileCount, long byteCount) {
+                plannedByteCount.addAndGet(byteCount);
+            }
+
+            @Override
+            public void workDone(long fileCount, long byteCount) {
+                doneByteCount.addAndGet(byteCount);
+            }
+        });
+
+        SortOperations.sortFile(countingSession, "words.txt", "sorted.txt", null);
+
+        assertEquals(content.length, plannedByteCount.get());
+        assertEquals(content.length, doneByteCount.get());
+        assertEquals(0, countingSession.getReportedFailureCount());
+    }
+
+    // An unknown sort option fails the command
+    @Test
+    public void testUnknownOptionFails() throws Exception {
+        Files.write(fixture.resolve("prices.csv"), List.of("pear,10"), Charset.defaultCharset());
+
+        fixture.run("sort file > prices.csv > sorted.csv > colour=blue");
+
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Without the output file, a session that cannot prompt fails with a missing argument
+    @Test(expected = MissingArgumentException.class)
+    public void testMissingOutputFileIsMissingArgument() throws Exception {
+        Files.write(fixture.resolve("prices.csv"), List.of("pear,10"), Charset.defaultCharset());
+
+        fixture.run("sort file > prices.csv");
+    }
+}
@@ -0,0 +1,104 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.operations.SparseCopyOperations;
+import file_manager.session.ProgressListener;
+import file_manager.session.SessionContext;
+
+public class SparseCopyOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    private static final int HOLE_BLOCK_SIZE = SparseCopyOperations.HOLE_BLOCK_SIZE;
+
+    // Zero-filled blocks, including a trailing one, are skipped and the copy still matches byte for byte
+    @Test
+    public void testZeroBlocksAreLeftAsHoles() throws Exception {
+        byte[] content = new byte[40 * HOLE_BLOCK_SIZE];
+        Arrays.fill(content, 0, HOLE_BLOCK_SIZE + 10, (byte) 'a');
+        Arrays.fill(content, 20 * HOLE_BLOCK_SIZE, 21 * HOLE_BLOCK_SIZE, (byte) 'b');
+        Path source = fixture.resolve("disk.img");
+        Path destination = fixture.resolve("disk-copy.img");
+        Files.write(source, content);
+
+        long holeByteCount = SparseCopyOperations.copyFile(fixture.getSession(), source, destination);
+
+        assertEquals(37L * HOLE_BLOCK_SIZE, holeByteCount);
+        assertArrayEquals(content, Files.readAllBytes(destination));
+    }
+
+    // A longer destination full of other bytes is emptied first, so the skipped blocks read as zeros
+    @Test
+    public void testReplacedDestinationHasNoOldBytes() throws Exception {
+        byte[] content = new byte[4 * HOLE_BLOCK_SIZE];
+        Arrays.fill(content, HOLE_BLOCK_SIZE, 2 * HOLE_BLOCK_SIZE, (byte) 'a');
+        byte[] oldDestinationContent = new byte[10 * HOLE_BLOCK_SIZE + 1];
+        Arrays.fill(oldDestinationContent, (byte) 'x');
+        Path source = Files.write(fixture.resolve("disk.img"), content);
+        Path destination = Files.write(fixture.resolve("disk-copy.img"), oldDestinationContent);
+
+        SparseCopyOperations.copyFile(fixture.getSession(), source, destination);
+
+        assertArrayEquals(content, Files.readAllBytes(destination));
+    }
+
+    // A source truncated part way through a chunk leaves a copy that ends where the source did
+    @Test
+    public void testSourceShrinkingMidChunkTruncatesCopy() throws Exception {
+        byte[] content = new byte[40 * HOLE_BLOCK_SIZE];
+        Arrays.fill(content, (byte) 'a');
+        Path source = Files.write(fixture.resolve("growing.log"), content);
+        Path destination = fixture.resolve("growing-copy.log");
+        AtomicLong shrunkSize = new AtomicLong(-1);
+        SessionContext truncatingSession = fixture.getSession().fork(fixture.getOutputStream(), new ProgressListener() {
+            @Override
+            public void workPlanned(long fileCount, long byteCount) {}
+
+            @Override
+            public void workDone(long fileCount, long byteCount) {
+                if (shrunkSize.get() < 0) {
+                    shrunkSize.set(byteCount + 1000);
+                    try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.WRITE)) {
+                        sourceChannel.truncate(shrunkSize.get());
+                    } catch (IOException ioException) {
+                        throw new UncheckedIOException(ioException);
+                    }
+                }
+            }
+        });
+
+        SparseCopyOperations.copyFile(truncatingSession, source, destination);
+
+        assertEquals(shrunkSize.get(), Files.size(destination));
+        assertArrayEquals(Arrays.copyOf(content, (int) shrunkSize.get()), Files.readAllBytes(destination));
+    }
+
+    // copy file of a mostly empty file reports the zeros it skipped
+    @Test
+    public void testCopyFileReportsHoles() throws Exception {
+        byte[] content = new byte[3 * HOLE_BLOCK_SIZE + 7];
+        content[content.length - 1] = 'z';
+        Files.write(fixture.resolve("sparse.bin"), content);
+
+        fixture.run("copy file > sparse.bin > sparse-copy.bin");
+
+        assertArrayEquals(content, Files.readAllBytes(fixture.resolve("sparse-copy.bin")));
+        assertTrue(fixture.getOutput().contains("of zeros left as holes"));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+}
@@ -0,0 +1,147 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.operations.SplitOperations;
+import file_manager.session.MissingArgumentException;
+import file_manager.session.ProgressListener;
+import file_manager.session.SessionContext;
+
+public class SplitOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // A file is split by size into parts of that size and a smaller last part
+    @Test
+    public void testSplitBySize() throws Exception {
+        Files.write(fixture.resolve("image.bin"), newPatternContent());
+
+        fixture.run("split file > image.bin > 2M");
+
+        assertTrue(fixture.getOutput().contains("into 3 part(s)"));
+        assertEquals(2 * 1024 * 1024, Files.size(fixture.resolve("image.bin.part001")));
+        assertEquals(1024 * 1024 + 123, Files.size(fixture.resolve("image.bin.part003")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // The parts of a split file are joined back byte for byte
+    @Test
+    public void testJoinRestoresFile() throws Exception {
+        byte[] content = newPatternContent();
+        Files.write(fixture.resolve("image.bin"), content);
+        fixture.run("split file > image.bin > 2M");
+
+        fixture.run("join file > image.bin.manifest > restored.bin");
+
+        assertArrayEquals(content, Files.readAllBytes(fixture.resolve("restored.bin")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // An output created while the parts are being joined is kept rather than replaced
+    @Test
+    public void testJoinDoesNotReplaceOutputCreatedMeanwhile() throws Exception {
+        Files.write(fixture.resolve("image.bin"), newPatternContent());
+        fixture.run("split file > image.bin > 2M");
+        Path outputPath = fixture.resolve("restored.bin");
+        AtomicBoolean outputCreated = new AtomicBoolean();
+        SessionContext racingSession = fixture.getSession().fork(fixture.getOutputStream(), new ProgressListener() {
+            @Override
+            public void workPlanned(long fileCount, long byteCount) {}
+
+            @Override
+            public void workDone(long fileCount, long byteCount) {
+                if (outputCreated.compareAndSet(false, true)) {
+                    try {
+                        Files.write(outputPath, "created meanwhile".getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException ioException) {
+                        throw new UncheckedIOException(ioException);
+                    }
+                }
+            }
+        });
+
+        SplitOperations.joinFile(racingSession, "image.bin.manifest", "restored.bin");
+
+        assertEquals("created meanwhile", new String(Files.readAllBytes(outputPath), StandardCharsets.UTF_8));
+        assertTrue(fixture.getOutput().contains("Unable to join: the output already exists: restored.bin"));
+        assertEquals(1, racingSession.getReportedFailureCount());
+    }
+
+    // A corrupted part is caught by its checksum and nothing is joined
+    @Test
+    public void testJoinRejectsCorruptedPart() throws Exception {
+        Files.write(fixture.resolve("image.bin"), newPatternContent());
+        fixture.run("split file > image.bin > 2M");
+        byte[] corruptedPart = Files.readAllBytes(fixture.resolve("image.bin.part002"));
+        corruptedPart[1000]++;
+        Files.write(fixture.resolve("image.bin.part002"), corruptedPart);
+
+        fixture.run("join file > image.bin.manifest > corrupted.bin");
+
+        assertTrue(fixture.getOutput().contains("1 part(s) do not match their checksum: image.bin.part002"));
+        assertFalse(Files.exists(fixture.resolve("corrupted.bin")));
+    }
+
+    // Parts hold the given number of whole lines
+    @Test
+    public void testSplitByLineCount() throws Exception {
+        Files.write(fixture.resolve("log.txt"), newLogContent());
+
+        fixture.run("split file > log.txt > 4 lines");
+
+        assertEquals("line 0\nline 1\nline 2\nline 3\n", Files.readString(fixture.resolve("log.txt.part001")));
+        assertEquals("line 8\nline 9\n", Files.readString(fixture.resolve("log.txt.part003")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Parts split by size end at line ends
+    @Test
+    public void testSplitBySizeAlignedToLines() throws Exception {
+        Files.write(fixture.resolve("log.txt"), newLogContent());
+
+        fixture.run("split file > log.txt > 15 > lines");
+
+        assertEquals("line 0\nline 1\n", Files.readString(fixture.resolve("log.txt.part001")));
+        assertEquals("line 8\nline 9\n", Files.readString(fixture.resolve("log.txt.part005")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Without the part size, a session that cannot prompt fails with a missing argument
+    @Test(expected = MissingArgumentException.class)
+    public void testMissingPartSizeIsMissingArgument() throws Exception {
+        Files.write(fixture.resolve("log.txt"), newLogContent());
+
+        fixture.run("split file > log.txt");
+    }
+
+    // --- Helper Methods ---
+
+    private static byte[] newPatternContent() {
+        byte[] content = new byte[5 * 1024 * 1024 + 123];
+        for (int byteIndex = 0; byteIndex < content.length; byteIndex++) {
+            content[byteIndex] = (byte) (byteIndex % 251);
+        }
+        return content;
+    }
+
+    private static byte[] newLogContent() {
+        StringBuilder contentBuilder = new StringBuilder();
+        for (int lineIndex = 0; lineIndex < 10; lineIndex++) {
+            contentBuilder.append("line ").append(lineIndex).append('\n');
+        }
+        return contentBuilder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,135 @@
+package file_manager.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+
+import file_manager.jobs.Job;
+import file_manager.jobs.JobState;
+
+public class TailOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    // The last lines of a file spanning many read chunks are printed
+    @Test
+    public void testTailPrintsLastLines() throws Exception {
+        StringBuilder logBuilder = new StringBuilder();
+        for (int lineIndex = 1; lineIndex <= 50_000; lineIndex++) {
+            logBuilder.append("line ").append(lineIndex).append('\n');
+        }
+        Files.write(fixture.resolve("app.log"), logBuilder.toString().getBytes(StandardCharsets.UTF_8));
+
+        fixture.run("read file > app.log > tail > 3");
+
+        assertTrue(fixture.getOutput().contains("Last lines of app.log:" + System.lineSeparator() + "line 49998\nline 49999\nline 50000\n"));
+        assertFalse(fixture.getOutput().contains("line 49997\n"));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A last line without a final line break is counted as a line
+    @Test
+    public void testTailWithoutFinalLineBreak() throws Exception {
+        Files.write(fixture.resolve("short.log"), "first\nsecond\nthird".getBytes(StandardCharsets.UTF_8));
+
+        fixture.run("read file > short.log > tail > 2");
+
+        assertTrue(fixture.getOutput().contains("Last lines of short.log:" + System.lineSeparator() + "second\nthird"));
+        assertFalse(fixture.getOutput().contains("first"));
+    }
+
+    // A session that can neither read Enter nor be cancelled refuses to follow without a time limit
+    @Test
+    public void testFollowWithoutLimitIsRefusedInBatchSession() throws Exception {
+        Files.write(fixture.resolve("app.log"), "line 1\n".getBytes(StandardCharsets.UTF_8));
+
+        fixture.run("read file > app.log > follow > 1");
+
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+        assertTrue(fixture.getOutput().contains("Give a time limit"));
+    }
+
+    // A time limit stops following by itself
+    @Test(timeout = 10_000)
+    public void testFollowWithTimeLimitReturns() throws Exception {
+        Files.write(fixture.resolve("app.log"), "line 1\n".getBytes(StandardCharsets.UTF_8));
+
+        fixture.run("read file > app.log > follow 1s > 1");
+
+        assertTrue(fixture.getOutput().contains("line 1\n"));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // A followed file starts with its last lines and streams what is appended
+    @Test
+    public void testFollowStreamsAppendedBytes() throws Exception {
+        Path logPath = fixture.resolve("app.log");
+        Files.write(logPath, "old 1\nold 2\nold 3\n".getBytes(StandardCharsets.UTF_8));
+        Job job = startFollowing();
+        assertFalse(job.getOutput().contains("old 2"));
+
+        Files.write(logPath, "new 4\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        awaitOutput(job, "new 4\n");
+        stopFollowing(job);
+    }
+
+    // A truncated file is noticed and followed from its new start
+    @Test
+    public void testFollowNoticesTruncation() throws Exception {
+        Path logPath = fixture.resolve("app.log");
+        Files.write(logPath, "old 1\nold 2\nold 3\n".getBytes(StandardCharsets.UTF_8));
+        Job job = startFollowing();
+
+        Files.write(logPath, "after truncation\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+        awaitOutput(job, "was truncated ---");
+        awaitOutput(job, "after truncation\n");
+        stopFollowing(job);
+    }
+
+    // A rotated file is noticed and the new file is followed
+    @Test
+    public void testFollowNoticesRotation() throws Exception {
+        Path logPath = fixture.resolve("app.log");
+        Files.write(logPath, "old 1\nold 2\nold 3\n".getBytes(StandardCharsets.UTF_8));
+        Job job = startFollowing();
+
+        Files.move(logPath, fixture.resolve("app.log.1"));
+        Files.write(logPath, "rotated\n".getBytes(StandardCharsets.UTF_8));
+
+        awaitOutput(job, "was replaced; following the new file ---");
+        awaitOutput(job, "rotated\n");
+        stopFollowing(job);
+    }
+
+    // --- Helper Methods ---
+
+    private Job startFollowing() throws InterruptedException {
+        fixture.run("read file > app.log > follow > 1 &");
+        Job job = fixture.getSession().getJobManager().getJob(1);
+        awaitOutput(job, "old 3\n");
+        return job;
+    }
+
+    private void stopFollowing(Job job) throws InterruptedException {
+        fixture.run("cancel job > 1");
+        job.awaitFinish();
+        assertEquals(JobState.CANCELLED, job.getState());
+    }
+
+    private static void awaitOutput(Job job, String expectedOutput) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && !job.getOutput().contains(expectedOutput); attempt++) {
+            Thread.sleep(50);
+        }
+        assertTrue("Missing '" + expectedOutput + "' in: " + job.getOutput(), job.getOutput().contains(expectedOutput));
+    }
+}
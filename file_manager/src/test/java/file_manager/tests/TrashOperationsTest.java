@@ -0,0 +1,213 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import file_manager.commands.CommandExecutor;
+import file_manager.session.SessionContext;
+import file_manager.trash.TrashBin;
+import file_manager.trash.TrashOperations;
+import file_manager.trash.TrashPurger;
+
+public class TrashOperationsTest {
+
+    @Rule
+    public final InMemorySession fixture = new InMemorySession();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        fixture.run("trash > on");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TrashPurger.setPolicy(TrashPurger.DEFAULT_RETENTION, TrashPurger.DEFAULT_MAX_TRASH_BYTES);
+    }
+
+    // Deleted files and folders go to the trash instead of being deleted
+    @Test
+    public void testDeleteMovesToTrash() throws Exception {
+        createNotesAndProject();
+
+        fixture.run("delete file > notes.txt");
+        fixture.run("delete dir > project");
+
+        assertFalse(Files.exists(fixture.resolve("notes.txt")));
+        assertFalse(Files.exists(fixture.resolve("project")));
+        fixture.run("trash");
+        assertTrue(fixture.getOutput().contains("2 item(s) in the trash."));
+    }
+
+    // A name trashed twice is kept under a numbered name
+    @Test
+    public void testNameTrashedTwiceIsNumbered() throws Exception {
+        createNotesAndProject();
+
+        fixture.run("delete file > notes.txt");
+        Files.write(fixture.resolve("notes.txt"), new byte[] {2});
+        fixture.run("delete file > notes.txt");
+
+        assertTrue(fixture.getOutput().contains("restore it with 'restore > notes.txt.2'"));
+    }
+
+    // Trashed files and folders come back to where they were
+    @Test
+    public void testRestore() throws Exception {
+        createNotesAndProject();
+        fixture.run("delete file > notes.txt");
+        fixture.run("delete dir > project");
+
+        fixture.run("restore > notes.txt");
+        fixture.run("restore > project");
+
+        assertEquals(1, Files.readAllBytes(fixture.resolve("notes.txt"))[0]);
+        assertTrue(Files.exists(fixture.resolve("project").resolve("src").resolve("Main.java")));
+        assertEquals(0, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Restoring over an existing file is refused
+    @Test
+    public void testRestoreDoesNotOverwrite() throws Exception {
+        createNotesAndProject();
+        fixture.run("delete file > notes.txt");
+        Files.write(fixture.resolve("notes.txt"), new byte[] {2});
+
+        fixture.run("restore > notes.txt");
+
+        assertEquals(2, Files.readAllBytes(fixture.resolve("notes.txt"))[0]);
+        assertTrue(fixture.getOutput().contains("notes.txt already exists. Move it away first."));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // The size limit purges the oldest items
+    @Test
+    public void testSizeLimitPurgesOldestItems() throws Exception {
+        for (int fileIndex = 0; fileIndex < 3; fileIndex++) {
+            Path filePath = Files.write(fixture.resolve("file-" + fileIndex + ".bin"), new byte[10]);
+            TrashOperations.moveToTrash(filePath);
+        }
+        TrashBin trashBin = TrashBin.forDirectory(fixture.getWorkingDirectory());
+
+        TrashPurger.setPolicy(Duration.ofDays(30), 15);
+        TrashPurger.purge(trashBin, false);
+
+        assertEquals(1, trashBin.listEntries().size());
+    }
+
+    // The size of a trashed folder is cached, so later purges add up the cached sizes instead of walking the folder
+    @Test
+    public void testSizeLimitUsesCachedFolderSizes() throws Exception {
+        createNotesAndProject();
+        TrashOperations.moveToTrash(fixture.resolve("project"));
+        TrashBin trashBin = TrashBin.forDirectory(fixture.getWorkingDirectory());
+        Path directorySizesPath = trashBin.getTrashDirectoryPath().resolve("directorysizes");
+
+        TrashPurger.setPolicy(Duration.ofDays(30), 15);
+        TrashPurger.purge(trashBin, false);
+        String[] directorySizeFields = Files.readString(directorySizesPath).trim().split(" ");
+        assertEquals("10", directorySizeFields[0]);
+        assertEquals("project", directorySizeFields[2]);
+
+        Files.writeString(directorySizesPath, "20 " + directorySizeFields[1] + " project\n");
+        TrashPurger.purge(trashBin, false);
+
+        assertEquals(0, trashBin.listEntries().size());
+    }
+
+    // Emptying the trash deletes whole trees
+    @Test
+    public void testEmptyTrashDeletesTrees() throws Exception {
+        Path treePath = Files.createDirectories(fixture.resolve("tree").resolve("nested"));
+        for (int fileIndex = 0; fileIndex < 600; fileIndex++) {
+            Files.write((fileIndex % 2 == 0 ? treePath : treePath.getParent()).resolve("entry-" + fileIndex), new byte[1]);
+        }
+        TrashOperations.moveToTrash(fixture.resolve("tree"));
+        TrashBin trashBin = TrashBin.forDirectory(fixture.getWorkingDirectory());
+
+        TrashPurger.purge(trashBin, true);
+
+        assertEquals(0, trashBin.listEntries().size());
+        try (Stream<Path> remainingEntries = Files.walk(trashBin.getTrashDirectoryPath())) {
+            assertTrue(remainingEntries.allMatch(Files::isDirectory));
+        }
+    }
+
+    // Off the home volume the bin is a private .Trash-$uid folder at the root of the volume
+    @Test
+    public void testBinIsPrivateUserFolderAtVolumeRoot() throws Exception {
+        Files.createDirectory(fixture.getFileSystem().getPath("/.Trash"));
+
+        TrashBin trashBin = TrashBin.forDirectory(fixture.getWorkingDirectory());
+
+        // Without the sticky bit, the shared .Trash folder is not used
+        assertEquals(fixture.getFileSystem().getPath("/"), trashBin.getTrashDirectoryPath().getParent());
+        assertTrue(trashBin.getTrashDirectoryPath().getFileName().toString().startsWith(TrashBin.USER_TRASH_DIRECTORY_PREFIX));
+        assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(trashBin.getTrashDirectoryPath()));
+    }
+
+    // A per-user bin that other users can open is refused instead of receiving deleted files
+    @Test
+    public void testBinOpenToOtherUsersIsRefused() throws Exception {
+        Path trashDirectoryPath = TrashBin.forDirectory(fixture.getWorkingDirectory()).getTrashDirectoryPath();
+        Files.setPosixFilePermissions(trashDirectoryPath, PosixFilePermissions.fromString("rwxrwxrwx"));
+        Files.write(fixture.resolve("secret.txt"), new byte[] {1});
+
+        fixture.run("delete file > secret.txt");
+
+        assertTrue(Files.exists(fixture.resolve("secret.txt")));
+        assertTrue(fixture.getOutput().contains("can be used by other users"));
+        assertEquals(1, fixture.getSession().getReportedFailureCount());
+    }
+
+    // Deleting a folder that holds the home trash trashes everything in it but the folders leading to the bin
+    @Test
+    public void testDeletingFolderHoldingTheBinSkipsTheBin() throws Exception {
+        Assume.assumeTrue(System.getenv("XDG_DATA_HOME") == null);
+        Path homeDirectory = temporaryFolder.getRoot().toPath().toRealPath();
+        Path dataDirectory = Files.createDirectories(homeDirectory.resolve(".local").resolve("share"));
+        Files.write(dataDirectory.resolve("history.db"), new byte[] {1});
+        Files.write(homeDirectory.resolve(".local").resolve("notes.txt"), new byte[] {2});
+        String originalHomeDirectory = System.getProperty("user.home");
+        System.setProperty("user.home", homeDirectory.toString());
+        try (SessionContext homeSession = new SessionContext(homeDirectory, fixture.getOutputStream(), false)) {
+            homeSession.setTrashEnabled(true);
+
+            CommandExecutor.executeCommandLine(homeSession, "delete dir > .local");
+
+            assertEquals(0, homeSession.getReportedFailureCount());
+            assertFalse(Files.exists(dataDirectory.resolve("history.db")));
+            assertFalse(Files.exists(homeDirectory.resolve(".local").resolve("notes.txt")));
+            TrashBin homeTrashBin = TrashBin.forDirectory(homeDirectory);
+            assertEquals(dataDirectory.resolve("Trash"), homeTrashBin.getTrashDirectoryPath());
+            assertEquals(2, homeTrashBin.listEntries().size());
+            assertTrue(fixture.getOutput().contains("to the trash as 2 item(s)"));
+        } finally {
+            System.setProperty("user.home", originalHomeDirectory);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private void createNotesAndProject() throws IOException {
+        Files.write(fixture.resolve("notes.txt"), new byte[] {1});
+        Files.createDirectories(fixture.resolve("project").resolve("src"));
+        Files.write(fixture.resolve("project").resolve("src").resolve("Main.java"), new byte[10]);
+    }
+}
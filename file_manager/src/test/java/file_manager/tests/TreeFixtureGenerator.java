@@ -0,0 +1,219 @@
+package file_manager.tests;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Builds deterministic folder trees for the scale tests.
+ * <p>
+ * The shape of a tree is set by its depth, the number of folders in each folder (the fan-out)
+ * and the number of files in each folder. File sizes are drawn from a log-uniform distribution
+ * between a smallest and a largest size, so most files are small and a few are large, the way
+ * they are in real trees. A share of the files can be made sparse: they get their full size
+ * but only their last byte is written. Everything, names, sizes and contents, is derived from
+ * the seed, so the same settings always build the same tree.
+ * </p>
+ *
+ * @author Nikolaos Marvakis
+ * @version 1.0
+ */
+public class TreeFixtureGenerator {
+
+    private static final int CONTENT_PATTERN_SIZE = 1 << 20;
+
+    private final long seed;
+    private int depth = 2;
+    private int fanOut = 4;
+    private int filesPerDirectory = 8;
+    private long minFileSize = 0;
+    private long maxFileSize = 4096;
+    private double sparseFileRatio = 0;
+
+    private long directoryCount;
+    private long fileCount;
+    private long totalFileBytes;
+
+    /**
+     * @param seed the seed all names, sizes and contents are derived from
+     */
+    public TreeFixtureGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param depth the number of folder levels below the root; 0 puts every file in the root
+     * @return this generator
+     */
+    public TreeFixtureGenerator depth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * @param fanOut the number of folders created in each folder above the deepest level
+     * @return this generator
+     */
+    public TreeFixtureGenerator fanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    /**
+     * @param filesPerDirectory the number of files created in each folder
+     * @return this generator
+     */
+    public TreeFixtureGenerator filesPerDirectory(int filesPerDirectory) {
+        this.filesPerDirectory = filesPerDirectory;
+        return this;
+    }
+
+    /**
+     * @param minFileSize the size of the smallest files, in bytes
+     * @param maxFileSize the size of the largest files, in bytes
+     * @return this generator
+     */
+    public TreeFixtureGenerator fileSizes(long minFileSize, long maxFileSize) {
+        this.minFileSize = minFileSize;
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /**
+     * @param sparseFileRatio the share of files, from 0 to 1, written as sparse files
+     * @return this generator
+     */
+    public TreeFixtureGenerator sparseFileRatio(double sparseFileRatio) {
+        this.sparseFileRatio = sparseFileRatio;
+        return this;
+    }
+
+    /**
+     * Builds the tree in the given folder, creating it if needed.
+     *
+     * @param rootPath the folder to build the tree in
+     * @return this generator, whose counts now describe the tree
+     * @throws IOException if a file or folder cannot be created
+     */
+    public TreeFixtureGenerator generate(Path rootPath) throws IOException {
+        directoryCount = 0;
+        fileCount = 0;
+        totalFileBytes = 0;
+        Random treeRandom = new Random(seed);
+        byte[] contentPattern = new byte[CONTENT_PATTERN_SIZE];
+        treeRandom.nextBytes(contentPattern);
+        Files.createDirectories(rootPath);
+        populateDirectory(rootPath, depth, treeRandom, contentPattern);
+        return this;
+    }
+
+    /**
+     * @return the number of folders below the root of the last tree built
+     */
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    /**
+     * @return the number of files in the last tree built
+     */
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * @return the total size of the files in the last tree built, sparse files included
+     */
+    public long getTotalFileBytes() {
+        return totalFileBytes;
+    }
+
+    /**
+     * Writes a single sparse file: the full size is allocated but only the last byte is written.
+     *
+     * @param filePath the file to create
+     * @param fileSize the size of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeSparseFile(Path filePath, long fileSize) throws IOException {
+        try (SeekableByteChannel fileChannel = Files.newByteChannel(filePath,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.SPARSE)) {
+            if (fileSize > 0) {
+                fileChannel.position(fileSize - 1);
+                fileChannel.write(ByteBuffer.wrap(new byte[] {1}));
+            }
+        }
+    }
+
+    /**
+     * Writes a single file of the given size filled with seeded random bytes, so no block of it is all zeros.
+     *
+     * @param filePath the file to create
+     * @param fileSize the size of the file
+     * @param seed     the seed the contents are derived from
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeRandomFile(Path filePath, long fileSize, long seed) throws IOException {
+        byte[] contentPattern = new byte[CONTENT_PATTERN_SIZE];
+        new Random(seed).nextBytes(contentPattern);
+        writeDenseFile(filePath, fileSize, 0, contentPattern);
+    }
+
+    // --- Helper Methods ---
+
+    private void populateDirectory(Path directoryPath, int levelsBelow, Random treeRandom, byte[] contentPattern) throws IOException {
+        for (int fileIndex = 0; fileIndex < filesPerDirectory; fileIndex++) {
+            Path filePath = directoryPath.resolve(String.format("file-%05d.dat", fileIndex));
+            long fileSize = nextFileSize(treeRandom);
+            if (treeRandom.nextDouble() < sparseFileRatio) {
+                writeSparseFile(filePath, fileSize);
+            } else {
+                writeDenseFile(filePath, fileSize, treeRandom.nextInt(CONTENT_PATTERN_SIZE), contentPattern);
+            }
+            fileCount++;
+            totalFileBytes += fileSize;
+        }
+        if (levelsBelow == 0) {
+            return;
+        }
+        for (int directoryIndex = 0; directoryIndex < fanOut; directoryIndex++) {
+            Path childDirectoryPath = Files.createDirectory(directoryPath.resolve(String.format("dir-%04d", directoryIndex)));
+            directoryCount++;
+            populateDirectory(childDirectoryPath, levelsBelow - 1, treeRandom, contentPattern);
+        }
+    }
+
+    /**
+     * Draws a size whose logarithm is uniformly distributed between the smallest and largest size.
+     */
+    private long nextFileSize(Random treeRandom) {
+        if (maxFileSize <= minFileSize) {
+            return minFileSize;
+        }
+        double logMin = Math.log1p(minFileSize);
+        double logMax = Math.log1p(maxFileSize);
+        return Math.min(maxFileSize, (long) Math.expm1(logMin + treeRandom.nextDouble() * (logMax - logMin)));
+    }
+
+    /**
+     * Writes the file from the seeded content pattern, starting at the given offset and wrapping around,
+     * which is much faster than drawing fresh random bytes for every file.
+     */
+    private static void writeDenseFile(Path filePath, long fileSize, int patternOffset, byte[] contentPattern) throws IOException {
+        try (SeekableByteChannel fileChannel = Files.newByteChannel(filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long remainingBytes = fileSize;
+            while (remainingBytes > 0) {
+                int chunkLength = (int) Math.min(contentPattern.length - patternOffset, remainingBytes);
+                ByteBuffer chunkBuffer = ByteBuffer.wrap(contentPattern, patternOffset, chunkLength);
+                patternOffset = 0;
+                while (chunkBuffer.hasRemaining()) {
+                    remainingBytes -= fileChannel.write(chunkBuffer);
+                }
+            }
+        }
+    }
+}